@@ -0,0 +1,347 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+import com.github.errantlinguist.ClassName;
+
+/**
+ * A program which checks that
+ * {@link CharSequenceNumbers#parseDouble(CharSequence, int, int)} returns
+ * exactly the same value as {@link Double#parseDouble(String)}, i.e.&nbsp;a
+ * value with the same {@link Double#doubleToLongBits(double) bits}, or throws
+ * a {@link NumberFormatException} for the same input as it does.
+ * <p>
+ * A fixed list of edge cases is checked first, followed by a given number of
+ * randomly generated strings: Decimal numbers with signs, leading zeros, more
+ * significant digits than fit into a <code>long</code> and exponents beyond
+ * the powers of ten which can be represented exactly, the string
+ * representations of random <code>double</code> values and malformed
+ * numbers, all of which are embedded in other characters so that only a
+ * range of the sequence is parsed.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public class CharSequenceNumbersEquivalence {
+
+	/**
+	 * The number of random strings checked if no number is given on the
+	 * command line.
+	 */
+	private static final int DEFAULT_RANDOM_INPUT_COUNT = 2000000;
+
+	/**
+	 * The inputs always checked, which include the boundaries of the fast
+	 * path as well as inputs delegated to <code>Double.parseDouble</code>.
+	 */
+	private static final String[] EDGE_CASES = { "0", "-0", "+0", "0.0",
+			"-0.0", "00000", "000.000e5", "1", "-1", "+1", "1.", ".5", "-.5",
+			"+.5", "0.5", "00012.3400", "9007199254740991",
+			"9007199254740992", "9007199254740993", "123456789012345678",
+			"1234567890123456789", "12345678901234567890123",
+			"0.000000000000000000000000001", "1e22", "1e23", "1e-22",
+			"1e-23", "1.5e-3", "1.5E+3", "12e0", "1e0022", "1e-0022",
+			"4.9e-324", "2.4703282292062327e-324", "1.7976931348623157e308",
+			"1.8e308", "1e-400", "1e400", "-1e400", "1e99999999999",
+			"1e-99999999999", "0e99999", "2.2250738585072014E-308",
+			"2.2250738585072011e-308", "9007199254740993.0",
+			"0.30000000000000004", "1.00000000000000000001",
+			"100000000000000000000000", "NaN", "-NaN", "Infinity",
+			"-Infinity", "+Infinity", "0x1p3", "0x1.8p1", "1d", "1D", "1f",
+			"1F", " 1", "1 ", "\t1.5\n", "", "-", "+", ".", "-.", "e5", ".e5",
+			"1e", "1e+", "1e-", "1.5x", "1..5", "1.5.5", "--1", "+-1", "1e5e5",
+			"1_000", "\u0661" };
+
+	/**
+	 * The characters inserted into random numbers to make them malformed.
+	 */
+	private static final String MALFORMING_CHARACTERS = "+-.eE xd";
+
+	/**
+	 * The maximum number of mismatches printed.
+	 */
+	private static final int MAX_PRINTED_MISMATCHES = 20;
+
+	/**
+	 * The seed of the random generator, so that every run checks the same
+	 * strings.
+	 */
+	private static final long SEED = 20140215L;
+
+	/**
+	 * The characters the parsed range is embedded in.
+	 */
+	private static final String SURROUNDING_CHARACTERS = "0123456789.-e x\"";
+
+	/**
+	 * @param args
+	 *            The command-line arguments, which are empty or the number of
+	 *            random strings to check.
+	 */
+	public static void main(final String[] args) {
+		int randomInputCount = DEFAULT_RANDOM_INPUT_COUNT;
+		if (args.length > 1) {
+			printUsage();
+			System.exit(64);
+		} else if (args.length == 1) {
+			try {
+				randomInputCount = Integer.parseInt(args[0]);
+			} catch (final NumberFormatException e) {
+				printUsage();
+				System.exit(64);
+			}
+		}
+		final boolean isEqual = process(randomInputCount, System.out);
+		if (!isEqual) {
+			System.exit(70);
+		}
+	}
+
+	/**
+	 * Appends a number of random decimal digits to a {@link StringBuilder}.
+	 *
+	 * @param builder
+	 *            The <code>StringBuilder</code> to append to.
+	 * @param random
+	 *            The {@link Random} generator to use.
+	 * @param count
+	 *            The number of digits to append.
+	 */
+	private static void appendDigits(final StringBuilder builder,
+			final Random random, final int count) {
+		for (int i = 0; i < count; ++i) {
+			builder.append((char) ('0' + random.nextInt(10)));
+		}
+	}
+
+	/**
+	 * Appends a number of zeros to a {@link StringBuilder}.
+	 *
+	 * @param builder
+	 *            The <code>StringBuilder</code> to append to.
+	 * @param count
+	 *            The number of zeros to append.
+	 */
+	private static void appendZeros(final StringBuilder builder,
+			final int count) {
+		for (int i = 0; i < count; ++i) {
+			builder.append('0');
+		}
+	}
+
+	/**
+	 * Parses a range of a {@link CharSequence} with both parsers and compares
+	 * the results.
+	 *
+	 * @param seq
+	 *            The <code>CharSequence</code> containing the number.
+	 * @param start
+	 *            The index of the first character of the number.
+	 * @param end
+	 *            The index after the last character of the number.
+	 * @return <code>null</code> if the results are equal or otherwise a
+	 *         description of the mismatch.
+	 */
+	private static String check(final CharSequence seq, final int start,
+			final int end) {
+		final String input = seq.subSequence(start, end).toString();
+		String expected;
+		try {
+			expected = describe(Double.parseDouble(input));
+		} catch (final NumberFormatException e) {
+			expected = NumberFormatException.class.getSimpleName();
+		}
+		String actual;
+		try {
+			actual = describe(CharSequenceNumbers.parseDouble(seq, start, end));
+		} catch (final NumberFormatException e) {
+			actual = NumberFormatException.class.getSimpleName();
+		}
+		return expected.equals(actual) ? null : String.format(
+				"\"%s\": expected %s but was %s", input, expected, actual);
+	}
+
+	/**
+	 * Creates a random decimal number with an optional sign, leading zeros,
+	 * integer digits, fraction and exponent, each of which may be longer
+	 * than the fast path of the parser handles.
+	 *
+	 * @param random
+	 *            The {@link Random} generator to use.
+	 * @return The new number.
+	 */
+	private static String createRandomDecimal(final Random random) {
+		final StringBuilder result = new StringBuilder();
+		switch (random.nextInt(3)) {
+		case 0:
+			result.append('-');
+			break;
+		case 1:
+			result.append('+');
+			break;
+		default:
+			break;
+		}
+		if (random.nextInt(4) == 0) {
+			appendZeros(result, 1 + random.nextInt(5));
+		}
+		// Mostly short numbers, but also ones longer than a long holds
+		appendDigits(result, random, random.nextInt(random.nextBoolean() ? 8
+				: 25));
+		if (random.nextBoolean()) {
+			result.append('.');
+			appendDigits(result, random, random.nextInt(random.nextBoolean() ? 8
+					: 25));
+		}
+		if (random.nextBoolean()) {
+			result.append(random.nextBoolean() ? 'e' : 'E');
+			switch (random.nextInt(3)) {
+			case 0:
+				result.append('-');
+				break;
+			case 1:
+				result.append('+');
+				break;
+			default:
+				break;
+			}
+			if (random.nextInt(8) == 0) {
+				appendZeros(result, 1 + random.nextInt(3));
+			}
+			// Mostly exponents around the exactly representable powers of ten
+			result.append(random.nextInt(4) == 0 ? random.nextInt(400)
+					: random.nextInt(30));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Creates a random string to parse.
+	 *
+	 * @param random
+	 *            The {@link Random} generator to use.
+	 * @return The new string, which may be malformed.
+	 */
+	private static String createRandomInput(final Random random) {
+		String result;
+		switch (random.nextInt(4)) {
+		case 0:
+			// Any double value, including NaN and the infinities
+			result = Double.toString(Double.longBitsToDouble(random
+					.nextLong()));
+			break;
+		case 1:
+			// A double value of a magnitude as found in TextGrid files
+			result = Double.toString(random.nextDouble()
+					* Math.pow(10, random.nextInt(12) - 4));
+			break;
+		default:
+			result = createRandomDecimal(random);
+			break;
+		}
+		if (random.nextInt(16) == 0) {
+			final int index = random.nextInt(result.length() + 1);
+			result = result.substring(0, index)
+					+ MALFORMING_CHARACTERS.charAt(random
+							.nextInt(MALFORMING_CHARACTERS.length()))
+					+ result.substring(index);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a random string of {@link #SURROUNDING_CHARACTERS surrounding
+	 * characters}.
+	 *
+	 * @param random
+	 *            The {@link Random} generator to use.
+	 * @return The new string, which may be empty.
+	 */
+	private static String createRandomSurrounding(final Random random) {
+		final StringBuilder result = new StringBuilder();
+		final int length = random.nextInt(4);
+		for (int i = 0; i < length; ++i) {
+			result.append(SURROUNDING_CHARACTERS.charAt(random
+					.nextInt(SURROUNDING_CHARACTERS.length())));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Describes a parsed value by its bits, so that e.g.&nbsp;<code>0.0</code>
+	 * and <code>-0.0</code> are distinguished.
+	 *
+	 * @param value
+	 *            The value to describe.
+	 * @return A description of the value.
+	 */
+	private static String describe(final double value) {
+		return value + " (0x"
+				+ Long.toHexString(Double.doubleToLongBits(value)) + ")";
+	}
+
+	/**
+	 * Prints the usage of this program.
+	 */
+	private static final void printUsage() {
+		final String mainClassName = ClassName.getMainClassName();
+		System.err.println(String.format("Usage: %s [random-input-count]",
+				mainClassName));
+	}
+
+	/**
+	 * Checks the edge cases and a given number of random strings, printing
+	 * the first mismatches found and a summary.
+	 *
+	 * @param randomInputCount
+	 *            The number of random strings to check.
+	 * @param out
+	 *            The {@link PrintStream} to print the results to.
+	 * @return <code>true</code> iff no mismatch was found.
+	 */
+	private static boolean process(final int randomInputCount,
+			final PrintStream out) {
+		int mismatchCount = 0;
+		for (final String input : EDGE_CASES) {
+			final String mismatch = check(input, 0, input.length());
+			if (mismatch != null && ++mismatchCount <= MAX_PRINTED_MISMATCHES) {
+				out.println(mismatch);
+			}
+		}
+		final Random random = new Random(SEED);
+		for (int i = 0; i < randomInputCount; ++i) {
+			final String prefix = createRandomSurrounding(random);
+			final String input = createRandomInput(random);
+			final String seq = prefix + input
+					+ createRandomSurrounding(random);
+			final String mismatch = check(seq, prefix.length(),
+					prefix.length() + input.length());
+			if (mismatch != null && ++mismatchCount <= MAX_PRINTED_MISMATCHES) {
+				out.println(mismatch);
+			}
+		}
+		out.println(String.format("%d inputs checked, %d mismatches",
+				EDGE_CASES.length + randomInputCount, mismatchCount));
+		return mismatchCount == 0;
+	}
+
+}
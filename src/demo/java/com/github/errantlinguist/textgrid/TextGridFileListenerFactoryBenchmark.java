@@ -0,0 +1,165 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.io.PrintStream;
+
+import com.github.errantlinguist.ClassName;
+
+/**
+ * A benchmark of building {@link TextGridFile} objects with a
+ * {@link TextGridFileListenerFactory}, which prints the time taken for
+ * building a single interval tier of 1,000 up to (by default) 1,000,000
+ * intervals: The time per interval should stay roughly constant as the tier
+ * grows.
+ * <p>
+ * Each size is built once with consecutive interval indices, as read from a
+ * file, and once with every second index skipped, which makes the tier pad
+ * its list of intervals with <code>null</code> references before each new
+ * interval.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ */
+public final class TextGridFileListenerFactoryBenchmark {
+
+	/**
+	 * The default maximum number of intervals in the built tier.
+	 */
+	private static final int DEFAULT_MAX_INTERVAL_COUNT = 1000000;
+
+	/**
+	 * The number of intervals in the smallest built tier.
+	 */
+	private static final int MIN_INTERVAL_COUNT = 1000;
+
+	/**
+	 * The number of times the tier of each size is built before being timed.
+	 */
+	private static final int WARMUP_ROUNDS = 3;
+
+	/**
+	 * @param args
+	 *            The command-line arguments: The maximum number of intervals
+	 *            in the built tier (optional).
+	 */
+	public static void main(final String[] args) {
+		if (args.length > 1) {
+			printUsage();
+			System.exit(64);
+		} else {
+			final int maxIntervalCount = args.length < 1 ? DEFAULT_MAX_INTERVAL_COUNT
+					: Integer.parseInt(args[0]);
+			run(maxIntervalCount, System.out);
+		}
+	}
+
+	/**
+	 * Builds a single interval tier using a
+	 * {@link TextGridFileListenerFactory}.
+	 *
+	 * @param intervalCount
+	 *            The number of intervals to build.
+	 * @param indexStep
+	 *            The difference between the indices of consecutive intervals.
+	 * @return The {@link TextGridFile} containing the tier.
+	 */
+	private static TextGridFile<String> build(final int intervalCount,
+			final int indexStep) {
+		final TextGridFileListenerFactory<String> factory = new TextGridFileListenerFactory<String>();
+		factory.notifyFileStartTime(0.0);
+		factory.notifyFileEndTime(intervalCount);
+		factory.notifyFileSize(1);
+		factory.notifyTierIndex(1);
+		factory.notifyTierClass(TierClass.INTERVAL);
+		factory.notifyTierName("benchmark");
+		factory.notifyTierStartTime(0.0);
+		factory.notifyTierEndTime(intervalCount);
+		factory.notifyTierIntervalCount(intervalCount);
+		for (int i = 0; i < intervalCount; ++i) {
+			factory.notifyIntervalIndex(1 + i * indexStep);
+			factory.notifyIntervalStartTime(i);
+			factory.notifyIntervalEndTime(i + 1);
+			factory.notifyIntervalData("x");
+		}
+		return factory.create();
+	}
+
+	/**
+	 * Prints program usage information to the system standard error output
+	 * stream.
+	 */
+	private static void printUsage() {
+		final String mainClassName = ClassName.getMainClassName();
+		System.err.println(String.format("Usage: %s [max-interval-count]",
+				mainClassName));
+	}
+
+	/**
+	 * Runs the benchmark for each tier size, printing one tab-separated row
+	 * per size.
+	 *
+	 * @param maxIntervalCount
+	 *            The maximum number of intervals in the built tier.
+	 * @param out
+	 *            The {@link PrintStream} to print the results to.
+	 */
+	private static void run(final int maxIntervalCount, final PrintStream out) {
+		out.println("INTERVALS\tCONSECUTIVE_MS\tCONSECUTIVE_NS_PER_INTERVAL\tSPARSE_MS\tSPARSE_NS_PER_INTERVAL");
+		for (int intervalCount = MIN_INTERVAL_COUNT; intervalCount <= maxIntervalCount; intervalCount *= 10) {
+			final long consecutiveNanos = time(intervalCount, 1);
+			final long sparseNanos = time(intervalCount, 2);
+			out.println(String.format("%d\t%d\t%d\t%d\t%d", intervalCount,
+					consecutiveNanos / 1000000, consecutiveNanos
+							/ intervalCount, sparseNanos / 1000000,
+					sparseNanos / intervalCount));
+		}
+	}
+
+	/**
+	 * Times building a single interval tier after first building it
+	 * {@link #WARMUP_ROUNDS} times.
+	 *
+	 * @param intervalCount
+	 *            The number of intervals to build.
+	 * @param indexStep
+	 *            The difference between the indices of consecutive intervals.
+	 * @return The time taken in nanoseconds.
+	 */
+	private static long time(final int intervalCount, final int indexStep) {
+		for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+			build(intervalCount, indexStep);
+		}
+		final long start = System.nanoTime();
+		final TextGridFile<String> textGridFile = build(intervalCount,
+				indexStep);
+		final long result = System.nanoTime() - start;
+		final int tierSize = textGridFile.getChildren().get(1).getChildren()
+				.size();
+		if (tierSize != 1 + (intervalCount - 1) * indexStep + 1) {
+			throw new AssertionError("Unexpected tier size: " + tierSize);
+		}
+		return result;
+	}
+
+	private TextGridFileListenerFactoryBenchmark() {
+		// Avoid instantiation
+	}
+
+}
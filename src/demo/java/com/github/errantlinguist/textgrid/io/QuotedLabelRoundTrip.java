@@ -0,0 +1,212 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import com.github.errantlinguist.io.DummyParser;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.BasicEntry;
+import com.github.errantlinguist.textgrid.NamedTier;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridFileListenerFactory;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.github.errantlinguist.time.DoubleDuration;
+import com.google.common.base.Functions;
+
+/**
+ * A program which writes a TextGrid file whose tier names and labels contain
+ * quotation marks in each {@link TextGridFormat} and reads it back with every
+ * reader for that format, checking that the tiers and entries read are equal
+ * to the ones written. Praat escapes quotation marks in the text formats by doubling
+ * them, so this fails if a writer or reader does not handle the escaping.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public class QuotedLabelRoundTrip {
+
+	/**
+	 * @param args
+	 *            The command-line arguments, which are ignored.
+	 */
+	public static void main(final String[] args) {
+		final PrintStream out = System.out;
+		try {
+			final boolean isEqual = process(out);
+			if (!isEqual) {
+				System.exit(70);
+			}
+		} catch (final IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(74);
+		} catch (final ParseException e) {
+			System.err.println(e.getMessage());
+			System.exit(65);
+		}
+	}
+
+	/**
+	 * Compares a file read back to the one written by their
+	 * {@link #describe(TextGridFile) descriptions} and prints the result.
+	 *
+	 * @param out
+	 *            The {@link PrintStream} to print the result to.
+	 * @param format
+	 *            The {@link TextGridFormat} the file was written in.
+	 * @param readerName
+	 *            The name of the reader the file was read back with.
+	 * @param expected
+	 *            The {@link TextGridFile} written.
+	 * @param actual
+	 *            The <code>TextGridFile</code> read back.
+	 * @return <code>true</code> iff the files are equal.
+	 */
+	private static boolean check(final PrintStream out,
+			final TextGridFormat format, final String readerName,
+			final TextGridFile<String> expected,
+			final TextGridFile<String> actual) {
+		final boolean result = describe(expected).equals(describe(actual));
+		out.println(String.format("%s, %s: %s", format, readerName,
+				result ? "OK" : "MISMATCH"));
+		return result;
+	}
+
+	/**
+	 * Creates a TextGrid file with one interval and one text tier whose names
+	 * and labels contain quotation marks in different positions.
+	 *
+	 * @return The new {@link TextGridFile}.
+	 */
+	static TextGridFile<String> createQuotedFile() {
+		final TextGridFileListenerFactory<String> factory = new TextGridFileListenerFactory<String>();
+		factory.notifyFileStartTime(0.0);
+		factory.notifyFileEndTime(3.0);
+		factory.notifyFileSize(2);
+
+		factory.notifyTierIndex(1);
+		factory.notifyTierClass(TierClass.INTERVAL);
+		factory.notifyTierName("\"words\"");
+		factory.notifyTierStartTime(0.0);
+		factory.notifyTierEndTime(3.0);
+		factory.notifyTierIntervalCount(3);
+		final String[] intervalLabels = { "say \"hi\"", "\"\"", "a \"\"\" b" };
+		for (int i = 0; i < intervalLabels.length; ++i) {
+			factory.notifyIntervalIndex(i + 1);
+			factory.notifyIntervalStartTime(i);
+			factory.notifyIntervalEndTime(i + 1);
+			factory.notifyIntervalData(intervalLabels[i]);
+		}
+
+		factory.notifyTierIndex(2);
+		factory.notifyTierClass(TierClass.TEXT);
+		factory.notifyTierName("tones \"ToBI\"");
+		factory.notifyTierStartTime(0.0);
+		factory.notifyTierEndTime(3.0);
+		factory.notifyTierPointCount(2);
+		final String[] pointLabels = { "H*\"", "\"L%" };
+		for (int i = 0; i < pointLabels.length; ++i) {
+			factory.notifyPointIndex(i + 1);
+			factory.notifyPointTime(i + 0.5);
+			factory.notifyPointData(pointLabels[i]);
+		}
+		return factory.create();
+	}
+
+	/**
+	 * Describes the tiers and entries of a {@link TextGridFile}, including
+	 * the name of each tier, which is not part of the
+	 * {@link TextGridFileTabularPrintStreamPrinter tabular output}.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to describe.
+	 * @return A string listing the class and name of each tier followed by
+	 *         the times and label of each of its entries.
+	 */
+	static String describe(final TextGridFile<String> textGridFile) {
+		final StringBuilder result = new StringBuilder();
+		for (final NamedTier<String> tier : textGridFile.getChildren()) {
+			if (tier != null) {
+				result.append(tier.getTierClass()).append(' ')
+						.append(tier.getName()).append('\n');
+				for (final BasicEntry<String> entry : tier.getChildren()) {
+					if (entry != null) {
+						final DoubleDuration duration = entry.getDuration();
+						result.append('\t')
+								.append(duration.getStartTimeValue())
+								.append('-')
+								.append(duration.getEndTimeValue())
+								.append(' ').append(entry.getData())
+								.append('\n');
+					}
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Writes the file with quoted labels in each format and reads it back,
+	 * printing the result of each comparison.
+	 *
+	 * @param out
+	 *            The {@link PrintStream} to print the results to.
+	 * @return <code>true</code> iff every file read was equal to the one
+	 *         written.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If a file written could not be read back.
+	 */
+	private static boolean process(final PrintStream out) throws IOException,
+			ParseException {
+		final Parser<String, String> parser = new DummyParser<String>();
+		final TextGridFile<String> expected = createQuotedFile();
+		boolean result = true;
+		for (final TextGridFormat format : TextGridFormat.values()) {
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new TextGridFileWriter<String>(format,
+					Functions.<String> identity()).write(expected, output);
+			final byte[] bytes = output.toByteArray();
+
+			if (format == TextGridFormat.BINARY) {
+				result &= check(out, format, "binary reader", expected,
+						new BinaryTextGridFileFactoryReader<String>(parser)
+								.read(new ByteArrayInputStream(bytes)));
+			} else {
+				result &= check(out, format, "scanner", expected,
+						new TextGridFileFactoryReader<String>(parser)
+								.read(new ByteArrayInputStream(bytes)));
+			}
+			if (format == TextGridFormat.LONG_TEXT) {
+				final TextGridFileListenerFactory<String> factory = new TextGridFileListenerFactory<String>();
+				result &= check(out, format, "regular-expression reader",
+						expected, new TextGridFileFactoryReader<String>(
+								factory, new TextGridFileReader<String>(
+										parser, factory))
+								.read(new ByteArrayInputStream(bytes)));
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,635 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Random;
+
+import com.github.errantlinguist.ClassName;
+import com.github.errantlinguist.io.DummyParser;
+import com.github.errantlinguist.io.InputStreamReader;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridFileListenerFactory;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.google.common.base.Functions;
+
+/**
+ * A program which checks that the {@link TextGridFileScanner},
+ * {@link ShortTextGridFileScanner} and {@link AutoDetectingTextGridFileScanner}
+ * conform to the regular-expression-based {@link TextGridFileReader}: Each
+ * file is read by every engine, and the notifications each one sends to its
+ * {@link TextGridListener} as well as the {@link TextGridFile} built from them
+ * have to be equal to the ones of the <code>TextGridFileReader</code>.
+ * <p>
+ * The files checked are the long-format TextGrid files given on the command
+ * line or, if none are given, <code>{@value #DEFAULT_INFILE}</code>, the same
+ * files as written anew in the long and the short text format, the file with
+ * quoted labels {@link QuotedLabelRoundTrip} checks and a number of randomly
+ * generated files. The short-format files are compared with the
+ * <code>TextGridFileReader</code> reading the long-format file of the same
+ * content, since it cannot read the short format itself.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public class TextGridScannerConformance {
+
+	/**
+	 * An enumeration of the engines reading the text formats.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 *
+	 */
+	private enum Engine {
+		AUTO_DETECTING_SCANNER(EnumSet.of(TextGridFormat.LONG_TEXT,
+				TextGridFormat.SHORT_TEXT)) {
+			@Override
+			protected InputStreamReader<Boolean, ParseException> createReader(
+					final Parser<String, String> parser,
+					final TextGridListener<String> listener) {
+				return new AutoDetectingTextGridFileScanner<String>(parser,
+						listener);
+			}
+		},
+		LONG_TEXT_SCANNER(EnumSet.of(TextGridFormat.LONG_TEXT)) {
+			@Override
+			protected InputStreamReader<Boolean, ParseException> createReader(
+					final Parser<String, String> parser,
+					final TextGridListener<String> listener) {
+				return new TextGridFileScanner<String>(parser, listener);
+			}
+		},
+		REGULAR_EXPRESSION_READER(EnumSet.of(TextGridFormat.LONG_TEXT)) {
+			@Override
+			protected InputStreamReader<Boolean, ParseException> createReader(
+					final Parser<String, String> parser,
+					final TextGridListener<String> listener) {
+				return new TextGridFileReader<String>(parser, listener);
+			}
+		},
+		SHORT_TEXT_SCANNER(EnumSet.of(TextGridFormat.SHORT_TEXT)) {
+			@Override
+			protected InputStreamReader<Boolean, ParseException> createReader(
+					final Parser<String, String> parser,
+					final TextGridListener<String> listener) {
+				return new ShortTextGridFileScanner<String>(parser, listener);
+			}
+		};
+
+		/**
+		 * The formats the engine can read.
+		 */
+		private final EnumSet<TextGridFormat> formats;
+
+		/**
+		 *
+		 * @param formats
+		 *            The formats the engine can read.
+		 */
+		private Engine(final EnumSet<TextGridFormat> formats) {
+			this.formats = formats;
+		}
+
+		/**
+		 * Creates a reader which notifies a given listener of the values it
+		 * parses.
+		 *
+		 * @param parser
+		 *            The {@link Parser} object using for parsing entry
+		 *            annotation data.
+		 * @param listener
+		 *            The {@link TextGridListener} to notify.
+		 * @return A new reader.
+		 */
+		protected abstract InputStreamReader<Boolean, ParseException> createReader(
+				Parser<String, String> parser, TextGridListener<String> listener);
+
+	}
+
+	/**
+	 * A {@link TextGridListener} which records each notification it receives
+	 * as a line of text and passes it on to a
+	 * {@link TextGridFileListenerFactory}.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 *
+	 */
+	private static final class RecordingListener implements
+			TextGridListener<String> {
+
+		/**
+		 * The notifications received, one per line.
+		 */
+		private final StringBuilder events = new StringBuilder();
+
+		/**
+		 * The factory creating the {@link TextGridFile} notified of.
+		 */
+		private final TextGridFileListenerFactory<String> factory = new TextGridFileListenerFactory<String>();
+
+		/**
+		 * The {@link TextGridFile} created from the notifications received or
+		 * <code>null</code> if it has not yet been created.
+		 */
+		private TextGridFile<String> textGridFile = null;
+
+		@Override
+		public void notifyFileEndTime(final double time) {
+			record("fileEndTime", time);
+			factory.notifyFileEndTime(time);
+		}
+
+		@Override
+		public void notifyFileSize(final int size) {
+			record("fileSize", size);
+			factory.notifyFileSize(size);
+		}
+
+		@Override
+		public void notifyFileStartTime(final double time) {
+			record("fileStartTime", time);
+			factory.notifyFileStartTime(time);
+		}
+
+		@Override
+		public void notifyIntervalData(final String data) {
+			record("intervalData", data);
+			factory.notifyIntervalData(data);
+		}
+
+		@Override
+		public void notifyIntervalEndTime(final double time) {
+			record("intervalEndTime", time);
+			factory.notifyIntervalEndTime(time);
+		}
+
+		@Override
+		public void notifyIntervalIndex(final int index) {
+			record("intervalIndex", index);
+			factory.notifyIntervalIndex(index);
+		}
+
+		@Override
+		public void notifyIntervalStartTime(final double time) {
+			record("intervalStartTime", time);
+			factory.notifyIntervalStartTime(time);
+		}
+
+		@Override
+		public void notifyPointData(final String data) {
+			record("pointData", data);
+			factory.notifyPointData(data);
+		}
+
+		@Override
+		public void notifyPointIndex(final int index) {
+			record("pointIndex", index);
+			factory.notifyPointIndex(index);
+		}
+
+		@Override
+		public void notifyPointTime(final double time) {
+			record("pointTime", time);
+			factory.notifyPointTime(time);
+		}
+
+		@Override
+		public void notifyTierClass(final TierClass tierClass) {
+			record("tierClass", tierClass);
+			factory.notifyTierClass(tierClass);
+		}
+
+		@Override
+		public void notifyTierEndTime(final double time) {
+			record("tierEndTime", time);
+			factory.notifyTierEndTime(time);
+		}
+
+		@Override
+		public void notifyTierIndex(final int index) {
+			record("tierIndex", index);
+			factory.notifyTierIndex(index);
+		}
+
+		@Override
+		public void notifyTierIntervalCount(final int count) {
+			record("tierIntervalCount", count);
+			factory.notifyTierIntervalCount(count);
+		}
+
+		@Override
+		public void notifyTierName(final String name) {
+			record("tierName", name);
+			factory.notifyTierName(name);
+		}
+
+		@Override
+		public void notifyTierPointCount(final int count) {
+			record("tierPointCount", count);
+			factory.notifyTierPointCount(count);
+		}
+
+		@Override
+		public void notifyTierStartTime(final double time) {
+			record("tierStartTime", time);
+			factory.notifyTierStartTime(time);
+		}
+
+		/**
+		 * Creates the {@link TextGridFile} notified of once all notifications
+		 * have been received.
+		 *
+		 * @return The <code>TextGridFile</code> or <code>null</code> if none
+		 *         could be created.
+		 */
+		private TextGridFile<String> getTextGridFile() {
+			if (textGridFile == null) {
+				textGridFile = factory.create();
+			}
+			return textGridFile;
+		}
+
+		/**
+		 * Records a notification.
+		 *
+		 * @param name
+		 *            The name of the notification.
+		 * @param value
+		 *            The value notified of.
+		 */
+		private void record(final String name, final Object value) {
+			events.append(name).append(' ').append(value).append('\n');
+		}
+
+	}
+
+	/**
+	 * The file checked if none is given on the command line.
+	 */
+	private static final String DEFAULT_INFILE = "src/demo/resources/Demo.TextGrid";
+
+	/**
+	 * The number of randomly generated files checked.
+	 */
+	private static final int GENERATED_FILE_COUNT = 50;
+
+	/**
+	 * The parts randomly generated tier names and labels are made of, which
+	 * include quotation marks and text resembling TextGrid syntax.
+	 */
+	private static final String[] LABEL_PARTS = { "a", "word", " ", "\"",
+			"\"\"", "H*", "L%", "text = ", "item [2]:", "intervals: size = 3",
+			"über", "言" };
+
+	/**
+	 * The maximum number of entries of a randomly generated tier.
+	 */
+	private static final int MAX_ENTRY_COUNT = 40;
+
+	/**
+	 * The maximum number of parts of a randomly generated tier name or label.
+	 */
+	private static final int MAX_LABEL_PART_COUNT = 4;
+
+	/**
+	 * The maximum number of tiers of a randomly generated file.
+	 */
+	private static final int MAX_TIER_COUNT = 6;
+
+	/**
+	 * The seed of the random generator used for generating files, so that
+	 * every run checks the same files.
+	 */
+	private static final long SEED = 20140216L;
+
+	/**
+	 * @param args
+	 *            The command-line arguments, which are the long-format
+	 *            TextGrid files to check in addition to the generated ones.
+	 */
+	public static void main(final String[] args) {
+		final String[] infiles = args.length < 1 ? new String[] { DEFAULT_INFILE }
+				: args;
+		final PrintStream out = System.out;
+		try {
+			final boolean isEqual = process(infiles, out);
+			if (!isEqual) {
+				System.exit(70);
+			}
+		} catch (final FileNotFoundException | NoSuchFileException e) {
+			System.err.println(e.getMessage());
+			printUsage();
+			System.exit(66);
+		} catch (final IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(74);
+		} catch (final ParseException e) {
+			System.err.println(e.getMessage());
+			System.exit(65);
+		}
+	}
+
+	/**
+	 * Compares the notifications received and the file built by an engine
+	 * with those of the reference engine and prints the result.
+	 *
+	 * @param out
+	 *            The {@link PrintStream} to print the result to.
+	 * @param inputName
+	 *            The name of the input read.
+	 * @param engine
+	 *            The {@link Engine} checked.
+	 * @param expected
+	 *            The {@link RecordingListener} of the reference engine.
+	 * @param actual
+	 *            The <code>RecordingListener</code> of the engine checked.
+	 * @return <code>true</code> iff both the notifications and the files are
+	 *         equal.
+	 */
+	private static boolean check(final PrintStream out, final String inputName,
+			final Engine engine, final RecordingListener expected,
+			final RecordingListener actual) {
+		final String mismatch;
+		if (!expected.events.toString().equals(actual.events.toString())) {
+			mismatch = "MISMATCH (notifications)";
+		} else if (!Objects.equals(describe(expected), describe(actual))) {
+			mismatch = "MISMATCH (file)";
+		} else {
+			mismatch = null;
+		}
+		out.println(String.format("%s, %s: %s", inputName, engine,
+				mismatch == null ? "OK" : mismatch));
+		return mismatch == null;
+	}
+
+	/**
+	 * Reads the contents of a file in a given format with every engine other
+	 * than the reference engine which can read the format and compares the
+	 * results with those of the reference engine.
+	 *
+	 * @param out
+	 *            The {@link PrintStream} to print the results to.
+	 * @param inputName
+	 *            The name of the input read.
+	 * @param format
+	 *            The {@link TextGridFormat} of the contents.
+	 * @param contents
+	 *            The contents to read.
+	 * @param expected
+	 *            The {@link RecordingListener} of the reference engine.
+	 * @return <code>true</code> iff the results of all engines are equal to
+	 *         those of the reference engine.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If an engine could not read the contents.
+	 */
+	private static boolean checkContents(final PrintStream out,
+			final String inputName, final TextGridFormat format,
+			final byte[] contents, final RecordingListener expected)
+			throws IOException, ParseException {
+		boolean result = true;
+		for (final Engine engine : Engine.values()) {
+			if (engine != Engine.REGULAR_EXPRESSION_READER
+					&& engine.formats.contains(format)) {
+				result &= check(out, inputName, engine, expected,
+						read(engine, contents));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the long and the short text format and
+	 * checks the engines reading each format against the reference engine
+	 * reading the long format.
+	 *
+	 * @param out
+	 *            The {@link PrintStream} to print the results to.
+	 * @param inputName
+	 *            The name of the file.
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to check.
+	 * @return <code>true</code> iff the results of all engines are equal to
+	 *         those of the reference engine.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If an engine could not read the file written.
+	 */
+	private static boolean checkFile(final PrintStream out,
+			final String inputName, final TextGridFile<String> textGridFile)
+			throws IOException, ParseException {
+		final byte[] longText = write(textGridFile, TextGridFormat.LONG_TEXT);
+		final RecordingListener expected = read(
+				Engine.REGULAR_EXPRESSION_READER, longText);
+		boolean result = checkContents(out, inputName + " (long text)",
+				TextGridFormat.LONG_TEXT, longText, expected);
+		result &= checkContents(out, inputName + " (short text)",
+				TextGridFormat.SHORT_TEXT,
+				write(textGridFile, TextGridFormat.SHORT_TEXT), expected);
+		return result;
+	}
+
+	/**
+	 * Creates a random label out of a number of {@link #LABEL_PARTS parts}.
+	 *
+	 * @param random
+	 *            The {@link Random} generator to use.
+	 * @return The new label, which may be empty.
+	 */
+	private static String createRandomLabel(final Random random) {
+		final StringBuilder result = new StringBuilder();
+		final int partCount = random.nextInt(MAX_LABEL_PART_COUNT + 1);
+		for (int i = 0; i < partCount; ++i) {
+			result.append(LABEL_PARTS[random.nextInt(LABEL_PARTS.length)]);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Creates a random TextGrid file with interval and text tiers, entry times
+	 * in whole milliseconds and {@link #createRandomLabel(Random) random}
+	 * tier names and labels.
+	 *
+	 * @param random
+	 *            The {@link Random} generator to use.
+	 * @return The new {@link TextGridFile}.
+	 */
+	private static TextGridFile<String> createRandomFile(final Random random) {
+		final TextGridFileListenerFactory<String> factory = new TextGridFileListenerFactory<String>();
+		final int endMillis = 1000 + random.nextInt(1000000);
+		final double endTime = endMillis / 1000.0;
+		final int tierCount = 1 + random.nextInt(MAX_TIER_COUNT);
+		factory.notifyFileStartTime(0.0);
+		factory.notifyFileEndTime(endTime);
+		factory.notifyFileSize(tierCount);
+
+		for (int tierIndex = 1; tierIndex <= tierCount; ++tierIndex) {
+			factory.notifyTierIndex(tierIndex);
+			factory.notifyTierClass(random.nextBoolean() ? TierClass.INTERVAL
+					: TierClass.TEXT);
+			factory.notifyTierName(createRandomLabel(random));
+			factory.notifyTierStartTime(0.0);
+			factory.notifyTierEndTime(endTime);
+			if (random.nextBoolean()) {
+				// An interval tier always has at least one interval
+				final int intervalCount = 1 + random.nextInt(MAX_ENTRY_COUNT);
+				factory.notifyTierIntervalCount(intervalCount);
+				for (int i = 0; i < intervalCount; ++i) {
+					factory.notifyIntervalIndex(i + 1);
+					factory.notifyIntervalStartTime(i * endMillis
+							/ intervalCount / 1000.0);
+					factory.notifyIntervalEndTime((i + 1) * endMillis
+							/ intervalCount / 1000.0);
+					factory.notifyIntervalData(createRandomLabel(random));
+				}
+			} else {
+				final int pointCount = random.nextInt(MAX_ENTRY_COUNT + 1);
+				factory.notifyTierPointCount(pointCount);
+				for (int i = 0; i < pointCount; ++i) {
+					factory.notifyPointIndex(i + 1);
+					factory.notifyPointTime((i + 1) * endMillis
+							/ (pointCount + 1) / 1000.0);
+					factory.notifyPointData(createRandomLabel(random));
+				}
+			}
+		}
+		return factory.create();
+	}
+
+	/**
+	 * Describes the file built by a {@link RecordingListener}.
+	 *
+	 * @param listener
+	 *            The <code>RecordingListener</code> to describe the file of.
+	 * @return The {@link QuotedLabelRoundTrip#describe(TextGridFile)
+	 *         description} of the file or <code>null</code> if no file was
+	 *         built.
+	 */
+	private static String describe(final RecordingListener listener) {
+		final TextGridFile<String> textGridFile = listener.getTextGridFile();
+		return textGridFile == null ? null : QuotedLabelRoundTrip
+				.describe(textGridFile);
+	}
+
+	/**
+	 * Prints the usage of this program.
+	 */
+	private static final void printUsage() {
+		final String mainClassName = ClassName.getMainClassName();
+		System.err.println(String.format("Usage: %s [infile...]",
+				mainClassName));
+	}
+
+	/**
+	 * Checks the given files, the quoted-label file and the generated files,
+	 * printing the result of each comparison.
+	 *
+	 * @param infiles
+	 *            The paths of the long-format TextGrid files to check.
+	 * @param out
+	 *            The {@link PrintStream} to print the results to.
+	 * @return <code>true</code> iff the results of all engines were equal to
+	 *         those of the reference engine.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If an engine could not read a file.
+	 */
+	private static boolean process(final String[] infiles,
+			final PrintStream out) throws IOException, ParseException {
+		boolean result = true;
+		for (final String infile : infiles) {
+			final byte[] contents = Files.readAllBytes(Paths.get(infile));
+			final RecordingListener expected = read(
+					Engine.REGULAR_EXPRESSION_READER, contents);
+			result &= checkContents(out, infile, TextGridFormat.LONG_TEXT,
+					contents, expected);
+			result &= checkFile(out, infile + " rewritten",
+					expected.getTextGridFile());
+		}
+		result &= checkFile(out, "quoted labels",
+				QuotedLabelRoundTrip.createQuotedFile());
+		final Random random = new Random(SEED);
+		for (int i = 1; i <= GENERATED_FILE_COUNT; ++i) {
+			result &= checkFile(out, "generated file " + i,
+					createRandomFile(random));
+		}
+		return result;
+	}
+
+	/**
+	 * Reads contents with a given engine.
+	 *
+	 * @param engine
+	 *            The {@link Engine} to read the contents with.
+	 * @param contents
+	 *            The contents to read.
+	 * @return A {@link RecordingListener} which has been notified by the
+	 *         engine.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the engine could not read the contents.
+	 */
+	private static RecordingListener read(final Engine engine,
+			final byte[] contents) throws IOException, ParseException {
+		final RecordingListener result = new RecordingListener();
+		engine.createReader(new DummyParser<String>(), result).read(
+				new ByteArrayInputStream(contents));
+		return result;
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in a given format.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param format
+	 *            The {@link TextGridFormat} to write.
+	 * @return The contents written.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private static byte[] write(final TextGridFile<String> textGridFile,
+			final TextGridFormat format) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		new TextGridFileWriter<String>(format, Functions.<String> identity())
+				.write(textGridFile, result);
+		return result.toByteArray();
+	}
+
+}
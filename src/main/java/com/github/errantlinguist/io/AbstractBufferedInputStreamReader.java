@@ -15,14 +15,26 @@
  */
 package com.github.errantlinguist.io;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * An abstract file reader class which reads in data from an {@link InputStream}
  * and transforms the input into an object of a given generic type.
+ * <p>
+ * The encoding of the input is detected from its {@link ByteOrderMark byte
+ * order mark}, which is skipped, or otherwise from the <code>NUL</code> bytes
+ * of UTF-16 text; If neither is found, the default encoding given in the
+ * constructor is used.
+ * </p>
  * 
  * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
  * @version 2014-02-06
@@ -37,6 +49,43 @@ import java.io.InputStreamReader;
 public abstract class AbstractBufferedInputStreamReader<O, E extends Throwable>
 		implements com.github.errantlinguist.io.InputStreamReader<O, E> {
 
+	/**
+	 * A cache of {@link CharsetDecoder} instances, which are reset and reused
+	 * for each input in the same encoding.
+	 */
+	private final Map<Charset, CharsetDecoder> decoders = new HashMap<Charset, CharsetDecoder>();
+
+	/**
+	 * The encoding used for input for which none could be detected.
+	 */
+	private final Charset defaultCharset;
+
+	/**
+	 * Creates a reader which uses the platform default encoding for input for
+	 * which none could be detected.
+	 */
+	protected AbstractBufferedInputStreamReader() {
+		this(Charset.defaultCharset());
+	}
+
+	/**
+	 * 
+	 * @param defaultCharset
+	 *            The encoding used for input for which none could be
+	 *            detected.
+	 */
+	protected AbstractBufferedInputStreamReader(final Charset defaultCharset) {
+		this.defaultCharset = defaultCharset;
+	}
+
+	/**
+	 * 
+	 * @return The encoding used for input for which none could be detected.
+	 */
+	public Charset getDefaultCharset() {
+		return defaultCharset;
+	}
+
 	/**
 	 * Reads a {@link BufferedReader} and returns an object as a result.
 	 * 
@@ -65,7 +114,33 @@ public abstract class AbstractBufferedInputStreamReader<O, E extends Throwable>
 	 */
 	@Override
 	public final O read(final InputStream input) throws IOException, E {
-		return read(new InputStreamReader(input));
+		final BufferedInputStream bufferedInput = new BufferedInputStream(
+				input);
+		final Charset charset = ByteOrderMark.detectCharset(bufferedInput,
+				defaultCharset);
+		return read(new InputStreamReader(bufferedInput, getDecoder(charset)));
+	}
+
+	/**
+	 * Reads an {@link InputStream} in a given encoding and returns an object
+	 * as a result.
+	 * 
+	 * @param input
+	 *            The {@code InputStream} to be read, which is read as-is
+	 *            without detecting its encoding or skipping any byte order
+	 *            mark.
+	 * @param charset
+	 *            The encoding of the input.
+	 * @return An object representing the read input.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws E
+	 *             This exception is thrown by the logic of the non-abstract
+	 *             derived class.
+	 */
+	public final O read(final InputStream input, final Charset charset)
+			throws IOException, E {
+		return read(new InputStreamReader(input, getDecoder(charset)));
 	}
 
 	/**
@@ -84,4 +159,26 @@ public abstract class AbstractBufferedInputStreamReader<O, E extends Throwable>
 		return read(new BufferedReader(reader));
 	}
 
+	/**
+	 * Gets a {@link CharsetDecoder} for a given encoding which replaces any
+	 * malformed or unmappable input, re-using the one created for the last
+	 * input in the same encoding.
+	 * 
+	 * @param charset
+	 *            The encoding to get a decoder for.
+	 * @return A <code>CharsetDecoder</code> in its initial state.
+	 */
+	private CharsetDecoder getDecoder(final Charset charset) {
+		CharsetDecoder result = decoders.get(charset);
+		if (result == null) {
+			result = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			decoders.put(charset, result);
+		} else {
+			result.reset();
+		}
+		return result;
+	}
+
 }
@@ -15,23 +15,104 @@
  */
 package com.github.errantlinguist.io;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
-import java.util.ArrayDeque;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * An abstract file reader class which reads in a data file or a directory of
  * files, parses it/them, and returns an object representing the data therein.
+ * <p>
+ * If an {@link Executor} is {@link #setExecutor(Executor) set}, the files of a
+ * directory are read in parallel by tasks run by the executor, e.g.&nbsp;a
+ * {@link java.util.concurrent.ForkJoinPool ForkJoinPool}, largest files first
+ * so that no single large file is left over at the end. This requires
+ * {@link #readFileContents(File)} to be thread-safe, e.g.&nbsp;by using one
+ * reader per thread as a {@link ForwardingFileSystemReader} created with a
+ * reader factory does. The file hooks are nevertheless never called
+ * concurrently, and the result is the same {@link Map} a sequential read
+ * returns; Instead of aborting at the first file which could not be read,
+ * however, all other files are read first and then a
+ * {@link PartialReadException} describing all failures is thrown.
+ * </p>
+ * <p>
+ * A directory read through a {@link DirectoryWalker} is read while it is
+ * being walked, so that reading can start before the walk of e.g.&nbsp;a large
+ * network-mounted tree has finished; When reading in parallel, files are then
+ * read in the order they are found rather than largest first.
+ * </p>
+ * <p>
+ * Each method returning a {@link Map} of all files read has a
+ * {@link #streamDirectory(File, FileReadListener) streaming} counterpart
+ * which passes each result on to a {@link FileReadListener} as soon as it has
+ * been read instead, so that a corpus too large to be held in memory at once
+ * can be processed file by file; Only the file hooks are called by these
+ * methods. When reading in parallel, no more than
+ * {@link #setMaxPendingFiles(int) a given number} of files are read or waiting
+ * to be read at any time, which bounds the number of results held in memory
+ * as long as the listener releases them.
+ * </p>
+ * <p>
+ * If a {@link #setPrefetchExecutor(Executor) prefetch executor} is set as
+ * well, reading a file in parallel is split into two stages: A task run by
+ * the prefetch executor, e.g.&nbsp;a small pool of threads waiting on a slow
+ * disk or network file system, loads the whole file into a pooled buffer and
+ * then hands it over to a task run by the other executor, which
+ * {@link #readPrefetchedContents(File, InputStream) parses} it. Waiting for
+ * I/O thus overlaps with parsing, while the limit on pending files, which
+ * also counts the files prefetched but not yet parsed, keeps the prefetch
+ * executor from running ahead of parsing and so bounds the memory used for
+ * buffers.
+ * </p>
+ * <p>
+ * Single files can also be {@link #readFileAsync(File) read asynchronously}
+ * through an {@link AsynchronousFileChannel}, so that no thread is blocked
+ * while waiting for the contents of the file; Once they have been read, they
+ * are parsed by a separate task and the result is returned through a
+ * {@link ListenableFuture}. They are never parsed by the thread completing
+ * the read, which serves all other channels of its channel group as well:
+ * Unless an executor is set and the reader {@link #isThreadSafe() is
+ * thread-safe}, e.g.&nbsp;a {@link ForwardingFileSystemReader} created with a
+ * reader factory, they are parsed one at a time by a thread of the reader's
+ * own, which stops once it is idle. Since synchronous reads are not
+ * serialized with these, no file may be read synchronously while
+ * asynchronous reads are pending on a reader which is not thread-safe.
+ * </p>
  * 
  * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
- * @version 2014-02-05
+ * @version 2014-02-16
  * @since 2011-07-06
  * 
  * @param <O>
@@ -57,34 +138,527 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	}
 
 	/**
-	 * Makes a {@link List} of files in a directory and any of its
-	 * sub-directories.
+	 * An asynchronous read of the whole contents of an
+	 * {@link AsynchronousFileChannel}, which parses the contents once they
+	 * have been read.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
 	 * 
-	 * @param indir
-	 *            The directory to be listed.
-	 * @return A <code>List</code> of {@link File} objects representing all
-	 *         matching files in the directory and its sub-directories.
 	 */
-	private static final List<File> walkDirectoryContents(final File indir) {
-		final List<File> result = new ArrayList<File>();
-		final Queue<File> dirsToExpand = new ArrayDeque<File>();
-		dirsToExpand.add(indir);
-		while (!dirsToExpand.isEmpty()) {
-			final File dirToExpand = dirsToExpand.remove();
-			final File[] dirContents = dirToExpand.listFiles();
-			for (final File file : dirContents) {
-				if (file.isFile()) {
-					result.add(file);
-				} else if (file.isDirectory()) {
-					dirsToExpand.add(file);
+	private final class AsyncChannelRead implements
+			CompletionHandler<Integer, Void>, Runnable {
+
+		/**
+		 * The buffer the contents are read into.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * The <code>AsynchronousFileChannel</code> to read.
+		 */
+		private final AsynchronousFileChannel channel;
+
+		/**
+		 * Whether the channel is closed once it has been read.
+		 */
+		private final boolean closeChannel;
+
+		/**
+		 * The file the channel was opened for, for calling the file hooks, or
+		 * <code>null</code> if the channel is not associated with a file.
+		 */
+		private final File file;
+
+		/**
+		 * The {@link SettableFuture} set to the object representing the
+		 * contents once they have been parsed.
+		 */
+		private final SettableFuture<O> result = SettableFuture.create();
+
+		/**
+		 * 
+		 * @param channel
+		 *            The {@link AsynchronousFileChannel} to read.
+		 * @param file
+		 *            The file the channel was opened for or <code>null</code>
+		 *            if the channel is not associated with a file.
+		 * @param closeChannel
+		 *            Whether the channel should be closed once it has been
+		 *            read.
+		 * @throws IOException
+		 *             If the size of the channel cannot be read or it is too
+		 *             large to be read into memory.
+		 */
+		private AsyncChannelRead(final AsynchronousFileChannel channel,
+				final File file, final boolean closeChannel) throws IOException {
+			this.channel = channel;
+			this.file = file;
+			this.closeChannel = closeChannel;
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("The channel of size " + size
+						+ " is too large to be read into memory.");
+			}
+			buffer = ByteBuffer.allocate((int) size);
+		}
+
+		@Override
+		public void completed(final Integer count, final Void attachment) {
+			if (count < 0 || !buffer.hasRemaining()) {
+				finishReading();
+			} else {
+				readNext();
+			}
+		}
+
+		@Override
+		public void failed(final Throwable exc, final Void attachment) {
+			if (closeChannel) {
+				try {
+					channel.close();
+				} catch (final IOException e) {
+					exc.addSuppressed(e);
 				}
 			}
+			result.setException(exc);
+		}
+
+		/**
+		 * Parses the contents read.
+		 */
+		@Override
+		public void run() {
+			try {
+				result.set(parse());
+			} catch (final Throwable e) {
+				result.setException(e);
+			}
+		}
+
+		/**
+		 * Closes the channel if required and then hands the parsing of the
+		 * contents read over to the executor if one is set and this reader is
+		 * thread-safe or otherwise to the executor parsing asynchronous reads
+		 * one at a time.
+		 */
+		private void finishReading() {
+			try {
+				if (closeChannel) {
+					channel.close();
+				}
+				final Executor currentExecutor = executor;
+				if (currentExecutor == null || !isThreadSafe()) {
+					asyncParseExecutor.execute(this);
+				} else {
+					currentExecutor.execute(this);
+				}
+			} catch (final Throwable e) {
+				result.setException(e);
+			}
+		}
+
+		/**
+		 * Parses the contents read, between the file hooks if the channel is
+		 * associated with a file.
+		 * 
+		 * @return The object representing the contents.
+		 * @throws IOException
+		 *             If an I/O error occurs.
+		 * @throws E
+		 *             If there is an otherwise-unchecked instance of
+		 *             {@link Throwable} thrown from a subclass.
+		 */
+		private O parse() throws IOException, E {
+			final InputStream input = new ByteArrayInputStream(buffer.array(),
+					0, buffer.position());
+			return file == null ? read(input) : readPrefetchedFile(file, input);
+		}
+
+		/**
+		 * Starts reading the next part of the contents.
+		 */
+		private void readNext() {
+			try {
+				channel.read(buffer, buffer.position(), null, this);
+			} catch (final Throwable e) {
+				failed(e, null);
+			}
+		}
+
+	}
+
+	/**
+	 * A task which prefetches the file of a {@link FileReadTask} and then
+	 * hands the task over to the executor parsing files.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 * 
+	 */
+	private final class FilePrefetchTask implements Runnable {
+
+		/**
+		 * The <code>FileReadTask</code> to prefetch the file of.
+		 */
+		private final FileReadTask task;
+
+		/**
+		 * 
+		 * @param task
+		 *            The {@link FileReadTask} to prefetch the file of.
+		 */
+		private FilePrefetchTask(final FileReadTask task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			final ParallelRead read = task.read;
+			boolean isHandedOver = false;
+			try {
+				if (!read.cancelled.get()) {
+					task.prefetch();
+					read.executor.execute(task);
+					isHandedOver = true;
+				}
+			} catch (final Throwable e) {
+				read.failures.put(task.file, e);
+			} finally {
+				if (!isHandedOver) {
+					task.finish();
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * A task which reads a single file of a directory read in parallel.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 * 
+	 */
+	private final class FileReadTask implements Runnable {
+
+		/**
+		 * The file to read.
+		 */
+		private final File file;
+
+		/**
+		 * The buffer holding the contents of the file if it has been
+		 * prefetched or <code>null</code> if it has not.
+		 */
+		private byte[] prefetchedContents = null;
+
+		/**
+		 * The number of bytes in {@link #prefetchedContents}.
+		 */
+		private int prefetchedLength = 0;
+
+		/**
+		 * The {@link ParallelRead} the task is part of.
+		 */
+		private final ParallelRead read;
+
+		/**
+		 * The size of the file in bytes, used as an estimate of the cost of
+		 * reading it.
+		 */
+		private final long size;
+
+		/**
+		 * 
+		 * @param file
+		 *            The file to read.
+		 * @param read
+		 *            The {@link ParallelRead} the task is part of.
+		 */
+		private FileReadTask(final File file, final ParallelRead read) {
+			this.file = file;
+			this.read = read;
+			size = file.length();
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (!read.cancelled.get()) {
+					final O result = prefetchedContents == null ? readFile(file)
+							: readPrefetchedFile(file, new ByteArrayInputStream(
+									prefetchedContents, 0, prefetchedLength));
+					synchronized (hookLock) {
+						read.listener.notifyFileRead(file, result);
+					}
+				}
+			} catch (final Throwable e) {
+				read.failures.put(file, e);
+			} finally {
+				finish();
+			}
+		}
+
+		/**
+		 * Returns the prefetch buffer of the task, if any, to the pool and
+		 * makes room for another task.
+		 */
+		private void finish() {
+			if (prefetchedContents != null) {
+				prefetchBuffers.offer(prefetchedContents);
+				prefetchedContents = null;
+			}
+			read.pendingPermits.release();
+		}
+
+		/**
+		 * Loads the contents of the file into a buffer taken from the pool.
+		 * 
+		 * @throws IOException
+		 *             If an I/O error occurs.
+		 */
+		private void prefetch() throws IOException {
+			if (size >= Integer.MAX_VALUE) {
+				throw new IOException("The file \"" + file
+						+ "\" is too large to be prefetched.");
+			}
+			// One byte more than needed so that a full buffer means the file
+			// has grown since its size was read
+			final int minCapacity = (int) size + 1;
+			byte[] buffer = prefetchBuffers.poll();
+			if (buffer == null || buffer.length < minCapacity) {
+				buffer = new byte[minCapacity];
+			}
+			prefetchedContents = buffer;
+			final InputStream input = new FileInputStream(file);
+			try {
+				int length = 0;
+				for (int count = input.read(buffer); count >= 0; count = input
+						.read(buffer, length, buffer.length - length)) {
+					length += count;
+					if (length == buffer.length) {
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+						prefetchedContents = buffer;
+					}
+				}
+				prefetchedLength = length;
+			} finally {
+				input.close();
+			}
+		}
+
+	}
+
+	/**
+	 * The state shared by the tasks reading a number of files in parallel.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 * 
+	 */
+	private final class ParallelRead {
+
+		/**
+		 * The flag which is set if the read is cancelled, so that tasks which
+		 * have not started yet do not read their files.
+		 */
+		private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+		/**
+		 * The {@link Executor} running the tasks parsing the files.
+		 */
+		private final Executor executor;
+
+		/**
+		 * The {@link Throwable} thrown for each file which could not be read,
+		 * in the order the failures occurred.
+		 */
+		private final Map<File, Throwable> failures = Collections
+				.synchronizedMap(new LinkedHashMap<File, Throwable>());
+
+		/**
+		 * The {@link FileReadListener} notified of each file read.
+		 */
+		private final FileReadListener<? super O> listener;
+
+		/**
+		 * The maximum number of files read or waiting to be read at once.
+		 */
+		private final int maxPendingFiles;
+
+		/**
+		 * The permits for starting another task, one of which is released
+		 * each time a task has finished.
+		 */
+		private final Semaphore pendingPermits;
+
+		/**
+		 * The {@link Executor} running the tasks prefetching the files or
+		 * <code>null</code> if they are not prefetched.
+		 */
+		private final Executor prefetchExecutor;
+
+		/**
+		 * 
+		 * @param listener
+		 *            The {@link FileReadListener} notified of each file read.
+		 * @param maxPendingFiles
+		 *            The maximum number of files read or waiting to be read at
+		 *            once.
+		 * @param executor
+		 *            The {@link Executor} to run the tasks parsing the files.
+		 * @param prefetchExecutor
+		 *            The <code>Executor</code> to run the tasks prefetching the
+		 *            files or <code>null</code> if they should not be
+		 *            prefetched.
+		 */
+		private ParallelRead(final FileReadListener<? super O> listener,
+				final int maxPendingFiles, final Executor executor,
+				final Executor prefetchExecutor) {
+			this.listener = listener;
+			this.maxPendingFiles = maxPendingFiles;
+			this.executor = executor;
+			this.prefetchExecutor = prefetchExecutor;
+			pendingPermits = new Semaphore(maxPendingFiles);
+		}
 
+		/**
+		 * Waits until all tasks started have finished.
+		 * 
+		 * @throws InterruptedException
+		 *             If the thread is interrupted while waiting.
+		 */
+		private void awaitTasks() throws InterruptedException {
+			pendingPermits.acquire(maxPendingFiles);
+			pendingPermits.release(maxPendingFiles);
 		}
 
+		/**
+		 * Waits until there is room for another task and then starts it,
+		 * beginning with prefetching its file if a prefetch executor is set.
+		 * 
+		 * @param task
+		 *            The {@link FileReadTask} to start.
+		 * @throws InterruptedException
+		 *             If the thread is interrupted while waiting.
+		 */
+		private void execute(final FileReadTask task)
+				throws InterruptedException {
+			pendingPermits.acquire();
+			try {
+				if (prefetchExecutor == null) {
+					executor.execute(task);
+				} else {
+					prefetchExecutor.execute(new FilePrefetchTask(task));
+				}
+			} catch (final RuntimeException e) {
+				pendingPermits.release();
+				throw e;
+			}
+		}
+
+	}
+
+	/**
+	 * The default maximum number of files read or waiting to be read at once
+	 * when reading in parallel.
+	 */
+	private static final int DEFAULT_MAX_PENDING_FILES = 64;
+
+	/**
+	 * The number of seconds the thread parsing asynchronous reads one at a
+	 * time is kept alive while idle.
+	 */
+	private static final long SERIAL_ASYNC_PARSE_KEEP_ALIVE_SECONDS = 60L;
+
+	/**
+	 * Creates an {@link Executor} which runs one task at a time by a single
+	 * daemon thread, which stops once it has been idle for
+	 * {@link #SERIAL_ASYNC_PARSE_KEEP_ALIVE_SECONDS a while} so that a reader
+	 * which is no longer used does not keep a thread alive.
+	 * 
+	 * @return A new <code>Executor</code> for parsing asynchronous reads one
+	 *         at a time.
+	 */
+	private static Executor createSerialAsyncParseExecutor() {
+		final ThreadPoolExecutor result = new ThreadPoolExecutor(1, 1,
+				SERIAL_ASYNC_PARSE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder()
+						.setDaemon(true).setNameFormat("async-parse-%d")
+						.build());
+		result.allowCoreThreadTimeOut(true);
 		return result;
 	}
 
+	/**
+	 * Starts a walk of a directory.
+	 * 
+	 * @param walker
+	 *            The {@link DirectoryWalker} to walk the directory with.
+	 * @return A new {@link DirectoryWalker.PathIterator} over the files found.
+	 * @throws IOException
+	 *             If the directory cannot be opened.
+	 */
+	private static DirectoryWalker.PathIterator openWalk(
+			final DirectoryWalker walker) throws IOException {
+		try {
+			return walker.iterator();
+		} catch (final DirectoryIteratorException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Views an {@link Iterator} of {@link Path} objects as one of the
+	 * corresponding {@link File} objects.
+	 * 
+	 * @param paths
+	 *            The <code>Iterator</code> to view.
+	 * @return A view of the paths as files.
+	 */
+	private static Iterator<File> toFiles(final Iterator<Path> paths) {
+		return new Iterator<File>() {
+
+			@Override
+			public boolean hasNext() {
+				return paths.hasNext();
+			}
+
+			@Override
+			public File next() {
+				return paths.next().toFile();
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
+	/**
+	 * Makes a {@link List} of files in a directory and any of its
+	 * sub-directories.
+	 * 
+	 * @param indir
+	 *            The directory to be listed.
+	 * @return A <code>List</code> of {@link File} objects representing all
+	 *         matching files in the directory and its sub-directories.
+	 * @throws IOException
+	 *             If the <code>indir</code> is not a valid directory or another
+	 *             I/O error occurs.
+	 */
+	private static final List<File> walkDirectoryContents(final File indir)
+			throws IOException {
+		return walkDirectoryContents(indir, null);
+	}
+
 	/**
 	 * Makes a {@link List} of files in a directory and any of its
 	 * sub-directories.
@@ -92,31 +666,154 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	 * @param indir
 	 *            The directory to be listed.
 	 * @param filenameFilter
-	 *            A {@link FilenameFilter} denoting the filenames to be matched.
+	 *            A {@link FilenameFilter} denoting the filenames to be matched,
+	 *            which is only applied to files so that all sub-directories are
+	 *            walked, or <code>null</code> to match all files.
 	 * @return A <code>List</code> of {@link File} objects representing all
 	 *         matching files in the directory and its sub-directories.
+	 * @throws IOException
+	 *             If the <code>indir</code> is not a valid directory or another
+	 *             I/O error occurs.
 	 */
 	private static final List<File> walkDirectoryContents(final File indir,
-			final FilenameFilter filenameFilter) {
+			final FilenameFilter filenameFilter) throws IOException {
 		final List<File> result = new ArrayList<File>();
-		final Queue<File> dirsToExpand = new ArrayDeque<File>();
-		dirsToExpand.add(indir);
-		while (!dirsToExpand.isEmpty()) {
-			final File dirToExpand = dirsToExpand.remove();
-			final File[] dirContents = dirToExpand.listFiles(filenameFilter);
-			for (final File file : dirContents) {
-				if (file.isFile()) {
+		final DirectoryWalker.PathIterator paths = openWalk(new DirectoryWalker(
+				indir.toPath()));
+		try {
+			final Iterator<File> files = toFiles(paths);
+			while (files.hasNext()) {
+				final File file = files.next();
+				if (filenameFilter == null
+						|| filenameFilter.accept(file.getParentFile(),
+								file.getName())) {
 					result.add(file);
-				} else if (file.isDirectory()) {
-					dirsToExpand.add(file);
 				}
 			}
-
+		} catch (final DirectoryIteratorException e) {
+			throw e.getCause();
+		} finally {
+			paths.close();
 		}
 
 		return result;
 	}
 
+	/**
+	 * The {@link Executor} parsing asynchronous reads one at a time unless
+	 * they are parsed by the {@link #executor}.
+	 */
+	private final Executor asyncParseExecutor = createSerialAsyncParseExecutor();
+
+	/**
+	 * The {@link Executor} used for reading the files of a directory in
+	 * parallel or <code>null</code> if they are read sequentially.
+	 */
+	private volatile Executor executor = null;
+
+	/**
+	 * The lock held while calling any file hook.
+	 */
+	private final Object hookLock = new Object();
+
+	/**
+	 * The maximum number of files read or waiting to be read at once when
+	 * reading in parallel.
+	 */
+	private volatile int maxPendingFiles = DEFAULT_MAX_PENDING_FILES;
+
+	/**
+	 * The buffers of prefetched files which have been parsed, for reuse.
+	 */
+	private final Queue<byte[]> prefetchBuffers = new ConcurrentLinkedQueue<byte[]>();
+
+	/**
+	 * The {@link Executor} used for prefetching the files read in parallel or
+	 * <code>null</code> if they are not prefetched.
+	 */
+	private volatile Executor prefetchExecutor = null;
+
+	/**
+	 * @return The {@link Executor} used for reading the files of a directory
+	 *         in parallel or <code>null</code> if they are read sequentially,
+	 *         which is the default.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return The maximum number of files read or waiting to be read at once
+	 *         when reading in parallel.
+	 */
+	public int getMaxPendingFiles() {
+		return maxPendingFiles;
+	}
+
+	/**
+	 * @return The {@link Executor} used for prefetching the files read in
+	 *         parallel or <code>null</code> if they are not prefetched, which
+	 *         is the default.
+	 */
+	public Executor getPrefetchExecutor() {
+		return prefetchExecutor;
+	}
+
+	/**
+	 * Reads the whole contents of an {@link AsynchronousFileChannel} without
+	 * blocking and then parses them by a task run by the
+	 * {@link #setExecutor(Executor) executor} if one is set and this reader
+	 * {@link #isThreadSafe() is thread-safe} or otherwise by a thread parsing
+	 * one asynchronous read at a time; No file hooks are called. The channel
+	 * is not closed. Unless this reader is thread-safe, no file may be read
+	 * synchronously until the returned future is done.
+	 * 
+	 * @param channel
+	 *            The <code>AsynchronousFileChannel</code> to read.
+	 * @return A {@link ListenableFuture} of the object representing the
+	 *         contents, which fails with the {@link Throwable} thrown if the
+	 *         contents could not be read or parsed.
+	 */
+	public final ListenableFuture<O> readAsync(
+			final AsynchronousFileChannel channel) {
+		return readAsync(channel, null, false);
+	}
+
+	/**
+	 * Reads the files found by a given {@link DirectoryWalker}, each as soon
+	 * as it is found, and returns the data contained therein as a new
+	 * {@link Map} of objects.
+	 * 
+	 * @param walker
+	 *            The <code>DirectoryWalker</code> finding the files to be read.
+	 * @return A <code>Map</code> of {@link File} objects as keys with objects
+	 *         as values representing the input files.
+	 * @throws IOException
+	 *             If the {@link DirectoryWalker#getRoot() root} of the walker is
+	 *             not a valid directory or another I/O error occurs; If the
+	 *             files are read in parallel, a {@link PartialReadException} is
+	 *             thrown after all files have been tried if any of them could
+	 *             not be read.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	public final Map<File, O> readDirectory(final DirectoryWalker walker)
+			throws IOException, E {
+		beforeReadingDirectory(walker.getRoot().toFile());
+		final Map<File, O> result;
+		final DirectoryWalker.PathIterator paths = openWalk(walker);
+		try {
+			result = readFiles(toFiles(paths), false);
+		} catch (final DirectoryIteratorException e) {
+			throw e.getCause();
+		} finally {
+			paths.close();
+		}
+		afterReadingDirectory(result);
+		return result;
+	}
+
 	/**
 	 * Reads the files contained in a given directory and returns the data
 	 * contained therein as a new {@link Map} of objects.
@@ -127,7 +824,9 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	 *         as values representing the input files.
 	 * @throws IOException
 	 *             If the <code>indir</code> is not a valid directory or another
-	 *             I/O error occurs.
+	 *             I/O error occurs; If the files are read in parallel, a
+	 *             {@link PartialReadException} is thrown after all files
+	 *             have been tried if any of them could not be read.
 	 * @throws E
 	 *             If there is an otherwise-unchecked instance of {@link Throwable} thrown from a
 	 *             subclass.
@@ -136,13 +835,7 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 			throws IOException, E {
 		beforeReadingDirectory(indir);
 		final List<File> dirFiles = walkDirectoryContents(indir);
-		final Map<File, O> result = new HashMap<File, O>(dirFiles.size());
-
-		for (final File file : dirFiles) {
-			final O fileContents = readFile(file);
-			result.put(file, fileContents);
-		}
-
+		final Map<File, O> result = readFiles(dirFiles.iterator(), true);
 		afterReadingDirectory(result);
 		return result;
 	}
@@ -156,12 +849,14 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	 *            The directory of files to be read.
 	 * @param filenameFilter
 	 *            A <code>FilenameFilter</code> denoting the filenames to be
-	 *            read.
+	 *            read, which is not applied to sub-directories.
 	 * @return A <code>Map</code> of {@link File} objects as keys with objects
 	 *         as values representing the input files.
 	 * @throws IOException
 	 *             If the <code>indir</code> is not a valid directory or another
-	 *             I/O error occurs.
+	 *             I/O error occurs; If the files are read in parallel, a
+	 *             {@link PartialReadException} is thrown after all files
+	 *             have been tried if any of them could not be read.
 	 * @throws E
 	 *             If there is an otherwise-unchecked instance of {@link Throwable} thrown from a
 	 *             subclass.
@@ -170,12 +865,7 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 			final FilenameFilter filenameFilter) throws IOException, E {
 		beforeReadingDirectory(indir);
 		final List<File> dirFiles = walkDirectoryContents(indir, filenameFilter);
-		final Map<File, O> result = new HashMap<File, O>(dirFiles.size());
-
-		for (final File file : dirFiles) {
-			final O fileContents = readFile(file);
-			result.put(file, fileContents);
-		}
+		final Map<File, O> result = readFiles(dirFiles.iterator(), true);
 		afterReadingDirectory(result);
 		return result;
 	}
@@ -190,7 +880,9 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	 *         as values representing the input files.
 	 * @throws IOException
 	 *             If the <code>indir</code> is not a valid directory or another
-	 *             I/O error occurs.
+	 *             I/O error occurs; If the files are read in parallel, a
+	 *             {@link PartialReadException} is thrown after all files
+	 *             have been tried if any of them could not be read.
 	 * @throws E
 	 *             If there is an otherwise-unchecked instance of {@link Throwable} thrown from a
 	 *             subclass.
@@ -214,7 +906,9 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	 *         as values representing the input files.
 	 * @throws IOException
 	 *             If the <code>indir</code> is not a valid directory or another
-	 *             I/O error occurs.
+	 *             I/O error occurs; If the files are read in parallel, a
+	 *             {@link PartialReadException} is thrown after all files
+	 *             have been tried if any of them could not be read.
 	 * @throws E
 	 *             If there is an  otherwise-unchecked instance of {@link Throwable} thrown from a
 	 *             subclass.
@@ -238,18 +932,14 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 	 *             subclass.
 	 */
 	public final O readFile(final File infile) throws IOException, E {
-		beforeReadingFile(infile);
-		O result = null;
-
-		final FileInputStream is = new FileInputStream(infile);
-
-		try {
-			result = read(is);
-		} finally {
-			is.close();
+		// Hooks are never called concurrently even when reading in parallel
+		synchronized (hookLock) {
+			beforeReadingFile(infile);
+		}
+		final O result = readFileContents(infile);
+		synchronized (hookLock) {
+			afterReadingFile(result);
 		}
-
-		afterReadingFile(result);
 		return result;
 
 	}
@@ -271,6 +961,50 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 		return readFile(new File(infile));
 	}
 
+	/**
+	 * Reads a file through an {@link AsynchronousFileChannel} without
+	 * blocking and then parses it between its hooks by a task run by the
+	 * {@link #setExecutor(Executor) executor} if one is set and this reader
+	 * {@link #isThreadSafe() is thread-safe} or otherwise by a thread parsing
+	 * one asynchronous read at a time. Unless this reader is thread-safe, no
+	 * file may be read synchronously until the returned future is done.
+	 * 
+	 * @param infile
+	 *            The {@link File} to be read.
+	 * @return A {@link ListenableFuture} of the object representing the input
+	 *         file, which fails with the {@link Throwable} thrown if the file
+	 *         could not be read or parsed.
+	 */
+	public final ListenableFuture<O> readFileAsync(final File infile) {
+		ListenableFuture<O> result;
+		try {
+			final AsynchronousFileChannel channel = AsynchronousFileChannel
+					.open(infile.toPath(), StandardOpenOption.READ);
+			result = readAsync(channel, infile, true);
+		} catch (final IOException e) {
+			result = Futures.immediateFailedFuture(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a file through an {@link AsynchronousFileChannel} without
+	 * blocking and then parses it between its hooks by a task run by the
+	 * {@link #setExecutor(Executor) executor} if one is set and this reader
+	 * {@link #isThreadSafe() is thread-safe} or otherwise by a thread parsing
+	 * one asynchronous read at a time. Unless this reader is thread-safe, no
+	 * file may be read synchronously until the returned future is done.
+	 * 
+	 * @param infile
+	 *            The file to be read.
+	 * @return A {@link ListenableFuture} of the object representing the input
+	 *         file, which fails with the {@link Throwable} thrown if the file
+	 *         could not be read or parsed.
+	 */
+	public final ListenableFuture<O> readFileAsync(final String infile) {
+		return readFileAsync(new File(infile));
+	}
+
 	/**
 	 * Reads the file or directory denoted by a given path which match a given
 	 * {@link FilenameFilter} and returns the data contained therein as a new
@@ -382,6 +1116,137 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 		return readPath(new File(inpath), filenameFilter);
 	}
 
+	/**
+	 * Sets the {@link Executor} used for reading the files of a directory in
+	 * parallel, which requires {@link #readFileContents(File)} to be
+	 * thread-safe, and for parsing files read asynchronously by a thread-safe
+	 * reader.
+	 * 
+	 * @param executor
+	 *            The <code>Executor</code> to use or <code>null</code> to read
+	 *            files sequentially.
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the maximum number of files read or waiting to be read at once
+	 * when reading in parallel; Further files are only handed to the
+	 * {@link Executor} as others finish.
+	 * 
+	 * @param maxPendingFiles
+	 *            The maximum number of pending files.
+	 * @throws IllegalArgumentException
+	 *             If <code>maxPendingFiles</code> is less than 1.
+	 */
+	public void setMaxPendingFiles(final int maxPendingFiles) {
+		if (maxPendingFiles < 1) {
+			throw new IllegalArgumentException(
+					"The maximum number of pending files must be positive but was "
+							+ maxPendingFiles + ".");
+		}
+		this.maxPendingFiles = maxPendingFiles;
+	}
+
+	/**
+	 * Sets the {@link Executor} used for loading the files read in parallel
+	 * into memory before handing them over to the {@link #setExecutor(Executor)
+	 * executor} parsing them; It is not used when reading sequentially.
+	 * 
+	 * @param prefetchExecutor
+	 *            The <code>Executor</code> to use or <code>null</code> to read
+	 *            and parse each file in the same task.
+	 */
+	public void setPrefetchExecutor(final Executor prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	/**
+	 * Reads the files found by a given {@link DirectoryWalker}, each as soon
+	 * as it is found, and passes the data contained in each on to a given
+	 * {@link FileReadListener} as soon as it has been read.
+	 * 
+	 * @param walker
+	 *            The <code>DirectoryWalker</code> finding the files to be read.
+	 * @param listener
+	 *            The <code>FileReadListener</code> to notify of each file read.
+	 * @throws IOException
+	 *             If the {@link DirectoryWalker#getRoot() root} of the walker is
+	 *             not a valid directory or another I/O error occurs; If the
+	 *             files are read in parallel, a {@link PartialReadException} is
+	 *             thrown after all files have been tried if any of them could
+	 *             not be read.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	public final void streamDirectory(final DirectoryWalker walker,
+			final FileReadListener<? super O> listener) throws IOException, E {
+		final Map<File, Throwable> failures;
+		final DirectoryWalker.PathIterator paths = openWalk(walker);
+		try {
+			failures = readFiles(toFiles(paths), false, listener);
+		} catch (final DirectoryIteratorException e) {
+			throw e.getCause();
+		} finally {
+			paths.close();
+		}
+		if (!failures.isEmpty()) {
+			throw new PartialReadException(Collections.<File, O> emptyMap(),
+					failures);
+		}
+	}
+
+	/**
+	 * Reads the files contained in a given directory and passes the data
+	 * contained in each on to a given {@link FileReadListener} as soon as it
+	 * has been read.
+	 * 
+	 * @param indir
+	 *            The directory of files to be read.
+	 * @param listener
+	 *            The <code>FileReadListener</code> to notify of each file read.
+	 * @throws IOException
+	 *             If the <code>indir</code> is not a valid directory or another
+	 *             I/O error occurs; If the files are read in parallel, a
+	 *             {@link PartialReadException} is thrown after all files have
+	 *             been tried if any of them could not be read.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	public final void streamDirectory(final File indir,
+			final FileReadListener<? super O> listener) throws IOException, E {
+		streamDirectory(new DirectoryWalker(indir.toPath()), listener);
+	}
+
+	/**
+	 * Reads the file or directory denoted by a given path and passes the data
+	 * contained in each file on to a given {@link FileReadListener} as soon as
+	 * it has been read.
+	 * 
+	 * @param inpath
+	 *            The path to be read.
+	 * @param listener
+	 *            The <code>FileReadListener</code> to notify of each file read.
+	 * @throws IOException
+	 *             If <code>inpath</code> is not a valid path or another I/O
+	 *             error occurs.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	public final void streamPath(final File inpath,
+			final FileReadListener<? super O> listener) throws IOException, E {
+		if (inpath.isDirectory()) {
+			streamDirectory(inpath, listener);
+		} else {
+			final O fileContents = readFile(inpath);
+			listener.notifyFileRead(inpath, fileContents);
+		}
+	}
+
 	/**
 	 * A hook method called after calling {@code readDirectory(...)}. Unless
 	 * overridden by a subclass, this method does nothing.
@@ -415,6 +1280,75 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 		// Do nothing by default
 	}
 
+	/**
+	 * Returns whether {@link #read(InputStream)},
+	 * {@link #readFileContents(File)} and
+	 * {@link #readPrefetchedContents(File, InputStream)} can be called by
+	 * several threads at once. Unless overridden by a subclass, this method
+	 * returns <code>false</code>, so that files
+	 * {@link #readFileAsync(File) read asynchronously} are parsed one at a
+	 * time by a thread of this reader's own even if an
+	 * {@link #setExecutor(Executor) executor} is set.
+	 * 
+	 * @return <code>true</code> iff this reader is thread-safe.
+	 */
+	protected boolean isThreadSafe() {
+		return false;
+	}
+
+	/**
+	 * Reads the contents of a single file for {@link #readFile(File)}, between
+	 * its hooks. Unless overridden by a subclass, this method
+	 * {@link #read(java.io.InputStream) reads} a new {@link FileInputStream}
+	 * of the file.
+	 * 
+	 * @param infile
+	 *            The {@link File} to be read.
+	 * @return An object representing the input file.
+	 * @throws IOException
+	 *             If the input {@code File} object does not refer to a valid
+	 *             file or another I/O error occurs.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	protected O readFileContents(final File infile) throws IOException, E {
+		final O result;
+
+		final FileInputStream is = new FileInputStream(infile);
+
+		try {
+			result = read(is);
+		} finally {
+			is.close();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Parses the contents of a single file which have been prefetched into
+	 * memory, between the hooks of the file. Unless overridden by a subclass,
+	 * this method simply {@link #read(InputStream) reads} the contents; A
+	 * subclass overriding {@link #readFileContents(File)} should override
+	 * this method correspondingly if its files are to be prefetched.
+	 * 
+	 * @param infile
+	 *            The {@link File} the contents were read from.
+	 * @param input
+	 *            An {@link InputStream} of the prefetched contents.
+	 * @return An object representing the input file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	protected O readPrefetchedContents(final File infile,
+			final InputStream input) throws IOException, E {
+		return read(input);
+	}
+
 	/**
 	 * A hook method called after calling {@code readDirectory(...)}. Unless
 	 * overridden by a subclass, this method does nothing.
@@ -448,4 +1382,213 @@ public abstract class AbstractFileSystemReader<O, E extends Throwable>
 		// Do nothing by default
 	}
 
+	/**
+	 * Starts reading the whole contents of an {@link AsynchronousFileChannel}.
+	 * 
+	 * @param channel
+	 *            The <code>AsynchronousFileChannel</code> to read.
+	 * @param infile
+	 *            The file the channel was opened for or <code>null</code> if
+	 *            the channel is not associated with a file.
+	 * @param closeChannel
+	 *            Whether the channel should be closed once it has been read.
+	 * @return A {@link ListenableFuture} of the object representing the
+	 *         contents.
+	 */
+	private ListenableFuture<O> readAsync(
+			final AsynchronousFileChannel channel, final File infile,
+			final boolean closeChannel) {
+		ListenableFuture<O> result;
+		try {
+			final AsyncChannelRead read = new AsyncChannelRead(channel,
+					infile, closeChannel);
+			result = read.result;
+			read.readNext();
+		} catch (final IOException e) {
+			if (closeChannel) {
+				try {
+					channel.close();
+				} catch (final IOException closeException) {
+					e.addSuppressed(closeException);
+				}
+			}
+			result = Futures.immediateFailedFuture(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads files as they are iterated either sequentially or, if an
+	 * {@link Executor} is set, in parallel, collecting the results in a
+	 * {@link Map}.
+	 * 
+	 * @param files
+	 *            The files to read.
+	 * @param largestFirst
+	 *            If <code>true</code> and reading in parallel, all files are
+	 *            iterated before starting to read the largest ones first.
+	 * @return A new <code>Map</code> of {@link File} objects as keys with
+	 *         objects as values representing the files.
+	 * @throws IOException
+	 *             If an I/O error occurs or, when reading in parallel, any
+	 *             file could not be read.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass while reading
+	 *             sequentially.
+	 */
+	private Map<File, O> readFiles(final Iterator<File> files,
+			final boolean largestFirst) throws IOException, E {
+		final Map<File, O> result = new HashMap<File, O>();
+		final Map<File, Throwable> failures = readFiles(files, largestFirst,
+				new FileReadListener<O>() {
+
+					@Override
+					public void notifyFileRead(final File file,
+							final O fileContents) {
+						result.put(file, fileContents);
+					}
+
+				});
+		if (!failures.isEmpty()) {
+			throw new PartialReadException(result, failures);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads files as they are iterated either sequentially or, if an
+	 * {@link Executor} is set, in parallel.
+	 * 
+	 * @param files
+	 *            The files to read.
+	 * @param largestFirst
+	 *            If <code>true</code> and reading in parallel, all files are
+	 *            iterated before starting to read the largest ones first.
+	 * @param listener
+	 *            The {@link FileReadListener} to notify of each file read.
+	 * @return A {@link Map} of the {@link Throwable} thrown for each file which
+	 *         could not be read in parallel, which is empty when reading
+	 *         sequentially.
+	 * @throws IOException
+	 *             If an I/O error occurs while reading sequentially or the
+	 *             reading thread is interrupted.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass while reading
+	 *             sequentially.
+	 */
+	private Map<File, Throwable> readFiles(final Iterator<File> files,
+			final boolean largestFirst,
+			final FileReadListener<? super O> listener) throws IOException, E {
+		final Executor currentExecutor = executor;
+		final Map<File, Throwable> result;
+		if (currentExecutor == null) {
+			while (files.hasNext()) {
+				final File file = files.next();
+				final O fileContents = readFile(file);
+				listener.notifyFileRead(file, fileContents);
+			}
+			result = Collections.emptyMap();
+		} else {
+			result = readFilesInParallel(files, largestFirst, listener,
+					currentExecutor);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads files in parallel, either as they are iterated or, after
+	 * iterating all of them, starting with the largest ones.
+	 * 
+	 * @param files
+	 *            The files to read.
+	 * @param largestFirst
+	 *            If <code>true</code>, all files are iterated before starting
+	 *            to read the largest ones first.
+	 * @param listener
+	 *            The {@link FileReadListener} to notify of each file read.
+	 * @param executor
+	 *            The {@link Executor} to run the reading tasks.
+	 * @return A {@link Map} of the {@link Throwable} thrown for each file which
+	 *         could not be read.
+	 * @throws InterruptedIOException
+	 *             If the reading thread is interrupted.
+	 */
+	private Map<File, Throwable> readFilesInParallel(
+			final Iterator<File> files, final boolean largestFirst,
+			final FileReadListener<? super O> listener, final Executor executor)
+			throws InterruptedIOException {
+		final ParallelRead read = new ParallelRead(listener, maxPendingFiles,
+				executor, prefetchExecutor);
+		try {
+			if (largestFirst) {
+				final List<FileReadTask> schedule = new ArrayList<FileReadTask>();
+				while (files.hasNext()) {
+					schedule.add(new FileReadTask(files.next(), read));
+				}
+				// Start the largest files first so that the tasks finish evenly
+				Collections.sort(schedule, new Comparator<FileReadTask>() {
+					@Override
+					public int compare(final FileReadTask o1,
+							final FileReadTask o2) {
+						return Long.compare(o2.size, o1.size);
+					}
+				});
+				for (final FileReadTask task : schedule) {
+					read.execute(task);
+				}
+			} else {
+				while (files.hasNext()) {
+					read.execute(new FileReadTask(files.next(), read));
+				}
+			}
+			read.awaitTasks();
+		} catch (final RuntimeException e) {
+			// The executor rejected a task or the files could not be iterated
+			read.cancelled.set(true);
+			throw e;
+		} catch (final InterruptedException e) {
+			read.cancelled.set(true);
+			Thread.currentThread().interrupt();
+			final InterruptedIOException ex = new InterruptedIOException(
+					"Interrupted while reading files in parallel.");
+			ex.initCause(e);
+			throw ex;
+		}
+
+		for (final Throwable failure : read.failures.values()) {
+			if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+		}
+		return read.failures;
+	}
+
+	/**
+	 * Parses a prefetched file between its hooks like
+	 * {@link #readFile(File)} reads one.
+	 * 
+	 * @param infile
+	 *            The {@link File} the contents were read from.
+	 * @param input
+	 *            An {@link InputStream} of the prefetched contents.
+	 * @return An object representing the input file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws E
+	 *             If there is an otherwise-unchecked instance of
+	 *             {@link Throwable} thrown from a subclass.
+	 */
+	private O readPrefetchedFile(final File infile, final InputStream input)
+			throws IOException, E {
+		synchronized (hookLock) {
+			beforeReadingFile(infile);
+		}
+		final O result = readPrefetchedContents(infile, input);
+		synchronized (hookLock) {
+			afterReadingFile(result);
+		}
+		return result;
+	}
 }
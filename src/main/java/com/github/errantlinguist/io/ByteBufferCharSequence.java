@@ -0,0 +1,192 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link CharSequence} view of a range of bytes in a {@link ByteBuffer}
+ * which is encoded in an ASCII-compatible encoding such as UTF-8.
+ * <p>
+ * {@link #charAt(int)} maps each byte directly to a <code>char</code>, so
+ * scanning for ASCII characters does not require decoding or copying the
+ * bytes; Only {@link #toString()} decodes the bytes using the encoding of the
+ * view. The range of the view can be changed using
+ * {@link #setRange(int, int)} so that one instance can be reused for e.g.
+ * each line of a file.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ */
+public final class ByteBufferCharSequence implements CharSequence {
+
+	/**
+	 * The {@link ByteBuffer} containing the bytes this view represents.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The encoding used for decoding the bytes in {@link #toString()}.
+	 */
+	private final Charset charset;
+
+	/**
+	 * The absolute index in {@link #buffer} after the last byte of the view.
+	 */
+	private int end;
+
+	/**
+	 * The absolute index in {@link #buffer} of the first byte of the view.
+	 */
+	private int start;
+
+	/**
+	 * Creates an empty UTF-8 view of a given {@link ByteBuffer}.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> containing the bytes the view
+	 *            represents.
+	 */
+	public ByteBufferCharSequence(final ByteBuffer buffer) {
+		this(buffer, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates an empty view of a given {@link ByteBuffer}.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> containing the bytes the view
+	 *            represents.
+	 * @param charset
+	 *            The ASCII-compatible encoding used for decoding the bytes in
+	 *            {@link #toString()}.
+	 */
+	public ByteBufferCharSequence(final ByteBuffer buffer,
+			final Charset charset) {
+		this(buffer, charset, 0, 0);
+	}
+
+	/**
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> containing the bytes the view
+	 *            represents.
+	 * @param charset
+	 *            The ASCII-compatible encoding used for decoding the bytes in
+	 *            {@link #toString()}.
+	 * @param start
+	 *            The absolute index in <code>buffer</code> of the first byte
+	 *            of the view.
+	 * @param end
+	 *            The absolute index in <code>buffer</code> after the last byte
+	 *            of the view.
+	 */
+	public ByteBufferCharSequence(final ByteBuffer buffer,
+			final Charset charset, final int start, final int end) {
+		this.buffer = buffer;
+		this.charset = charset;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return The byte at the given index in the view, widened to a
+	 *         <code>char</code> without decoding.
+	 */
+	@Override
+	public char charAt(final int index) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return (char) (buffer.get(start + index) & 0xFF);
+	}
+
+	/**
+	 * @return The absolute index in the backing {@link ByteBuffer} after the
+	 *         last byte of the view.
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return The absolute index in the backing {@link ByteBuffer} of the
+	 *         first byte of the view.
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	/**
+	 * Sets the range of the backing {@link ByteBuffer} this object is a view
+	 * of.
+	 *
+	 * @param start
+	 *            The absolute index of the first byte of the view.
+	 * @param end
+	 *            The absolute index after the last byte of the view.
+	 */
+	public void setRange(final int start, final int end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return A new view of the given range of this view which is backed by
+	 *         the same {@link ByteBuffer}.
+	 */
+	@Override
+	public ByteBufferCharSequence subSequence(final int start, final int end) {
+		if (start < 0 || end > length() || start > end) {
+			throw new IndexOutOfBoundsException(String.format(
+					"start: %d; end: %d; length: %d", start, end, length()));
+		}
+		return new ByteBufferCharSequence(buffer, charset, this.start + start,
+				this.start + end);
+	}
+
+	/**
+	 * @return A new {@link String} decoded from the bytes this object is a
+	 *         view of.
+	 */
+	@Override
+	public String toString() {
+		final String result;
+		final int length = length();
+		if (buffer.hasArray()) {
+			result = new String(buffer.array(), buffer.arrayOffset() + start,
+					length, charset);
+		} else {
+			final byte[] bytes = new byte[length];
+			final ByteBuffer range = buffer.duplicate();
+			range.position(start);
+			range.get(bytes);
+			result = new String(bytes, charset);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The byte order marks which can be found at the start of text files, e.g.
+ * those saved by <a href="http://www.fon.hum.uva.nl/praat/">Praat</a>, and
+ * the encodings they denote.
+ *
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public enum ByteOrderMark {
+	/**
+	 * The byte order mark of UTF-16 in big-endian byte order.
+	 */
+	UTF_16BE(StandardCharsets.UTF_16BE, 0xFE, 0xFF),
+	/**
+	 * The byte order mark of UTF-16 in little-endian byte order.
+	 */
+	UTF_16LE(StandardCharsets.UTF_16LE, 0xFF, 0xFE),
+	/**
+	 * The byte order mark of UTF-8.
+	 */
+	UTF_8(StandardCharsets.UTF_8, 0xEF, 0xBB, 0xBF);
+
+	/**
+	 * The maximum length of any byte order mark, which is also enough for
+	 * {@link #detectCharset(ByteBuffer, Charset)} to detect UTF-16 text
+	 * without a byte order mark.
+	 */
+	public static final int MAX_LENGTH = 3;
+
+	/**
+	 * Detects the encoding of text starting with a given prefix from its byte
+	 * order mark or, if it has none, from the <code>NUL</code> bytes of UTF-16
+	 * text starting with an ASCII character such as the <code>File type</code>
+	 * header of a TextGrid file.
+	 *
+	 * @param prefix
+	 *            A {@link ByteBuffer} containing at least the first
+	 *            {@link #MAX_LENGTH} bytes of the text between its position
+	 *            and its limit, unless the text itself is shorter; Its
+	 *            position is not changed.
+	 * @param defaultCharset
+	 *            The encoding to return if none could be detected.
+	 * @return The detected encoding.
+	 */
+	public static Charset detectCharset(final ByteBuffer prefix,
+			final Charset defaultCharset) {
+		final Charset result;
+		final ByteOrderMark bom = find(prefix);
+		if (bom != null) {
+			result = bom.getCharset();
+		} else if (prefix.remaining() < 2) {
+			result = defaultCharset;
+		} else {
+			final int position = prefix.position();
+			final boolean isFirstNul = prefix.get(position) == 0;
+			final boolean isSecondNul = prefix.get(position + 1) == 0;
+			if (isFirstNul && !isSecondNul) {
+				result = StandardCharsets.UTF_16BE;
+			} else if (!isFirstNul && isSecondNul) {
+				result = StandardCharsets.UTF_16LE;
+			} else {
+				result = defaultCharset;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Detects the encoding of the text in a given {@link BufferedInputStream}
+	 * as by {@link #detectCharset(ByteBuffer, Charset)}, skipping its byte
+	 * order mark if it has one.
+	 *
+	 * @param input
+	 *            The <code>BufferedInputStream</code> to read the text from,
+	 *            which is positioned at its start.
+	 * @param defaultCharset
+	 *            The encoding to return if none could be detected.
+	 * @return The detected encoding.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static Charset detectCharset(final BufferedInputStream input,
+			final Charset defaultCharset) throws IOException {
+		final byte[] prefix = new byte[MAX_LENGTH];
+		input.mark(prefix.length);
+		int length = 0;
+		while (length < prefix.length) {
+			final int readLength = input.read(prefix, length, prefix.length
+					- length);
+			if (readLength < 0) {
+				break;
+			}
+			length += readLength;
+		}
+		input.reset();
+
+		final ByteBuffer prefixBuffer = ByteBuffer.wrap(prefix, 0, length);
+		final ByteOrderMark bom = find(prefixBuffer);
+		if (bom != null) {
+			input.skip(bom.getLength());
+		}
+		return detectCharset(prefixBuffer, defaultCharset);
+	}
+
+	/**
+	 * Finds the byte order mark at the start of a given prefix of text.
+	 *
+	 * @param prefix
+	 *            A {@link ByteBuffer} containing at least the first
+	 *            {@link #MAX_LENGTH} bytes of the text between its position
+	 *            and its limit, unless the text itself is shorter; Its
+	 *            position is not changed.
+	 * @return The <code>ByteOrderMark</code> found or <code>null</code> if
+	 *         the text has none.
+	 */
+	public static ByteOrderMark find(final ByteBuffer prefix) {
+		ByteOrderMark result = null;
+		for (final ByteOrderMark bom : values()) {
+			if (bom.isPrefixOf(prefix)) {
+				result = bom;
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The bytes of the byte order mark.
+	 */
+	private final byte[] bytes;
+
+	/**
+	 * The encoding denoted by the byte order mark.
+	 */
+	private final Charset charset;
+
+	/**
+	 *
+	 * @param charset
+	 *            The encoding denoted by the byte order mark.
+	 * @param bytes
+	 *            The bytes of the byte order mark as unsigned values.
+	 */
+	private ByteOrderMark(final Charset charset, final int... bytes) {
+		this.charset = charset;
+		this.bytes = new byte[bytes.length];
+		for (int i = 0; i < bytes.length; ++i) {
+			this.bytes[i] = (byte) bytes[i];
+		}
+	}
+
+	/**
+	 *
+	 * @return The encoding denoted by the byte order mark.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 *
+	 * @return The length of the byte order mark in bytes.
+	 */
+	public int getLength() {
+		return bytes.length;
+	}
+
+	/**
+	 * Checks if a given prefix of text starts with this byte order mark.
+	 *
+	 * @param prefix
+	 *            A {@link ByteBuffer} containing the prefix between its
+	 *            position and its limit.
+	 * @return <code>true</code> iff the prefix starts with the byte order
+	 *         mark.
+	 */
+	private boolean isPrefixOf(final ByteBuffer prefix) {
+		final int position = prefix.position();
+		boolean result = prefix.remaining() >= bytes.length;
+		for (int i = 0; result && i < bytes.length; ++i) {
+			result = prefix.get(position + i) == bytes[i];
+		}
+		return result;
+	}
+
+}
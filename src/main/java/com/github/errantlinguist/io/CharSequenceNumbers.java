@@ -0,0 +1,198 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+/**
+ * A utility class for parsing numbers directly from a range of a
+ * {@link CharSequence} without first creating a {@link String} of the range.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ */
+public final class CharSequenceNumbers {
+
+	/**
+	 * The exclusive upper bound of integers which can be represented exactly
+	 * as a <code>double</code>, i.e.&nbsp;2<sup>53</sup>.
+	 */
+	private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+
+	/**
+	 * The value above which the digits of an exponent are no longer
+	 * accumulated.
+	 */
+	private static final int MAX_EXPONENT_VALUE = 10000;
+
+	/**
+	 * The maximum number of decimal digits which are accumulated in a
+	 * <code>long</code> mantissa without overflowing.
+	 */
+	private static final int MAX_MANTISSA_DIGITS = 18;
+
+	/**
+	 * The powers of ten which can be represented exactly as a
+	 * <code>double</code>.
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Parses a range of a {@link CharSequence} as a <code>double</code>,
+	 * returning exactly the same value as {@link Double#parseDouble(String)}
+	 * would for the same characters.
+	 * <p>
+	 * Plain decimal numbers with an optional sign, fraction and exponent such
+	 * as <code>0.5</code>, <code>-12</code> or <code>1.5e-3</code> with at
+	 * most 15 or 16 significant digits are parsed without allocating any
+	 * objects: The significant digits are accumulated as an integer which is
+	 * then multiplied or divided by a power of ten; Since both operands are
+	 * then exactly representable, the result of the single floating-point
+	 * operation is correctly rounded. Any other input, e.g.&nbsp;with more
+	 * significant digits or denoting <code>NaN</code>, is delegated to
+	 * <code>Double.parseDouble(String)</code>.
+	 * </p>
+	 *
+	 * @param seq
+	 *            The <code>CharSequence</code> containing the number.
+	 * @param start
+	 *            The index of the first character of the number.
+	 * @param end
+	 *            The index after the last character of the number.
+	 * @return The parsed number.
+	 * @throws NumberFormatException
+	 *             If the range does not contain a parsable number.
+	 */
+	public static final double parseDouble(final CharSequence seq,
+			final int start, final int end) {
+		int i = start;
+		boolean isNegative = false;
+		if (i < end) {
+			final char sign = seq.charAt(i);
+			if (sign == '-' || sign == '+') {
+				isNegative = sign == '-';
+				i++;
+			}
+		}
+
+		long mantissa = 0;
+		int mantissaDigits = 0;
+		int exponent = 0;
+		boolean isTruncated = false;
+		boolean hasDigits = false;
+		for (char c; i < end && (c = seq.charAt(i)) >= '0' && c <= '9'; ++i) {
+			hasDigits = true;
+			if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+				mantissa = mantissa * 10 + (c - '0');
+				if (mantissa > 0) {
+					mantissaDigits++;
+				}
+			} else {
+				isTruncated |= c != '0';
+				exponent++;
+			}
+		}
+		if (i < end && seq.charAt(i) == '.') {
+			for (++i; i < end; ++i) {
+				final char c = seq.charAt(i);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				hasDigits = true;
+				if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+					if (mantissa > 0) {
+						mantissaDigits++;
+					}
+					exponent--;
+				} else {
+					isTruncated |= c != '0';
+				}
+			}
+		}
+		if (hasDigits && i < end) {
+			final char c = seq.charAt(i);
+			if (c == 'e' || c == 'E') {
+				int j = i + 1;
+				boolean isExponentNegative = false;
+				if (j < end) {
+					final char sign = seq.charAt(j);
+					if (sign == '-' || sign == '+') {
+						isExponentNegative = sign == '-';
+						j++;
+					}
+				}
+				final int exponentDigitsStart = j;
+				int exponentValue = 0;
+				for (char d; j < end && (d = seq.charAt(j)) >= '0'
+						&& d <= '9'; ++j) {
+					// Any larger exponent is out of the fast path range anyway
+					if (exponentValue < MAX_EXPONENT_VALUE) {
+						exponentValue = exponentValue * 10 + (d - '0');
+					}
+				}
+				if (j > exponentDigitsStart) {
+					exponent += isExponentNegative ? -exponentValue
+							: exponentValue;
+					i = j;
+				}
+			}
+		}
+
+		final double result;
+		if (!hasDigits || i != end || isTruncated) {
+			result = parseDoubleSlowly(seq, start, end);
+		} else if (mantissa == 0) {
+			result = isNegative ? -0.0 : 0.0;
+		} else if (mantissa < MAX_EXACT_DOUBLE_MANTISSA
+				&& exponent >= -(POWERS_OF_TEN.length - 1)
+				&& exponent < POWERS_OF_TEN.length) {
+			final double magnitude = exponent < 0 ? mantissa
+					/ POWERS_OF_TEN[-exponent] : mantissa
+					* POWERS_OF_TEN[exponent];
+			result = isNegative ? -magnitude : magnitude;
+		} else {
+			result = parseDoubleSlowly(seq, start, end);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a range of a {@link CharSequence} using
+	 * {@link Double#parseDouble(String)}.
+	 *
+	 * @param seq
+	 *            The <code>CharSequence</code> containing the number.
+	 * @param start
+	 *            The index of the first character of the number.
+	 * @param end
+	 *            The index after the last character of the number.
+	 * @return The parsed number.
+	 * @throws NumberFormatException
+	 *             If the range does not contain a parsable number.
+	 */
+	private static double parseDoubleSlowly(final CharSequence seq,
+			final int start, final int end) {
+		return Double.parseDouble(seq.subSequence(start, end).toString());
+	}
+
+	private CharSequenceNumbers() {
+		// Avoid instantiation
+	}
+
+}
@@ -0,0 +1,451 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A walker over the regular files in a directory and any of its sub-directories which
+ * yields each file as soon as it is found, so that the files can be processed
+ * while the rest of the tree is still being listed.
+ * <p>
+ * Each directory is listed through a {@link DirectoryStream}, which reads its
+ * entries lazily, and only the streams of the directories on the path to the
+ * current one are open at any time. Files can be selected by
+ * {@link #addInclude(String) include} and {@link #addExclude(String) exclude}
+ * glob patterns: Include patterns only apply to files, so that
+ * e.g.&nbsp;<code>*.TextGrid</code> does not stop the walker from descending
+ * into sub-directories, while a directory matching an exclude pattern is
+ * pruned, i.e.&nbsp;never listed at all. A pattern containing a
+ * <code>/</code> is matched against the path relative to the root directory
+ * and any other pattern against the file name only, so
+ * <code>*.TextGrid</code> matches files at any depth.
+ * </p>
+ * <p>
+ * Symbolic links are {@link #setFollowLinks(boolean) followed} by default;
+ * Each directory is nevertheless only walked once, which keeps links pointing
+ * to one of their own ancestors from making the walk endless.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public class DirectoryWalker implements Iterable<Path> {
+
+	/**
+	 * An {@link Iterator} over the files found by a {@link DirectoryWalker},
+	 * which lists the directories only as far as needed for finding the next
+	 * file.
+	 * <p>
+	 * An {@link IOException} thrown while listing a directory is rethrown
+	 * wrapped in a {@link DirectoryIteratorException} like by the iterator of
+	 * a {@link DirectoryStream}. The iterator closes all its directory streams
+	 * once it is exhausted; if it is not iterated to the end, it must be
+	 * {@link #close() closed} instead.
+	 * </p>
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 *
+	 */
+	public final class PathIterator implements Closeable, Iterator<Path> {
+
+		/**
+		 * The file to return next or <code>null</code> if it has not been
+		 * found yet.
+		 */
+		private Path next = null;
+
+		/**
+		 * The iterators of {@link #openStreams}, the innermost one first.
+		 */
+		private final Deque<Iterator<Path>> openIterators = new ArrayDeque<Iterator<Path>>();
+
+		/**
+		 * The directory streams currently open, the innermost one first.
+		 */
+		private final Deque<DirectoryStream<Path>> openStreams = new ArrayDeque<DirectoryStream<Path>>();
+
+		/**
+		 * The {@link BasicFileAttributes#fileKey() keys} or, if the file
+		 * system has none, the real paths of each directory walked so far.
+		 */
+		private final Set<Object> visitedDirs = new HashSet<Object>();
+
+		/**
+		 * Opens the root directory.
+		 *
+		 * @throws IOException
+		 *             If the root directory cannot be opened.
+		 */
+		private PathIterator() throws IOException {
+			final BasicFileAttributes rootAttrs = Files.readAttributes(root,
+					BasicFileAttributes.class, linkOptions);
+			if (!rootAttrs.isDirectory()) {
+				throw new IOException("\"" + root + "\" is not a directory.");
+			}
+			openDirectory(root, rootAttrs);
+		}
+
+		/**
+		 * Closes all open directory streams.
+		 *
+		 * @throws IOException
+		 *             If an I/O error occurs.
+		 */
+		@Override
+		public void close() throws IOException {
+			next = null;
+			IOException closeException = null;
+			while (!openStreams.isEmpty()) {
+				openIterators.pop();
+				try {
+					openStreams.pop().close();
+				} catch (final IOException e) {
+					if (closeException == null) {
+						closeException = e;
+					} else {
+						closeException.addSuppressed(e);
+					}
+				}
+			}
+			if (closeException != null) {
+				throw closeException;
+			}
+		}
+
+		/**
+		 * @throws DirectoryIteratorException
+		 *             If an I/O error occurs while listing a directory.
+		 */
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				try {
+					next = findNext();
+				} catch (final IOException e) {
+					throw new DirectoryIteratorException(e);
+				}
+			}
+			return next != null;
+		}
+
+		/**
+		 * @throws DirectoryIteratorException
+		 *             If an I/O error occurs while listing a directory.
+		 */
+		@Override
+		public Path next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Path result = next;
+			next = null;
+			return result;
+		}
+
+		/**
+		 * @throws UnsupportedOperationException
+		 *             Always.
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Lists the open directories until the next selected file is found,
+		 * closing each directory once it is exhausted and opening each
+		 * sub-directory which is not pruned.
+		 *
+		 * @return The next file or <code>null</code> if there is none.
+		 * @throws IOException
+		 *             If an I/O error occurs.
+		 */
+		private Path findNext() throws IOException {
+			Path result = null;
+			while (result == null && !openIterators.isEmpty()) {
+				final Iterator<Path> dirContents = openIterators.peek();
+				final Path path;
+				try {
+					path = dirContents.hasNext() ? dirContents.next() : null;
+				} catch (final DirectoryIteratorException e) {
+					throw e.getCause();
+				}
+				if (path == null) {
+					openIterators.pop();
+					openStreams.pop().close();
+				} else {
+					final BasicFileAttributes attrs;
+					try {
+						attrs = Files.readAttributes(path,
+								BasicFileAttributes.class, linkOptions);
+					} catch (final NoSuchFileException e) {
+						// A broken link or a file deleted since listing it
+						continue;
+					}
+					final Path relativePath = root.relativize(path);
+					if (attrs.isDirectory()) {
+						if (!matchesAny(excludes, relativePath)) {
+							openDirectory(path, attrs);
+						}
+					} else if (attrs.isRegularFile()
+							&& isSelected(relativePath)) {
+						result = path;
+					}
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Opens a directory unless it has already been walked.
+		 *
+		 * @param dir
+		 *            The directory to open.
+		 * @param attrs
+		 *            The {@link BasicFileAttributes} of the directory.
+		 * @throws IOException
+		 *             If an I/O error occurs.
+		 */
+		private void openDirectory(final Path dir,
+				final BasicFileAttributes attrs) throws IOException {
+			final Object fileKey = attrs.fileKey();
+			final Object dirKey = fileKey == null ? dir.toRealPath()
+					: fileKey;
+			if (visitedDirs.add(dirKey)) {
+				final DirectoryStream<Path> stream = Files
+						.newDirectoryStream(dir);
+				openStreams.push(stream);
+				openIterators.push(stream.iterator());
+			}
+		}
+
+	}
+
+	/**
+	 * A glob pattern matched against either the relative path or the name of
+	 * a file.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 *
+	 */
+	private final class Pattern {
+
+		/**
+		 * Whether the pattern is matched against whole relative paths rather
+		 * than file names.
+		 */
+		private final boolean isPathPattern;
+
+		/**
+		 * The {@link PathMatcher} of the pattern.
+		 */
+		private final PathMatcher matcher;
+
+		/**
+		 *
+		 * @param glob
+		 *            The glob pattern.
+		 */
+		private Pattern(final String glob) {
+			isPathPattern = glob.indexOf(PATTERN_SEPARATOR) >= 0;
+			matcher = root.getFileSystem().getPathMatcher(GLOB_SYNTAX + glob);
+		}
+
+		/**
+		 *
+		 * @param relativePath
+		 *            The path relative to the root directory.
+		 * @return <code>true</code> iff the pattern matches the path.
+		 */
+		private boolean matches(final Path relativePath) {
+			return matcher.matches(isPathPattern ? relativePath : relativePath
+					.getFileName());
+		}
+
+	}
+
+	/**
+	 * The name of the file system {@link PathMatcher} syntax of glob
+	 * patterns.
+	 */
+	private static final String GLOB_SYNTAX = "glob:";
+
+	/**
+	 * The separator of the components of relative paths in glob patterns.
+	 */
+	private static final char PATTERN_SEPARATOR = '/';
+
+	/**
+	 * Checks if a path matches any of the given patterns.
+	 *
+	 * @param patterns
+	 *            The patterns to match.
+	 * @param relativePath
+	 *            The path relative to the root directory.
+	 * @return <code>true</code> iff any pattern matches.
+	 */
+	private static boolean matchesAny(final List<Pattern> patterns,
+			final Path relativePath) {
+		boolean result = false;
+		for (final Pattern pattern : patterns) {
+			if (pattern.matches(relativePath)) {
+				result = true;
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The patterns of the files and directories to exclude.
+	 */
+	private final List<Pattern> excludes = new ArrayList<Pattern>();
+
+	/**
+	 * The patterns of the files to include or an empty list to include all
+	 * files.
+	 */
+	private final List<Pattern> includes = new ArrayList<Pattern>();
+
+	/**
+	 * The options used for reading the attributes of files.
+	 */
+	private LinkOption[] linkOptions = new LinkOption[0];
+
+	/**
+	 * The directory to walk.
+	 */
+	private final Path root;
+
+	/**
+	 *
+	 * @param root
+	 *            The directory to walk.
+	 */
+	public DirectoryWalker(final Path root) {
+		this.root = root;
+	}
+
+	/**
+	 * Adds a glob pattern denoting files which are not yielded and
+	 * directories which are not walked.
+	 *
+	 * @param glob
+	 *            The pattern to add.
+	 * @return This <code>DirectoryWalker</code>.
+	 * @throws IllegalArgumentException
+	 *             If the pattern is invalid.
+	 */
+	public DirectoryWalker addExclude(final String glob) {
+		excludes.add(new Pattern(glob));
+		return this;
+	}
+
+	/**
+	 * Adds a glob pattern denoting files which are yielded; if no include
+	 * pattern is added, all files which are not excluded are yielded.
+	 *
+	 * @param glob
+	 *            The pattern to add.
+	 * @return This <code>DirectoryWalker</code>.
+	 * @throws IllegalArgumentException
+	 *             If the pattern is invalid.
+	 */
+	public DirectoryWalker addInclude(final String glob) {
+		includes.add(new Pattern(glob));
+		return this;
+	}
+
+	/**
+	 * @return The directory to walk.
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return <code>true</code> iff symbolic links are followed, which is
+	 *         the default.
+	 */
+	public boolean isFollowLinks() {
+		return linkOptions.length == 0;
+	}
+
+	/**
+	 * Starts a new walk of the directory.
+	 *
+	 * @return A new {@link PathIterator} over the files in the directory.
+	 * @throws DirectoryIteratorException
+	 *             If the directory cannot be opened.
+	 */
+	@Override
+	public PathIterator iterator() {
+		try {
+			return new PathIterator();
+		} catch (final IOException e) {
+			throw new DirectoryIteratorException(e);
+		}
+	}
+
+	/**
+	 * Sets whether symbolic links are followed; if not, links are neither
+	 * walked nor yielded.
+	 *
+	 * @param followLinks
+	 *            <code>true</code> iff symbolic links should be followed.
+	 */
+	public void setFollowLinks(final boolean followLinks) {
+		linkOptions = followLinks ? new LinkOption[0]
+				: new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+	}
+
+	/**
+	 * Checks if a file is yielded.
+	 *
+	 * @param relativePath
+	 *            The path of the file relative to the root directory.
+	 * @return <code>true</code> iff the file is included and not excluded.
+	 */
+	private boolean isSelected(final Path relativePath) {
+		return (includes.isEmpty() || matchesAny(includes, relativePath))
+				&& !matchesAny(excludes, relativePath);
+	}
+
+}
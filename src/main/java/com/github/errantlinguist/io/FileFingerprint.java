@@ -0,0 +1,243 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.Files;
+
+/**
+ * The identity and state of a file at a given point in time, consisting of its
+ * absolute path, its size, its last modification time and a hash of its
+ * content, which can be used for checking if data derived from the file,
+ * e.g.&nbsp;a cached copy, is still up to date.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public final class FileFingerprint implements Serializable {
+
+	/**
+	 * The {@link HashFunction} used for hashing file content.
+	 */
+	private static final HashFunction CONTENT_HASH_FUNCTION = Hashing
+			.murmur3_128();
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = 3386405958787615893L;
+
+	/**
+	 * Creates a fingerprint of the current state of a file, hashing its entire
+	 * content.
+	 *
+	 * @param file
+	 *            The file to create a fingerprint of.
+	 * @return A new <code>FileFingerprint</code> of the file.
+	 * @throws IOException
+	 *             If an I/O error occurs while reading the file.
+	 */
+	public static FileFingerprint create(final File file) throws IOException {
+		final File absoluteFile = file.getAbsoluteFile();
+		// Get the metadata first so that a file changed while it is being
+		// hashed results in a fingerprint which is stale rather than wrong
+		final long size = absoluteFile.length();
+		final long lastModified = absoluteFile.lastModified();
+		final byte[] contentHash = Files.asByteSource(absoluteFile)
+				.hash(CONTENT_HASH_FUNCTION).asBytes();
+		return new FileFingerprint(absoluteFile.getPath(), size,
+				lastModified, contentHash);
+	}
+
+	/**
+	 * Wraps an {@link InputStream} of the content of a file so that the
+	 * content read through it is hashed the same way as by
+	 * {@link #create(File)}, e.g.&nbsp;for checking if content read before
+	 * the file was fingerprinted is the content the fingerprint describes.
+	 *
+	 * @param input
+	 *            The <code>InputStream</code> to wrap.
+	 * @return A new {@link HashingInputStream} reading from
+	 *         <code>input</code>.
+	 */
+	public static HashingInputStream createContentHashingStream(
+			final InputStream input) {
+		return new HashingInputStream(CONTENT_HASH_FUNCTION, input);
+	}
+
+	/**
+	 * A hash of the file content.
+	 */
+	private final byte[] contentHash;
+
+	/**
+	 * The time the file was last modified in milliseconds since the epoch.
+	 */
+	private final long lastModified;
+
+	/**
+	 * The absolute path of the file.
+	 */
+	private final String path;
+
+	/**
+	 * The size of the file in bytes.
+	 */
+	private final long size;
+
+	/**
+	 *
+	 * @param path
+	 *            The absolute path of the file.
+	 * @param size
+	 *            The size of the file in bytes.
+	 * @param lastModified
+	 *            The time the file was last modified in milliseconds since
+	 *            the epoch.
+	 * @param contentHash
+	 *            A hash of the file content.
+	 */
+	public FileFingerprint(final String path, final long size,
+			final long lastModified, final byte[] contentHash) {
+		this.path = path;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.contentHash = contentHash.clone();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof FileFingerprint) {
+			final FileFingerprint other = (FileFingerprint) obj;
+			result = size == other.size && lastModified == other.lastModified
+					&& path.equals(other.path)
+					&& Arrays.equals(contentHash, other.contentHash);
+		} else {
+			result = false;
+		}
+		return result;
+	}
+
+	/**
+	 * @return A copy of the hash of the file content.
+	 */
+	public byte[] getContentHash() {
+		return contentHash.clone();
+	}
+
+	/**
+	 * @return The time the file was last modified in milliseconds since the
+	 *         epoch.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return The absolute path of the file.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return The size of the file in bytes.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + Arrays.hashCode(contentHash);
+		result = (prime * result) + (int) (lastModified ^ (lastModified >>> 32));
+		result = (prime * result) + path.hashCode();
+		result = (prime * result) + (int) (size ^ (size >>> 32));
+		return result;
+	}
+
+	/**
+	 * Checks if a file is still in the state this fingerprint was created
+	 * from; Its content is only hashed if its path, size and modification time
+	 * all match.
+	 *
+	 * @param file
+	 *            The file to check.
+	 * @param verifyContent
+	 *            If <code>true</code>, the content of the file is hashed and
+	 *            compared as well; Otherwise, the file is assumed to be
+	 *            unchanged if its size and modification time are.
+	 * @return <code>true</code> iff the file matches this fingerprint.
+	 * @throws IOException
+	 *             If an I/O error occurs while reading the file.
+	 */
+	public boolean matches(final File file, final boolean verifyContent)
+			throws IOException {
+		final File absoluteFile = file.getAbsoluteFile();
+		boolean result = path.equals(absoluteFile.getPath())
+				&& size == absoluteFile.length()
+				&& lastModified == absoluteFile.lastModified();
+		if (result && verifyContent) {
+			result = Arrays.equals(contentHash,
+					Files.asByteSource(absoluteFile)
+							.hash(CONTENT_HASH_FUNCTION).asBytes());
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if a hash of file content, e.g.&nbsp;one computed by a
+	 * {@link #createContentHashingStream(InputStream) content hashing stream},
+	 * is equal to the content hash of this fingerprint.
+	 *
+	 * @param hash
+	 *            The hash to check.
+	 * @return <code>true</code> iff the hashes are equal.
+	 */
+	public boolean matchesContentHash(final HashCode hash) {
+		return Arrays.equals(contentHash, hash.asBytes());
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(128);
+		builder.append("FileFingerprint [getPath()=");
+		builder.append(path);
+		builder.append(", getSize()=");
+		builder.append(size);
+		builder.append(", getLastModified()=");
+		builder.append(lastModified);
+		builder.append(']');
+		return builder.toString();
+	}
+
+}
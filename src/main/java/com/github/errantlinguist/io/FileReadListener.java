@@ -0,0 +1,46 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.File;
+
+/**
+ * An interface for listening to the files read by an
+ * {@link AbstractFileSystemReader} which passes each result on as soon as it
+ * has been read rather than collecting all of them in a {@link java.util.Map
+ * Map}, so that the result can be released as soon as the listener is done
+ * with it.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <O>
+ *            The object type representing the file data.
+ *
+ */
+public interface FileReadListener<O> {
+
+	/**
+	 *
+	 * @param file
+	 *            The file which has been read.
+	 * @param result
+	 *            The object representing the file.
+	 */
+	void notifyFileRead(File file, O result);
+
+}
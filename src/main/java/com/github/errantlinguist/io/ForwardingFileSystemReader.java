@@ -18,11 +18,21 @@ package com.github.errantlinguist.io;
 import java.io.IOException;
 import java.io.InputStream;
 
+import com.github.errantlinguist.Factory;
+
 /**
  * A subclass of {@link AbstractFileSystemReader} which delegates file-reading functionality to a given {@link InputStreamReader}.
+ * <p>
+ * A reader created with a {@link Factory} of readers instead uses a reader of
+ * its own in each thread, so that it can read files {@link #setExecutor(java.util.concurrent.Executor)
+ * in parallel} even if the readers created are not thread-safe; Such a reader
+ * is {@link #isThreadSafe() thread-safe}, so that files
+ * {@link #readFileAsync(java.io.File) read asynchronously} are parsed
+ * concurrently by the executor as well.
+ * </p>
  *
  * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
- * @version 2014-02-11
+ * @version 2014-02-16
  * @since 2014-02-11
  * 
  * @param <O>
@@ -35,9 +45,32 @@ public class ForwardingFileSystemReader<O, E extends Throwable> extends
 		AbstractFileSystemReader<O, E> {
 
 	/**
-	 * The {@link InputStreamReader} used for reading file contents.
+	 * The {@link InputStreamReader} used for reading file contents in each
+	 * thread.
+	 */
+	private final ThreadLocal<InputStreamReader<O, E>> readers;
+
+	/**
+	 * Whether each thread uses a reader of its own.
 	 */
-	private final InputStreamReader<O, E> reader;
+	private final boolean threadSafe;
+
+	/**
+	 * @param readerFactory
+	 *            The {@link Factory} used for creating the
+	 *            {@link InputStreamReader} used for reading file contents in
+	 *            each thread.
+	 */
+	public ForwardingFileSystemReader(
+			final Factory<? extends InputStreamReader<O, E>> readerFactory) {
+		readers = new ThreadLocal<InputStreamReader<O, E>>() {
+			@Override
+			protected InputStreamReader<O, E> initialValue() {
+				return readerFactory.create();
+			}
+		};
+		threadSafe = true;
+	}
 
 	/**
 	 * @param reader
@@ -45,12 +78,23 @@ public class ForwardingFileSystemReader<O, E extends Throwable> extends
 	 *            contents.
 	 */
 	public ForwardingFileSystemReader(final InputStreamReader<O, E> reader) {
-		this.reader = reader;
+		readers = new ThreadLocal<InputStreamReader<O, E>>() {
+			@Override
+			protected InputStreamReader<O, E> initialValue() {
+				return reader;
+			}
+		};
+		threadSafe = false;
 	}
 
 	@Override
 	public O read(final InputStream input) throws IOException, E {
-		return reader.read(input);
+		return readers.get().read(input);
+	}
+
+	@Override
+	protected boolean isThreadSafe() {
+		return threadSafe;
 	}
 
 }
@@ -0,0 +1,111 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An exception thrown after reading a number of files if some of them could
+ * not be read, which holds both the objects representing the files which
+ * were read and the {@link Throwable} thrown for each file which was not.
+ * <p>
+ * The first failure is the {@link #getCause() cause} of the exception and all
+ * others are {@link #getSuppressed() suppressed} by it.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public class PartialReadException extends IOException {
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = 6113709276432961094L;
+
+	/**
+	 * Creates the message of an exception.
+	 *
+	 * @param failures
+	 *            The files which could not be read.
+	 * @return The message.
+	 */
+	private static String createMessage(final Map<File, Throwable> failures) {
+		final Map.Entry<File, Throwable> first = failures.entrySet()
+				.iterator().next();
+		return failures.size() + " file(s) could not be read, the first being \""
+				+ first.getKey() + "\": " + first.getValue().getMessage();
+	}
+
+	/**
+	 * The {@link Throwable} thrown for each file which could not be read.
+	 */
+	private final Map<File, Throwable> failures;
+
+	/**
+	 * The objects representing the files which were read.
+	 */
+	private final transient Map<File, ?> result;
+
+	/**
+	 *
+	 * @param result
+	 *            The objects representing the files which were read.
+	 * @param failures
+	 *            The {@link Throwable} thrown for each file which could not be
+	 *            read, of which there must be at least one.
+	 */
+	public PartialReadException(final Map<File, ?> result,
+			final Map<File, Throwable> failures) {
+		super(createMessage(failures));
+		this.result = Collections.unmodifiableMap(result);
+		this.failures = Collections.unmodifiableMap(failures);
+		boolean isFirst = true;
+		for (final Throwable failure : failures.values()) {
+			if (isFirst) {
+				initCause(failure);
+				isFirst = false;
+			} else {
+				addSuppressed(failure);
+			}
+		}
+	}
+
+	/**
+	 * @return An unmodifiable {@link Map} of the {@link Throwable} thrown for
+	 *         each file which could not be read.
+	 */
+	public Map<File, Throwable> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @return An unmodifiable {@link Map} of the objects representing the
+	 *         files which were read, which is empty after deserialization and
+	 *         for reads which pass each file on to a {@link FileReadListener}
+	 *         instead of collecting them.
+	 */
+	public Map<File, ?> getResult() {
+		return result == null ? Collections.<File, Object> emptyMap() : result;
+	}
+
+}
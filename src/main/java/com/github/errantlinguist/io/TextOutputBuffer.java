@@ -0,0 +1,409 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A UTF-8 text writer which encodes characters and numbers directly into one
+ * reusable byte array, which is written to an {@link OutputStream} whenever it
+ * is full, so that writing text allocates neither a {@link String} nor an
+ * encoder buffer for each value.
+ * <p>
+ * Numbers are formatted without creating any objects as well:
+ * {@link #appendDouble(double)} writes the fewest fraction digits which
+ * {@link Double#parseDouble(String) parse} back to exactly the same value,
+ * e.g.&nbsp;<code>0</code> or <code>390.297</code>, as long as these fit in a
+ * <code>long</code> mantissa; Only other values are formatted using
+ * {@link Double#toString(double)}.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+public final class TextOutputBuffer implements Appendable, Closeable,
+		Flushable {
+
+	/**
+	 * The default size of the byte array.
+	 */
+	private static final int DEFAULT_CAPACITY = 8192;
+
+	/**
+	 * The exclusive upper bound of integers which can be represented exactly
+	 * as a <code>double</code>, i.e.&nbsp;2<sup>53</sup>.
+	 */
+	private static final double MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+
+	/**
+	 * The maximum number of bytes {@link #appendLong(long)} writes.
+	 */
+	private static final int MAX_LONG_LENGTH = 20;
+
+	/**
+	 * The powers of ten tried as the fraction scale of a <code>double</code>,
+	 * all of which can be represented exactly as a <code>double</code>.
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17 };
+
+	/**
+	 * The byte written for characters which cannot be encoded,
+	 * i.e.&nbsp;unpaired surrogates.
+	 */
+	private static final byte REPLACEMENT_BYTE = '?';
+
+	/**
+	 * The bytes written but not yet passed to {@link #output}.
+	 */
+	private final byte[] buffer;
+
+	/**
+	 * A high surrogate passed to {@link #append(char)} which is waiting for
+	 * its low surrogate, or <code>0</code> if there is none.
+	 */
+	private char highSurrogate = 0;
+
+	/**
+	 * The {@link OutputStream} the bytes are written to.
+	 */
+	private final OutputStream output;
+
+	/**
+	 * The number of bytes in {@link #buffer}.
+	 */
+	private int position = 0;
+
+	/**
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 */
+	public TextOutputBuffer(final OutputStream output) {
+		this(output, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 * @param capacity
+	 *            The size of the byte array, which must be large enough for
+	 *            any number.
+	 * @throws IllegalArgumentException
+	 *             If the capacity is less than the length of the longest
+	 *             number.
+	 */
+	public TextOutputBuffer(final OutputStream output, final int capacity) {
+		if (capacity < MAX_LONG_LENGTH + 2) {
+			throw new IllegalArgumentException("Capacity too small: "
+					+ capacity);
+		}
+		this.output = output;
+		buffer = new byte[capacity];
+	}
+
+	/**
+	 * Writes a single character, encoding a surrogate pair once its low
+	 * surrogate has been passed as well.
+	 */
+	@Override
+	public TextOutputBuffer append(final char c) throws IOException {
+		if (highSurrogate != 0) {
+			final char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				writeCodePoint(Character.toCodePoint(high, c));
+				return this;
+			}
+			writeByte(REPLACEMENT_BYTE);
+		}
+		if (c < 0x80) {
+			writeByte((byte) c);
+		} else if (Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			writeByte(REPLACEMENT_BYTE);
+		} else {
+			writeCodePoint(c);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes the characters of a {@link CharSequence}; A <code>null</code>
+	 * sequence is written as <code>null</code> like by
+	 * {@link StringBuilder#append(CharSequence)}.
+	 */
+	@Override
+	public TextOutputBuffer append(final CharSequence csq) throws IOException {
+		return csq == null ? append("null") : append(csq, 0, csq.length());
+	}
+
+	/**
+	 * Writes a range of the characters of a {@link CharSequence}; A
+	 * <code>null</code> sequence is written as <code>null</code> like by
+	 * {@link StringBuilder#append(CharSequence, int, int)}.
+	 */
+	@Override
+	public TextOutputBuffer append(final CharSequence csq, final int start,
+			final int end) throws IOException {
+		if (csq == null) {
+			return append("null", start, end);
+		}
+		int i = start;
+		while (i < end) {
+			// Copy runs of ASCII characters without any further checks
+			if (highSurrogate == 0) {
+				int free = buffer.length - position;
+				while (i < end && free > 0) {
+					final char c = csq.charAt(i);
+					if (c >= 0x80) {
+						break;
+					}
+					buffer[position++] = (byte) c;
+					free--;
+					i++;
+				}
+				if (free == 0) {
+					flushBuffer();
+					continue;
+				}
+			}
+			if (i < end) {
+				append(csq.charAt(i++));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Writes a <code>double</code> using the fewest fraction digits which
+	 * parse back to exactly the same value, without an exponent and without a
+	 * fraction for integral values, e.g.&nbsp;<code>0</code> rather than
+	 * <code>0.0</code>.
+	 * <p>
+	 * For each number of fraction digits <em>k</em> from zero on, the value is
+	 * scaled by 10<sup><em>k</em></sup> and rounded to an integer
+	 * <em>m</em>; If <em>m</em> is less than 2<sup>53</sup> and
+	 * <em>m</em>&nbsp;/&nbsp;10<sup><em>k</em></sup> is equal to the value,
+	 * <em>m</em> is written with a decimal point: Since both operands are
+	 * then exactly representable, the single division is correctly rounded
+	 * and thus gives the same value as parsing the digits does. Values which
+	 * cannot be written this way, e.g.&nbsp;with 17 significant digits or
+	 * <code>NaN</code>, are written using {@link Double#toString(double)}.
+	 * </p>
+	 *
+	 * @param value
+	 *            The <code>double</code> to write.
+	 * @return This <code>TextOutputBuffer</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public TextOutputBuffer appendDouble(final double value)
+			throws IOException {
+		final double magnitude = Math.abs(value);
+		if (magnitude == 0.0) {
+			if (Double.doubleToRawLongBits(value) != 0L) {
+				writeByte((byte) '-');
+			}
+			writeByte((byte) '0');
+			return this;
+		}
+		for (int fractionDigits = 0; fractionDigits < POWERS_OF_TEN.length; ++fractionDigits) {
+			final double scaled = magnitude * POWERS_OF_TEN[fractionDigits];
+			if (!(scaled < MAX_EXACT_DOUBLE_MANTISSA)) {
+				// Also true for NaN
+				break;
+			}
+			final long mantissa = Math.round(scaled);
+			if (mantissa / POWERS_OF_TEN[fractionDigits] == magnitude) {
+				if (value < 0.0) {
+					writeByte((byte) '-');
+				}
+				writeDecimal(mantissa, fractionDigits);
+				return this;
+			}
+		}
+		return append(Double.toString(value));
+	}
+
+	/**
+	 * Writes an <code>int</code> in decimal notation.
+	 *
+	 * @param value
+	 *            The <code>int</code> to write.
+	 * @return This <code>TextOutputBuffer</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public TextOutputBuffer appendInt(final int value) throws IOException {
+		return appendLong(value);
+	}
+
+	/**
+	 * Writes a <code>long</code> in decimal notation.
+	 *
+	 * @param value
+	 *            The <code>long</code> to write.
+	 * @return This <code>TextOutputBuffer</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public TextOutputBuffer appendLong(final long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			return append(Long.toString(value));
+		}
+		if (value < 0L) {
+			writeByte((byte) '-');
+			writeDecimal(-value, 0);
+		} else {
+			writeDecimal(value, 0);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes any buffered bytes and closes the underlying
+	 * {@link OutputStream}.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes any buffered bytes and flushes the underlying
+	 * {@link OutputStream}. A pending high surrogate is kept until the next
+	 * character is appended.
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		output.flush();
+	}
+
+	/**
+	 * Writes a single raw byte.
+	 *
+	 * @param b
+	 *            The byte to write.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void writeByte(final byte b) throws IOException {
+		if (position == buffer.length) {
+			flushBuffer();
+		}
+		buffer[position++] = b;
+	}
+
+	/**
+	 * Writes the buffered bytes to the underlying {@link OutputStream} without
+	 * flushing it.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void flushBuffer() throws IOException {
+		if (position > 0) {
+			output.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Encodes a code point which is not ASCII in UTF-8.
+	 *
+	 * @param codePoint
+	 *            The code point to write.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeCodePoint(final int codePoint) throws IOException {
+		if (buffer.length - position < 4) {
+			flushBuffer();
+		}
+		if (codePoint < 0x800) {
+			buffer[position++] = (byte) (0xC0 | codePoint >> 6);
+		} else {
+			if (codePoint < 0x10000) {
+				buffer[position++] = (byte) (0xE0 | codePoint >> 12);
+			} else {
+				buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+				buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+			}
+			buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+		}
+		buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+	}
+
+	/**
+	 * Writes a non-negative integer with a decimal point before its given
+	 * number of last digits, padding it with zeros so that there is at least
+	 * one digit before the point.
+	 *
+	 * @param digits
+	 *            The non-negative integer to write.
+	 * @param fractionDigits
+	 *            The number of digits after the decimal point, which is
+	 *            omitted if this is <code>0</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeDecimal(final long digits, final int fractionDigits)
+			throws IOException {
+		if (buffer.length - position < MAX_LONG_LENGTH + 2) {
+			flushBuffer();
+		}
+		// Count the digits to write them in place from the end
+		int length = 1;
+		for (long remaining = digits / 10; remaining > 0; remaining /= 10) {
+			length++;
+		}
+		final int integerDigitCount = Math.max(length - fractionDigits, 1);
+		final int totalLength = integerDigitCount
+				+ (fractionDigits > 0 ? fractionDigits + 1 : 0);
+		int index = position + totalLength;
+		long remaining = digits;
+		for (int i = 0; i < fractionDigits; ++i) {
+			buffer[--index] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+		if (fractionDigits > 0) {
+			buffer[--index] = '.';
+		}
+		for (int i = 0; i < integerDigitCount; ++i) {
+			buffer[--index] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+		position += totalLength;
+	}
+
+}
@@ -0,0 +1,444 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import com.github.errantlinguist.Named;
+import com.github.errantlinguist.time.DoubleDuration;
+import com.github.errantlinguist.time.DoubleDurative;
+import com.github.errantlinguist.time.ImmutableDoubleDuration;
+
+/**
+ * A base class for tiers in a TextGrid file which store the times and
+ * annotation data of their entries in columns rather than as one
+ * {@link BasicEntry} object per entry.
+ * <p>
+ * Entries are indexed from 0 and can be accessed either directly through e.g.
+ * {@link #getStartTimeValue(int)} or through {@link Entry} views created on
+ * demand by {@link #get(int)}, {@link #getEntries()} and {@link #iterator()}.
+ * Views are lightweight and only create an {@link ImmutableDoubleDuration}
+ * when {@link Entry#getDuration()} is called; They reflect the tier they were
+ * created from.
+ * </p>
+ * <p>
+ * Two tiers are equal if they have the same tier class, name, duration and
+ * entries, regardless of how the entries are stored.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The object type representing the data denoted by the tier
+ *            entries.
+ *
+ */
+public abstract class AbstractColumnarTier<D> implements DoubleDurative,
+		Named<String>, Iterable<Entry<D>>, Serializable {
+
+	/**
+	 * An {@link EntryCursor} over the entries of an
+	 * {@link AbstractColumnarTier}, which reads them directly from the tier
+	 * without creating any views.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 */
+	private final class ColumnarEntryCursor implements EntryCursor<D> {
+
+		/**
+		 * The 0-based index of the current entry.
+		 */
+		private int index = -1;
+
+		@Override
+		public D getData() {
+			return AbstractColumnarTier.this.getData(index);
+		}
+
+		@Override
+		public double getEndTimeValue() {
+			return AbstractColumnarTier.this.getEndTimeValue(index);
+		}
+
+		@Override
+		public int getIndex() {
+			return index;
+		}
+
+		@Override
+		public double getStartTimeValue() {
+			return AbstractColumnarTier.this.getStartTimeValue(index);
+		}
+
+		@Override
+		public boolean next() {
+			final boolean result = index + 1 < size();
+			if (result) {
+				index++;
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * A view of a single entry of an {@link AbstractColumnarTier}.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 * @param <D>
+	 *            The object type representing the entry data.
+	 */
+	private static final class EntryView<D> implements Entry<D> {
+
+		/**
+		 * The 0-based index of the entry in its tier.
+		 */
+		private final int index;
+
+		/**
+		 * The tier the entry is in.
+		 */
+		private final AbstractColumnarTier<D> tier;
+
+		/**
+		 *
+		 * @param tier
+		 *            The tier the entry is in.
+		 * @param index
+		 *            The 0-based index of the entry in its tier.
+		 */
+		private EntryView(final AbstractColumnarTier<D> tier, final int index) {
+			this.tier = tier;
+			this.index = index;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			final boolean result;
+			if (this == obj) {
+				result = true;
+			} else if (obj instanceof EntryView<?>) {
+				final EntryView<?> other = (EntryView<?>) obj;
+				result = Double.doubleToLongBits(tier
+						.getStartTimeValue(index)) == Double
+						.doubleToLongBits(other.tier
+								.getStartTimeValue(other.index))
+						&& Double.doubleToLongBits(tier.getEndTimeValue(index)) == Double
+								.doubleToLongBits(other.tier
+										.getEndTimeValue(other.index))
+						&& Objects.equals(getData(), other.getData());
+			} else {
+				result = false;
+			}
+			return result;
+		}
+
+		@Override
+		public D getData() {
+			return tier.getData(index);
+		}
+
+		@Override
+		public DoubleDuration getDuration() {
+			return new ImmutableDoubleDuration(tier.getStartTimeValue(index),
+					tier.getEndTimeValue(index));
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			final D data = getData();
+			result = (prime * result) + ((data == null) ? 0 : data.hashCode());
+			result = (prime * result) + getDuration().hashCode();
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder builder = new StringBuilder(
+					BasicEntry.getEstimatedStringReprLength());
+			builder.append("Entry [getDuration()=");
+			builder.append(getDuration());
+			builder.append(", getData()=");
+			builder.append(getData());
+			builder.append(']');
+			return builder.toString();
+		}
+
+	}
+
+	/**
+	 * A read-only {@link List} view of the entries of the tier.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 */
+	private final class EntryList extends AbstractList<Entry<D>> implements
+			RandomAccess {
+
+		@Override
+		public Entry<D> get(final int index) {
+			return AbstractColumnarTier.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return AbstractColumnarTier.this.size();
+		}
+
+	}
+
+	/**
+	 * A prime constant used in calculating {@link #hashCode()}.
+	 */
+	private static final int HASH_CODE_PRIME = 31;
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = -2875108830562147203L;
+
+	/**
+	 * The tier duration.
+	 */
+	private final DoubleDuration duration;
+
+	/**
+	 * The tier name.
+	 */
+	private final String name;
+
+	/**
+	 * The tier class.
+	 */
+	private final TierClass tierClass;
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 */
+	protected AbstractColumnarTier(final TierClass tierClass,
+			final String name, final DoubleDuration duration) {
+		this.tierClass = tierClass;
+		this.name = name;
+		this.duration = duration;
+	}
+
+	/**
+	 * Appends an entry to the tier.
+	 *
+	 * @param startTime
+	 *            The start time of the entry.
+	 * @param endTime
+	 *            The end time of the entry, which is ignored for text tiers.
+	 * @param data
+	 *            The annotation data of the entry.
+	 */
+	public abstract void add(double startTime, double endTime, D data);
+
+	/**
+	 * @return A new {@link EntryCursor} over the entries of the tier, which
+	 *         creates no objects while iterating.
+	 */
+	public EntryCursor<D> createCursor() {
+		return new ColumnarEntryCursor();
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof AbstractColumnarTier<?>) {
+			final AbstractColumnarTier<?> other = (AbstractColumnarTier<?>) obj;
+			result = isEquivalentTo(other);
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Creates a view of a single entry.
+	 *
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return A new {@link Entry} view of the entry.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public Entry<D> get(final int index) {
+		checkIndex(index);
+		return new EntryView<D>(this, index);
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return The annotation data of the entry.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public abstract D getData(int index);
+
+	@Override
+	public DoubleDuration getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return The end time of the entry, which is equal to its start time for
+	 *         the points of text tiers.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public abstract double getEndTimeValue(int index);
+
+	/**
+	 * @return A read-only {@link List} view of all entries of the tier,
+	 *         indexed from 0, which creates a new {@link Entry} view for each
+	 *         element accessed.
+	 */
+	public List<Entry<D>> getEntries() {
+		return new EntryList();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return The start time of the entry.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public abstract double getStartTimeValue(int index);
+
+	public TierClass getTierClass() {
+		return tierClass;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		result = (HASH_CODE_PRIME * result)
+				+ ((name == null) ? 0 : name.hashCode());
+		result = (HASH_CODE_PRIME * result)
+				+ ((tierClass == null) ? 0 : tierClass.hashCode());
+		result = (HASH_CODE_PRIME * result)
+				+ ((duration == null) ? 0 : duration.hashCode());
+		result = (HASH_CODE_PRIME * result) + size();
+		return result;
+	}
+
+	@Override
+	public Iterator<Entry<D>> iterator() {
+		return getEntries().iterator();
+	}
+
+	/**
+	 * @return The number of entries in the tier.
+	 */
+	public abstract int size();
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(32 + size()
+				* BasicEntry.getEstimatedStringReprLength());
+		builder.append(this.getClass().getSimpleName());
+		builder.append("[getTierClass()=");
+		builder.append(getTierClass());
+		builder.append(", getDuration()=");
+		builder.append(getDuration());
+		builder.append(", getEntries()=");
+		builder.append(getEntries());
+		builder.append(']');
+		return builder.toString();
+	}
+
+	/**
+	 * Shrinks the storage of the tier to its size.
+	 */
+	public abstract void trimToSize();
+
+	/**
+	 * Checks that there is an entry at a given index.
+	 *
+	 * @param index
+	 *            The 0-based index to check.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	protected final void checkIndex(final int index) {
+		final int size = size();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		}
+	}
+
+	/**
+	 * Checks if this object is equivalent to another one (ignoring identity).
+	 *
+	 * @param other
+	 *            The other object to compare to.
+	 * @return <code>true</code> iff this object is equivalent to the other one.
+	 */
+	private boolean isEquivalentTo(final AbstractColumnarTier<?> other) {
+		final int size = size();
+		boolean result = getTierClass() == other.getTierClass()
+				&& Objects.equals(getName(), other.getName())
+				&& Objects.equals(getDuration(), other.getDuration())
+				&& size == other.size();
+		for (int i = 0; result && i < size; ++i) {
+			result = Double.doubleToLongBits(getStartTimeValue(i)) == Double
+					.doubleToLongBits(other.getStartTimeValue(i))
+					&& Double.doubleToLongBits(getEndTimeValue(i)) == Double
+							.doubleToLongBits(other.getEndTimeValue(i))
+					&& Objects.equals(getData(i), other.getData(i));
+		}
+		return result;
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package com.github.errantlinguist.textgrid;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -24,6 +26,10 @@ import com.github.errantlinguist.tree.BasicMutableChild;
 
 /**
  * A basic implementation of {@link Entry}.
+ * <p>
+ * An entry on a {@link NamedTier} is serialized as part of its tier and thus
+ * of its {@link TextGridFile}, if any.
+ * </p>
  * 
  * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
  * @version 2014-02-06
@@ -36,6 +42,95 @@ import com.github.errantlinguist.tree.BasicMutableChild;
 public final class BasicEntry<D> extends BasicMutableChild<NamedTier<D>>
 		implements Comparable<BasicEntry<D>>, Entry<D> {
 
+	/**
+	 * The serialized form of a {@link BasicEntry}.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 * 
+	 */
+	private static final class SerializationProxy implements Serializable {
+
+		/**
+		 * The serial version UID for use in {@link Serializable
+		 * serialization}.
+		 */
+		private static final long serialVersionUID = -2961580826255587186L;
+
+		/**
+		 * The annotation data of the entry if it is on no tier.
+		 */
+		private final Object data;
+
+		/**
+		 * The end time of the entry if it is on no tier.
+		 */
+		private final double endTime;
+
+		/**
+		 * The index of the entry on its tier.
+		 */
+		private final int index;
+
+		/**
+		 * The {@link NamedTier} the entry is on or <code>null</code> if it is
+		 * on none.
+		 */
+		private final NamedTier<?> parent;
+
+		/**
+		 * The start time of the entry if it is on no tier.
+		 */
+		private final double startTime;
+
+		/**
+		 * 
+		 * @param entry
+		 *            The {@link BasicEntry} to store.
+		 */
+		private SerializationProxy(final BasicEntry<?> entry) {
+			final NamedTier<?> entryParent = entry.getParent();
+			final int entryIndex = entryParent == null ? -1 : TierColumns
+					.indexOfIdentical(entryParent.getChildren(), entry);
+			if (entryIndex < 0) {
+				parent = null;
+				index = -1;
+				final DoubleDuration duration = entry.getDuration();
+				startTime = duration.getStartTimeValue();
+				endTime = duration.getEndTimeValue();
+				data = entry.getData();
+			} else {
+				parent = entryParent;
+				index = entryIndex;
+				startTime = Double.NaN;
+				endTime = Double.NaN;
+				data = null;
+			}
+		}
+
+		/**
+		 * 
+		 * @return The {@link BasicEntry} stored.
+		 * @throws InvalidObjectException
+		 *             If the stored entry index is invalid.
+		 */
+		private Object readResolve() throws InvalidObjectException {
+			final Object result;
+			if (parent == null) {
+				result = new BasicEntry<Object>(null,
+						new ImmutableDoubleDuration(startTime, endTime), data);
+			} else if (index < parent.getChildren().size()) {
+				result = parent.getChildren().get(index);
+			} else {
+				throw new InvalidObjectException("Invalid entry index: "
+						+ index);
+			}
+			return result;
+		}
+
+	}
+
 	/**
 	 * A constant value used for estimating the length of the string
 	 * representation of the object returned by {@link #toString()}.
@@ -190,4 +285,26 @@ public final class BasicEntry<D> extends BasicMutableChild<NamedTier<D>>
 				.equals(getData(), other.getData()));
 	}
 
+	/**
+	 * Prevents the default serialized form from being read, which is never
+	 * written.
+	 * 
+	 * @param stream
+	 *            The stream to read from.
+	 * @throws InvalidObjectException
+	 *             Always.
+	 */
+	private void readObject(final ObjectInputStream stream)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Serialization proxy required.");
+	}
+
+	/**
+	 * 
+	 * @return A new {@link SerializationProxy} of this entry.
+	 */
+	private Object writeReplace() {
+		return new SerializationProxy(this);
+	}
+
 }
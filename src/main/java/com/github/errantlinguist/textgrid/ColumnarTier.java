@@ -0,0 +1,216 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.errantlinguist.time.DoubleDuration;
+
+/**
+ * A tier in a TextGrid file which stores the times and annotation data of its
+ * entries in parallel arrays rather than as one {@link BasicEntry} object per
+ * entry, needing 16 bytes per interval, 8 bytes per point and one reference
+ * per annotation; Its entries can be read through
+ * {@link #getStartTimeValue(int)} etc.&nbsp;without creating any objects at
+ * all.
+ * <p>
+ * The points of a {@link TierClass#TEXT text tier} have no separate end times,
+ * so only a single time array is stored for them.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The object type representing the data denoted by the tier
+ *            entries.
+ *
+ */
+public class ColumnarTier<D> extends AbstractColumnarTier<D> {
+
+	/**
+	 * The capacity of a new tier for which none is given.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = 4617233389432218407L;
+
+	/**
+	 * Creates a new <code>ColumnarTier</code> containing the same entries as
+	 * a given {@link NamedTier}.
+	 *
+	 * @param tier
+	 *            The <code>NamedTier</code> to copy.
+	 * @return A new <code>ColumnarTier</code> with the same tier class, name,
+	 *         duration and entries.
+	 */
+	public static <D> ColumnarTier<D> copyOf(final NamedTier<? extends D> tier) {
+		final List<? extends BasicEntry<? extends D>> entries = tier
+				.getChildren();
+		final ColumnarTier<D> result = new ColumnarTier<D>(
+				tier.getTierClass(), tier.getName(), tier.getDuration(),
+				entries.size());
+		for (final BasicEntry<? extends D> entry : entries) {
+			// The list of entries is indexed from 1 like in the file itself
+			if (entry != null) {
+				final DoubleDuration duration = entry.getDuration();
+				result.add(duration.getStartTimeValue(),
+						duration.getEndTimeValue(), entry.getData());
+			}
+		}
+		result.trimToSize();
+		return result;
+	}
+
+	/**
+	 * The annotation data of each entry.
+	 */
+	private Object[] data;
+
+	/**
+	 * The end time of each entry, which is the same array as
+	 * {@link #startTimes} for text tiers.
+	 */
+	private double[] endTimes;
+
+	/**
+	 * The number of entries in the tier.
+	 */
+	private int size = 0;
+
+	/**
+	 * The start time of each entry.
+	 */
+	private double[] startTimes;
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 */
+	public ColumnarTier(final TierClass tierClass, final String name,
+			final DoubleDuration duration) {
+		this(tierClass, name, duration, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 * @param capacity
+	 *            The number of entries to allocate space for, e.g.&nbsp;the
+	 *            entry count declared in a TextGrid file.
+	 */
+	public ColumnarTier(final TierClass tierClass, final String name,
+			final DoubleDuration duration, final int capacity) {
+		super(tierClass, name, duration);
+		startTimes = new double[capacity];
+		endTimes = tierClass == TierClass.TEXT ? startTimes
+				: new double[capacity];
+		data = new Object[capacity];
+	}
+
+	@Override
+	public void add(final double startTime, final double endTime,
+			final D data) {
+		if (size == startTimes.length) {
+			ensureCapacity(size + 1);
+		}
+		startTimes[size] = startTime;
+		if (endTimes != startTimes) {
+			endTimes[size] = endTime;
+		}
+		this.data[size] = data;
+		size++;
+	}
+
+	/**
+	 * Ensures that the tier can contain a given number of entries without
+	 * growing its arrays again.
+	 *
+	 * @param capacity
+	 *            The minimum number of entries to allocate space for.
+	 */
+	public void ensureCapacity(final int capacity) {
+		if (capacity > startTimes.length) {
+			// Grow by half of the current capacity like ArrayList does
+			final int newCapacity = Math.max(capacity, startTimes.length
+					+ (startTimes.length >> 1));
+			resize(newCapacity);
+		}
+	}
+
+	@Override
+	public D getData(final int index) {
+		checkIndex(index);
+		@SuppressWarnings("unchecked")
+		final D result = (D) data[index];
+		return result;
+	}
+
+	@Override
+	public double getEndTimeValue(final int index) {
+		checkIndex(index);
+		return endTimes[index];
+	}
+
+	@Override
+	public double getStartTimeValue(final int index) {
+		checkIndex(index);
+		return startTimes[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void trimToSize() {
+		if (size < startTimes.length) {
+			resize(size);
+		}
+	}
+
+	/**
+	 * Reallocates the arrays of the tier.
+	 *
+	 * @param capacity
+	 *            The new length of the arrays.
+	 */
+	private void resize(final int capacity) {
+		final boolean isEndTimesShared = endTimes == startTimes;
+		startTimes = Arrays.copyOf(startTimes, capacity);
+		endTimes = isEndTimesShared ? startTimes : Arrays.copyOf(endTimes,
+				capacity);
+		data = Arrays.copyOf(data, capacity);
+	}
+
+}
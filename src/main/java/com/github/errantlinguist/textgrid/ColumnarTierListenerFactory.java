@@ -0,0 +1,209 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.errantlinguist.Clearable;
+import com.github.errantlinguist.Factory;
+import com.github.errantlinguist.time.ImmutableDoubleDuration;
+
+/**
+ * A {@link TextGridListener} which creates one {@link ColumnarTier} per tier
+ * read directly from the notified values, without creating any
+ * {@link BasicEntry} objects; The arrays of each tier are allocated using the
+ * entry count declared in the file.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type representing each datum stored in the created tiers.
+ */
+public class ColumnarTierListenerFactory<D> implements Clearable,
+		Factory<List<ColumnarTier<D>>>, TextGridListener<D> {
+
+	/**
+	 * The initial value for newly-intialised primitive scalar fields.
+	 */
+	private static final int NULL_VALUE = -1;
+
+	/**
+	 * The tier currently being read.
+	 */
+	private ColumnarTier<D> currentTier = null;
+
+	/**
+	 * The end time of the entry currently being read.
+	 */
+	private double entryEndTime = NULL_VALUE;
+
+	/**
+	 * The start time of the entry currently being read.
+	 */
+	private double entryStartTime = NULL_VALUE;
+
+	/**
+	 * The class of the tier currently being read.
+	 */
+	private TierClass tierClass = null;
+
+	/**
+	 * The end time of the tier currently being read.
+	 */
+	private double tierEndTime = NULL_VALUE;
+
+	/**
+	 * The name of the tier currently being read.
+	 */
+	private String tierName = null;
+
+	/**
+	 * The tiers read so far, in the order they were read.
+	 */
+	private ArrayList<ColumnarTier<D>> tiers = new ArrayList<ColumnarTier<D>>();
+
+	/**
+	 * The start time of the tier currently being read.
+	 */
+	private double tierStartTime = NULL_VALUE;
+
+	@Override
+	public void clear() {
+		currentTier = null;
+		entryEndTime = NULL_VALUE;
+		entryStartTime = NULL_VALUE;
+		tierClass = null;
+		tierEndTime = NULL_VALUE;
+		tierName = null;
+		tiers = new ArrayList<ColumnarTier<D>>();
+		tierStartTime = NULL_VALUE;
+	}
+
+	/**
+	 * Returns the tiers read since the last call and clears the factory.
+	 *
+	 * @return A list of the tiers read, in the order they were read.
+	 */
+	@Override
+	public List<ColumnarTier<D>> create() {
+		final List<ColumnarTier<D>> result = tiers;
+		clear();
+		return result;
+	}
+
+	@Override
+	public void notifyFileEndTime(final double time) {
+		// The duration of the file itself is not stored
+	}
+
+	@Override
+	public void notifyFileSize(final int size) {
+		// Avoid re-allocation for the common case of all tiers being read
+		tiers.ensureCapacity(size);
+	}
+
+	@Override
+	public void notifyFileStartTime(final double time) {
+		// The duration of the file itself is not stored
+	}
+
+	@Override
+	public void notifyIntervalData(final D data) {
+		currentTier.add(entryStartTime, entryEndTime, data);
+	}
+
+	@Override
+	public void notifyIntervalEndTime(final double time) {
+		entryEndTime = time;
+	}
+
+	@Override
+	public void notifyIntervalIndex(final int index) {
+		// Entries are appended in the order they are read
+	}
+
+	@Override
+	public void notifyIntervalStartTime(final double time) {
+		entryStartTime = time;
+	}
+
+	@Override
+	public void notifyPointData(final D data) {
+		currentTier.add(entryStartTime, entryStartTime, data);
+	}
+
+	@Override
+	public void notifyPointIndex(final int index) {
+		// Entries are appended in the order they are read
+	}
+
+	@Override
+	public void notifyPointTime(final double time) {
+		entryStartTime = time;
+	}
+
+	@Override
+	public void notifyTierClass(final TierClass tierClass) {
+		this.tierClass = tierClass;
+	}
+
+	@Override
+	public void notifyTierEndTime(final double time) {
+		tierEndTime = time;
+	}
+
+	@Override
+	public void notifyTierIndex(final int index) {
+		// Tiers are appended in the order they are read
+	}
+
+	@Override
+	public void notifyTierIntervalCount(final int count) {
+		startTier(count);
+	}
+
+	@Override
+	public void notifyTierName(final String name) {
+		tierName = name;
+	}
+
+	@Override
+	public void notifyTierPointCount(final int count) {
+		startTier(count);
+	}
+
+	@Override
+	public void notifyTierStartTime(final double time) {
+		tierStartTime = time;
+	}
+
+	/**
+	 * Creates a new tier with the header values read so far.
+	 *
+	 * @param entryCount
+	 *            The number of entries declared for the tier.
+	 */
+	private void startTier(final int entryCount) {
+		currentTier = new ColumnarTier<D>(tierClass, tierName,
+				new ImmutableDoubleDuration(tierStartTime, tierEndTime),
+				entryCount);
+		tiers.add(currentTier);
+	}
+
+}
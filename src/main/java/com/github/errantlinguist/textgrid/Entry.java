@@ -1,7 +1,7 @@
 package com.github.errantlinguist.textgrid;
 
 import com.github.errantlinguist.time.DoubleDuration;
-import com.github.errantlinguist.time.Durative;
+import com.github.errantlinguist.time.DoubleDurative;
 
 /**
  * A single entry in the TextGrid file, representing either an interval or a
@@ -15,7 +15,7 @@ import com.github.errantlinguist.time.Durative;
  *            The object type representing the entry data.
  * 
  */
-public interface Entry<D> extends Durative<Double> {
+public interface Entry<D> extends DoubleDurative {
 
 	/**
 	 * @return The annotation data the entry represents.
@@ -0,0 +1,76 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+/**
+ * A cursor over the entries of a tier which reads their times as primitive
+ * {@code double} values, so that iterating over a tier neither boxes any
+ * times nor creates any {@link Entry} or duration objects:
+ *
+ * <pre>
+ * final EntryCursor&lt;D&gt; cursor = tier.createCursor();
+ * while (cursor.next()) {
+ * 	total += cursor.getEndTimeValue() - cursor.getStartTimeValue();
+ * }
+ * </pre>
+ * <p>
+ * The getters may only be called after {@link #next()} has returned
+ * <code>true</code>.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The object type representing the data denoted by the tier
+ *            entries.
+ *
+ * @see NamedTier#createCursor()
+ * @see AbstractColumnarTier#createCursor()
+ */
+public interface EntryCursor<D> {
+
+	/**
+	 * @return The annotation data of the current entry.
+	 */
+	D getData();
+
+	/**
+	 * @return The end time of the current entry.
+	 */
+	double getEndTimeValue();
+
+	/**
+	 * @return The index of the current entry in its tier, which is 1-based
+	 *         for a {@link NamedTier} like in the file itself and 0-based for
+	 *         an {@link AbstractColumnarTier}.
+	 */
+	int getIndex();
+
+	/**
+	 * @return The start time of the current entry.
+	 */
+	double getStartTimeValue();
+
+	/**
+	 * Advances to the next entry of the tier.
+	 *
+	 * @return <code>true</code> iff there was another entry to advance to.
+	 */
+	boolean next();
+
+}
@@ -15,6 +15,8 @@
  */
 package com.github.errantlinguist.textgrid;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,12 +24,17 @@ import java.util.Objects;
 
 import com.github.errantlinguist.Named;
 import com.github.errantlinguist.time.DoubleDuration;
-import com.github.errantlinguist.time.Durative;
+import com.github.errantlinguist.time.DoubleDurative;
 import com.github.errantlinguist.tree.ChildList;
 import com.github.errantlinguist.tree.MutableChild;
 
 /**
  * A tier in a TextGrid file with a given name.
+ * <p>
+ * A tier in a {@link TextGridFile} is serialized as part of its file, so that
+ * it is read back together with the rest of the file; A tier in no file is
+ * serialized on its own as {@link TierColumns}.
+ * </p>
  * 
  * @param <D>
  *            The object type representing the data denoted by the tier entries.
@@ -36,9 +43,143 @@ import com.github.errantlinguist.tree.MutableChild;
  * @version 2014-02-11
  * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
  */
-public class NamedTier<D> implements Durative<Double>,
+public class NamedTier<D> implements DoubleDurative,
 		MutableChild<TextGridFile<D>>, Named<String>, Serializable {
 
+	/**
+	 * An {@link EntryCursor} over the entries of a {@link NamedTier}, which
+	 * skips unused indices and reads the times of each entry from its
+	 * {@link DoubleDuration}.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 * 
+	 */
+	private final class ChildEntryCursor implements EntryCursor<D> {
+
+		/**
+		 * The current entry.
+		 */
+		private BasicEntry<D> entry = null;
+
+		/**
+		 * The index of the current entry.
+		 */
+		private int index = -1;
+
+		@Override
+		public D getData() {
+			return entry.getData();
+		}
+
+		@Override
+		public double getEndTimeValue() {
+			return entry.getDuration().getEndTimeValue();
+		}
+
+		@Override
+		public int getIndex() {
+			return index;
+		}
+
+		@Override
+		public double getStartTimeValue() {
+			return entry.getDuration().getStartTimeValue();
+		}
+
+		@Override
+		public boolean next() {
+			final int size = children.size();
+			BasicEntry<D> nextEntry = null;
+			int nextIndex = index;
+			while (nextEntry == null && ++nextIndex < size) {
+				nextEntry = children.get(nextIndex);
+			}
+			final boolean result = nextEntry != null;
+			if (result) {
+				entry = nextEntry;
+				index = nextIndex;
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * The serialized form of a {@link NamedTier}.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 * 
+	 */
+	private static final class SerializationProxy implements Serializable {
+
+		/**
+		 * The serial version UID for use in {@link Serializable
+		 * serialization}.
+		 */
+		private static final long serialVersionUID = 6412436329183786570L;
+
+		/**
+		 * The entries of the tier if it is in no file, or <code>null</code>
+		 * otherwise.
+		 */
+		private final TierColumns columns;
+
+		/**
+		 * The index of the tier in its file.
+		 */
+		private final int index;
+
+		/**
+		 * The {@link TextGridFile} the tier is in or <code>null</code> if it
+		 * is in none.
+		 */
+		private final TextGridFile<?> parent;
+
+		/**
+		 * 
+		 * @param tier
+		 *            The {@link NamedTier} to store.
+		 */
+		private SerializationProxy(final NamedTier<?> tier) {
+			final TextGridFile<?> tierParent = tier.getParent();
+			final int tierIndex = tierParent == null ? -1 : TierColumns
+					.indexOfIdentical(tierParent.getChildren(), tier);
+			if (tierIndex < 0) {
+				parent = null;
+				index = -1;
+				columns = new TierColumns(tier);
+			} else {
+				parent = tierParent;
+				index = tierIndex;
+				columns = null;
+			}
+		}
+
+		/**
+		 * 
+		 * @return The {@link NamedTier} stored.
+		 * @throws InvalidObjectException
+		 *             If the stored tier is inconsistent.
+		 */
+		private Object readResolve() throws InvalidObjectException {
+			final Object result;
+			if (parent == null) {
+				result = columns.toTier(null);
+			} else if (index < parent.getChildren().size()) {
+				result = parent.getChildren().get(index);
+			} else {
+				throw new InvalidObjectException("Invalid tier index: "
+						+ index);
+			}
+			return result;
+		}
+
+	}
+
 	/**
 	 * A prime constant used in calculating {@link #hashCode()}.
 	 */
@@ -135,6 +276,26 @@ public class NamedTier<D> implements Durative<Double>,
 
 	}
 
+	/**
+	 * Creates a cursor over the entries of the tier, which reads their times
+	 * without boxing them.
+	 * 
+	 * @return A new {@link EntryCursor} over the entries of the tier.
+	 */
+	public EntryCursor<D> createCursor() {
+		return new ChildEntryCursor();
+	}
+
+	/**
+	 * Creates an index of the entries of the tier by time, which can be
+	 * reused for as long as the tier is not changed.
+	 * 
+	 * @return A new {@link TierTimeIndex} of the entries of the tier.
+	 */
+	public TierTimeIndex<D> createTimeIndex() {
+		return new TierTimeIndex<D>(this);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -273,4 +434,26 @@ public class NamedTier<D> implements Durative<Double>,
 					.equals(getChildren(), other.getChildren()));
 	}
 
+	/**
+	 * Prevents the default serialized form from being read, which is never
+	 * written.
+	 * 
+	 * @param stream
+	 *            The stream to read from.
+	 * @throws InvalidObjectException
+	 *             Always.
+	 */
+	private void readObject(final ObjectInputStream stream)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Serialization proxy required.");
+	}
+
+	/**
+	 * 
+	 * @return A new {@link SerializationProxy} of this tier.
+	 */
+	private Object writeReplace() {
+		return new SerializationProxy(this);
+	}
+
 }
@@ -110,8 +110,9 @@ public class NamedTierFactory<D> extends BasicMutableChild<TextGridFile<D>>
 		final TextGridFile<D> parent = getParent();
 		final DoubleDuration duration = new ImmutableDoubleDuration(startTime,
 				endTime);
+		// Entries are indexed from 1, so the first element is always null
 		final NamedTier<D> result = new NamedTier<D>(parent, tierClass, name,
-				duration, size);
+				duration, size + 1);
 		final ChildList<TextGridFile<D>, NamedTier<D>> children = parent
 				.getChildren();
 		children.ensureIndex(index);
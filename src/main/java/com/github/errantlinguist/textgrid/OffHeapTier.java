@@ -0,0 +1,505 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.github.errantlinguist.time.DoubleDuration;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A tier in a TextGrid file which stores the times and annotation labels of
+ * its entries outside of the Java heap in {@link ByteBuffer} objects, so that
+ * even millions of entries kept for the lifetime of an application neither
+ * fill the old generation nor add to the time spent by full garbage
+ * collections; The tier itself only consists of a few objects on the heap.
+ * <p>
+ * The entries are stored in three buffers, each of which is read using its
+ * own {@link ByteOrder}:
+ * </p>
+ * <ul>
+ * <li><code>times</code>, containing the start time and then the end time of
+ * each interval as a <code>double</code> or only the time of each point of a
+ * {@link TierClass#TEXT text tier}.</li>
+ * <li><code>labelOffsets</code>, containing the offset of the first byte of
+ * the label of each entry in <code>labels</code> as an <code>int</code>,
+ * followed by the total length of all labels. The offset of a
+ * <code>null</code> label is stored as its bitwise complement.</li>
+ * <li><code>labels</code>, containing the labels of all entries encoded in
+ * UTF-8.</li>
+ * </ul>
+ * <p>
+ * New tiers allocate {@link ByteBuffer#allocateDirect(int) direct buffers},
+ * which are freed when the tier is garbage-collected; Tiers can also be
+ * created from existing buffers in this layout, e.g.&nbsp;ones mapped from a
+ * file, which are copied to new direct buffers only once they are too small
+ * for an added entry. Each label is
+ * decoded on access, so {@link #getData(int)} creates a new {@link String}
+ * for each call. Reading a tier from multiple threads is safe as long as no
+ * thread adds entries to it.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ */
+public class OffHeapTier extends AbstractColumnarTier<String> {
+
+	/**
+	 * The estimated number of bytes needed for the label of an entry, used for
+	 * allocating the buffer of labels for a given number of entries.
+	 */
+	private static final int ESTIMATED_LABEL_LENGTH = 8;
+
+	/**
+	 * The encoding of the labels.
+	 */
+	private static final Charset LABEL_CHARSET = StandardCharsets.UTF_8;
+
+	/**
+	 * The number of bytes used for storing a label offset.
+	 */
+	private static final int OFFSET_LENGTH = 4;
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = -6109385162476307424L;
+
+	/**
+	 * The number of bytes used for storing a time.
+	 */
+	private static final int TIME_LENGTH = 8;
+
+	/**
+	 * Creates a new <code>OffHeapTier</code> containing the same entries as a
+	 * given {@link AbstractColumnarTier}, e.g.&nbsp;one which was read using a
+	 * {@link ColumnarTierListenerFactory}.
+	 *
+	 * @param tier
+	 *            The tier to copy.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting the non-
+	 *            <code>null</code> annotation data of the entries to their
+	 *            labels.
+	 * @return A new <code>OffHeapTier</code> with the same tier class, name,
+	 *         duration and entries.
+	 */
+	public static <D> OffHeapTier copyOf(
+			final AbstractColumnarTier<? extends D> tier,
+			final Function<? super D, String> dataFormatter) {
+		final int size = tier.size();
+		final OffHeapTier result = new OffHeapTier(tier.getTierClass(),
+				tier.getName(), tier.getDuration(), size);
+		for (int i = 0; i < size; ++i) {
+			result.add(tier.getStartTimeValue(i), tier.getEndTimeValue(i),
+					format(tier.getData(i), dataFormatter));
+		}
+		result.trimToSize();
+		return result;
+	}
+
+	/**
+	 * Creates a new <code>OffHeapTier</code> containing the same entries as a
+	 * given {@link NamedTier}, using the {@link Object#toString() string
+	 * representation} of each annotation datum as its label.
+	 *
+	 * @param tier
+	 *            The <code>NamedTier</code> to copy.
+	 * @return A new <code>OffHeapTier</code> with the same tier class, name,
+	 *         duration and entries.
+	 */
+	public static OffHeapTier copyOf(final NamedTier<?> tier) {
+		return copyOf(tier, Functions.toStringFunction());
+	}
+
+	/**
+	 * Creates a new <code>OffHeapTier</code> containing the same entries as a
+	 * given {@link NamedTier}.
+	 *
+	 * @param tier
+	 *            The <code>NamedTier</code> to copy.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting the non-
+	 *            <code>null</code> annotation data of the entries to their
+	 *            labels.
+	 * @return A new <code>OffHeapTier</code> with the same tier class, name,
+	 *         duration and entries.
+	 */
+	public static <D> OffHeapTier copyOf(final NamedTier<? extends D> tier,
+			final Function<? super D, String> dataFormatter) {
+		final List<? extends BasicEntry<? extends D>> entries = tier
+				.getChildren();
+		final OffHeapTier result = new OffHeapTier(tier.getTierClass(),
+				tier.getName(), tier.getDuration(), entries.size());
+		for (final BasicEntry<? extends D> entry : entries) {
+			// The list of entries is indexed from 1 like in the file itself
+			if (entry != null) {
+				final DoubleDuration duration = entry.getDuration();
+				result.add(duration.getStartTimeValue(),
+						duration.getEndTimeValue(),
+						format(entry.getData(), dataFormatter));
+			}
+		}
+		result.trimToSize();
+		return result;
+	}
+
+	/**
+	 * Allocates a direct {@link ByteBuffer} in the native byte order.
+	 *
+	 * @param capacity
+	 *            The capacity of the buffer in bytes.
+	 * @return A new direct <code>ByteBuffer</code>.
+	 */
+	private static ByteBuffer allocate(final int capacity) {
+		return ByteBuffer.allocateDirect(capacity).order(
+				ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Decodes a stored label offset.
+	 *
+	 * @param storedOffset
+	 *            The stored offset, which is complemented for
+	 *            <code>null</code> labels.
+	 * @return The offset of the label.
+	 */
+	private static int decodeOffset(final int storedOffset) {
+		return storedOffset < 0 ? ~storedOffset : storedOffset;
+	}
+
+	/**
+	 * Converts an annotation datum to a label.
+	 *
+	 * @param data
+	 *            The datum to convert.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting non-<code>null</code>
+	 *            data.
+	 * @return The label of the datum, which is <code>null</code> iff the
+	 *         datum is.
+	 */
+	private static <D> String format(final D data,
+			final Function<? super D, String> dataFormatter) {
+		return data == null ? null : dataFormatter.apply(data);
+	}
+
+	/**
+	 * @param tierClass
+	 *            The class of a tier.
+	 * @return The number of bytes needed for storing the times of each entry
+	 *         of the tier.
+	 */
+	private static int getTimeStride(final TierClass tierClass) {
+		return tierClass == TierClass.TEXT ? TIME_LENGTH : TIME_LENGTH * 2;
+	}
+
+	/**
+	 * Calculates the new capacity of a buffer which has to be grown.
+	 *
+	 * @param capacity
+	 *            The current capacity of the buffer.
+	 * @param minCapacity
+	 *            The capacity needed.
+	 * @return The new capacity.
+	 */
+	private static int grow(final int capacity, final int minCapacity) {
+		// Grow by half of the current capacity like ArrayList does
+		return Math.max(minCapacity, capacity + (capacity >> 1));
+	}
+
+	/**
+	 * Copies the used part of a buffer to a newly-allocated one.
+	 *
+	 * @param buffer
+	 *            The buffer to copy.
+	 * @param length
+	 *            The number of bytes used.
+	 * @param capacity
+	 *            The capacity of the new buffer in bytes.
+	 * @return A new direct {@link ByteBuffer} with the same byte order as the
+	 *         original.
+	 */
+	private static ByteBuffer reallocate(final ByteBuffer buffer,
+			final int length, final int capacity) {
+		final ByteBuffer source = buffer.duplicate();
+		source.position(0);
+		source.limit(length);
+		final ByteBuffer result = ByteBuffer.allocateDirect(capacity).order(
+				buffer.order());
+		result.put(source);
+		result.clear();
+		return result;
+	}
+
+	/**
+	 * The buffer of the offsets of each label in {@link #labels}.
+	 */
+	private transient ByteBuffer labelOffsets;
+
+	/**
+	 * The buffer of all labels.
+	 */
+	private transient ByteBuffer labels;
+
+	/**
+	 * The number of entries in the tier.
+	 */
+	private transient int size;
+
+	/**
+	 * The number of bytes of {@link #times} used for each entry.
+	 */
+	private final int timeStride;
+
+	/**
+	 * The buffer of the times of each entry.
+	 */
+	private transient ByteBuffer times;
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 * @param times
+	 *            The buffer of the times of each entry, starting at index 0.
+	 * @param labelOffsets
+	 *            The buffer of the offsets of the label of each entry,
+	 *            starting at index 0 and containing <code>size + 1</code>
+	 *            offsets.
+	 * @param labels
+	 *            The buffer of all labels, starting at index 0.
+	 * @param size
+	 *            The number of entries in the buffers.
+	 */
+	public OffHeapTier(final TierClass tierClass, final String name,
+			final DoubleDuration duration, final ByteBuffer times,
+			final ByteBuffer labelOffsets, final ByteBuffer labels,
+			final int size) {
+		super(tierClass, name, duration);
+		timeStride = getTimeStride(tierClass);
+		this.times = times;
+		this.labelOffsets = labelOffsets;
+		this.labels = labels;
+		this.size = size;
+	}
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 * @param capacity
+	 *            The number of entries to allocate space for, e.g.&nbsp;the
+	 *            entry count declared in a TextGrid file.
+	 */
+	public OffHeapTier(final TierClass tierClass, final String name,
+			final DoubleDuration duration, final int capacity) {
+		super(tierClass, name, duration);
+		timeStride = getTimeStride(tierClass);
+		initBuffers(capacity);
+	}
+
+	@Override
+	public void add(final double startTime, final double endTime,
+			final String data) {
+		final int labelOffset = getLabelOffset(size);
+		final byte[] label = data == null ? new byte[0] : data
+				.getBytes(LABEL_CHARSET);
+		ensureCapacity(size + 1, labelOffset + label.length);
+
+		final int timeIndex = size * timeStride;
+		times.putDouble(timeIndex, startTime);
+		if (timeStride > TIME_LENGTH) {
+			times.putDouble(timeIndex + TIME_LENGTH, endTime);
+		}
+
+		final ByteBuffer labelTarget = labels.duplicate();
+		labelTarget.position(labelOffset);
+		labelTarget.put(label);
+		final int offsetIndex = size * OFFSET_LENGTH;
+		labelOffsets.putInt(offsetIndex, data == null ? ~labelOffset
+				: labelOffset);
+		labelOffsets.putInt(offsetIndex + OFFSET_LENGTH, labelOffset
+				+ label.length);
+		size++;
+	}
+
+	/**
+	 * Ensures that the tier can contain a given number of entries without
+	 * reallocating its buffers again.
+	 *
+	 * @param capacity
+	 *            The minimum number of entries to allocate space for.
+	 * @param labelCapacity
+	 *            The minimum number of bytes to allocate for all labels.
+	 */
+	public void ensureCapacity(final int capacity, final int labelCapacity) {
+		final int timeCapacity = capacity * timeStride;
+		if (timeCapacity > times.capacity()) {
+			times = reallocate(times, size * timeStride,
+					grow(times.capacity(), timeCapacity));
+		}
+		final int offsetCapacity = (capacity + 1) * OFFSET_LENGTH;
+		if (offsetCapacity > labelOffsets.capacity()) {
+			labelOffsets = reallocate(labelOffsets, (size + 1) * OFFSET_LENGTH,
+					grow(labelOffsets.capacity(), offsetCapacity));
+		}
+		if (labelCapacity > labels.capacity()) {
+			labels = reallocate(labels, getLabelOffset(size),
+					grow(labels.capacity(), labelCapacity));
+		}
+	}
+
+	@Override
+	public String getData(final int index) {
+		checkIndex(index);
+		final String result;
+		final int storedOffset = labelOffsets.getInt(index * OFFSET_LENGTH);
+		if (storedOffset < 0) {
+			result = null;
+		} else {
+			final byte[] label = new byte[getLabelOffset(index + 1)
+					- storedOffset];
+			final ByteBuffer labelSource = labels.duplicate();
+			labelSource.position(storedOffset);
+			labelSource.get(label);
+			result = new String(label, LABEL_CHARSET);
+		}
+		return result;
+	}
+
+	@Override
+	public double getEndTimeValue(final int index) {
+		checkIndex(index);
+		final int timeIndex = index * timeStride;
+		return times.getDouble(timeIndex + timeStride - TIME_LENGTH);
+	}
+
+	@Override
+	public double getStartTimeValue(final int index) {
+		checkIndex(index);
+		return times.getDouble(index * timeStride);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void trimToSize() {
+		final int timeLength = size * timeStride;
+		if (timeLength < times.capacity()) {
+			times = reallocate(times, timeLength, timeLength);
+		}
+		final int offsetLength = (size + 1) * OFFSET_LENGTH;
+		if (offsetLength < labelOffsets.capacity()) {
+			labelOffsets = reallocate(labelOffsets, offsetLength, offsetLength);
+		}
+		final int labelLength = getLabelOffset(size);
+		if (labelLength < labels.capacity()) {
+			labels = reallocate(labels, labelLength, labelLength);
+		}
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of an entry, which can be equal to
+	 *            {@link #size()}.
+	 * @return The offset of the label of the entry in {@link #labels}, which
+	 *         is the total length of all labels for {@link #size()}.
+	 */
+	private int getLabelOffset(final int index) {
+		return decodeOffset(labelOffsets.getInt(index * OFFSET_LENGTH));
+	}
+
+	/**
+	 * Allocates empty buffers for a given number of entries.
+	 *
+	 * @param capacity
+	 *            The number of entries to allocate space for.
+	 */
+	private void initBuffers(final int capacity) {
+		times = allocate(capacity * timeStride);
+		labelOffsets = allocate((capacity + 1) * OFFSET_LENGTH);
+		labelOffsets.putInt(0, 0);
+		labels = allocate(capacity * ESTIMATED_LABEL_LENGTH);
+		size = 0;
+	}
+
+	/**
+	 * Reads the entries of the tier after its other fields have been
+	 * {@link Serializable deserialized}.
+	 *
+	 * @param input
+	 *            The {@link ObjectInputStream} to read from.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ClassNotFoundException
+	 *             If the class of a serialized object could not be found.
+	 */
+	private void readObject(final ObjectInputStream input) throws IOException,
+			ClassNotFoundException {
+		input.defaultReadObject();
+		final int entryCount = input.readInt();
+		initBuffers(entryCount);
+		for (int i = 0; i < entryCount; ++i) {
+			final double startTime = input.readDouble();
+			final double endTime = input.readDouble();
+			add(startTime, endTime, (String) input.readObject());
+		}
+	}
+
+	/**
+	 * Writes the entries of the tier after its other fields, since the
+	 * buffers themselves are not {@link Serializable serializable}.
+	 *
+	 * @param output
+	 *            The {@link ObjectOutputStream} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeObject(final ObjectOutputStream output)
+			throws IOException {
+		output.defaultWriteObject();
+		output.writeInt(size);
+		for (int i = 0; i < size; ++i) {
+			output.writeDouble(getStartTimeValue(i));
+			output.writeDouble(getEndTimeValue(i));
+			output.writeObject(getData(i));
+		}
+	}
+
+}
@@ -15,18 +15,25 @@
  */
 package com.github.errantlinguist.textgrid;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 import com.github.errantlinguist.time.DoubleDuration;
-import com.github.errantlinguist.time.Durative;
+import com.github.errantlinguist.time.DoubleDurative;
+import com.github.errantlinguist.time.ImmutableDoubleDuration;
 import com.github.errantlinguist.tree.ChildList;
 
 /**
  * A representation of a <a href="http://www.fon.hum.uva.nl/praat/">Praat</a>
  * TextGrid file and the annotation data contained therein.
+ * <p>
+ * Instances are serialized in a flat, columnar form rather than as a graph of
+ * tier and entry objects; See {@link TierColumns}.
+ * </p>
  * 
  * @param <D>
  *            The type of the annotation data.
@@ -36,7 +43,112 @@ import com.github.errantlinguist.tree.ChildList;
  * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
  * 
  */
-public class TextGridFile<D> implements Durative<Double>, Serializable {
+public class TextGridFile<D> implements DoubleDurative, Serializable {
+
+	/**
+	 * The serialized form of a {@link TextGridFile}, which stores each of its
+	 * tiers as {@link TierColumns}.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 * 
+	 */
+	private static final class SerializationProxy implements Serializable {
+
+		/**
+		 * The serial version UID for use in {@link Serializable
+		 * serialization}.
+		 */
+		private static final long serialVersionUID = -4110478564380297463L;
+
+		/**
+		 * The file end time.
+		 */
+		private final double endTime;
+
+		/**
+		 * The size of the tier list of the file, including any
+		 * <code>null</code> elements.
+		 */
+		private final int listSize;
+
+		/**
+		 * The ascending positions of the <code>null</code> elements in the
+		 * tier list of the file.
+		 */
+		private final int[] nullPositions;
+
+		/**
+		 * The file start time.
+		 */
+		private final double startTime;
+
+		/**
+		 * The tiers of the file.
+		 */
+		private final TierColumns[] tiers;
+
+		/**
+		 * 
+		 * @param textGridFile
+		 *            The {@link TextGridFile} to store.
+		 */
+		private SerializationProxy(final TextGridFile<?> textGridFile) {
+			final DoubleDuration duration = textGridFile.getDuration();
+			startTime = duration.getStartTimeValue();
+			endTime = duration.getEndTimeValue();
+
+			final List<? extends NamedTier<?>> tierList = textGridFile
+					.getChildren();
+			listSize = tierList.size();
+			final List<TierColumns> tierColumns = new ArrayList<TierColumns>(
+					listSize);
+			for (final NamedTier<?> tier : tierList) {
+				if (tier != null) {
+					tierColumns.add(new TierColumns(tier));
+				}
+			}
+			tiers = tierColumns.toArray(new TierColumns[tierColumns.size()]);
+			nullPositions = TierColumns.findNullPositions(tierList, listSize
+					- tiers.length);
+		}
+
+		/**
+		 * 
+		 * @return A new {@link TextGridFile} equal to the one stored.
+		 * @throws InvalidObjectException
+		 *             If the stored tiers are inconsistent.
+		 */
+		private Object readResolve() throws InvalidObjectException {
+			if (listSize != tiers.length + nullPositions.length) {
+				throw new InvalidObjectException("Inconsistent tier count.");
+			}
+			final List<NamedTier<Object>> tierList = new ArrayList<NamedTier<Object>>(
+					listSize);
+			final TextGridFile<Object> result = new TextGridFile<Object>(
+					new ImmutableDoubleDuration(startTime, endTime), tierList);
+			// The list is filled directly since the parent of each tier is
+			// already set by its constructor
+			int nullIndex = 0;
+			int tierIndex = 0;
+			for (int position = 0; position < listSize; ++position) {
+				if (nullIndex < nullPositions.length
+						&& nullPositions[nullIndex] == position) {
+					tierList.add(null);
+					nullIndex++;
+				} else {
+					if (tierIndex == tiers.length) {
+						throw new InvalidObjectException(
+								"Inconsistent null positions.");
+					}
+					tierList.add(tiers[tierIndex++].toTier(result));
+				}
+			}
+			return result;
+		}
+
+	}
 
 	/**
 	 * The serial version UID for use in {@link Serializable serialization}.
@@ -176,4 +288,26 @@ public class TextGridFile<D> implements Durative<Double>, Serializable {
 				.equals(getChildren(), other.getChildren()));
 	}
 
+	/**
+	 * Prevents the default serialized form from being read, which is never
+	 * written.
+	 * 
+	 * @param stream
+	 *            The stream to read from.
+	 * @throws InvalidObjectException
+	 *             Always.
+	 */
+	private void readObject(final ObjectInputStream stream)
+			throws InvalidObjectException {
+		throw new InvalidObjectException("Serialization proxy required.");
+	}
+
+	/**
+	 * 
+	 * @return A new {@link SerializationProxy} of this file.
+	 */
+	private Object writeReplace() {
+		return new SerializationProxy(this);
+	}
+
 }
@@ -72,7 +72,8 @@ public class TextGridFileFactory<D> implements Clearable,
 	public TextGridFile<D> create() {
 		final DoubleDuration duration = new ImmutableDoubleDuration(startTime,
 				endTime);
-		return new TextGridFile<D>(duration, size);
+		// Tiers are indexed from 1, so the first element is always null
+		return new TextGridFile<D>(duration, size + 1);
 	}
 
 	/*
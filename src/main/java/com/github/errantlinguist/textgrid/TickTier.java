@@ -0,0 +1,291 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.errantlinguist.time.DoubleDuration;
+import com.github.errantlinguist.time.ImmutableLongDuration;
+import com.github.errantlinguist.time.LongDuration;
+import com.github.errantlinguist.time.TickScale;
+
+/**
+ * A columnar tier which stores the times of its entries as {@code long} tick
+ * counts of a given {@link TickScale} rather than as {@code double} seconds,
+ * so that entry times can be compared exactly through e.g.
+ * {@link #getStartTicks(int)}.
+ * <p>
+ * Times given in seconds are rounded to the nearest tick when added and are
+ * converted back to seconds by {@link #getStartTimeValue(int)} etc., so the
+ * tier equals a {@link ColumnarTier} with the same entries only if all their
+ * times lie on the tick grid.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The object type representing the data denoted by the tier
+ *            entries.
+ *
+ */
+public class TickTier<D> extends AbstractColumnarTier<D> {
+
+	/**
+	 * The capacity of a new tier for which none is given.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = -6010337364873620894L;
+
+	/**
+	 * Creates a new <code>TickTier</code> containing the same entries as a
+	 * given {@link NamedTier}.
+	 *
+	 * @param tier
+	 *            The <code>NamedTier</code> to copy.
+	 * @param scale
+	 *            The {@link TickScale} to quantize the entry times to.
+	 * @return A new <code>TickTier</code> with the same tier class, name,
+	 *         duration and entries.
+	 */
+	public static <D> TickTier<D> copyOf(final NamedTier<? extends D> tier,
+			final TickScale scale) {
+		final List<? extends BasicEntry<? extends D>> entries = tier
+				.getChildren();
+		final TickTier<D> result = new TickTier<D>(tier.getTierClass(),
+				tier.getName(), tier.getDuration(), scale, entries.size());
+		for (final BasicEntry<? extends D> entry : entries) {
+			// The list of entries is indexed from 1 like in the file itself
+			if (entry != null) {
+				final DoubleDuration duration = entry.getDuration();
+				result.add(duration.getStartTimeValue(),
+						duration.getEndTimeValue(), entry.getData());
+			}
+		}
+		result.trimToSize();
+		return result;
+	}
+
+	/**
+	 * The annotation data of each entry.
+	 */
+	private Object[] data;
+
+	/**
+	 * The end time in ticks of each entry, which is the same array as
+	 * {@link #startTicks} for text tiers.
+	 */
+	private long[] endTicks;
+
+	/**
+	 * The scale the entry times are stored in.
+	 */
+	private final TickScale scale;
+
+	/**
+	 * The number of entries in the tier.
+	 */
+	private int size = 0;
+
+	/**
+	 * The start time in ticks of each entry.
+	 */
+	private long[] startTicks;
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 * @param scale
+	 *            The {@link TickScale} to store the entry times in.
+	 */
+	public TickTier(final TierClass tierClass, final String name,
+			final DoubleDuration duration, final TickScale scale) {
+		this(tierClass, name, duration, scale, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The tier class.
+	 * @param name
+	 *            The tier name.
+	 * @param duration
+	 *            The tier duration.
+	 * @param scale
+	 *            The {@link TickScale} to store the entry times in.
+	 * @param capacity
+	 *            The number of entries to allocate space for, e.g.&nbsp;the
+	 *            entry count declared in a TextGrid file.
+	 */
+	public TickTier(final TierClass tierClass, final String name,
+			final DoubleDuration duration, final TickScale scale,
+			final int capacity) {
+		super(tierClass, name, duration);
+		this.scale = scale;
+		startTicks = new long[capacity];
+		endTicks = tierClass == TierClass.TEXT ? startTicks
+				: new long[capacity];
+		data = new Object[capacity];
+	}
+
+	/**
+	 * Appends an entry to the tier, rounding its times to the nearest tick.
+	 */
+	@Override
+	public void add(final double startTime, final double endTime,
+			final D data) {
+		add(scale.toTicks(startTime), scale.toTicks(endTime), data);
+	}
+
+	/**
+	 * Appends an entry to the tier.
+	 *
+	 * @param startTicks
+	 *            The start time of the entry in ticks.
+	 * @param endTicks
+	 *            The end time of the entry in ticks, which is ignored for text
+	 *            tiers.
+	 * @param data
+	 *            The annotation data of the entry.
+	 */
+	public void add(final long startTicks, final long endTicks, final D data) {
+		if (size == this.startTicks.length) {
+			ensureCapacity(size + 1);
+		}
+		this.startTicks[size] = startTicks;
+		if (this.endTicks != this.startTicks) {
+			this.endTicks[size] = endTicks;
+		}
+		this.data[size] = data;
+		size++;
+	}
+
+	/**
+	 * Ensures that the tier can contain a given number of entries without
+	 * growing its arrays again.
+	 *
+	 * @param capacity
+	 *            The minimum number of entries to allocate space for.
+	 */
+	public void ensureCapacity(final int capacity) {
+		if (capacity > startTicks.length) {
+			// Grow by half of the current capacity like ArrayList does
+			final int newCapacity = Math.max(capacity, startTicks.length
+					+ (startTicks.length >> 1));
+			resize(newCapacity);
+		}
+	}
+
+	@Override
+	public D getData(final int index) {
+		checkIndex(index);
+		@SuppressWarnings("unchecked")
+		final D result = (D) data[index];
+		return result;
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return The end time of the entry in ticks.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public long getEndTicks(final int index) {
+		checkIndex(index);
+		return endTicks[index];
+	}
+
+	@Override
+	public double getEndTimeValue(final int index) {
+		return scale.toSeconds(getEndTicks(index));
+	}
+
+	/**
+	 * @return The {@link TickScale} the entry times are stored in.
+	 */
+	public TickScale getScale() {
+		return scale;
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return The start time of the entry in ticks.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public long getStartTicks(final int index) {
+		checkIndex(index);
+		return startTicks[index];
+	}
+
+	@Override
+	public double getStartTimeValue(final int index) {
+		return scale.toSeconds(getStartTicks(index));
+	}
+
+	/**
+	 * @param index
+	 *            The 0-based index of the entry.
+	 * @return A new {@link LongDuration} of the entry in ticks.
+	 * @throws IndexOutOfBoundsException
+	 *             If there is no entry at the given index.
+	 */
+	public LongDuration getTickDuration(final int index) {
+		checkIndex(index);
+		return new ImmutableLongDuration(startTicks[index], endTicks[index]);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void trimToSize() {
+		if (size < startTicks.length) {
+			resize(size);
+		}
+	}
+
+	/**
+	 * Reallocates the arrays of the tier.
+	 *
+	 * @param capacity
+	 *            The new length of the arrays.
+	 */
+	private void resize(final int capacity) {
+		final boolean isEndTicksShared = endTicks == startTicks;
+		startTicks = Arrays.copyOf(startTicks, capacity);
+		endTicks = isEndTicksShared ? startTicks : Arrays.copyOf(endTicks,
+				capacity);
+		data = Arrays.copyOf(data, capacity);
+	}
+
+}
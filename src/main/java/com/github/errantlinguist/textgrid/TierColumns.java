@@ -0,0 +1,227 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.errantlinguist.time.DoubleDuration;
+import com.github.errantlinguist.time.ImmutableDoubleDuration;
+
+/**
+ * The serialized form of a {@link NamedTier}, which stores the times and
+ * annotation data of its entries in flat arrays rather than as one serialized
+ * {@link BasicEntry} object each, i.e.&nbsp;without any per-entry class
+ * descriptors, object headers or references to the tier.
+ * <p>
+ * Since the entry list of a tier is indexed from 1 like in the file itself,
+ * the positions of any <code>null</code> elements in the list are stored as
+ * well, so that the list is restored exactly.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+final class TierColumns implements Serializable {
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = 3076734870532651236L;
+
+	/**
+	 * Finds the positions of the <code>null</code> elements of a {@link List}.
+	 *
+	 * @param list
+	 *            The <code>List</code> to search.
+	 * @param nullCount
+	 *            The number of <code>null</code> elements in the list.
+	 * @return The ascending positions of all <code>null</code> elements.
+	 */
+	static int[] findNullPositions(final List<?> list, final int nullCount) {
+		final int[] result = new int[nullCount];
+		int nullIndex = 0;
+		int position = 0;
+		for (final Object element : list) {
+			if (element == null) {
+				result[nullIndex++] = position;
+			}
+			position++;
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the position of a given object in a {@link List} by identity
+	 * rather than by {@link Object#equals(Object) equality}.
+	 *
+	 * @param list
+	 *            The <code>List</code> to search.
+	 * @param element
+	 *            The object to find.
+	 * @return The position of the object or <code>-1</code> if the list does
+	 *         not contain it.
+	 */
+	static int indexOfIdentical(final List<?> list, final Object element) {
+		int result = -1;
+		int position = 0;
+		for (final Object listElement : list) {
+			if (listElement == element) {
+				result = position;
+				break;
+			}
+			position++;
+		}
+		return result;
+	}
+
+	/**
+	 * The annotation data of each entry.
+	 */
+	private final Object[] data;
+
+	/**
+	 * The tier end time.
+	 */
+	private final double endTime;
+
+	/**
+	 * The end time of each entry, which is <code>null</code> for text tiers.
+	 */
+	private final double[] endTimes;
+
+	/**
+	 * The size of the entry list of the tier, including any <code>null</code>
+	 * elements.
+	 */
+	private final int listSize;
+
+	/**
+	 * The tier name.
+	 */
+	private final String name;
+
+	/**
+	 * The ascending positions of the <code>null</code> elements in the entry
+	 * list of the tier.
+	 */
+	private final int[] nullPositions;
+
+	/**
+	 * The tier start time.
+	 */
+	private final double startTime;
+
+	/**
+	 * The start time of each entry.
+	 */
+	private final double[] startTimes;
+
+	/**
+	 * The tier class.
+	 */
+	private final TierClass tierClass;
+
+	/**
+	 *
+	 * @param tier
+	 *            The {@link NamedTier} to store.
+	 */
+	TierColumns(final NamedTier<?> tier) {
+		tierClass = tier.getTierClass();
+		name = tier.getName();
+		final DoubleDuration duration = tier.getDuration();
+		startTime = duration.getStartTimeValue();
+		endTime = duration.getEndTimeValue();
+
+		final List<? extends BasicEntry<?>> entries = tier.getChildren();
+		listSize = entries.size();
+		int entryCount = 0;
+		final EntryCursor<?> counter = tier.createCursor();
+		while (counter.next()) {
+			entryCount++;
+		}
+		nullPositions = findNullPositions(entries, listSize - entryCount);
+		startTimes = new double[entryCount];
+		endTimes = tierClass == TierClass.TEXT ? null
+				: new double[entryCount];
+		data = new Object[entryCount];
+		final EntryCursor<?> cursor = tier.createCursor();
+		for (int i = 0; cursor.next(); ++i) {
+			startTimes[i] = cursor.getStartTimeValue();
+			if (endTimes != null) {
+				endTimes[i] = cursor.getEndTimeValue();
+			}
+			data[i] = cursor.getData();
+		}
+	}
+
+	/**
+	 * Creates a new {@link NamedTier} with the stored entries.
+	 *
+	 * @param parent
+	 *            The {@link TextGridFile} the tier is in or <code>null</code>
+	 *            if it is in none.
+	 * @return A new <code>NamedTier</code> equal to the one stored.
+	 * @throws InvalidObjectException
+	 *             If the stored arrays are inconsistent.
+	 */
+	<D> NamedTier<D> toTier(final TextGridFile<D> parent)
+			throws InvalidObjectException {
+		final int entryCount = startTimes.length;
+		if (data.length != entryCount
+				|| endTimes != null && endTimes.length != entryCount
+				|| listSize != entryCount + nullPositions.length) {
+			throw new InvalidObjectException("Inconsistent tier columns.");
+		}
+
+		final List<BasicEntry<D>> entries = new ArrayList<BasicEntry<D>>(
+				listSize);
+		final NamedTier<D> result = new NamedTier<D>(parent, tierClass, name,
+				new ImmutableDoubleDuration(startTime, endTime), entries);
+		// The list is filled directly since the parent of each entry is
+		// already set by its constructor
+		int nullIndex = 0;
+		int entryIndex = 0;
+		for (int position = 0; position < listSize; ++position) {
+			if (nullIndex < nullPositions.length
+					&& nullPositions[nullIndex] == position) {
+				entries.add(null);
+				nullIndex++;
+			} else {
+				if (entryIndex == entryCount) {
+					throw new InvalidObjectException(
+							"Inconsistent null positions.");
+				}
+				final double entryStartTime = startTimes[entryIndex];
+				final double entryEndTime = endTimes == null ? entryStartTime
+						: endTimes[entryIndex];
+				@SuppressWarnings("unchecked")
+				final D entryData = (D) data[entryIndex];
+				entries.add(new BasicEntry<D>(result,
+						new ImmutableDoubleDuration(entryStartTime,
+								entryEndTime), entryData));
+				entryIndex++;
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,264 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.errantlinguist.time.DoubleDuration;
+
+/**
+ * Joins the entries of pairs of tiers by their times, e.g.&nbsp;for finding
+ * the phones contained in each word of a TextGrid file.
+ * <p>
+ * The entries of both tiers are ordered by start time (as by a
+ * {@link TierTimeIndex}) and then matched by a single sweep over both lists,
+ * which keeps track of the first entry of the right tier which could still
+ * match any further entry of the left tier. For tiers in which no entry
+ * contains another one of the same tier, a join thus takes
+ * <em>O(n + m + k)</em> time for <em>k</em> matches rather than
+ * <em>O(n&middot;m)</em> as by comparing every pair of entries; The matched
+ * pairs are passed to a {@link TierJoinListener} as they are found in the
+ * order of the left tier, so they are never collected in memory.
+ * </p>
+ *
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public final class TierJoin {
+
+	/**
+	 * Joins the entries of two tiers.
+	 *
+	 * @param left
+	 *            The tier to find matches for the entries of.
+	 * @param right
+	 *            The tier to find the matching entries in.
+	 * @param joinType
+	 *            The relation to match entries by.
+	 * @param listener
+	 *            The {@link TierJoinListener} to notify of the matched pairs.
+	 */
+	public static <L, R> void join(final NamedTier<L> left,
+			final NamedTier<R> right, final TierJoinType joinType,
+			final TierJoinListener<L, R> listener) {
+		final List<BasicEntry<L>> leftEntries = left.createTimeIndex()
+				.getEntries();
+		final List<BasicEntry<R>> rightEntries = right.createTimeIndex()
+				.getEntries();
+		switch (joinType) {
+		case CONTAINMENT:
+		case OVERLAP:
+			joinIntersecting(leftEntries, rightEntries,
+					joinType == TierJoinType.CONTAINMENT, listener);
+			break;
+		case NEAREST_BOUNDARY:
+			joinNearest(leftEntries, rightEntries, listener);
+			break;
+		default:
+			throw new AssertionError("No logic for handling join type: "
+					+ joinType);
+		}
+	}
+
+	/**
+	 * Joins the entries of each pair of consecutive tiers of a hierarchy of
+	 * tiers, e.g.&nbsp;utterances, words and phones.
+	 *
+	 * @param tiers
+	 *            The tiers of the hierarchy, in order from the highest level to
+	 *            the lowest one.
+	 * @param joinType
+	 *            The relation to match entries by.
+	 * @param listener
+	 *            The {@link TierJoinListener} to notify of the matched pairs,
+	 *            which are found for each pair of tiers in turn.
+	 */
+	public static <D> void joinHierarchy(
+			final List<? extends NamedTier<D>> tiers,
+			final TierJoinType joinType, final TierJoinListener<D, D> listener) {
+		NamedTier<D> parent = null;
+		for (final NamedTier<D> tier : tiers) {
+			if (parent != null) {
+				join(parent, tier, joinType, listener);
+			}
+			parent = tier;
+		}
+	}
+
+	/**
+	 * Joins the entries of each pair of consecutive tiers of a
+	 * {@link TextGridFile}, taking the order of the tiers in the file as their
+	 * hierarchy.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to join the tiers of.
+	 * @param joinType
+	 *            The relation to match entries by.
+	 * @param listener
+	 *            The {@link TierJoinListener} to notify of the matched pairs,
+	 *            which are found for each pair of tiers in turn.
+	 * @see #joinHierarchy(List, TierJoinType, TierJoinListener)
+	 */
+	public static <D> void joinHierarchy(final TextGridFile<D> textGridFile,
+			final TierJoinType joinType, final TierJoinListener<D, D> listener) {
+		final List<NamedTier<D>> tiers = textGridFile.getChildren();
+		final List<NamedTier<D>> hierarchy = new ArrayList<NamedTier<D>>(
+				tiers.size());
+		for (final NamedTier<D> tier : tiers) {
+			// The list of tiers is indexed from 1 like in the file itself
+			if (tier != null) {
+				hierarchy.add(tier);
+			}
+		}
+		joinHierarchy(hierarchy, joinType, listener);
+	}
+
+	/**
+	 * Checks if one entry overlaps another one as defined by
+	 * {@link TierJoinType#OVERLAP}.
+	 *
+	 * @param left
+	 *            The duration of the first entry.
+	 * @param right
+	 *            The duration of the second entry.
+	 * @return <code>true</code> iff the entries overlap.
+	 */
+	private static boolean isOverlapping(final DoubleDuration left,
+			final DoubleDuration right) {
+		final double leftStartTime = left.getStartTimeValue();
+		final double leftEndTime = left.getEndTimeValue();
+		final double rightStartTime = right.getStartTimeValue();
+		final double rightEndTime = right.getEndTimeValue();
+		final boolean result;
+		if (leftStartTime == leftEndTime || rightStartTime == rightEndTime) {
+			result = rightStartTime <= leftEndTime
+					&& leftStartTime <= rightEndTime;
+		} else {
+			result = rightStartTime < leftEndTime
+					&& leftStartTime < rightEndTime;
+		}
+		return result;
+	}
+
+	/**
+	 * Joins the entries of two tiers which share some time.
+	 *
+	 * @param leftEntries
+	 *            The entries of the left tier, ordered by start time.
+	 * @param rightEntries
+	 *            The entries of the right tier, ordered by start time.
+	 * @param isContainment
+	 *            <code>true</code> for a {@link TierJoinType#CONTAINMENT}
+	 *            join; <code>false</code> for an {@link TierJoinType#OVERLAP}
+	 *            join.
+	 * @param listener
+	 *            The {@link TierJoinListener} to notify of the matched pairs.
+	 */
+	private static <L, R> void joinIntersecting(
+			final List<BasicEntry<L>> leftEntries,
+			final List<BasicEntry<R>> rightEntries,
+			final boolean isContainment, final TierJoinListener<L, R> listener) {
+		final int rightSize = rightEntries.size();
+		// The first right entry which could match the current left entry
+		int firstRightIndex = 0;
+		for (final BasicEntry<L> leftEntry : leftEntries) {
+			final DoubleDuration leftDuration = leftEntry.getDuration();
+			final double leftStartTime = leftDuration.getStartTimeValue();
+			final double leftEndTime = leftDuration.getEndTimeValue();
+			// Entries ending before this left entry also end before all later ones
+			while (firstRightIndex < rightSize
+					&& rightEntries.get(firstRightIndex).getDuration()
+							.getEndTimeValue() < leftStartTime) {
+				firstRightIndex++;
+			}
+			for (int i = firstRightIndex; i < rightSize; ++i) {
+				final BasicEntry<R> rightEntry = rightEntries.get(i);
+				final DoubleDuration rightDuration = rightEntry.getDuration();
+				if (rightDuration.getStartTimeValue() > leftEndTime) {
+					break;
+				}
+				final boolean isMatch = isContainment ? rightDuration
+						.getStartTimeValue() >= leftStartTime
+						&& rightDuration.getEndTimeValue() <= leftEndTime
+						: isOverlapping(leftDuration, rightDuration);
+				if (isMatch) {
+					listener.notifyMatch(leftEntry, rightEntry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Joins each entry of the left tier to the entry of the right tier
+	 * starting nearest to it.
+	 *
+	 * @param leftEntries
+	 *            The entries of the left tier, ordered by start time.
+	 * @param rightEntries
+	 *            The entries of the right tier, ordered by start time.
+	 * @param listener
+	 *            The {@link TierJoinListener} to notify of the matched pairs.
+	 */
+	private static <L, R> void joinNearest(
+			final List<BasicEntry<L>> leftEntries,
+			final List<BasicEntry<R>> rightEntries,
+			final TierJoinListener<L, R> listener) {
+		final int lastRightIndex = rightEntries.size() - 1;
+		// The last right entry starting at or before the current left entry
+		int rightIndex = 0;
+		if (lastRightIndex >= 0) {
+			for (final BasicEntry<L> leftEntry : leftEntries) {
+				final double leftStartTime = leftEntry.getDuration()
+						.getStartTimeValue();
+				while (rightIndex < lastRightIndex
+						&& rightEntries.get(rightIndex + 1).getDuration()
+								.getStartTimeValue() <= leftStartTime) {
+					rightIndex++;
+				}
+				int nearestIndex = rightIndex;
+				if (rightIndex < lastRightIndex) {
+					final double distance = Math.abs(leftStartTime
+							- rightEntries.get(rightIndex).getDuration()
+									.getStartTimeValue());
+					final double nextDistance = rightEntries
+							.get(rightIndex + 1).getDuration()
+							.getStartTimeValue()
+							- leftStartTime;
+					if (nextDistance < distance) {
+						nearestIndex = rightIndex + 1;
+					}
+				}
+				// Prefer the first of several entries starting at the same time
+				final double nearestStartTime = rightEntries.get(nearestIndex)
+						.getDuration().getStartTimeValue();
+				while (nearestIndex > 0
+						&& rightEntries.get(nearestIndex - 1).getDuration()
+								.getStartTimeValue() == nearestStartTime) {
+					nearestIndex--;
+				}
+				listener.notifyMatch(leftEntry, rightEntries.get(nearestIndex));
+			}
+		}
+	}
+
+	private TierJoin() {
+		// Avoid instantiation
+	}
+
+}
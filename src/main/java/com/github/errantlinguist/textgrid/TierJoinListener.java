@@ -0,0 +1,45 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+/**
+ * An interface for receiving the pairs of entries matched by a
+ * {@link TierJoin}.
+ *
+ * @param <L>
+ *            The type of the annotation data of the left tier.
+ * @param <R>
+ *            The type of the annotation data of the right tier.
+ *
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public interface TierJoinListener<L, R> {
+
+	/**
+	 * Notifies the listener of a matched pair of entries; The tiers they are
+	 * from are their {@link BasicEntry#getParent() parents}.
+	 *
+	 * @param left
+	 *            The entry of the left tier.
+	 * @param right
+	 *            The entry of the right tier.
+	 */
+	void notifyMatch(BasicEntry<L> left, BasicEntry<R> right);
+
+}
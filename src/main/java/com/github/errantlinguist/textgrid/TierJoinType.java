@@ -0,0 +1,47 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+/**
+ * The relations by which a {@link TierJoin} matches the entries of one tier
+ * to those of another.
+ *
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public enum TierJoinType {
+	/**
+	 * Matches each entry of the left tier to every entry of the right tier
+	 * which lies within it, i.e.&nbsp;which starts at or after its start and
+	 * ends at or before its end, e.g.&nbsp;the phones of each word.
+	 */
+	CONTAINMENT,
+	/**
+	 * Matches each entry of the left tier to the single entry of the right
+	 * tier starting nearest to its start, i.e.&nbsp;the boundary of the right
+	 * tier nearest to it, preferring the earlier entry for equal distances.
+	 */
+	NEAREST_BOUNDARY,
+	/**
+	 * Matches each entry of the left tier to every entry of the right tier
+	 * which overlaps it by more than a shared boundary, i.e.&nbsp;which starts
+	 * before its end and ends after its start; A point overlaps every entry it
+	 * lies within, including their boundaries.
+	 */
+	OVERLAP;
+}
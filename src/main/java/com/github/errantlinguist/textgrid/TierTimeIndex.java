@@ -0,0 +1,374 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.errantlinguist.time.DoubleDuration;
+
+/**
+ * An index of the entries of a {@link NamedTier} by time, which finds the
+ * entry at a given time or all entries overlapping or within a given span of
+ * time in <em>O(log n)</em> rather than by scanning all entries of the tier.
+ * <p>
+ * The entries are ordered by their {@link BasicEntry#compareTo(BasicEntry)
+ * natural ordering}, i.e.&nbsp;by start time and then by end time. For tiers
+ * in which no entry contains another one, which includes all interval tiers
+ * and text tiers written by Praat, the end times are then sorted as well, so
+ * that the entries of any span of time form a contiguous range of this
+ * ordering: Queries are answered by binary searches over the start and end
+ * times and return read-only sub-list views of the index without copying any
+ * entries. For other tiers, an interval tree is built in addition, and
+ * queries for spans of time return new lists of the <em>k</em> entries found
+ * in <em>O((k + 1) log n)</em>.
+ * </p>
+ * <p>
+ * Times are compared inclusively, so an entry starting at the very time
+ * another one ends overlaps any span of time containing that time. The index
+ * is a snapshot of the tier at the time it was created: Create it once and
+ * reuse it for as long as the tier is not changed.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The object type representing the data denoted by the tier
+ *            entries.
+ *
+ * @see NamedTier#createTimeIndex()
+ */
+public class TierTimeIndex<D> {
+
+	/**
+	 * Finds the index of the first element of a sorted array which is greater
+	 * than a given value.
+	 *
+	 * @param values
+	 *            The values to search, sorted in ascending order.
+	 * @param value
+	 *            The value to search for.
+	 * @return The index of the first element greater than the value, which is
+	 *         the length of the array if there is none.
+	 */
+	private static int findFirstGreater(final double[] values,
+			final double value) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (values[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the index of the first element of a sorted array which is not
+	 * less than a given value.
+	 *
+	 * @param values
+	 *            The values to search, sorted in ascending order.
+	 * @param value
+	 *            The value to search for.
+	 * @return The index of the first element not less than the value, which
+	 *         is the length of the array if there is none.
+	 */
+	private static int findFirstNotLess(final double[] values,
+			final double value) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (values[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * The end time of each entry in {@link #entries}.
+	 */
+	private final double[] endTimes;
+
+	/**
+	 * The indexed entries in their natural ordering.
+	 */
+	private final List<BasicEntry<D>> entries;
+
+	/**
+	 * The number of leaves of {@link #maxEndTimes}, which is a power of two.
+	 */
+	private final int leafCount;
+
+	/**
+	 * A complete binary tree stored in an array with the root at index 1 and
+	 * the children of each node <code>i</code> at <code>2i</code> and
+	 * <code>2i + 1</code>, in which each node holds the maximum end time of
+	 * all entries below it, or <code>null</code> if the end times of
+	 * {@link #entries} are sorted.
+	 */
+	private final double[] maxEndTimes;
+
+	/**
+	 * The start time of each entry in {@link #entries}.
+	 */
+	private final double[] startTimes;
+
+	/**
+	 *
+	 * @param tier
+	 *            The {@link NamedTier} to index.
+	 */
+	public TierTimeIndex(final NamedTier<D> tier) {
+		final List<BasicEntry<D>> children = tier.getChildren();
+		final ArrayList<BasicEntry<D>> entries = new ArrayList<BasicEntry<D>>(
+				children.size());
+		boolean isSorted = true;
+		for (final BasicEntry<D> entry : children) {
+			// The list of entries is indexed from 1 like in the file itself
+			if (entry != null) {
+				if (isSorted && !entries.isEmpty()) {
+					isSorted = entries.get(entries.size() - 1).compareTo(entry) <= 0;
+				}
+				entries.add(entry);
+			}
+		}
+		if (!isSorted) {
+			Collections.sort(entries);
+		}
+		this.entries = Collections.unmodifiableList(entries);
+
+		final int size = entries.size();
+		startTimes = new double[size];
+		endTimes = new double[size];
+		boolean areEndTimesSorted = true;
+		for (int i = 0; i < size; ++i) {
+			final DoubleDuration duration = entries.get(i).getDuration();
+			startTimes[i] = duration.getStartTimeValue();
+			endTimes[i] = duration.getEndTimeValue();
+			if (i > 0 && endTimes[i] < endTimes[i - 1]) {
+				areEndTimesSorted = false;
+			}
+		}
+
+		if (areEndTimesSorted) {
+			leafCount = 0;
+			maxEndTimes = null;
+		} else {
+			leafCount = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+			maxEndTimes = new double[leafCount * 2];
+			Arrays.fill(maxEndTimes, Double.NEGATIVE_INFINITY);
+			System.arraycopy(endTimes, 0, maxEndTimes, leafCount, size);
+			for (int node = leafCount - 1; node > 0; --node) {
+				maxEndTimes[node] = Math.max(maxEndTimes[node * 2],
+						maxEndTimes[node * 2 + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Finds all entries which overlap a given span of time, i.e.&nbsp;which
+	 * start at or before its end and end at or after its start.
+	 *
+	 * @param startTime
+	 *            The start of the span of time.
+	 * @param endTime
+	 *            The end of the span of time.
+	 * @return A read-only list of the entries found in their natural ordering.
+	 */
+	public List<BasicEntry<D>> entriesOverlapping(final double startTime,
+			final double endTime) {
+		final List<BasicEntry<D>> result;
+		final int toIndex = findFirstGreater(startTimes, endTime);
+		if (maxEndTimes == null) {
+			final int fromIndex = Math.min(findFirstNotLess(endTimes,
+					startTime), toIndex);
+			result = entries.subList(fromIndex, toIndex);
+		} else {
+			final List<BasicEntry<D>> found = new ArrayList<BasicEntry<D>>();
+			findOverlapping(1, 0, leafCount, toIndex, startTime, found);
+			result = Collections.unmodifiableList(found);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds all entries which lie within a given span of time, i.e.&nbsp;which
+	 * start at or after its start and end at or before its end.
+	 *
+	 * @param startTime
+	 *            The start of the span of time.
+	 * @param endTime
+	 *            The end of the span of time.
+	 * @return A read-only list of the entries found in their natural ordering.
+	 */
+	public List<BasicEntry<D>> entriesWithin(final double startTime,
+			final double endTime) {
+		final List<BasicEntry<D>> result;
+		final int fromIndex = findFirstNotLess(startTimes, startTime);
+		if (maxEndTimes == null) {
+			final int toIndex = Math.max(findFirstGreater(endTimes, endTime),
+					fromIndex);
+			result = entries.subList(fromIndex, toIndex);
+		} else {
+			final int toIndex = findFirstGreater(startTimes, endTime);
+			final List<BasicEntry<D>> found = new ArrayList<BasicEntry<D>>();
+			for (int i = fromIndex; i < toIndex; ++i) {
+				if (endTimes[i] <= endTime) {
+					found.add(entries.get(i));
+				}
+			}
+			result = Collections.unmodifiableList(found);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the entry at a given time, i.e.&nbsp;the entry with the latest
+	 * start time of all entries which start at or before the time and end at
+	 * or after it. For adjacent intervals, this is the interval starting at a
+	 * shared boundary rather than the one ending there.
+	 *
+	 * @param time
+	 *            The time to find the entry at.
+	 * @return The entry at the given time or <code>null</code> if there is
+	 *         none.
+	 */
+	public BasicEntry<D> entryAt(final double time) {
+		final int index = indexOfEntryAt(time);
+		return index < 0 ? null : entries.get(index);
+	}
+
+	/**
+	 * @return A read-only list of all indexed entries in their natural
+	 *         ordering.
+	 */
+	public List<BasicEntry<D>> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Finds the index of the entry at a given time as by
+	 * {@link #entryAt(double)}.
+	 *
+	 * @param time
+	 *            The time to find the entry at.
+	 * @return The index of the entry in {@link #getEntries()} or
+	 *         <code>-1</code> if there is none.
+	 */
+	public int indexOfEntryAt(final double time) {
+		int result = -1;
+		final int lastStartedIndex = findFirstGreater(startTimes, time) - 1;
+		if (maxEndTimes == null) {
+			if (lastStartedIndex >= 0 && endTimes[lastStartedIndex] >= time) {
+				result = lastStartedIndex;
+			}
+		} else {
+			result = findLastNotEndedBefore(1, 0, leafCount,
+					lastStartedIndex + 1, time);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of indexed entries.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Finds the last entry below a given node of {@link #maxEndTimes} which
+	 * starts before a given index and ends at or after a given time.
+	 *
+	 * @param node
+	 *            The node to search below.
+	 * @param nodeFromIndex
+	 *            The index of the first entry below the node (inclusive).
+	 * @param nodeToIndex
+	 *            The index of the last entry below the node (exclusive).
+	 * @param toIndex
+	 *            The index of the first entry not to search.
+	 * @param time
+	 *            The minimum end time of the entry to find.
+	 * @return The index of the entry found or <code>-1</code> if there is
+	 *         none.
+	 */
+	private int findLastNotEndedBefore(final int node,
+			final int nodeFromIndex, final int nodeToIndex, final int toIndex,
+			final double time) {
+		int result = -1;
+		if (nodeFromIndex < toIndex && maxEndTimes[node] >= time) {
+			if (node >= leafCount) {
+				result = nodeFromIndex;
+			} else {
+				final int midIndex = (nodeFromIndex + nodeToIndex) >>> 1;
+				result = findLastNotEndedBefore(node * 2 + 1, midIndex,
+						nodeToIndex, toIndex, time);
+				if (result < 0) {
+					result = findLastNotEndedBefore(node * 2, nodeFromIndex,
+							midIndex, toIndex, time);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds all entries below a given node of {@link #maxEndTimes} which start
+	 * before a given index and end at or after a given time to a list.
+	 *
+	 * @param node
+	 *            The node to search below.
+	 * @param nodeFromIndex
+	 *            The index of the first entry below the node (inclusive).
+	 * @param nodeToIndex
+	 *            The index of the last entry below the node (exclusive).
+	 * @param toIndex
+	 *            The index of the first entry not to search.
+	 * @param startTime
+	 *            The minimum end time of the entries to add.
+	 * @param found
+	 *            The list to add the found entries to.
+	 */
+	private void findOverlapping(final int node, final int nodeFromIndex,
+			final int nodeToIndex, final int toIndex, final double startTime,
+			final List<BasicEntry<D>> found) {
+		if (nodeFromIndex < toIndex && maxEndTimes[node] >= startTime) {
+			if (node >= leafCount) {
+				found.add(entries.get(nodeFromIndex));
+			} else {
+				final int midIndex = (nodeFromIndex + nodeToIndex) >>> 1;
+				findOverlapping(node * 2, nodeFromIndex, midIndex, toIndex,
+						startTime, found);
+				findOverlapping(node * 2 + 1, midIndex, nodeToIndex, toIndex,
+						startTime, found);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,690 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import com.github.errantlinguist.io.AbstractBufferedInputStreamReader;
+import com.github.errantlinguist.io.CharSequenceNumbers;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A base class for readers of <a
+ * href="http://www.fon.hum.uva.nl/praat/">Praat</a> text TextGrid files which
+ * scan one line at a time with a hand-written character scanner, notifying a
+ * {@link TextGridListener} of the values they contain.
+ * <p>
+ * Lines can either be read from a {@link BufferedReader} or be passed
+ * individually to {@link #scanLine(CharSequence)} by e.g.&nbsp;a
+ * {@link MappedTextGridFileReader}.
+ * </p>
+ * <p>
+ * Tiers can be selected with a {@link TierFilter}: The values of each tier
+ * header are kept until its entry count has been read, after which they are
+ * either passed to the listener or, if the tier is rejected, discarded along
+ * with the lines of all its entries, which are skipped without being parsed.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public abstract class AbstractTextGridFileScanner<D> extends
+		AbstractBufferedInputStreamReader<Boolean, ParseException> {
+
+	/**
+	 * The key of the header line denoting the file type.
+	 */
+	protected static final String FILE_TYPE_KEY = "File type = ";
+
+	/**
+	 * The key of the header line denoting the class of the object stored in
+	 * the file.
+	 */
+	protected static final String OBJECT_CLASS_KEY = "Object class = ";
+
+	/**
+	 * The value of {@link #OBJECT_CLASS_KEY} for TextGrid files.
+	 */
+	private static final String TEXTGRID_OBJECT_CLASS = "TextGrid";
+
+	/**
+	 * Checks if a given {@link CharSequence} contains a given keyword at a
+	 * given index.
+	 *
+	 * @param seq
+	 *            The <code>CharSequence</code> to check.
+	 * @param offset
+	 *            The index at which the keyword should start.
+	 * @param end
+	 *            The end of the region of <code>seq</code> to check.
+	 * @param keyword
+	 *            The keyword to look for.
+	 * @return <code>true</code> iff the keyword was found at the given index.
+	 */
+	protected static final boolean matchesKeyword(final CharSequence seq,
+			final int offset, final int end, final String keyword) {
+		final int keywordLength = keyword.length();
+		boolean result = end - offset >= keywordLength;
+		for (int i = 0; result && i < keywordLength; ++i) {
+			result = seq.charAt(offset + i) == keyword.charAt(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the index of the first non-whitespace character in a given
+	 * {@link CharSequence}.
+	 *
+	 * @param seq
+	 *            The <code>CharSequence</code> to scan.
+	 * @param start
+	 *            The index at which to start scanning.
+	 * @param end
+	 *            The index at which to stop scanning.
+	 * @return The index of the first non-whitespace character, or
+	 *         <code>end</code> if there is none.
+	 */
+	protected static final int skipWhitespace(final CharSequence seq,
+			int start, final int end) {
+		while (start < end && Character.isWhitespace(seq.charAt(start))) {
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * Finds the index after the last non-whitespace character in a given
+	 * {@link CharSequence}.
+	 *
+	 * @param seq
+	 *            The <code>CharSequence</code> to scan.
+	 * @param start
+	 *            The index at which to stop scanning.
+	 * @param end
+	 *            The index at which to start scanning backwards.
+	 * @return The index after the last non-whitespace character, or
+	 *         <code>start</code> if there is none.
+	 */
+	protected static final int trimEnd(final CharSequence seq,
+			final int start, int end) {
+		while (end > start && Character.isWhitespace(seq.charAt(end - 1))) {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * The number of the line currently being scanned, used for reporting
+	 * errors.
+	 */
+	private int lineNumber = 0;
+
+	/**
+	 * The {@link TextGridListener} instance registered to respond to callback
+	 * notifications from this reader.
+	 */
+	private final TextGridListener<D> listener;
+
+	/**
+	 * The {@link Parser} object using for parsing entry annotation data.
+	 */
+	private final Parser<? super String, ? extends D> parser;
+
+	/**
+	 * The class of the tier currently being scanned.
+	 */
+	private TierClass pendingTierClass = null;
+
+	/**
+	 * The end time of the tier currently being scanned.
+	 */
+	private double pendingTierEndTime = Double.NaN;
+
+	/**
+	 * The 1-based index of the tier currently being scanned.
+	 */
+	private int pendingTierIndex = -1;
+
+	/**
+	 * The name of the tier currently being scanned.
+	 */
+	private String pendingTierName = null;
+
+	/**
+	 * The start time of the tier currently being scanned.
+	 */
+	private double pendingTierStartTime = Double.NaN;
+
+	/**
+	 * The number of non-blank lines of the entries of the accepted tier
+	 * currently being scanned which have not yet been scanned.
+	 */
+	private long remainingTierLineCount = 0;
+
+	/**
+	 * The number of non-blank lines of a rejected tier which are still to be
+	 * skipped.
+	 */
+	private long skippedLineCount = 0;
+
+	/**
+	 * The {@link TierFilter} deciding which tiers are read.
+	 */
+	private TierFilter tierFilter = TierFilters.all();
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	protected AbstractTextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		this.parser = parser;
+		this.listener = listener;
+	}
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 * @param defaultCharset
+	 *            The encoding used for input for which none could be
+	 *            detected.
+	 */
+	protected AbstractTextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener, final Charset defaultCharset) {
+		super(defaultCharset);
+		this.parser = parser;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return The {@link TextGridListener} instance registered to respond to
+	 *         callback notifications from this reader.
+	 */
+	public TextGridListener<D> getListener() {
+		return listener;
+	}
+
+	/**
+	 * @return The {@link Parser} object using for parsing entry annotation
+	 *         data.
+	 */
+	public Parser<? super String, ? extends D> getParser() {
+		return parser;
+	}
+
+	/**
+	 * @return The {@link TierFilter} deciding which tiers are read.
+	 */
+	public TierFilter getTierFilter() {
+		return tierFilter;
+	}
+
+	/**
+	 * Reads a TextGrid file line by line, notifying the registered
+	 * {@link TextGridListener} of each parsed value.
+	 *
+	 * @param input
+	 *            The TextGrid file to be read.
+	 * @return <code>true</code> iff the entire reader input was successfully
+	 *         parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	@Override
+	public Boolean read(final BufferedReader input) throws IOException,
+			ParseException {
+		reset();
+		for (String line = input.readLine(); line != null; line = input
+				.readLine()) {
+			scanLine(line);
+		}
+		finish();
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Checks that the end of the file has been reached in a valid state. By
+	 * default, this method only checks that no lines of a tier rejected by
+	 * the set {@link TierFilter} are still to be skipped.
+	 *
+	 * @throws ParseException
+	 *             If the file ended prematurely.
+	 */
+	public void finish() throws ParseException {
+		if (skippedLineCount > 0) {
+			throw createParseException("Premature end of file; Expected "
+					+ skippedLineCount + " more line(s) of a skipped tier.");
+		}
+	}
+
+	/**
+	 * Resets the scanner state so that it can be used for scanning a new file.
+	 */
+	public void reset() {
+		lineNumber = 0;
+		pendingTierClass = null;
+		pendingTierEndTime = Double.NaN;
+		pendingTierIndex = -1;
+		pendingTierName = null;
+		pendingTierStartTime = Double.NaN;
+		remainingTierLineCount = 0;
+		skippedLineCount = 0;
+	}
+
+	/**
+	 * Scans a single line of a TextGrid file, notifying the registered
+	 * {@link TextGridListener} of the value(s) it contains, if any.
+	 *
+	 * @param line
+	 *            The line to scan, without any line terminator.
+	 * @throws ParseException
+	 *             If the line is recognized but its value could not be
+	 *             parsed.
+	 */
+	public void scanLine(final CharSequence line) throws ParseException {
+		lineNumber++;
+		final int end = trimEnd(line, 0, line.length());
+		final int start = skipWhitespace(line, 0, end);
+		if (start < end) {
+			if (skippedLineCount > 0) {
+				skippedLineCount--;
+			} else {
+				if (remainingTierLineCount > 0) {
+					remainingTierLineCount--;
+				}
+				scanToken(line, start, end);
+			}
+		}
+	}
+
+	/**
+	 * Sets the {@link TierFilter} deciding which tiers are read, which by
+	 * default accepts every tier. Since the number of tiers in the file
+	 * precedes them, the listener is still notified of the number of all
+	 * tiers rather than of only the accepted ones.
+	 *
+	 * @param tierFilter
+	 *            The new <code>TierFilter</code>.
+	 */
+	public void setTierFilter(final TierFilter tierFilter) {
+		this.tierFilter = tierFilter;
+	}
+
+	/**
+	 * Skips the lines of all entries of the tier currently being scanned which
+	 * have not yet been scanned, in the same way as the lines of a tier
+	 * rejected by the set {@link TierFilter} are skipped: They are only
+	 * counted and are neither parsed nor passed to the registered
+	 * {@link TextGridListener}.
+	 *
+	 * @return <code>true</code> iff any lines are to be skipped;
+	 *         <code>false</code> if no tier is currently being scanned or all
+	 *         its entries have already been scanned.
+	 */
+	public boolean skipTier() {
+		final boolean result = remainingTierLineCount > 0;
+		if (result) {
+			skippedLineCount += remainingTierLineCount;
+			remainingTierLineCount = 0;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks that the object class named in a file header is a TextGrid.
+	 *
+	 * @param objectClass
+	 *            The object class name, e.g.&nbsp;<code>TextGrid</code>.
+	 * @throws ParseException
+	 *             If the object is not a TextGrid.
+	 */
+	protected final void checkObjectClass(final String objectClass)
+			throws ParseException {
+		if (!objectClass.startsWith(TEXTGRID_OBJECT_CLASS)) {
+			throw createParseException("Object class \"" + objectClass
+					+ "\" is not a TextGrid");
+		}
+	}
+
+	/**
+	 * Creates a new {@link ParseException} denoting an error on the line
+	 * currently being scanned.
+	 *
+	 * @param message
+	 *            A message describing the error.
+	 * @return A new <code>ParseException</code>.
+	 */
+	protected final ParseException createParseException(final String message) {
+		return new ParseException(String.format("Line %d: %s", lineNumber,
+				message));
+	}
+
+	/**
+	 * @return The number of the line currently being scanned.
+	 */
+	protected final int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Sets the class of the tier currently being scanned.
+	 *
+	 * @param tierClass
+	 *            The {@link TierClass} of the tier.
+	 */
+	protected final void notifyTierClass(final TierClass tierClass) {
+		pendingTierClass = tierClass;
+	}
+
+	/**
+	 * Sets the end time of the tier currently being scanned.
+	 *
+	 * @param time
+	 *            The end time.
+	 */
+	protected final void notifyTierEndTime(final double time) {
+		pendingTierEndTime = time;
+	}
+
+	/**
+	 * Sets the index of the tier currently being scanned.
+	 *
+	 * @param index
+	 *            The 1-based index of the tier.
+	 */
+	protected final void notifyTierIndex(final int index) {
+		pendingTierIndex = index;
+	}
+
+	/**
+	 * Finishes the header of the interval tier currently being scanned,
+	 * notifying the registered {@link TextGridListener} of it if it is
+	 * accepted by the set {@link TierFilter} and otherwise skipping the lines
+	 * of all its intervals. Like a {@link TextGridFileReader}, the intervals
+	 * of a tier of any other class are skipped as well.
+	 *
+	 * @param count
+	 *            The number of intervals in the tier.
+	 * @param linesPerInterval
+	 *            The number of non-blank lines of each interval.
+	 * @return <code>true</code> iff the intervals are read.
+	 */
+	protected final boolean notifyTierIntervalCount(final int count,
+			final int linesPerInterval) {
+		final boolean result = acceptTier(TierClass.INTERVAL, count,
+				linesPerInterval);
+		if (result) {
+			listener.notifyTierIntervalCount(count);
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the name of the tier currently being scanned.
+	 *
+	 * @param name
+	 *            The name of the tier.
+	 */
+	protected final void notifyTierName(final String name) {
+		pendingTierName = name;
+	}
+
+	/**
+	 * Finishes the header of the text tier currently being scanned,
+	 * notifying the registered {@link TextGridListener} of it if it is
+	 * accepted by the set {@link TierFilter} and otherwise skipping the lines
+	 * of all its points. Like a {@link TextGridFileReader}, the points of a
+	 * tier of any other class are skipped as well.
+	 *
+	 * @param count
+	 *            The number of points in the tier.
+	 * @param linesPerPoint
+	 *            The number of non-blank lines of each point.
+	 * @return <code>true</code> iff the points are read.
+	 */
+	protected final boolean notifyTierPointCount(final int count,
+			final int linesPerPoint) {
+		final boolean result = acceptTier(TierClass.TEXT, count,
+				linesPerPoint);
+		if (result) {
+			listener.notifyTierPointCount(count);
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the start time of the tier currently being scanned.
+	 *
+	 * @param time
+	 *            The start time.
+	 */
+	protected final void notifyTierStartTime(final double time) {
+		pendingTierStartTime = time;
+	}
+
+	/**
+	 * Parses quoted annotation data using the set {@link Parser}.
+	 *
+	 * @param line
+	 *            The line containing the quoted data.
+	 * @param start
+	 *            The index of the opening quotation mark.
+	 * @param end
+	 *            The index after the closing quotation mark.
+	 * @return An object representing the parsed data.
+	 * @throws ParseException
+	 *             If the data is not quoted or if the <code>Parser</code>
+	 *             could not parse it.
+	 */
+	protected final D parseData(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		return parser.parse(parseQuoted(line, start, end));
+	}
+
+	/**
+	 * Parses a decimal number.
+	 *
+	 * @param line
+	 *            The line containing the number.
+	 * @param start
+	 *            The index of the first character of the number.
+	 * @param end
+	 *            The index after the last character of the number.
+	 * @return The parsed number.
+	 * @throws ParseException
+	 *             If the characters do not represent a valid number.
+	 */
+	protected final double parseDouble(final CharSequence line,
+			final int start, final int end) throws ParseException {
+		try {
+			return CharSequenceNumbers.parseDouble(line, start, end);
+		} catch (final NumberFormatException e) {
+			throw createParseException("Invalid number \""
+					+ line.subSequence(start, end) + "\"");
+		}
+	}
+
+	/**
+	 * Parses a non-negative decimal integer.
+	 *
+	 * @param line
+	 *            The line containing the integer.
+	 * @param start
+	 *            The index of the first digit.
+	 * @param end
+	 *            The index after the last digit.
+	 * @return The parsed integer.
+	 * @throws ParseException
+	 *             If the characters do not represent a valid non-negative
+	 *             integer.
+	 */
+	protected final int parseInt(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		if (start >= end) {
+			throw createParseException("Missing integer value");
+		}
+		int result = 0;
+		for (int i = start; i < end; ++i) {
+			final int digit = line.charAt(i) - '0';
+			if (digit < 0 || digit > 9
+					|| result > (Integer.MAX_VALUE - digit) / 10) {
+				throw createParseException("Invalid integer \""
+						+ line.subSequence(start, end) + "\"");
+			}
+			result = result * 10 + digit;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the text between an opening quotation mark and the last quotation
+	 * mark on a line, turning each pair of quotation marks within it, which
+	 * is how Praat escapes them, back into a single one.
+	 *
+	 * @param line
+	 *            The line containing the quoted text.
+	 * @param start
+	 *            The index of the opening quotation mark.
+	 * @param end
+	 *            The index after the closing quotation mark.
+	 * @return The quoted text.
+	 * @throws ParseException
+	 *             If the text is not enclosed in quotation marks.
+	 */
+	protected final String parseQuoted(final CharSequence line,
+			final int start, final int end) throws ParseException {
+		if (end - start < 2 || line.charAt(start) != '"'
+				|| line.charAt(end - 1) != '"') {
+			throw createParseException("Missing quotation marks");
+		}
+		final String result = line.subSequence(start + 1, end - 1).toString();
+		return result.indexOf('"') < 0 ? result : result.replace("\"\"",
+				"\"");
+	}
+
+	/**
+	 * Scans a header line such as <code>File type = "ooTextFile"</code>.
+	 *
+	 * @param line
+	 *            The line to scan.
+	 * @param start
+	 *            The index of the first non-whitespace character of the line.
+	 * @param end
+	 *            The index after the last non-whitespace character of the
+	 *            line.
+	 * @return The {@link TextGridFormat} denoted by the line if it is a
+	 *         <code>File type</code> line, or <code>null</code> if it is
+	 *         an <code>Object class</code> line or not a header line at all.
+	 * @throws ParseException
+	 *             If the header denotes an unknown or non-text file type or an
+	 *             object which is not a TextGrid.
+	 */
+	protected final TextGridFormat scanHeader(final CharSequence line,
+			final int start, final int end) throws ParseException {
+		TextGridFormat result = null;
+		if (matchesKeyword(line, start, end, FILE_TYPE_KEY)) {
+			final String fileType = parseQuoted(line,
+					start + FILE_TYPE_KEY.length(), end);
+			result = TextGridFormat.getInstance(fileType);
+			if (result == null || result == TextGridFormat.BINARY) {
+				throw createParseException("Unsupported file type \""
+						+ fileType + "\"");
+			}
+		} else if (matchesKeyword(line, start, end, OBJECT_CLASS_KEY)) {
+			checkObjectClass(parseQuoted(line,
+					start + OBJECT_CLASS_KEY.length(), end));
+		}
+		return result;
+	}
+
+	/**
+	 * Scans a single non-blank line of a TextGrid file, notifying the
+	 * registered {@link TextGridListener} of the value(s) it contains, if any.
+	 *
+	 * @param line
+	 *            The line to scan.
+	 * @param start
+	 *            The index of the first non-whitespace character of the line.
+	 * @param end
+	 *            The index after the last non-whitespace character of the
+	 *            line.
+	 * @throws ParseException
+	 *             If the line is recognized but its value could not be
+	 *             parsed.
+	 */
+	protected abstract void scanToken(CharSequence line, int start, int end)
+			throws ParseException;
+
+	/**
+	 * Decides if the tier currently being scanned and its entries are read,
+	 * notifying the registered {@link TextGridListener} of its header values
+	 * if the tier is accepted and setting the lines of all its entries to be
+	 * skipped if they are not read.
+	 *
+	 * @param entryClass
+	 *            The {@link TierClass} the entries belong to.
+	 * @param entryCount
+	 *            The number of entries in the tier.
+	 * @param linesPerEntry
+	 *            The number of non-blank lines of each entry.
+	 * @return <code>true</code> iff the entries are read, i.e.&nbsp;the tier
+	 *         was accepted and is of the class the entries belong to.
+	 */
+	private boolean acceptTier(final TierClass entryClass,
+			final int entryCount, final int linesPerEntry) {
+		boolean result = tierFilter.accept(pendingTierIndex, pendingTierClass,
+				pendingTierName);
+		if (result) {
+			listener.notifyTierIndex(pendingTierIndex);
+			listener.notifyTierClass(pendingTierClass);
+			listener.notifyTierName(pendingTierName);
+			listener.notifyTierStartTime(pendingTierStartTime);
+			listener.notifyTierEndTime(pendingTierEndTime);
+			result = entryClass == pendingTierClass;
+		}
+		if (result) {
+			remainingTierLineCount = (long) entryCount * linesPerEntry;
+		} else {
+			skippedLineCount = (long) entryCount * linesPerEntry;
+		}
+		return result;
+	}
+
+}
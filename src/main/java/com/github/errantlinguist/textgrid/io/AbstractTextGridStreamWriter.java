@@ -0,0 +1,638 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import com.github.errantlinguist.io.TextOutputBuffer;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridFileListenerFactory;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.google.common.base.Function;
+
+/**
+ * A {@link TextGridListener} which writes each event it is notified of
+ * directly to an output in a given TextGrid format, so that a TextGrid file
+ * can be written while it is being read or generated without ever building a
+ * {@link com.github.errantlinguist.textgrid.TextGridFile TextGridFile} tree.
+ * Registering a writer with any reader makes a streaming transcoder which
+ * holds no more than one line of the file in memory:
+ * <pre>
+ * final BinaryTextGridStreamWriter&lt;String&gt; writer = new BinaryTextGridStreamWriter&lt;String&gt;(output);
+ * new AutoDetectingTextGridFileScanner&lt;String&gt;(parser, writer).read(input);
+ * writer.flush();
+ * </pre>
+ * <p>
+ * The events must be passed in the order in which
+ * {@link TextGridFileReader#read(java.io.InputStream)} calls them. Since
+ * listener methods cannot throw checked exceptions, the first
+ * {@link IOException} which occurs while writing is kept, no further events
+ * are written and the exception is thrown by the next call to
+ * {@link #flush()} or {@link #close()}.
+ * </p>
+ * <p>
+ * Readers notify their listener of the number of tiers in the file before
+ * reading any of them, so if tiers are rejected by a {@link TierFilter}, the
+ * number written would be greater than the number of tiers which follow it.
+ * A writer for such a reader must therefore be {@link #setBuffered(boolean)
+ * buffered}, which keeps the file in memory until it is written with the
+ * number of tiers actually notified of.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ * @see TextGridFileWriter#notifyListener(com.github.errantlinguist.textgrid.TextGridFile,
+ *      TextGridListener)
+ */
+public abstract class AbstractTextGridStreamWriter<D> implements Closeable,
+		Flushable, TextGridListener<D> {
+
+	/**
+	 * Writes the <code>File type</code> and <code>Object class</code> header
+	 * lines of a text file.
+	 *
+	 * @param buffer
+	 *            The {@link TextOutputBuffer} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected static void appendHeader(final TextOutputBuffer buffer)
+			throws IOException {
+		// Praat writes the same file type for both text formats
+		buffer.append("File type = \"")
+				.append(TextGridFormat.LONG_TEXT.getFileType()).append("\"\n");
+		buffer.append("Object class = \"")
+				.append(BinaryTextGridFormat.TEXTGRID_OBJECT_CLASS)
+				.append("\"\n\n");
+	}
+
+	/**
+	 * Writes a string in quotation marks, doubling any quotation marks in it
+	 * like Praat does.
+	 *
+	 * @param buffer
+	 *            The {@link TextOutputBuffer} to write to.
+	 * @param str
+	 *            The string to write.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected static void appendQuoted(final TextOutputBuffer buffer,
+			final String str) throws IOException {
+		buffer.append('"');
+		int start = 0;
+		for (int end = str.indexOf('"'); end >= 0; end = str.indexOf('"',
+				start)) {
+			buffer.append(str, start, end + 1).append('"');
+			start = end + 1;
+		}
+		buffer.append(str, start, str.length()).append('"');
+	}
+
+	/**
+	 * The {@link TextGridFileListenerFactory} keeping the notified events
+	 * until they are written if this writer is
+	 * {@link #setBuffered(boolean) buffered}, or <code>null</code> if it
+	 * writes each event directly.
+	 */
+	private TextGridFileListenerFactory<D> bufferedFile = null;
+
+	/**
+	 * The {@link Function} used for converting entry annotation data to the
+	 * strings written to the file.
+	 */
+	private final Function<? super D, String> dataFormatter;
+
+	/**
+	 * The first {@link IOException} which occurred while writing or
+	 * <code>null</code> if none has.
+	 */
+	private IOException error = null;
+
+	/**
+	 *
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	protected AbstractTextGridStreamWriter(
+			final Function<? super D, String> dataFormatter) {
+		this.dataFormatter = dataFormatter;
+	}
+
+	/**
+	 * Writes any buffered file and bytes and closes the underlying output.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurred while writing any event or
+	 *             occurs while closing.
+	 */
+	@Override
+	public final void close() throws IOException {
+		try {
+			writeBufferedFile();
+			checkError();
+		} finally {
+			closeOutput();
+		}
+	}
+
+	/**
+	 * Writes any buffered file and bytes and flushes the underlying output.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurred while writing any event or
+	 *             occurs while flushing.
+	 */
+	@Override
+	public final void flush() throws IOException {
+		writeBufferedFile();
+		checkError();
+		flushOutput();
+	}
+
+	/**
+	 * @return <code>true</code> iff the notified events are kept in memory
+	 *         until {@link #flush()} or {@link #close()} is called rather than
+	 *         being written directly.
+	 */
+	public boolean isBuffered() {
+		return bufferedFile != null;
+	}
+
+	@Override
+	public final void notifyFileEndTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyFileEndTime(time);
+		} else if (error == null) {
+			try {
+				writeFileEndTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyFileSize(final int size) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyFileSize(size);
+		} else if (error == null) {
+			try {
+				writeFileSize(size);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyFileStartTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyFileStartTime(time);
+		} else if (error == null) {
+			try {
+				writeFileStartTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyIntervalData(final D data) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyIntervalData(data);
+		} else if (error == null) {
+			try {
+				writeIntervalData(dataFormatter.apply(data));
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyIntervalEndTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyIntervalEndTime(time);
+		} else if (error == null) {
+			try {
+				writeIntervalEndTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyIntervalIndex(final int index) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyIntervalIndex(index);
+		} else if (error == null) {
+			try {
+				writeIntervalIndex(index);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyIntervalStartTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyIntervalStartTime(time);
+		} else if (error == null) {
+			try {
+				writeIntervalStartTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyPointData(final D data) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyPointData(data);
+		} else if (error == null) {
+			try {
+				writePointData(dataFormatter.apply(data));
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyPointIndex(final int index) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyPointIndex(index);
+		} else if (error == null) {
+			try {
+				writePointIndex(index);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyPointTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyPointTime(time);
+		} else if (error == null) {
+			try {
+				writePointTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierClass(final TierClass tierClass) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierClass(tierClass);
+		} else if (error == null) {
+			try {
+				writeTierClass(tierClass);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierEndTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierEndTime(time);
+		} else if (error == null) {
+			try {
+				writeTierEndTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierIndex(final int index) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierIndex(index);
+		} else if (error == null) {
+			try {
+				writeTierIndex(index);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierIntervalCount(final int count) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierIntervalCount(count);
+		} else if (error == null) {
+			try {
+				writeTierIntervalCount(count);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierName(final String name) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierName(name);
+		} else if (error == null) {
+			try {
+				writeTierName(name);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierPointCount(final int count) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierPointCount(count);
+		} else if (error == null) {
+			try {
+				writeTierPointCount(count);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	@Override
+	public final void notifyTierStartTime(final double time) {
+		if (bufferedFile != null) {
+			bufferedFile.notifyTierStartTime(time);
+		} else if (error == null) {
+			try {
+				writeTierStartTime(time);
+			} catch (final IOException e) {
+				error = e;
+			}
+		}
+	}
+
+	/**
+	 * Sets if the notified events are kept in memory as a
+	 * {@link TextGridFile} until {@link #flush()} or {@link #close()} is
+	 * called rather than being written directly, which by default they are
+	 * not. The number of tiers of a buffered file is written as the number of
+	 * tiers actually notified of rather than the number passed to
+	 * {@link #notifyFileSize(int)}, so a writer must be buffered when the
+	 * events come from a reader with a {@link TierFilter}.
+	 *
+	 * @param buffered
+	 *            <code>true</code> iff events should be buffered; If
+	 *            <code>false</code>, any file buffered so far is written
+	 *            first.
+	 */
+	public void setBuffered(final boolean buffered) {
+		if (buffered) {
+			if (bufferedFile == null) {
+				bufferedFile = new TextGridFileListenerFactory<D>();
+			}
+		} else {
+			writeBufferedFile();
+			bufferedFile = null;
+		}
+	}
+
+	/**
+	 * Throws the first {@link IOException} which occurred while writing any
+	 * event, if any.
+	 *
+	 * @throws IOException
+	 *             If one occurred.
+	 */
+	private void checkError() throws IOException {
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Writes the file buffered so far, if any, notifying this writer of its
+	 * events again with buffering turned off.
+	 */
+	private void writeBufferedFile() {
+		if (bufferedFile != null) {
+			final TextGridFile<D> textGridFile = bufferedFile.create();
+			if (textGridFile != null) {
+				final TextGridFileListenerFactory<D> buffer = bufferedFile;
+				bufferedFile = null;
+				try {
+					TextGridFileWriter.notifyListener(textGridFile, this);
+				} finally {
+					bufferedFile = buffer;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes any buffered bytes and closes the underlying output.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void closeOutput() throws IOException;
+
+	/**
+	 * Writes any buffered bytes and flushes the underlying output.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void flushOutput() throws IOException;
+
+	/**
+	 *
+	 * @param time
+	 *            The TextGrid file end time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeFileEndTime(double time) throws IOException;
+
+	/**
+	 *
+	 * @param size
+	 *            The number of tiers in the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeFileSize(int size) throws IOException;
+
+	/**
+	 * Writes the header of the file followed by its start time.
+	 *
+	 * @param time
+	 *            The TextGrid file start time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeFileStartTime(double time)
+			throws IOException;
+
+	/**
+	 *
+	 * @param text
+	 *            The formatted annotation data of the interval.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeIntervalData(String text) throws IOException;
+
+	/**
+	 *
+	 * @param time
+	 *            The interval end time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeIntervalEndTime(double time)
+			throws IOException;
+
+	/**
+	 *
+	 * @param index
+	 *            The index of the interval in its tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeIntervalIndex(int index) throws IOException;
+
+	/**
+	 *
+	 * @param time
+	 *            The interval start time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeIntervalStartTime(double time)
+			throws IOException;
+
+	/**
+	 *
+	 * @param text
+	 *            The formatted annotation data of the point.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writePointData(String text) throws IOException;
+
+	/**
+	 *
+	 * @param index
+	 *            The index of the point in its tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writePointIndex(int index) throws IOException;
+
+	/**
+	 *
+	 * @param time
+	 *            The point time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writePointTime(double time) throws IOException;
+
+	/**
+	 *
+	 * @param tierClass
+	 *            The {@link TierClass} of the tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierClass(TierClass tierClass)
+			throws IOException;
+
+	/**
+	 *
+	 * @param time
+	 *            The tier end time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierEndTime(double time) throws IOException;
+
+	/**
+	 *
+	 * @param index
+	 *            The index of the tier in the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierIndex(int index) throws IOException;
+
+	/**
+	 *
+	 * @param count
+	 *            The number of intervals in the tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierIntervalCount(int count)
+			throws IOException;
+
+	/**
+	 *
+	 * @param name
+	 *            The tier name.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierName(String name) throws IOException;
+
+	/**
+	 *
+	 * @param count
+	 *            The number of points in the tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierPointCount(int count) throws IOException;
+
+	/**
+	 *
+	 * @param time
+	 *            The tier start time.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected abstract void writeTierStartTime(double time)
+			throws IOException;
+
+}
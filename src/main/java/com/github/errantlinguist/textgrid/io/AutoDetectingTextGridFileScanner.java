@@ -0,0 +1,252 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+
+/**
+ * A reader for <a href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid
+ * files which detects whether a file is in the long or in the short text
+ * format and delegates scanning to a {@link TextGridFileScanner} or a
+ * {@link ShortTextGridFileScanner} accordingly.
+ * <p>
+ * The format is detected from the <code>File type</code> header of the file
+ * or, since newer versions of Praat write the same header for both formats,
+ * from the first line following the header: In the long format, it is keyed
+ * with <code>xmin =</code>. The lines read before the format is known are
+ * kept and then passed to the chosen scanner.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class AutoDetectingTextGridFileScanner<D> extends
+		AbstractTextGridFileScanner<D> {
+
+	/**
+	 * The key of the first value of a file in the long format.
+	 */
+	private static final String LONG_TEXT_FIRST_KEY = "xmin";
+
+	/**
+	 * The scanner which the lines of the file are passed to once its format
+	 * is known, or <code>null</code> if it is not yet known.
+	 */
+	private AbstractTextGridFileScanner<D> delegate = null;
+
+	/**
+	 * The format of the file currently being scanned, or <code>null</code> if
+	 * it is not yet known.
+	 */
+	private TextGridFormat format = null;
+
+	/**
+	 * The format denoted by the <code>File type</code> header of the file
+	 * currently being scanned, or <code>null</code> if it has not been read.
+	 */
+	private TextGridFormat headerFormat = null;
+
+	/**
+	 * The scanner used for files in the long format.
+	 */
+	private final AbstractTextGridFileScanner<D> longTextScanner;
+
+	/**
+	 * The lines read before the format of the file is known.
+	 */
+	private final List<String> pendingLines = new ArrayList<String>();
+
+	/**
+	 * The scanner used for files in the short format.
+	 */
+	private final AbstractTextGridFileScanner<D> shortTextScanner;
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	public AutoDetectingTextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		super(parser, listener);
+		longTextScanner = new TextGridFileScanner<D>(parser, listener);
+		shortTextScanner = new ShortTextGridFileScanner<D>(parser, listener);
+	}
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 * @param defaultCharset
+	 *            The encoding used for input for which none could be
+	 *            detected.
+	 */
+	public AutoDetectingTextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener, final Charset defaultCharset) {
+		super(parser, listener, defaultCharset);
+		longTextScanner = new TextGridFileScanner<D>(parser, listener);
+		shortTextScanner = new ShortTextGridFileScanner<D>(parser, listener);
+	}
+
+	/**
+	 * Passes any lines read before the format of the file could be
+	 * determined to the scanner for the format given by its header, if any,
+	 * and then finishes scanning with it.
+	 *
+	 * @throws ParseException
+	 *             If the file ended prematurely.
+	 */
+	@Override
+	public void finish() throws ParseException {
+		if (delegate == null) {
+			setFormat(headerFormat == null ? TextGridFormat.LONG_TEXT
+					: headerFormat);
+		}
+		delegate.finish();
+	}
+
+	/**
+	 * @return The format of the file currently being scanned, or
+	 *         <code>null</code> if it is not yet known.
+	 */
+	public TextGridFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Resets the scanner state so that it can be used for scanning a new file.
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		delegate = null;
+		format = null;
+		headerFormat = null;
+		pendingLines.clear();
+		longTextScanner.reset();
+		shortTextScanner.reset();
+	}
+
+	/**
+	 * Scans a single line of a TextGrid file, passing it to the scanner for
+	 * its format if known and otherwise keeping it until the format is known.
+	 *
+	 * @param line
+	 *            The line to scan, without any line terminator.
+	 * @throws ParseException
+	 *             If the line is recognized but its value could not be
+	 *             parsed.
+	 */
+	@Override
+	public void scanLine(final CharSequence line) throws ParseException {
+		if (delegate == null) {
+			pendingLines.add(line.toString());
+			super.scanLine(line);
+		} else {
+			delegate.scanLine(line);
+		}
+	}
+
+	/**
+	 * Sets the {@link TierFilter} deciding which tiers are read by the
+	 * scanners for each format.
+	 *
+	 * @param tierFilter
+	 *            The new <code>TierFilter</code>.
+	 */
+	@Override
+	public void setTierFilter(final TierFilter tierFilter) {
+		super.setTierFilter(tierFilter);
+		longTextScanner.setTierFilter(tierFilter);
+		shortTextScanner.setTierFilter(tierFilter);
+	}
+
+	/**
+	 * Skips the remaining entries of the tier currently being scanned by the
+	 * scanner for the format of the file, if it is known.
+	 */
+	@Override
+	public boolean skipTier() {
+		return delegate != null && delegate.skipTier();
+	}
+
+	/**
+	 * Determines the format of the file from a single non-blank line read
+	 * before the format was known.
+	 */
+	@Override
+	protected void scanToken(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		final TextGridFormat lineFormat = scanHeader(line, start, end);
+		if (lineFormat != null) {
+			headerFormat = lineFormat;
+		} else if (!matchesKeyword(line, start, end, OBJECT_CLASS_KEY)) {
+			final boolean isLongText = headerFormat != TextGridFormat.SHORT_TEXT
+					&& matchesKeyword(line, start, end, LONG_TEXT_FIRST_KEY);
+			setFormat(isLongText ? TextGridFormat.LONG_TEXT
+					: TextGridFormat.SHORT_TEXT);
+		}
+	}
+
+	/**
+	 * Sets the format of the file currently being scanned and passes all
+	 * lines read so far to the scanner for that format.
+	 *
+	 * @param format
+	 *            The format of the file.
+	 * @throws ParseException
+	 *             If one of the lines could not be parsed.
+	 */
+	private void setFormat(final TextGridFormat format) throws ParseException {
+		this.format = format;
+		switch (format) {
+		case LONG_TEXT:
+			delegate = longTextScanner;
+			break;
+		case SHORT_TEXT:
+			delegate = shortTextScanner;
+			break;
+		default:
+			throw new AssertionError("No logic for handling format: " + format);
+		}
+		for (final String pendingLine : pendingLines) {
+			delegate.scanLine(pendingLine);
+		}
+		pendingLines.clear();
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridFileListenerFactory;
+
+/**
+ * A file reader which creates one new {@link TextGridFile} object per binary
+ * TextGrid file read.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ * @see BinaryTextGridFileReader
+ */
+public class BinaryTextGridFileFactoryReader<D> extends
+		TextGridFileFactoryReader<D> {
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} used for reading TextGrid file entry data.
+	 */
+	public BinaryTextGridFileFactoryReader(
+			final Parser<? super String, ? extends D> parser) {
+		this(parser, new TextGridFileListenerFactory<D>());
+	}
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} used for reading TextGrid file entry data.
+	 * @param factory
+	 *            The factory used for creating {@link TextGridFile} objects.
+	 */
+	public BinaryTextGridFileFactoryReader(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridFileListenerFactory<D> factory) {
+		super(factory, new BinaryTextGridFileReader<D>(parser, factory));
+	}
+
+}
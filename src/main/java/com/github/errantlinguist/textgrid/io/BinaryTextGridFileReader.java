@@ -0,0 +1,342 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.github.errantlinguist.io.InputStreamReader;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A reader for <a href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid
+ * files saved in the binary format, notifying a {@link TextGridListener} of
+ * the same values in the same order as e.g.&nbsp;a
+ * {@link TextGridFileScanner} does for the text formats.
+ * <p>
+ * The values are stored in the order they are in in the short text format,
+ * but with numbers as big-endian two's-complement integers or IEEE 754
+ * doubles and with strings prefixed by their length, so no tokenizing or
+ * decimal parsing is needed. See {@link BinaryTextGridFormat} for details.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class BinaryTextGridFileReader<D> implements
+		InputStreamReader<Boolean, ParseException> {
+
+	/**
+	 * The number of bytes of the times of each interval.
+	 */
+	private static final int INTERVAL_TIMES_LENGTH = 16;
+
+	/**
+	 * The number of bytes of the time of each point.
+	 */
+	private static final int POINT_TIME_LENGTH = 8;
+
+	/**
+	 * The {@link TextGridListener} instance registered to respond to callback
+	 * notifications from this reader.
+	 */
+	private final TextGridListener<D> listener;
+
+	/**
+	 * The {@link Parser} object using for parsing entry annotation data.
+	 */
+	private final Parser<? super String, ? extends D> parser;
+
+	/**
+	 * The {@link TierFilter} deciding which tiers are read.
+	 */
+	private TierFilter tierFilter = TierFilters.all();
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	public BinaryTextGridFileReader(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		this.parser = parser;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return The {@link TierFilter} deciding which tiers are read.
+	 */
+	public TierFilter getTierFilter() {
+		return tierFilter;
+	}
+
+	/**
+	 * Reads a binary TextGrid file, notifying the registered
+	 * {@link TextGridListener} of each value read.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read the file from.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the input is not a binary TextGrid file or ends
+	 *             prematurely.
+	 */
+	public Boolean read(final DataInput input) throws IOException,
+			ParseException {
+		try {
+			readHeader(input);
+			listener.notifyFileStartTime(input.readDouble());
+			listener.notifyFileEndTime(input.readDouble());
+			if (input.readUnsignedByte() != 0) {
+				final int tierCount = readCount(input);
+				listener.notifyFileSize(tierCount);
+				for (int tierIndex = 1; tierIndex <= tierCount; ++tierIndex) {
+					readTier(input, tierIndex);
+				}
+			}
+		} catch (final EOFException e) {
+			throw new ParseException("Premature end of binary TextGrid file.",
+					e);
+		}
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Reads a binary TextGrid file, notifying the registered
+	 * {@link TextGridListener} of each value read.
+	 *
+	 * @param input
+	 *            The {@link InputStream} to read the file from.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the input is not a binary TextGrid file or ends
+	 *             prematurely.
+	 */
+	@Override
+	public Boolean read(final InputStream input) throws IOException,
+			ParseException {
+		return read((DataInput) new DataInputStream(new BufferedInputStream(
+				input)));
+	}
+
+	/**
+	 * Sets the {@link TierFilter} deciding which tiers are read, which by
+	 * default accepts every tier; The entries of rejected tiers are skipped
+	 * without their annotations being decoded. The tier count notified is
+	 * the one stored in the file, which is read before any tier is filtered.
+	 *
+	 * @param tierFilter
+	 *            The new <code>TierFilter</code>.
+	 */
+	public void setTierFilter(final TierFilter tierFilter) {
+		this.tierFilter = tierFilter;
+	}
+
+	/**
+	 * Reads a count of objects, i.e.&nbsp;a non-negative 32-bit integer.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @return The count.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the count is negative.
+	 */
+	private int readCount(final DataInput input) throws IOException,
+			ParseException {
+		final int result = input.readInt();
+		if (result < 0) {
+			throw new ParseException("Invalid object count: " + result);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the file type and object class at the start of a file.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the input is not a binary TextGrid file.
+	 */
+	private void readHeader(final DataInput input) throws IOException,
+			ParseException {
+		final String expectedFileType = TextGridFormat.BINARY.getFileType();
+		final byte[] fileType = new byte[expectedFileType.length()];
+		input.readFully(fileType);
+		for (int i = 0; i < fileType.length; ++i) {
+			if (fileType[i] != expectedFileType.charAt(i)) {
+				throw new ParseException("Not a binary Praat file.");
+			}
+		}
+		final String objectClass = BinaryTextGridFormat.readShortString(input);
+		if (!objectClass
+				.startsWith(BinaryTextGridFormat.TEXTGRID_OBJECT_CLASS)) {
+			throw new ParseException("Object class \"" + objectClass
+					+ "\" is not a TextGrid.");
+		}
+	}
+
+	/**
+	 * Reads all the intervals of an interval tier.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the annotation data of an interval could not be parsed.
+	 */
+	private void readIntervals(final DataInput input) throws IOException,
+			ParseException {
+		final int intervalCount = readCount(input);
+		listener.notifyTierIntervalCount(intervalCount);
+		for (int index = 1; index <= intervalCount; ++index) {
+			listener.notifyIntervalIndex(index);
+			listener.notifyIntervalStartTime(input.readDouble());
+			listener.notifyIntervalEndTime(input.readDouble());
+			listener.notifyIntervalData(parser.parse(BinaryTextGridFormat
+					.readLongString(input)));
+		}
+	}
+
+	/**
+	 * Reads all the points of a text tier.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the annotation data of a point could not be parsed.
+	 */
+	private void readPoints(final DataInput input) throws IOException,
+			ParseException {
+		final int pointCount = readCount(input);
+		listener.notifyTierPointCount(pointCount);
+		for (int index = 1; index <= pointCount; ++index) {
+			listener.notifyPointIndex(index);
+			listener.notifyPointTime(input.readDouble());
+			listener.notifyPointData(parser.parse(BinaryTextGridFormat
+					.readLongString(input)));
+		}
+	}
+
+	/**
+	 * Reads a single tier.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @param tierIndex
+	 *            The 1-based index of the tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the tier class is unknown or if the annotation data of an
+	 *             entry could not be parsed.
+	 */
+	private void readTier(final DataInput input, final int tierIndex)
+			throws IOException, ParseException {
+		final String tierClassValue = BinaryTextGridFormat
+				.readShortString(input);
+		final TierClass tierClass = TierClass.getInstance(tierClassValue);
+		if (tierClass == null) {
+			throw new ParseException("Unknown tier class \"" + tierClassValue
+					+ "\" for tier " + tierIndex + ".");
+		}
+		final String name = BinaryTextGridFormat.readLongString(input);
+		final double startTime = input.readDouble();
+		final double endTime = input.readDouble();
+		if (tierFilter.accept(tierIndex, tierClass, name)) {
+			listener.notifyTierIndex(tierIndex);
+			listener.notifyTierClass(tierClass);
+			listener.notifyTierName(name);
+			listener.notifyTierStartTime(startTime);
+			listener.notifyTierEndTime(endTime);
+			switch (tierClass) {
+			case INTERVAL:
+				readIntervals(input);
+				break;
+			case TEXT:
+				readPoints(input);
+				break;
+			default:
+				throw new AssertionError("No logic for handling tier class: "
+						+ tierClass);
+			}
+		} else {
+			skipEntries(input, tierClass);
+		}
+	}
+
+	/**
+	 * Skips all the entries of a tier rejected by the set {@link TierFilter}.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @param tierClass
+	 *            The {@link TierClass} of the tier.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the entry count is invalid.
+	 */
+	private void skipEntries(final DataInput input, final TierClass tierClass)
+			throws IOException, ParseException {
+		final int timesLength;
+		switch (tierClass) {
+		case INTERVAL:
+			timesLength = INTERVAL_TIMES_LENGTH;
+			break;
+		case TEXT:
+			timesLength = POINT_TIME_LENGTH;
+			break;
+		default:
+			throw new AssertionError("No logic for handling tier class: "
+					+ tierClass);
+		}
+		final int entryCount = readCount(input);
+		for (int index = 1; index <= entryCount; ++index) {
+			BinaryTextGridFormat.skipBytes(input, timesLength);
+			BinaryTextGridFormat.skipLongString(input);
+		}
+	}
+
+}
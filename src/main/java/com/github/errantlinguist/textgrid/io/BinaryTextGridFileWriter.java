@@ -0,0 +1,136 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A writer for saving {@link TextGridFile} objects in the binary <a
+ * href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid format, which
+ * can be read by Praat itself as well as by a
+ * {@link BinaryTextGridFileReader}.
+ * <p>
+ * The file is written by {@link TextGridFileWriter#notifyListener(TextGridFile,
+ * com.github.errantlinguist.textgrid.TextGridListener) notifying} a
+ * {@link BinaryTextGridStreamWriter} of the events describing it.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class BinaryTextGridFileWriter<D> {
+
+	/**
+	 * The {@link Function} used for converting entry annotation data to the
+	 * strings written to the file.
+	 */
+	private final Function<? super D, String> dataFormatter;
+
+	/**
+	 * Creates a writer which writes the {@link Object#toString() string
+	 * representation} of each entry annotation datum.
+	 */
+	public BinaryTextGridFileWriter() {
+		this(Functions.toStringFunction());
+	}
+
+	/**
+	 *
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public BinaryTextGridFileWriter(
+			final Function<? super D, String> dataFormatter) {
+		this.dataFormatter = dataFormatter;
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the binary format.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs or if a string is too long to be
+	 *             written.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final DataOutput output) throws IOException {
+		final BinaryTextGridStreamWriter<D> writer = new BinaryTextGridStreamWriter<D>(
+				output, dataFormatter);
+		TextGridFileWriter.notifyListener(textGridFile, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the binary format to a file.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param outfile
+	 *            The file to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs or if a string is too long to be
+	 *             written.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final File outfile) throws IOException {
+		final OutputStream output = new FileOutputStream(outfile);
+		try {
+			write(textGridFile, output);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the binary format to an
+	 * {@link OutputStream}, which is flushed but not closed.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param output
+	 *            The <code>OutputStream</code> to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs or if a string is too long to be
+	 *             written.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final OutputStream output) throws IOException {
+		final DataOutputStream dataOutput = new DataOutputStream(
+				new BufferedOutputStream(output));
+		write(textGridFile, (DataOutput) dataOutput);
+		dataOutput.flush();
+	}
+
+}
@@ -0,0 +1,314 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A utility class for reading and writing the strings of <a
+ * href="http://www.fon.hum.uva.nl/praat/">Praat</a> binary files.
+ * <p>
+ * A binary TextGrid file starts with the bytes <code>ooBinaryFile</code>
+ * followed by the object class as a short string and then contains the same
+ * values in the same order as a short text file: Doubles are written as
+ * big-endian IEEE 754 values, counts as big-endian 32-bit integers, the
+ * <code>&lt;exists&gt;</code> flag as one byte, tier classes as short strings
+ * and tier names and annotations as long strings.
+ * </p>
+ * <p>
+ * A short string is an unsigned byte denoting its length followed by one byte
+ * per ASCII character; A long string is the same but with an unsigned 16-bit
+ * length. A string containing any non-ASCII character is instead written as
+ * the maximum value of the length type, followed by its actual length in code
+ * points and then its big-endian UTF-16 code units.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ */
+final class BinaryTextGridFormat {
+
+	/**
+	 * The maximum value of a character which is written as a single byte.
+	 */
+	private static final char MAX_ASCII_CHAR = 0x7F;
+
+	/**
+	 * The maximum length of a long string.
+	 */
+	private static final int MAX_LONG_STRING_LENGTH = 0xFFFE;
+
+	/**
+	 * The maximum length of a short string.
+	 */
+	private static final int MAX_SHORT_STRING_LENGTH = 0xFE;
+
+	/**
+	 * The length of a long string denoting that it is encoded in UTF-16.
+	 */
+	private static final int UTF16_LONG_STRING_MARKER = 0xFFFF;
+
+	/**
+	 * The length of a short string denoting that it is encoded in UTF-16.
+	 */
+	private static final int UTF16_SHORT_STRING_MARKER = 0xFF;
+
+	/**
+	 * The object class written at the start of TextGrid files.
+	 */
+	static final String TEXTGRID_OBJECT_CLASS = "TextGrid";
+
+	/**
+	 * Reads a string with a 16-bit length prefix.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @return The string read.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static String readLongString(final DataInput input) throws IOException {
+		final String result;
+		final int length = input.readUnsignedShort();
+		if (length == UTF16_LONG_STRING_MARKER) {
+			result = readUtf16(input, input.readUnsignedShort());
+		} else {
+			result = readAscii(input, length);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a string with an 8-bit length prefix.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @return The string read.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static String readShortString(final DataInput input) throws IOException {
+		final String result;
+		final int length = input.readUnsignedByte();
+		if (length == UTF16_SHORT_STRING_MARKER) {
+			result = readUtf16(input, input.readUnsignedByte());
+		} else {
+			result = readAscii(input, length);
+		}
+		return result;
+	}
+
+	/**
+	 * Skips a given number of bytes.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @param length
+	 *            The number of bytes to skip.
+	 * @throws IOException
+	 *             If an I/O error occurs or if the end of the input is reached
+	 *             first.
+	 */
+	static void skipBytes(final DataInput input, int length)
+			throws IOException {
+		while (length > 0) {
+			final int skippedLength = input.skipBytes(length);
+			if (skippedLength > 0) {
+				length -= skippedLength;
+			} else {
+				// Check if the end of the input has been reached
+				input.readByte();
+				length--;
+			}
+		}
+	}
+
+	/**
+	 * Skips a string with a 16-bit length prefix without decoding it.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void skipLongString(final DataInput input) throws IOException {
+		final int length = input.readUnsignedShort();
+		if (length == UTF16_LONG_STRING_MARKER) {
+			skipUtf16(input, input.readUnsignedShort());
+		} else {
+			skipBytes(input, length);
+		}
+	}
+
+	/**
+	 * Writes a string with a 16-bit length prefix.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param str
+	 *            The string to write.
+	 * @throws IOException
+	 *             If an I/O error occurs or if the string is longer than
+	 *             {@value #MAX_LONG_STRING_LENGTH} code points.
+	 */
+	static void writeLongString(final DataOutput output, final String str)
+			throws IOException {
+		final int length = getCodePointCount(str, MAX_LONG_STRING_LENGTH);
+		if (isAscii(str)) {
+			output.writeShort(length);
+			output.writeBytes(str);
+		} else {
+			output.writeShort(UTF16_LONG_STRING_MARKER);
+			output.writeShort(length);
+			output.writeChars(str);
+		}
+	}
+
+	/**
+	 * Writes a string with an 8-bit length prefix.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param str
+	 *            The string to write.
+	 * @throws IOException
+	 *             If an I/O error occurs or if the string is longer than
+	 *             {@value #MAX_SHORT_STRING_LENGTH} code points.
+	 */
+	static void writeShortString(final DataOutput output, final String str)
+			throws IOException {
+		final int length = getCodePointCount(str, MAX_SHORT_STRING_LENGTH);
+		if (isAscii(str)) {
+			output.writeByte(length);
+			output.writeBytes(str);
+		} else {
+			output.writeByte(UTF16_SHORT_STRING_MARKER);
+			output.writeByte(length);
+			output.writeChars(str);
+		}
+	}
+
+	/**
+	 * Counts the code points in a string which is to be written.
+	 *
+	 * @param str
+	 *            The string to write.
+	 * @param maxLength
+	 *            The maximum number of code points which can be written.
+	 * @return The number of code points in the string.
+	 * @throws IOException
+	 *             If the string is longer than <code>maxLength</code>.
+	 */
+	private static int getCodePointCount(final String str, final int maxLength)
+			throws IOException {
+		final int result = str.codePointCount(0, str.length());
+		if (result > maxLength) {
+			throw new IOException(String.format(
+					"String of length %d is longer than the maximum of %d.",
+					result, maxLength));
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if a string consists only of ASCII characters.
+	 *
+	 * @param str
+	 *            The string to check.
+	 * @return <code>true</code> iff all characters are ASCII characters.
+	 */
+	private static boolean isAscii(final String str) {
+		boolean result = true;
+		for (int i = 0; result && i < str.length(); ++i) {
+			result = str.charAt(i) <= MAX_ASCII_CHAR;
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a string of one byte per character.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @param length
+	 *            The number of characters to read.
+	 * @return The string read.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private static String readAscii(final DataInput input, final int length)
+			throws IOException {
+		final char[] chars = new char[length];
+		for (int i = 0; i < length; ++i) {
+			chars[i] = (char) input.readUnsignedByte();
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Reads a string of big-endian UTF-16 code units.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @param length
+	 *            The number of code points to read, each of which is either
+	 *            one code unit or a surrogate pair.
+	 * @return The string read.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private static String readUtf16(final DataInput input, final int length)
+			throws IOException {
+		final StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; ++i) {
+			final char c = input.readChar();
+			builder.append(c);
+			if (Character.isHighSurrogate(c)) {
+				builder.append(input.readChar());
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Skips a string of big-endian UTF-16 code units without decoding it.
+	 *
+	 * @param input
+	 *            The {@link DataInput} to read from.
+	 * @param length
+	 *            The number of code points to skip, each of which is either
+	 *            one code unit or a surrogate pair.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private static void skipUtf16(final DataInput input, final int length)
+			throws IOException {
+		for (int i = 0; i < length; ++i) {
+			if (Character.isHighSurrogate(input.readChar())) {
+				input.readChar();
+			}
+		}
+	}
+
+	private BinaryTextGridFormat() {
+		// Avoid instantiation
+	}
+
+}
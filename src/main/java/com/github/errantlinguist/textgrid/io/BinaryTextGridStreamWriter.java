@@ -0,0 +1,210 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.errantlinguist.textgrid.TierClass;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A {@link AbstractTextGridStreamWriter stream writer} which writes TextGrid
+ * events in the binary <a href="http://www.fon.hum.uva.nl/praat/">Praat</a>
+ * format, which can be read by Praat itself as well as by a
+ * {@link BinaryTextGridFileReader}. See {@link BinaryTextGridFormat} for
+ * details of the format.
+ * <p>
+ * Tier and entry indices are implied by the position of their values and so
+ * are not written.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ * @see BinaryTextGridFileWriter
+ */
+public class BinaryTextGridStreamWriter<D> extends
+		AbstractTextGridStreamWriter<D> {
+
+	/**
+	 * The value of the <code>&lt;exists&gt;</code> flag written before the
+	 * tiers of a file.
+	 */
+	private static final int TIERS_EXIST_FLAG = 1;
+
+	/**
+	 * The {@link DataOutput} the file is written to.
+	 */
+	private final DataOutput output;
+
+	/**
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to, which is flushed and
+	 *            closed by this writer if it is {@link Flushable} and
+	 *            {@link Closeable}, respectively.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public BinaryTextGridStreamWriter(final DataOutput output,
+			final Function<? super D, String> dataFormatter) {
+		super(dataFormatter);
+		this.output = output;
+	}
+
+	/**
+	 * Creates a writer which writes the {@link Object#toString() string
+	 * representation} of each entry annotation datum.
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 */
+	public BinaryTextGridStreamWriter(final OutputStream output) {
+		this(output, Functions.toStringFunction());
+	}
+
+	/**
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public BinaryTextGridStreamWriter(final OutputStream output,
+			final Function<? super D, String> dataFormatter) {
+		this((DataOutput) new DataOutputStream(new BufferedOutputStream(
+				output)), dataFormatter);
+	}
+
+	@Override
+	protected void closeOutput() throws IOException {
+		if (output instanceof Closeable) {
+			((Closeable) output).close();
+		}
+	}
+
+	@Override
+	protected void flushOutput() throws IOException {
+		if (output instanceof Flushable) {
+			((Flushable) output).flush();
+		}
+	}
+
+	@Override
+	protected void writeFileEndTime(final double time) throws IOException {
+		output.writeDouble(time);
+	}
+
+	@Override
+	protected void writeFileSize(final int size) throws IOException {
+		output.writeByte(TIERS_EXIST_FLAG);
+		output.writeInt(size);
+	}
+
+	@Override
+	protected void writeFileStartTime(final double time) throws IOException {
+		output.writeBytes(TextGridFormat.BINARY.getFileType());
+		BinaryTextGridFormat.writeShortString(output,
+				BinaryTextGridFormat.TEXTGRID_OBJECT_CLASS);
+		output.writeDouble(time);
+	}
+
+	@Override
+	protected void writeIntervalData(final String text) throws IOException {
+		BinaryTextGridFormat.writeLongString(output, text);
+	}
+
+	@Override
+	protected void writeIntervalEndTime(final double time) throws IOException {
+		output.writeDouble(time);
+	}
+
+	@Override
+	protected void writeIntervalIndex(final int index) {
+		// Implied by the position of the interval
+	}
+
+	@Override
+	protected void writeIntervalStartTime(final double time)
+			throws IOException {
+		output.writeDouble(time);
+	}
+
+	@Override
+	protected void writePointData(final String text) throws IOException {
+		BinaryTextGridFormat.writeLongString(output, text);
+	}
+
+	@Override
+	protected void writePointIndex(final int index) {
+		// Implied by the position of the point
+	}
+
+	@Override
+	protected void writePointTime(final double time) throws IOException {
+		output.writeDouble(time);
+	}
+
+	@Override
+	protected void writeTierClass(final TierClass tierClass)
+			throws IOException {
+		BinaryTextGridFormat.writeShortString(output, tierClass.getValue());
+	}
+
+	@Override
+	protected void writeTierEndTime(final double time) throws IOException {
+		output.writeDouble(time);
+	}
+
+	@Override
+	protected void writeTierIndex(final int index) {
+		// Implied by the position of the tier
+	}
+
+	@Override
+	protected void writeTierIntervalCount(final int count) throws IOException {
+		output.writeInt(count);
+	}
+
+	@Override
+	protected void writeTierName(final String name) throws IOException {
+		BinaryTextGridFormat.writeLongString(output, name);
+	}
+
+	@Override
+	protected void writeTierPointCount(final int count) throws IOException {
+		output.writeInt(count);
+	}
+
+	@Override
+	protected void writeTierStartTime(final double time) throws IOException {
+		output.writeDouble(time);
+	}
+
+}
@@ -0,0 +1,406 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.github.errantlinguist.io.AbstractFileSystemReader;
+import com.github.errantlinguist.io.FileFingerprint;
+import com.github.errantlinguist.io.InputStreamReader;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridFileListenerFactory;
+import com.github.errantlinguist.time.TickScale;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+
+/**
+ * A file system reader which keeps a snapshot of each TextGrid file it reads
+ * in a cache directory and reads the snapshot instead of the file itself as
+ * long as the file has not changed since.
+ * <p>
+ * Each snapshot contains the {@link FileFingerprint} of the file it was
+ * created from: A snapshot is only used if the path, size and modification
+ * time of the file and, {@link #setVerifyContentHash(boolean) if required}, a
+ * hash of its content still match; Otherwise, the file is read by the given
+ * text reader and its snapshot is replaced. By default, the content is not
+ * hashed, so that using a snapshot does not require reading the file at all. A snapshot whose payload no
+ * longer matches the checksum stored with it, e.g.&nbsp;because the cache
+ * directory was corrupted, is replaced in the same way. Snapshots are named
+ * after a hash of the absolute path of their file, so that the cache
+ * directory can be shared by any number of corpora.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and so cannot read files
+ * {@link #setExecutor(java.util.concurrent.Executor) in parallel}. Files
+ * {@link #readFileAsync(File) read asynchronously} are therefore parsed one
+ * at a time and are looked up in the cache like any other, after their
+ * contents have been read.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ * @see SnapshotTextGridFormat
+ */
+public class CachingTextGridFileSystemReader<D> extends
+		AbstractFileSystemReader<TextGridFile<D>, ParseException> {
+
+	/**
+	 * The filename suffix of snapshot files.
+	 */
+	private static final String SNAPSHOT_FILENAME_SUFFIX = ".jtgs";
+
+	/**
+	 * The directory the snapshots are stored in.
+	 */
+	private final File cacheDir;
+
+	/**
+	 * The factory used for creating {@link TextGridFile} objects from
+	 * snapshots.
+	 */
+	private final TextGridFileListenerFactory<D> snapshotFactory;
+
+	/**
+	 * The reader used for reading snapshots.
+	 */
+	private final SnapshotTextGridFileReader<D> snapshotReader;
+
+	/**
+	 * The writer used for writing snapshots.
+	 */
+	private final SnapshotTextGridFileWriter<D> snapshotWriter;
+
+	/**
+	 * The reader used for reading TextGrid files without a current snapshot.
+	 */
+	private final InputStreamReader<TextGridFile<D>, ParseException> textReader;
+
+	/**
+	 * Whether the content of files is hashed to check if their snapshots are
+	 * current.
+	 */
+	private boolean verifyContentHash = false;
+
+	/**
+	 * Creates a reader which stores the {@link Object#toString() string
+	 * representation} of each entry annotation datum in its snapshots.
+	 *
+	 * @param textReader
+	 *            The reader used for reading TextGrid files without a current
+	 *            snapshot, e.g.&nbsp;a {@link TextGridFileFactoryReader}.
+	 * @param parser
+	 *            The {@link Parser} used for parsing the entry annotation data
+	 *            stored in snapshots.
+	 * @param cacheDir
+	 *            The directory the snapshots are stored in, which is created
+	 *            if it does not exist.
+	 */
+	public CachingTextGridFileSystemReader(
+			final InputStreamReader<TextGridFile<D>, ParseException> textReader,
+			final Parser<? super String, ? extends D> parser,
+			final File cacheDir) {
+		this(textReader, parser, Functions.toStringFunction(),
+				TickScale.MICROSECONDS, cacheDir);
+	}
+
+	/**
+	 *
+	 * @param textReader
+	 *            The reader used for reading TextGrid files without a current
+	 *            snapshot, e.g.&nbsp;a {@link TextGridFileFactoryReader}.
+	 * @param parser
+	 *            The {@link Parser} used for parsing the entry annotation data
+	 *            stored in snapshots.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings stored in snapshots, which is the inverse
+	 *            of <code>parser</code>.
+	 * @param scale
+	 *            The {@link TickScale} used for encoding entry times in
+	 *            snapshots.
+	 * @param cacheDir
+	 *            The directory the snapshots are stored in, which is created
+	 *            if it does not exist.
+	 */
+	public CachingTextGridFileSystemReader(
+			final InputStreamReader<TextGridFile<D>, ParseException> textReader,
+			final Parser<? super String, ? extends D> parser,
+			final Function<? super D, String> dataFormatter,
+			final TickScale scale, final File cacheDir) {
+		this.textReader = textReader;
+		this.cacheDir = cacheDir;
+		snapshotFactory = new TextGridFileListenerFactory<D>();
+		snapshotReader = new SnapshotTextGridFileReader<D>(parser,
+				snapshotFactory);
+		snapshotWriter = new SnapshotTextGridFileWriter<D>(dataFormatter,
+				scale);
+	}
+
+	/**
+	 * @return The directory the snapshots are stored in.
+	 */
+	public File getCacheDir() {
+		return cacheDir;
+	}
+
+	/**
+	 * Gets the snapshot file used for a given TextGrid file, which need not
+	 * exist.
+	 *
+	 * @param infile
+	 *            The TextGrid file.
+	 * @return The snapshot file in the cache directory.
+	 */
+	public File getSnapshotFile(final File infile) {
+		final String pathHash = Hashing.murmur3_128()
+				.hashString(infile.getAbsolutePath(), StandardCharsets.UTF_8)
+				.toString();
+		return new File(cacheDir, pathHash + SNAPSHOT_FILENAME_SUFFIX);
+	}
+
+	/**
+	 * @return <code>true</code> iff the content of files is hashed to check
+	 *         if their snapshots are current, which is not the default.
+	 */
+	public boolean isVerifyContentHash() {
+		return verifyContentHash;
+	}
+
+	/**
+	 * Reads a TextGrid file from an {@link InputStream} using the text reader,
+	 * since there is no file to look up a snapshot for.
+	 */
+	@Override
+	public TextGridFile<D> read(final InputStream input) throws IOException,
+			ParseException {
+		return textReader.read(input);
+	}
+
+	/**
+	 * Sets whether the content of files is hashed to check if their snapshots
+	 * are current, e.g.&nbsp;on a file system with a coarse modification time
+	 * resolution; If not, which is the default, a file is assumed to be
+	 * unchanged if its size and modification time are, which avoids reading
+	 * the file at all.
+	 *
+	 * @param verifyContentHash
+	 *            <code>true</code> iff content hashes should be checked.
+	 */
+	public void setVerifyContentHash(final boolean verifyContentHash) {
+		this.verifyContentHash = verifyContentHash;
+	}
+
+	/**
+	 * Reads the snapshot of a file if it is current and otherwise reads the
+	 * file itself and replaces its snapshot.
+	 */
+	@Override
+	protected TextGridFile<D> readFileContents(final File infile)
+			throws IOException, ParseException {
+		final File snapshotFile = getSnapshotFile(infile);
+		TextGridFile<D> result = snapshotFile.isFile() ? readSnapshot(infile,
+				snapshotFile, null) : null;
+		if (result == null) {
+			final File absoluteFile = infile.getAbsoluteFile();
+			// Get the metadata before opening the file so that any change made
+			// while reading it makes the snapshot stale
+			final long size = absoluteFile.length();
+			final long lastModified = absoluteFile.lastModified();
+			final InputStream input = new FileInputStream(absoluteFile);
+			try {
+				result = readAndReplaceSnapshot(absoluteFile, size,
+						lastModified, input, snapshotFile);
+			} finally {
+				input.close();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the snapshot of a prefetched file if it is current and otherwise
+	 * parses the prefetched contents and replaces its snapshot; The file
+	 * itself is not read again in either case. Since the contents were read
+	 * before the size and modification time of the file are taken, a change
+	 * made to the file while it was being prefetched which keeps its size
+	 * can go unnoticed.
+	 */
+	@Override
+	protected TextGridFile<D> readPrefetchedContents(final File infile,
+			final InputStream input) throws IOException, ParseException {
+		final File snapshotFile = getSnapshotFile(infile);
+		TextGridFile<D> result = snapshotFile.isFile() ? readSnapshot(infile,
+				snapshotFile, input) : null;
+		if (result == null) {
+			final File absoluteFile = infile.getAbsoluteFile();
+			result = readAndReplaceSnapshot(absoluteFile,
+					absoluteFile.length(), absoluteFile.lastModified(), input,
+					snapshotFile);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses the contents of a file using the text reader and replaces its
+	 * snapshot, hashing the contents while they are being parsed so that the
+	 * file is read only once.
+	 *
+	 * @param absoluteFile
+	 *            The absolute TextGrid file.
+	 * @param size
+	 *            The size of the file in bytes, taken before the contents
+	 *            were read.
+	 * @param lastModified
+	 *            The time the file was last modified in milliseconds since
+	 *            the epoch, taken before the contents were read.
+	 * @param input
+	 *            An {@link InputStream} of the contents of the file.
+	 * @param snapshotFile
+	 *            The snapshot file of the TextGrid file.
+	 * @return A new {@link TextGridFile} read from the contents.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the contents could not be parsed.
+	 */
+	private TextGridFile<D> readAndReplaceSnapshot(final File absoluteFile,
+			final long size, final long lastModified, final InputStream input,
+			final File snapshotFile) throws IOException, ParseException {
+		final CountingInputStream countingInput = new CountingInputStream(input);
+		final HashingInputStream hashingInput = FileFingerprint
+				.createContentHashingStream(countingInput);
+		final TextGridFile<D> result = read(hashingInput);
+		// The reader need not have read up to the end of the contents
+		ByteStreams.copy(hashingInput, ByteStreams.nullOutputStream());
+		// A file changed while it was being read gets no snapshot at all
+		if (size == countingInput.getCount()
+				&& size == absoluteFile.length()
+				&& lastModified == absoluteFile.lastModified()) {
+			writeSnapshot(result, new FileFingerprint(absoluteFile.getPath(),
+					size, lastModified, hashingInput.hash().asBytes()),
+					snapshotFile);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the snapshot of a file if it is current.
+	 *
+	 * @param infile
+	 *            The TextGrid file.
+	 * @param snapshotFile
+	 *            The snapshot file of the TextGrid file.
+	 * @param contents
+	 *            An {@link InputStream} of the contents of the file already
+	 *            read into memory, which are hashed instead of the file itself
+	 *            if content hashes are checked and the stream supports
+	 *            {@link InputStream#mark(int) marking}, or <code>null</code>
+	 *            if they have not been read. The stream is reset to where it
+	 *            was before.
+	 * @return A new {@link TextGridFile} read from the snapshot or
+	 *         <code>null</code> if the snapshot is stale or invalid.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private TextGridFile<D> readSnapshot(final File infile,
+			final File snapshotFile, final InputStream contents)
+			throws IOException {
+		TextGridFile<D> result = null;
+		try {
+			final FileFingerprint fingerprint = SnapshotTextGridFileReader
+					.readSourceFingerprint(snapshotFile);
+			final boolean hashContents = verifyContentHash && contents != null
+					&& contents.markSupported();
+			boolean isCurrent = fingerprint != null
+					&& fingerprint.matches(infile, verifyContentHash
+							&& !hashContents);
+			if (isCurrent && hashContents) {
+				contents.mark(Integer.MAX_VALUE);
+				final HashingInputStream hashingContents = FileFingerprint
+						.createContentHashingStream(contents);
+				ByteStreams.copy(hashingContents,
+						ByteStreams.nullOutputStream());
+				contents.reset();
+				isCurrent = fingerprint.matchesContentHash(hashingContents
+						.hash());
+			}
+			if (isCurrent) {
+				snapshotReader.read(snapshotFile);
+				result = snapshotFactory.create();
+			}
+		} catch (final ParseException e) {
+			// An invalid snapshot is simply replaced
+			snapshotFactory.clear();
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces the snapshot of a file, writing it to a temporary file first
+	 * so that no partial snapshot is ever read.
+	 *
+	 * @param textGridFile
+	 *            The {@link TextGridFile} read from the file.
+	 * @param fingerprint
+	 *            The {@link FileFingerprint} of the file.
+	 * @param snapshotFile
+	 *            The snapshot file of the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeSnapshot(final TextGridFile<D> textGridFile,
+			final FileFingerprint fingerprint, final File snapshotFile)
+			throws IOException {
+		if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+			throw new IOException("Could not create cache directory \""
+					+ cacheDir + "\".");
+		}
+		final File tempFile = File.createTempFile(snapshotFile.getName(),
+				null, cacheDir);
+		try {
+			snapshotWriter.write(textGridFile, fingerprint, tempFile);
+			try {
+				Files.move(tempFile.toPath(), snapshotFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), snapshotFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+}
@@ -0,0 +1,320 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import com.github.errantlinguist.io.ByteBufferCharSequence;
+import com.github.errantlinguist.io.ByteOrderMark;
+import com.github.errantlinguist.io.InputStreamReader;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A reader for UTF-8- or ASCII-encoded <a
+ * href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid files which maps
+ * the file into memory using {@link FileChannel#map(MapMode, long, long)} and
+ * scans the bytes directly with an {@link AbstractTextGridFileScanner} rather
+ * than decoding them into one {@link String} per line: Only tier names and
+ * entry annotation data are decoded.
+ * <p>
+ * {@link #read(InputStream)} maps the file if given a
+ * {@link FileInputStream}, so that this reader can be used e.g.&nbsp;by a
+ * {@link com.github.errantlinguist.io.AbstractFileSystemReader} without any
+ * further changes; Any other <code>InputStream</code> is read fully into
+ * memory and scanned the same way.
+ * </p>
+ * <p>
+ * UTF-16-encoded files, which are detected from their
+ * {@link ByteOrderMark byte order mark} or otherwise from their
+ * <code>NUL</code> bytes, cannot be scanned byte by byte and are instead
+ * decoded directly from the file or buffer by the scanner itself.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class MappedTextGridFileReader<D> implements
+		InputStreamReader<Boolean, ParseException> {
+
+	/**
+	 * The maximum number of bytes mapped at once; Files larger than this are
+	 * mapped in consecutive regions, each starting at a line boundary.
+	 */
+	private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+	/**
+	 * The encoding of files which have no byte order mark and are not
+	 * UTF-16-encoded.
+	 */
+	private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+	/**
+	 * Finds the length of the byte order mark at the start of a given
+	 * {@link ByteBuffer}.
+	 *
+	 * @param prefix
+	 *            The <code>ByteBuffer</code> to check.
+	 * @return The length of the byte order mark, or <code>0</code> if there
+	 *         is none.
+	 */
+	private static final int getBomLength(final ByteBuffer prefix) {
+		final ByteOrderMark bom = ByteOrderMark.find(prefix);
+		return bom == null ? 0 : bom.getLength();
+	}
+
+	/**
+	 * The scanner used for tokenizing each line.
+	 */
+	private final AbstractTextGridFileScanner<D> scanner;
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	public MappedTextGridFileReader(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		this(new AutoDetectingTextGridFileScanner<D>(parser, listener));
+	}
+
+	/**
+	 *
+	 * @param scanner
+	 *            The scanner used for tokenizing each line.
+	 */
+	public MappedTextGridFileReader(
+			final AbstractTextGridFileScanner<D> scanner) {
+		this.scanner = scanner;
+	}
+
+	/**
+	 * Maps and reads a given TextGrid file.
+	 *
+	 * @param infile
+	 *            The file to read.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	public Boolean read(final File infile) throws IOException, ParseException {
+		final FileInputStream input = new FileInputStream(infile);
+		try {
+			return read(input.getChannel());
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Maps and reads the TextGrid file content of a given {@link FileChannel}
+	 * from its current position to its end.
+	 *
+	 * @param channel
+	 *            The <code>FileChannel</code> to read.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	public Boolean read(final FileChannel channel) throws IOException,
+			ParseException {
+		final long start = channel.position();
+		final ByteBuffer prefix = ByteBuffer.allocate(ByteOrderMark.MAX_LENGTH);
+		channel.read(prefix, start);
+		prefix.flip();
+		final Charset charset = ByteOrderMark.detectCharset(prefix,
+				DEFAULT_CHARSET);
+		final Boolean result;
+		if (DEFAULT_CHARSET.equals(charset)) {
+			result = readMapped(channel);
+		} else {
+			channel.position(start + getBomLength(prefix));
+			result = scanner.read(Channels.newInputStream(channel), charset);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a TextGrid file from an {@link InputStream}, mapping it if it is
+	 * a {@link FileInputStream}.
+	 *
+	 * @param input
+	 *            The <code>InputStream</code> to read.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	@Override
+	public Boolean read(final InputStream input) throws IOException,
+			ParseException {
+		final Boolean result;
+		if (input instanceof FileInputStream) {
+			result = read(((FileInputStream) input).getChannel());
+		} else {
+			result = read(ByteBuffer.wrap(ByteStreams.toByteArray(input)));
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the TextGrid file content of a given {@link ByteBuffer} from its
+	 * current position to its limit.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> to read.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs while decoding UTF-16 content.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	public Boolean read(final ByteBuffer buffer) throws IOException,
+			ParseException {
+		final ByteBuffer slice = buffer.slice();
+		final Charset charset = ByteOrderMark.detectCharset(slice,
+				DEFAULT_CHARSET);
+		final int bomLength = getBomLength(slice);
+		if (DEFAULT_CHARSET.equals(charset)) {
+			scanner.reset();
+			scanLines(slice, bomLength, true);
+			scanner.finish();
+		} else {
+			final byte[] content = new byte[slice.remaining() - bomLength];
+			slice.position(bomLength);
+			slice.get(content);
+			scanner.read(new ByteArrayInputStream(content), charset);
+		}
+		buffer.position(buffer.limit());
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Maps and scans the UTF-8- or ASCII-encoded TextGrid file content of a
+	 * given {@link FileChannel} from its current position to its end.
+	 *
+	 * @param channel
+	 *            The <code>FileChannel</code> to read.
+	 * @return <code>true</code> iff the entire file was successfully parsed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	private Boolean readMapped(final FileChannel channel) throws IOException,
+			ParseException {
+		scanner.reset();
+		final long size = channel.size();
+		final long start = channel.position();
+		long regionStart = start;
+		while (regionStart < size) {
+			final long regionSize = Math.min(size - regionStart,
+					MAX_REGION_SIZE);
+			final boolean isLastRegion = regionStart + regionSize == size;
+			final ByteBuffer region = channel.map(MapMode.READ_ONLY,
+					regionStart, regionSize);
+			final int regionOffset = regionStart == start ? getBomLength(region)
+					: 0;
+			final int consumed = scanLines(region, regionOffset, isLastRegion);
+			if (!isLastRegion && consumed <= regionOffset) {
+				throw new ParseException(String.format(
+						"No line break found in the %d bytes at offset %d.",
+						regionSize, regionStart));
+			}
+			regionStart += consumed;
+		}
+		scanner.finish();
+		channel.position(size);
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Scans the lines in a given {@link ByteBuffer}, which are terminated by
+	 * <code>\n</code>, <code>\r</code> or <code>\r\n</code>.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> to scan.
+	 * @param start
+	 *            The index to start scanning at.
+	 * @param isLastRegion
+	 *            If <code>true</code>, any bytes after the last line
+	 *            terminator are scanned as a line; Otherwise, they are left
+	 *            for the next region.
+	 * @return The index after the last byte which was scanned.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	private int scanLines(final ByteBuffer buffer, final int start,
+			final boolean isLastRegion) throws ParseException {
+		final ByteBufferCharSequence line = new ByteBufferCharSequence(buffer);
+		final int limit = buffer.limit();
+		int lineStart = start;
+		for (int i = start; i < limit; ++i) {
+			final byte b = buffer.get(i);
+			if (b == '\n' || b == '\r') {
+				int nextLineStart = i + 1;
+				if (b == '\r') {
+					if (nextLineStart < limit) {
+						if (buffer.get(nextLineStart) == '\n') {
+							nextLineStart++;
+						}
+					} else if (!isLastRegion) {
+						// The next region could start with the rest of "\r\n"
+						break;
+					}
+				}
+				line.setRange(lineStart, i);
+				scanner.scanLine(line);
+				lineStart = nextLineStart;
+				i = nextLineStart - 1;
+			}
+		}
+		if (isLastRegion && lineStart < limit) {
+			line.setRange(lineStart, limit);
+			scanner.scanLine(line);
+			lineStart = limit;
+		}
+		return lineStart;
+	}
+
+}
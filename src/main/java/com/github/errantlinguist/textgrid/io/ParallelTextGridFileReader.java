@@ -0,0 +1,488 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.github.errantlinguist.io.ByteOrderMark;
+import com.github.errantlinguist.io.InputStreamReader;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.NamedTier;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridFileListenerFactory;
+import com.github.errantlinguist.tree.ChildList;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A file reader which parses each tier of a long-format <a
+ * href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid file in a
+ * separate {@link ForkJoinTask}, creating the same {@link TextGridFile} object
+ * as a {@link TextGridFileFactoryReader} does.
+ * <p>
+ * The file is first mapped into memory like by a
+ * {@link MappedTextGridFileReader} and then pre-scanned for the lines starting
+ * each tier, i.e.&nbsp;<code>item [<i>n</i>]:</code>, which only requires
+ * comparing the first bytes of each line. The file header and each tier are
+ * then scanned independently by their own {@link TextGridFileScanner}, after
+ * which the tiers are added to the file in their original order.
+ * </p>
+ * <p>
+ * Files which cannot be split this way, i.e.&nbsp;files in the short format,
+ * UTF-16-encoded files and files larger than {@value #MAX_MAPPED_SIZE} bytes,
+ * are read sequentially instead. Since annotation data is parsed concurrently,
+ * the given {@link Parser} must be thread-safe.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class ParallelTextGridFileReader<D> implements
+		InputStreamReader<TextGridFile<D>, ParseException> {
+
+	/**
+	 * A holder of the {@link ForkJoinPool} shared by all readers created
+	 * without a pool of their own, which is only created once it is first
+	 * used.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-16
+	 * @since 2014-02-16
+	 *
+	 */
+	private static final class SharedPool {
+
+		/**
+		 * The shared <code>ForkJoinPool</code>, with one thread per available
+		 * processor.
+		 */
+		private static final ForkJoinPool INSTANCE = new ForkJoinPool();
+
+	}
+
+	/**
+	 * A task which scans a single region of a file containing one tier,
+	 * creating a temporary {@link TextGridFile} holding only that tier.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 * @param <D>
+	 *            The type of the annotation data.
+	 */
+	private static final class TierTask<D> extends RecursiveAction {
+
+		private static final long serialVersionUID = -4632718923416573089L;
+
+		/**
+		 * The index of the first byte of the tier in the file.
+		 */
+		private final int offset;
+
+		/**
+		 * The {@link ParseException} thrown while scanning the tier, if any.
+		 */
+		private ParseException parseException = null;
+
+		/**
+		 * The {@link Parser} object using for parsing entry annotation data.
+		 */
+		private final Parser<? super String, ? extends D> parser;
+
+		/**
+		 * The region of the file containing the tier.
+		 */
+		private final ByteBuffer region;
+
+		/**
+		 * The temporary file holding the scanned tier.
+		 */
+		private TextGridFile<D> result = null;
+
+		/**
+		 *
+		 * @param parser
+		 *            The {@link Parser} object using for parsing entry
+		 *            annotation data.
+		 * @param region
+		 *            The region of the file containing the tier.
+		 * @param offset
+		 *            The index of the first byte of the tier in the file.
+		 */
+		private TierTask(final Parser<? super String, ? extends D> parser,
+				final ByteBuffer region, final int offset) {
+			this.parser = parser;
+			this.region = region;
+			this.offset = offset;
+		}
+
+		@Override
+		protected void compute() {
+			final TextGridFileListenerFactory<D> factory = new TextGridFileListenerFactory<D>();
+			// The tier is added to the real file once all tiers are scanned
+			factory.notifyFileSize(1);
+			try {
+				new MappedTextGridFileReader<D>(new TextGridFileScanner<D>(
+						parser, factory)).read(region);
+				result = factory.create();
+			} catch (final ParseException e) {
+				parseException = e;
+			} catch (final IOException e) {
+				// Regions of UTF-8-encoded files are not decoded as streams
+				throw new AssertionError(e);
+			}
+		}
+
+	}
+
+	/**
+	 * A task which runs all {@link TierTask} instances of a file in parallel.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 */
+	private static final class TierTaskList extends RecursiveAction {
+
+		private static final long serialVersionUID = 5861094733624583519L;
+
+		/**
+		 * The tasks to run.
+		 */
+		private final List<? extends TierTask<?>> tasks;
+
+		/**
+		 *
+		 * @param tasks
+		 *            The tasks to run.
+		 */
+		private TierTaskList(final List<? extends TierTask<?>> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(tasks);
+		}
+
+	}
+
+	/**
+	 * The maximum size of files which are mapped and read in parallel.
+	 */
+	private static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+
+	/**
+	 * The key starting the first line of each tier.
+	 */
+	private static final byte[] TIER_INDEX_KEY = "item ["
+			.getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Finds the start of each line of a long-format TextGrid file starting a
+	 * tier, i.e.&nbsp;<code>item [<i>n</i>]:</code>.
+	 *
+	 * @param buffer
+	 *            The {@link ByteBuffer} containing the file between its
+	 *            position and its limit.
+	 * @return The indices of the starts of the lines.
+	 */
+	private static List<Integer> findTierOffsets(final ByteBuffer buffer) {
+		final List<Integer> result = new ArrayList<Integer>();
+		final int limit = buffer.limit();
+		int lineStart = buffer.position();
+		while (lineStart < limit) {
+			int i = lineStart;
+			byte b = 0;
+			while (i < limit && ((b = buffer.get(i)) == ' ' || b == '\t')) {
+				i++;
+			}
+			if (b == TIER_INDEX_KEY[0]
+					&& isTierIndexLine(buffer, i + TIER_INDEX_KEY.length)) {
+				result.add(lineStart);
+			}
+			while (i < limit && (b = buffer.get(i)) != '\n' && b != '\r') {
+				i++;
+			}
+			lineStart = i + 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the {@link #TIER_INDEX_KEY} followed by a digit ends at a
+	 * given index of a {@link ByteBuffer}.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> to check.
+	 * @param keyEnd
+	 *            The index after the last byte of the key.
+	 * @return <code>true</code> iff the key and a digit were found.
+	 */
+	private static boolean isTierIndexLine(final ByteBuffer buffer,
+			final int keyEnd) {
+		boolean result = keyEnd < buffer.limit();
+		if (result) {
+			final byte digit = buffer.get(keyEnd);
+			result = digit >= '0' && digit <= '9';
+		}
+		final int keyStart = keyEnd - TIER_INDEX_KEY.length;
+		for (int i = 0; result && i < TIER_INDEX_KEY.length; ++i) {
+			result = buffer.get(keyStart + i) == TIER_INDEX_KEY[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a {@link ByteBuffer} sharing a given region of another one.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> to share.
+	 * @param start
+	 *            The index of the first byte of the region.
+	 * @param end
+	 *            The index after the last byte of the region.
+	 * @return A new <code>ByteBuffer</code> containing only the region.
+	 */
+	private static ByteBuffer slice(final ByteBuffer buffer, final int start,
+			final int end) {
+		final ByteBuffer result = buffer.duplicate();
+		result.limit(end);
+		result.position(start);
+		return result.slice();
+	}
+
+	/**
+	 * The {@link Parser} object using for parsing entry annotation data.
+	 */
+	private final Parser<? super String, ? extends D> parser;
+
+	/**
+	 * The {@link ForkJoinPool} used for scanning the tiers.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a reader which scans the tiers using a {@link ForkJoinPool}
+	 * with one thread per available processor which is shared by all readers
+	 * created this way, so that no pool is left running for each reader.
+	 *
+	 * @param parser
+	 *            The thread-safe {@link Parser} object using for parsing
+	 *            entry annotation data.
+	 */
+	public ParallelTextGridFileReader(
+			final Parser<? super String, ? extends D> parser) {
+		this(parser, SharedPool.INSTANCE);
+	}
+
+	/**
+	 *
+	 * @param parser
+	 *            The thread-safe {@link Parser} object using for parsing
+	 *            entry annotation data.
+	 * @param pool
+	 *            The {@link ForkJoinPool} used for scanning the tiers.
+	 */
+	public ParallelTextGridFileReader(
+			final Parser<? super String, ? extends D> parser,
+			final ForkJoinPool pool) {
+		this.parser = parser;
+		this.pool = pool;
+	}
+
+	/**
+	 * Reads the TextGrid file content of a given {@link ByteBuffer} from its
+	 * current position to its limit.
+	 *
+	 * @param buffer
+	 *            The <code>ByteBuffer</code> to read.
+	 * @return A new {@link TextGridFile} representing the file.
+	 * @throws IOException
+	 *             If an I/O error occurs while decoding UTF-16 content.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	public TextGridFile<D> read(final ByteBuffer buffer) throws IOException,
+			ParseException {
+		final TextGridFile<D> result;
+		final ByteBuffer slice = buffer.slice();
+		final List<Integer> tierOffsets = StandardCharsets.UTF_8
+				.equals(ByteOrderMark.detectCharset(slice,
+						StandardCharsets.UTF_8)) ? findTierOffsets(slice)
+				: new ArrayList<Integer>(0);
+		if (tierOffsets.isEmpty()) {
+			final TextGridFileListenerFactory<D> factory = new TextGridFileListenerFactory<D>();
+			new MappedTextGridFileReader<D>(parser, factory).read(slice);
+			result = factory.create();
+		} else {
+			result = readTiers(slice, tierOffsets);
+		}
+		buffer.position(buffer.limit());
+		return result;
+	}
+
+	/**
+	 * Maps and reads a given TextGrid file.
+	 *
+	 * @param infile
+	 *            The file to read.
+	 * @return A new {@link TextGridFile} representing the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	public TextGridFile<D> read(final File infile) throws IOException,
+			ParseException {
+		final FileInputStream input = new FileInputStream(infile);
+		try {
+			return read(input.getChannel());
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Maps and reads the TextGrid file content of a given {@link FileChannel}
+	 * from its current position to its end.
+	 *
+	 * @param channel
+	 *            The <code>FileChannel</code> to read.
+	 * @return A new {@link TextGridFile} representing the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	public TextGridFile<D> read(final FileChannel channel) throws IOException,
+			ParseException {
+		final TextGridFile<D> result;
+		final long start = channel.position();
+		final long size = channel.size() - start;
+		if (size > MAX_MAPPED_SIZE) {
+			final TextGridFileListenerFactory<D> factory = new TextGridFileListenerFactory<D>();
+			new MappedTextGridFileReader<D>(parser, factory).read(channel);
+			result = factory.create();
+		} else {
+			result = read(channel.map(MapMode.READ_ONLY, start, size));
+			channel.position(start + size);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a TextGrid file from an {@link InputStream}, mapping it if it is
+	 * a {@link FileInputStream}.
+	 *
+	 * @param input
+	 *            The <code>InputStream</code> to read.
+	 * @return A new {@link TextGridFile} representing the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	@Override
+	public TextGridFile<D> read(final InputStream input) throws IOException,
+			ParseException {
+		final TextGridFile<D> result;
+		if (input instanceof FileInputStream) {
+			result = read(((FileInputStream) input).getChannel());
+		} else {
+			result = read(ByteBuffer.wrap(ByteStreams.toByteArray(input)));
+		}
+		return result;
+	}
+
+	/**
+	 * Scans the header of a file and then each of its tiers in a separate
+	 * {@link TierTask}.
+	 *
+	 * @param buffer
+	 *            The {@link ByteBuffer} containing the file.
+	 * @param tierOffsets
+	 *            The indices of the starts of the lines starting each tier.
+	 * @return A new {@link TextGridFile} representing the file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If there is a parsing error.
+	 */
+	private TextGridFile<D> readTiers(final ByteBuffer buffer,
+			final List<Integer> tierOffsets) throws IOException,
+			ParseException {
+		final int tierCount = tierOffsets.size();
+		final List<TierTask<D>> tasks = new ArrayList<TierTask<D>>(tierCount);
+		for (int i = 0; i < tierCount; ++i) {
+			final int end = i + 1 < tierCount ? tierOffsets.get(i + 1)
+					: buffer.limit();
+			final int start = tierOffsets.get(i);
+			tasks.add(new TierTask<D>(parser, slice(buffer, start, end),
+					start));
+		}
+		final ForkJoinTask<?> tierTasks = pool.submit(new TierTaskList(tasks));
+
+		// Scan the header while the tiers are being scanned
+		final TextGridFileListenerFactory<D> factory = new TextGridFileListenerFactory<D>();
+		new MappedTextGridFileReader<D>(new TextGridFileScanner<D>(parser,
+				factory)).read(slice(buffer, 0, tierOffsets.get(0)));
+		final TextGridFile<D> result = factory.create();
+		if (result == null) {
+			throw new ParseException("Missing tier count before the first tier.");
+		}
+
+		tierTasks.join();
+		final ChildList<TextGridFile<D>, NamedTier<D>> tiers = result
+				.getChildren();
+		for (final TierTask<D> task : tasks) {
+			if (task.parseException != null) {
+				throw new ParseException(String.format(
+						"Tier starting at byte %d: %s", task.offset,
+						task.parseException.getMessage()),
+						task.parseException);
+			}
+			final List<NamedTier<D>> taskTiers = task.result.getChildren();
+			final int index = taskTiers.size() - 1;
+			final NamedTier<D> tier = taskTiers.get(index);
+			if (tier != null) {
+				tiers.ensureIndex(index);
+				tiers.add(index, tier);
+			}
+		}
+		return result;
+	}
+
+}
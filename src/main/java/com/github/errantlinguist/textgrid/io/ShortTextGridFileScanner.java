@@ -0,0 +1,356 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.nio.charset.Charset;
+
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A reader for <a href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid
+ * files saved in the "short text file" format, in which each value is on a
+ * line of its own without any key or indentation.
+ * <p>
+ * Since the values are identified only by their position in the file, the
+ * tier and entry indices are counted by the reader itself; The
+ * {@link TextGridListener} is notified of exactly the same values in exactly
+ * the same order as by a {@link TextGridFileScanner} reading the same file
+ * saved in the long format.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class ShortTextGridFileScanner<D> extends
+		AbstractTextGridFileScanner<D> {
+
+	/**
+	 * An enumeration of the values of a short TextGrid file in the order they
+	 * occur in, used for determining what the next value line denotes.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 */
+	private static enum State {
+		END, FILE_END_TIME, FILE_SIZE, FILE_START_TIME, INTERVAL_DATA,
+		INTERVAL_END_TIME, INTERVAL_START_TIME, POINT_DATA, POINT_TIME,
+		TIER_CLASS, TIER_END_TIME, TIER_NAME, TIER_SIZE, TIER_START_TIME,
+		TIERS_EXIST;
+	}
+
+	/**
+	 * The number of lines of each interval, i.e.&nbsp;its start time, end time
+	 * and text.
+	 */
+	private static final int INTERVAL_LINE_COUNT = 3;
+
+	/**
+	 * The number of lines of each point, i.e.&nbsp;its time and mark.
+	 */
+	private static final int POINT_LINE_COUNT = 2;
+
+	/**
+	 * The value denoting that a file has no tiers.
+	 */
+	private static final String TIERS_ABSENT_VALUE = "<absent>";
+
+	/**
+	 * The value denoting that a file has tiers.
+	 */
+	private static final String TIERS_EXIST_VALUE = "<exists>";
+
+	/**
+	 * The number of entries in the tier currently being scanned.
+	 */
+	private int entryCount = 0;
+
+	/**
+	 * The 1-based index of the entry currently being scanned.
+	 */
+	private int entryIndex = 0;
+
+	/**
+	 * The next value expected in the file.
+	 */
+	private State state = State.FILE_START_TIME;
+
+	/**
+	 * The {@link TierClass} of the tier currently being scanned.
+	 */
+	private TierClass tierClass = null;
+
+	/**
+	 * The number of tiers in the file.
+	 */
+	private int tierCount = 0;
+
+	/**
+	 * The 1-based index of the tier currently being scanned.
+	 */
+	private int tierIndex = 0;
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	public ShortTextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		super(parser, listener);
+	}
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 * @param defaultCharset
+	 *            The encoding used for input for which none could be
+	 *            detected.
+	 */
+	public ShortTextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener, final Charset defaultCharset) {
+		super(parser, listener, defaultCharset);
+	}
+
+	/**
+	 * Checks that all values declared by the file have been read.
+	 *
+	 * @throws ParseException
+	 *             If the file ended before all its tiers and entries were
+	 *             read.
+	 */
+	@Override
+	public void finish() throws ParseException {
+		super.finish();
+		if (state != State.END) {
+			throw createParseException("Premature end of file; Expected "
+					+ state + " value.");
+		}
+	}
+
+	/**
+	 * Resets the scanner state so that it can be used for scanning a new file.
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		entryCount = 0;
+		entryIndex = 0;
+		state = State.FILE_START_TIME;
+		tierClass = null;
+		tierCount = 0;
+		tierIndex = 0;
+	}
+
+	/**
+	 * Skips the remaining entries of the tier currently being scanned,
+	 * expecting the next tier to follow them.
+	 */
+	@Override
+	public boolean skipTier() {
+		final boolean result = super.skipTier();
+		if (result) {
+			startNextTier();
+		}
+		return result;
+	}
+
+	/**
+	 * Scans a single non-blank line, interpreting it as the value expected
+	 * next.
+	 */
+	@Override
+	protected void scanToken(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		final TextGridListener<D> listener = getListener();
+		switch (state) {
+		case FILE_START_TIME:
+			switch (line.charAt(start)) {
+			case 'F':
+			case 'O':
+				scanHeader(line, start, end);
+				break;
+			case '"':
+				// Older versions of Praat write the object class without a key
+				checkObjectClass(parseQuoted(line, start, end));
+				break;
+			default:
+				listener.notifyFileStartTime(parseDouble(line, start, end));
+				state = State.FILE_END_TIME;
+				break;
+			}
+			break;
+		case FILE_END_TIME:
+			listener.notifyFileEndTime(parseDouble(line, start, end));
+			state = State.TIERS_EXIST;
+			break;
+		case TIERS_EXIST:
+			if (matchesKeyword(line, start, end, TIERS_EXIST_VALUE)) {
+				state = State.FILE_SIZE;
+			} else if (matchesKeyword(line, start, end, TIERS_ABSENT_VALUE)) {
+				state = State.END;
+			} else {
+				// Some writers omit the flag and write the tier count directly
+				scanFileSize(line, start, end);
+			}
+			break;
+		case FILE_SIZE:
+			scanFileSize(line, start, end);
+			break;
+		case TIER_CLASS: {
+			final String value = parseQuoted(line, start, end);
+			tierClass = TierClass.getInstance(value);
+			if (tierClass == null) {
+				throw createParseException("Unknown tier class \"" + value
+						+ "\"");
+			}
+			notifyTierIndex(tierIndex);
+			notifyTierClass(tierClass);
+			state = State.TIER_NAME;
+			break;
+		}
+		case TIER_NAME:
+			notifyTierName(parseQuoted(line, start, end));
+			state = State.TIER_START_TIME;
+			break;
+		case TIER_START_TIME:
+			notifyTierStartTime(parseDouble(line, start, end));
+			state = State.TIER_END_TIME;
+			break;
+		case TIER_END_TIME:
+			notifyTierEndTime(parseDouble(line, start, end));
+			state = State.TIER_SIZE;
+			break;
+		case TIER_SIZE: {
+			entryCount = parseInt(line, start, end);
+			entryIndex = 0;
+			final boolean isTierAccepted;
+			switch (tierClass) {
+			case INTERVAL:
+				isTierAccepted = notifyTierIntervalCount(entryCount,
+						INTERVAL_LINE_COUNT);
+				break;
+			case TEXT:
+				isTierAccepted = notifyTierPointCount(entryCount,
+						POINT_LINE_COUNT);
+				break;
+			default:
+				throw new AssertionError("No logic for handling tier class: "
+						+ tierClass);
+			}
+			if (isTierAccepted) {
+				startNextEntry();
+			} else {
+				// The lines of the entries are skipped by the superclass
+				startNextTier();
+			}
+			break;
+		}
+		case INTERVAL_START_TIME:
+			listener.notifyIntervalIndex(entryIndex);
+			listener.notifyIntervalStartTime(parseDouble(line, start, end));
+			state = State.INTERVAL_END_TIME;
+			break;
+		case INTERVAL_END_TIME:
+			listener.notifyIntervalEndTime(parseDouble(line, start, end));
+			state = State.INTERVAL_DATA;
+			break;
+		case INTERVAL_DATA:
+			listener.notifyIntervalData(parseData(line, start, end));
+			startNextEntry();
+			break;
+		case POINT_TIME:
+			listener.notifyPointIndex(entryIndex);
+			listener.notifyPointTime(parseDouble(line, start, end));
+			state = State.POINT_DATA;
+			break;
+		case POINT_DATA:
+			listener.notifyPointData(parseData(line, start, end));
+			startNextEntry();
+			break;
+		case END:
+			throw createParseException("Unexpected value after the last tier: "
+					+ line.subSequence(start, end));
+		default:
+			throw new AssertionError("No logic for handling state: " + state);
+		}
+	}
+
+	/**
+	 * Scans the number of tiers in the file.
+	 *
+	 * @param line
+	 *            The line containing the number.
+	 * @param start
+	 *            The index of the first digit.
+	 * @param end
+	 *            The index after the last digit.
+	 * @throws ParseException
+	 *             If the number is not a valid non-negative integer.
+	 */
+	private void scanFileSize(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		tierCount = parseInt(line, start, end);
+		getListener().notifyFileSize(tierCount);
+		tierIndex = 0;
+		startNextTier();
+	}
+
+	/**
+	 * Advances to the next entry of the current tier or, if all entries have
+	 * been read, to the next tier.
+	 */
+	private void startNextEntry() {
+		entryIndex++;
+		if (entryIndex > entryCount) {
+			startNextTier();
+		} else if (tierClass == TierClass.INTERVAL) {
+			state = State.INTERVAL_START_TIME;
+		} else {
+			state = State.POINT_TIME;
+		}
+	}
+
+	/**
+	 * Advances to the next tier or, if all tiers have been read, to the end of
+	 * the file.
+	 */
+	private void startNextTier() {
+		tierIndex++;
+		state = tierIndex > tierCount ? State.END : State.TIER_CLASS;
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.errantlinguist.io.TextOutputBuffer;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A {@link AbstractTextGridStreamWriter stream writer} which writes TextGrid
+ * events in the "short text file" <a
+ * href="http://www.fon.hum.uva.nl/praat/">Praat</a> format, in which each
+ * value is on a line of its own without any key or indentation, which can be
+ * read by a {@link ShortTextGridFileScanner}.
+ * <p>
+ * Tier and entry indices are implied by the position of their values and so
+ * are not written. The file is encoded in UTF-8 through a
+ * {@link TextOutputBuffer}; Quotation marks in strings are doubled as Praat
+ * does.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class ShortTextGridStreamWriter<D> extends
+		AbstractTextGridStreamWriter<D> {
+
+	/**
+	 * The value denoting that a file has tiers.
+	 */
+	private static final String TIERS_EXIST_VALUE = "<exists>";
+
+	/**
+	 * The {@link TextOutputBuffer} the file is written to.
+	 */
+	private final TextOutputBuffer buffer;
+
+	/**
+	 * Creates a writer which writes the {@link Object#toString() string
+	 * representation} of each entry annotation datum.
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 */
+	public ShortTextGridStreamWriter(final OutputStream output) {
+		this(output, Functions.toStringFunction());
+	}
+
+	/**
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public ShortTextGridStreamWriter(final OutputStream output,
+			final Function<? super D, String> dataFormatter) {
+		this(new TextOutputBuffer(output), dataFormatter);
+	}
+
+	/**
+	 *
+	 * @param buffer
+	 *            The {@link TextOutputBuffer} to write to.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public ShortTextGridStreamWriter(final TextOutputBuffer buffer,
+			final Function<? super D, String> dataFormatter) {
+		super(dataFormatter);
+		this.buffer = buffer;
+	}
+
+	@Override
+	protected void closeOutput() throws IOException {
+		buffer.close();
+	}
+
+	@Override
+	protected void flushOutput() throws IOException {
+		buffer.flush();
+	}
+
+	@Override
+	protected void writeFileEndTime(final double time) throws IOException {
+		writeDouble(time);
+	}
+
+	@Override
+	protected void writeFileSize(final int size) throws IOException {
+		buffer.append(TIERS_EXIST_VALUE).append('\n');
+		writeInt(size);
+	}
+
+	@Override
+	protected void writeFileStartTime(final double time) throws IOException {
+		appendHeader(buffer);
+		writeDouble(time);
+	}
+
+	@Override
+	protected void writeIntervalData(final String text) throws IOException {
+		writeQuoted(text);
+	}
+
+	@Override
+	protected void writeIntervalEndTime(final double time) throws IOException {
+		writeDouble(time);
+	}
+
+	@Override
+	protected void writeIntervalIndex(final int index) {
+		// Implied by the position of the interval
+	}
+
+	@Override
+	protected void writeIntervalStartTime(final double time)
+			throws IOException {
+		writeDouble(time);
+	}
+
+	@Override
+	protected void writePointData(final String text) throws IOException {
+		writeQuoted(text);
+	}
+
+	@Override
+	protected void writePointIndex(final int index) {
+		// Implied by the position of the point
+	}
+
+	@Override
+	protected void writePointTime(final double time) throws IOException {
+		writeDouble(time);
+	}
+
+	@Override
+	protected void writeTierClass(final TierClass tierClass)
+			throws IOException {
+		writeQuoted(tierClass.getValue());
+	}
+
+	@Override
+	protected void writeTierEndTime(final double time) throws IOException {
+		writeDouble(time);
+	}
+
+	@Override
+	protected void writeTierIndex(final int index) {
+		// Implied by the position of the tier
+	}
+
+	@Override
+	protected void writeTierIntervalCount(final int count) throws IOException {
+		writeInt(count);
+	}
+
+	@Override
+	protected void writeTierName(final String name) throws IOException {
+		writeQuoted(name);
+	}
+
+	@Override
+	protected void writeTierPointCount(final int count) throws IOException {
+		writeInt(count);
+	}
+
+	@Override
+	protected void writeTierStartTime(final double time) throws IOException {
+		writeDouble(time);
+	}
+
+	/**
+	 * Writes a line consisting of a <code>double</code> value.
+	 *
+	 * @param value
+	 *            The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeDouble(final double value) throws IOException {
+		buffer.appendDouble(value).append(' ').append('\n');
+	}
+
+	/**
+	 * Writes a line consisting of an <code>int</code> value.
+	 *
+	 * @param value
+	 *            The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeInt(final int value) throws IOException {
+		buffer.appendInt(value).append(' ').append('\n');
+	}
+
+	/**
+	 * Writes a line consisting of a quoted string value.
+	 *
+	 * @param value
+	 *            The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeQuoted(final String value) throws IOException {
+		appendQuoted(buffer, value);
+		buffer.append('\n');
+	}
+
+}
@@ -0,0 +1,432 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.github.errantlinguist.io.FileFingerprint;
+import com.github.errantlinguist.io.InputStreamReader;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.github.errantlinguist.time.TickScale;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A reader for jtextgrid snapshot files as written by a
+ * {@link SnapshotTextGridFileWriter}, notifying a {@link TextGridListener} of
+ * the same values in the same order as e.g.&nbsp;a
+ * {@link TextGridFileScanner} does for the text formats.
+ * <p>
+ * Snapshot files are mapped into memory and decoded directly from the mapped
+ * buffer. Each distinct label is decoded and parsed only once per file, so
+ * all entries with the same label share the same annotation data object. The
+ * bodies of tiers rejected by the set {@link TierFilter} are skipped in a
+ * single step. Since the headers of all tiers precede their bodies, the
+ * filter is applied to all of them before any tier is read, so that, unlike
+ * the readers of the other formats, the listener is notified of the number of
+ * accepted tiers rather than of all tiers in the file.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class SnapshotTextGridFileReader<D> implements
+		InputStreamReader<Boolean, ParseException> {
+
+	/**
+	 * Maps a file into memory.
+	 *
+	 * @param infile
+	 *            The file to map.
+	 * @return A read-only {@link ByteBuffer} of the entire file.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private static ByteBuffer map(final File infile) throws IOException {
+		final FileInputStream input = new FileInputStream(infile);
+		try {
+			final FileChannel channel = input.getChannel();
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads only the {@link FileFingerprint} of the file a snapshot was
+	 * created from.
+	 *
+	 * @param infile
+	 *            The snapshot file to read.
+	 * @return The <code>FileFingerprint</code> of the source file or
+	 *         <code>null</code> if the snapshot has none.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the file is not a valid snapshot.
+	 */
+	public static FileFingerprint readSourceFingerprint(final File infile)
+			throws IOException, ParseException {
+		final ByteBuffer input = map(infile);
+		try {
+			// The payload is verified only when the snapshot itself is read
+			SnapshotTextGridFormat.readHeader(input, false);
+			return SnapshotTextGridFormat.readFingerprint(input);
+		} catch (final BufferUnderflowException e) {
+			throw new ParseException("Premature end of snapshot file.", e);
+		}
+	}
+
+	/**
+	 * The {@link TextGridListener} instance registered to respond to callback
+	 * notifications from this reader.
+	 */
+	private final TextGridListener<D> listener;
+
+	/**
+	 * The {@link Parser} object using for parsing entry annotation data.
+	 */
+	private final Parser<? super String, ? extends D> parser;
+
+	/**
+	 * The {@link TierFilter} deciding which tiers are read.
+	 */
+	private TierFilter tierFilter = TierFilters.all();
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	public SnapshotTextGridFileReader(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		this.parser = parser;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return The {@link TierFilter} deciding which tiers are read.
+	 */
+	public TierFilter getTierFilter() {
+		return tierFilter;
+	}
+
+	/**
+	 * Reads a snapshot from a {@link ByteBuffer}, from its current position.
+	 *
+	 * @param input
+	 *            The <code>ByteBuffer</code> to read.
+	 * @return <code>true</code> iff the entire snapshot was successfully
+	 *         read.
+	 * @throws ParseException
+	 *             If the input is not a valid snapshot or if the annotation
+	 *             data of an entry could not be parsed.
+	 */
+	public Boolean read(final ByteBuffer input) throws ParseException {
+		try {
+			readSnapshot(input.slice());
+		} catch (final BufferUnderflowException e) {
+			throw new ParseException("Premature end of snapshot file.", e);
+		} catch (final IllegalArgumentException e) {
+			// Thrown for invalid offsets and tick rates
+			throw new ParseException("Invalid snapshot file.", e);
+		}
+		return Boolean.TRUE;
+	}
+
+	/**
+	 * Maps and reads a given snapshot file.
+	 *
+	 * @param infile
+	 *            The file to read.
+	 * @return <code>true</code> iff the entire snapshot was successfully
+	 *         read.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the file is not a valid snapshot or if the annotation data
+	 *             of an entry could not be parsed.
+	 */
+	public Boolean read(final File infile) throws IOException, ParseException {
+		return read(map(infile));
+	}
+
+	/**
+	 * Reads a snapshot from an {@link InputStream}, mapping it if it is a
+	 * {@link FileInputStream}.
+	 *
+	 * @param input
+	 *            The <code>InputStream</code> to read.
+	 * @return <code>true</code> iff the entire snapshot was successfully
+	 *         read.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If the input is not a valid snapshot or if the annotation
+	 *             data of an entry could not be parsed.
+	 */
+	@Override
+	public Boolean read(final InputStream input) throws IOException,
+			ParseException {
+		final ByteBuffer buffer;
+		if (input instanceof FileInputStream) {
+			final FileChannel channel = ((FileInputStream) input)
+					.getChannel();
+			final long position = channel.position();
+			buffer = channel.map(MapMode.READ_ONLY, position, channel.size()
+					- position);
+		} else {
+			buffer = ByteBuffer.wrap(ByteStreams.toByteArray(input));
+		}
+		return read(buffer);
+	}
+
+	/**
+	 * Sets the {@link TierFilter} deciding which tiers are read, which by
+	 * default accepts every tier; The bodies of rejected tiers are skipped
+	 * without being decoded.
+	 *
+	 * @param tierFilter
+	 *            The new <code>TierFilter</code>.
+	 */
+	public void setTierFilter(final TierFilter tierFilter) {
+		this.tierFilter = tierFilter;
+	}
+
+	/**
+	 * Gets the parsed annotation data of a label, decoding and parsing it if
+	 * this has not yet been done.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} containing the snapshot.
+	 * @param labelOffsets
+	 *            The offset of each label in the buffer.
+	 * @param labelData
+	 *            The parsed annotation data of each label, which is
+	 *            <code>null</code> for labels not yet parsed.
+	 * @param parsedLabels
+	 *            Whether each label has already been parsed.
+	 * @param labelIndex
+	 *            The index of the label to get.
+	 * @return The annotation data denoted by the label.
+	 * @throws ParseException
+	 *             If the label index is invalid or if the label could not be
+	 *             parsed.
+	 */
+	private D getLabelData(final ByteBuffer input, final int[] labelOffsets,
+			final Object[] labelData, final boolean[] parsedLabels,
+			final int labelIndex) throws ParseException {
+		if (labelIndex >= labelOffsets.length) {
+			throw new ParseException("Invalid label index: " + labelIndex);
+		}
+		if (!parsedLabels[labelIndex]) {
+			final ByteBuffer label = input.duplicate();
+			label.position(labelOffsets[labelIndex]);
+			labelData[labelIndex] = parser.parse(SnapshotTextGridFormat
+					.readString(label));
+			parsedLabels[labelIndex] = true;
+		}
+		@SuppressWarnings("unchecked")
+		final D result = (D) labelData[labelIndex];
+		return result;
+	}
+
+	/**
+	 * Reads the entries of a single tier.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} containing the snapshot, positioned at
+	 *            the tier body.
+	 * @param tierClass
+	 *            The {@link TierClass} of the tier.
+	 * @param entryCount
+	 *            The number of entries in the tier.
+	 * @param timeEncoding
+	 *            The encoding of the entry times.
+	 * @param scale
+	 *            The {@link TickScale} of tick-encoded times.
+	 * @param labelOffsets
+	 *            The offset of each label in the buffer.
+	 * @param labelData
+	 *            The parsed annotation data of each label.
+	 * @param parsedLabels
+	 *            Whether each label has already been parsed.
+	 * @throws ParseException
+	 *             If the tier body is invalid or if the annotation data of an
+	 *             entry could not be parsed.
+	 */
+	private void readEntries(final ByteBuffer input, final TierClass tierClass,
+			final int entryCount, final int timeEncoding,
+			final TickScale scale, final int[] labelOffsets,
+			final Object[] labelData, final boolean[] parsedLabels)
+			throws ParseException {
+		final boolean hasEndTimes = tierClass == TierClass.INTERVAL;
+		final double[] startTimes = new double[entryCount];
+		final double[] endTimes = hasEndTimes ? new double[entryCount]
+				: startTimes;
+		switch (timeEncoding) {
+		case SnapshotTextGridFormat.DOUBLE_TIME_ENCODING:
+			for (int i = 0; i < entryCount; ++i) {
+				startTimes[i] = input.getDouble();
+				if (hasEndTimes) {
+					endTimes[i] = input.getDouble();
+				}
+			}
+			break;
+		case SnapshotTextGridFormat.TICK_DELTA_TIME_ENCODING: {
+			long ticks = 0;
+			for (int i = 0; i < entryCount; ++i) {
+				ticks += SnapshotTextGridFormat.readZigZagLong(input);
+				startTimes[i] = scale.toSeconds(ticks);
+				if (hasEndTimes) {
+					ticks += SnapshotTextGridFormat.readZigZagLong(input);
+					endTimes[i] = scale.toSeconds(ticks);
+				}
+			}
+			break;
+		}
+		default:
+			throw new ParseException("Unknown time encoding: " + timeEncoding);
+		}
+
+		switch (tierClass) {
+		case INTERVAL:
+			listener.notifyTierIntervalCount(entryCount);
+			for (int i = 0; i < entryCount; ++i) {
+				listener.notifyIntervalIndex(i + 1);
+				listener.notifyIntervalStartTime(startTimes[i]);
+				listener.notifyIntervalEndTime(endTimes[i]);
+				listener.notifyIntervalData(getLabelData(input, labelOffsets,
+						labelData, parsedLabels,
+						SnapshotTextGridFormat.readCount(input)));
+			}
+			break;
+		case TEXT:
+			listener.notifyTierPointCount(entryCount);
+			for (int i = 0; i < entryCount; ++i) {
+				listener.notifyPointIndex(i + 1);
+				listener.notifyPointTime(startTimes[i]);
+				listener.notifyPointData(getLabelData(input, labelOffsets,
+						labelData, parsedLabels,
+						SnapshotTextGridFormat.readCount(input)));
+			}
+			break;
+		default:
+			throw new AssertionError("No logic for handling tier class: "
+					+ tierClass);
+		}
+	}
+
+	/**
+	 * Reads an entire snapshot.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} containing the snapshot, positioned at
+	 *            its start.
+	 * @throws ParseException
+	 *             If the input is not a valid snapshot or if the annotation
+	 *             data of an entry could not be parsed.
+	 */
+	private void readSnapshot(final ByteBuffer input) throws ParseException {
+		SnapshotTextGridFormat.readHeader(input, true);
+		SnapshotTextGridFormat.readFingerprint(input);
+		final TickScale scale = new TickScale(input.getLong());
+		listener.notifyFileStartTime(input.getDouble());
+		listener.notifyFileEndTime(input.getDouble());
+
+		// Only the offsets of the labels are read here; Each label is decoded
+		// when it is first used
+		final int labelCount = SnapshotTextGridFormat.readCount(input);
+		final int[] labelOffsets = new int[labelCount];
+		for (int i = 0; i < labelCount; ++i) {
+			labelOffsets[i] = input.position();
+			final int length = SnapshotTextGridFormat.readCount(input);
+			input.position(input.position() + length);
+		}
+		final Object[] labelData = new Object[labelCount];
+		final boolean[] parsedLabels = new boolean[labelCount];
+
+		final int tierCount = SnapshotTextGridFormat.readCount(input);
+		final TierClass[] tierClasses = new TierClass[tierCount];
+		final String[] names = new String[tierCount];
+		final double[] startTimes = new double[tierCount];
+		final double[] endTimes = new double[tierCount];
+		final int[] entryCounts = new int[tierCount];
+		final int[] timeEncodings = new int[tierCount];
+		final int[] bodyLengths = new int[tierCount];
+		for (int i = 0; i < tierCount; ++i) {
+			tierClasses[i] = SnapshotTextGridFormat.readTierClass(input);
+			names[i] = SnapshotTextGridFormat.readString(input);
+			startTimes[i] = input.getDouble();
+			endTimes[i] = input.getDouble();
+			entryCounts[i] = SnapshotTextGridFormat.readCount(input);
+			timeEncodings[i] = input.get() & 0xFF;
+			bodyLengths[i] = SnapshotTextGridFormat.readCount(input);
+		}
+
+		final boolean[] acceptedTiers = new boolean[tierCount];
+		int acceptedTierCount = 0;
+		for (int i = 0; i < tierCount; ++i) {
+			acceptedTiers[i] = tierFilter.accept(i + 1, tierClasses[i],
+					names[i]);
+			if (acceptedTiers[i]) {
+				acceptedTierCount++;
+			}
+		}
+
+		listener.notifyFileSize(acceptedTierCount);
+		for (int i = 0; i < tierCount; ++i) {
+			final int tierIndex = i + 1;
+			final int bodyEnd = input.position() + bodyLengths[i];
+			if (acceptedTiers[i]) {
+				listener.notifyTierIndex(tierIndex);
+				listener.notifyTierClass(tierClasses[i]);
+				listener.notifyTierName(names[i]);
+				listener.notifyTierStartTime(startTimes[i]);
+				listener.notifyTierEndTime(endTimes[i]);
+				readEntries(input, tierClasses[i], entryCounts[i],
+						timeEncodings[i], scale, labelOffsets, labelData,
+						parsedLabels);
+				if (input.position() != bodyEnd) {
+					throw new ParseException("Body of tier " + tierIndex
+							+ " has an invalid length.");
+				}
+			} else {
+				input.position(bodyEnd);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.errantlinguist.io.FileFingerprint;
+import com.github.errantlinguist.textgrid.EntryCursor;
+import com.github.errantlinguist.textgrid.NamedTier;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.github.errantlinguist.time.DoubleDuration;
+import com.github.errantlinguist.time.TickScale;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A writer for saving {@link TextGridFile} objects as jtextgrid snapshot
+ * files, which can be read by a {@link SnapshotTextGridFileReader}. See
+ * {@link SnapshotTextGridFormat} for details of the format.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class SnapshotTextGridFileWriter<D> {
+
+	/**
+	 * The {@link Function} used for converting entry annotation data to the
+	 * strings written to the file.
+	 */
+	private final Function<? super D, String> dataFormatter;
+
+	/**
+	 * The {@link TickScale} used for encoding entry times which lie on its
+	 * tick grid.
+	 */
+	private final TickScale scale;
+
+	/**
+	 * Creates a writer which writes the {@link Object#toString() string
+	 * representation} of each entry annotation datum and encodes times in
+	 * {@link TickScale#MICROSECONDS microseconds} where possible.
+	 */
+	public SnapshotTextGridFileWriter() {
+		this(Functions.toStringFunction(), TickScale.MICROSECONDS);
+	}
+
+	/**
+	 *
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 * @param scale
+	 *            The {@link TickScale} used for encoding entry times which lie
+	 *            on its tick grid, e.g.&nbsp;the sample rate of the annotated
+	 *            audio; Any other times are written as they are.
+	 */
+	public SnapshotTextGridFileWriter(
+			final Function<? super D, String> dataFormatter,
+			final TickScale scale) {
+		this.dataFormatter = dataFormatter;
+		this.scale = scale;
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} as a snapshot.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param source
+	 *            The {@link FileFingerprint} of the file the
+	 *            <code>TextGridFile</code> was read from or <code>null</code>
+	 *            if there is none.
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final FileFingerprint source, final DataOutput output)
+			throws IOException {
+		final Map<String, Integer> labelIndices = new HashMap<String, Integer>();
+		final List<String> labels = new ArrayList<String>();
+		final List<NamedTier<? extends D>> tiers = new ArrayList<NamedTier<? extends D>>();
+		final List<byte[]> tierBodies = new ArrayList<byte[]>();
+		final List<Boolean> tierTickFlags = new ArrayList<Boolean>();
+		for (final NamedTier<? extends D> tier : textGridFile.getChildren()) {
+			// The list of tiers is indexed from 1 like in the file itself
+			if (tier != null) {
+				final boolean isOnTickGrid = isOnTickGrid(tier);
+				tiers.add(tier);
+				tierTickFlags.add(isOnTickGrid);
+				tierBodies.add(createTierBody(tier, isOnTickGrid,
+						labelIndices, labels));
+			}
+		}
+
+		// The payload is checksummed as a whole, so it is built in memory
+		// before the header
+		final ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream();
+		final DataOutputStream payload = new DataOutputStream(payloadBuffer);
+		SnapshotTextGridFormat.writeFingerprint(payload, source);
+		payload.writeLong(scale.getTicksPerSecond());
+		writeDuration(textGridFile.getDuration(), payload);
+		SnapshotTextGridFormat.writeVarLong(payload, labels.size());
+		for (final String label : labels) {
+			SnapshotTextGridFormat.writeString(payload, label);
+		}
+		SnapshotTextGridFormat.writeVarLong(payload, tiers.size());
+		for (int i = 0; i < tiers.size(); ++i) {
+			final NamedTier<? extends D> tier = tiers.get(i);
+			SnapshotTextGridFormat.writeTierClass(payload, tier.getTierClass());
+			SnapshotTextGridFormat.writeString(payload, tier.getName());
+			writeDuration(tier.getDuration(), payload);
+			SnapshotTextGridFormat.writeVarLong(payload, countEntries(tier));
+			payload.writeByte(tierTickFlags.get(i) ? SnapshotTextGridFormat.TICK_DELTA_TIME_ENCODING
+					: SnapshotTextGridFormat.DOUBLE_TIME_ENCODING);
+			SnapshotTextGridFormat.writeVarLong(payload,
+					tierBodies.get(i).length);
+		}
+		for (final byte[] tierBody : tierBodies) {
+			payload.write(tierBody);
+		}
+		payload.flush();
+
+		final byte[] payloadBytes = payloadBuffer.toByteArray();
+		SnapshotTextGridFormat.writeHeader(output, payloadBytes);
+		output.write(payloadBytes);
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} as a snapshot to a file.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param source
+	 *            The {@link FileFingerprint} of the file the
+	 *            <code>TextGridFile</code> was read from or <code>null</code>
+	 *            if there is none.
+	 * @param outfile
+	 *            The file to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final FileFingerprint source, final File outfile)
+			throws IOException {
+		final OutputStream output = new FileOutputStream(outfile);
+		try {
+			write(textGridFile, source, output);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} as a snapshot to an {@link OutputStream},
+	 * which is flushed but not closed.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param source
+	 *            The {@link FileFingerprint} of the file the
+	 *            <code>TextGridFile</code> was read from or <code>null</code>
+	 *            if there is none.
+	 * @param output
+	 *            The <code>OutputStream</code> to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final FileFingerprint source, final OutputStream output)
+			throws IOException {
+		// The payload is built in memory anyway, so only the header needs
+		// buffering
+		final DataOutputStream dataOutput = new DataOutputStream(
+				new BufferedOutputStream(output));
+		write(textGridFile, source, (DataOutput) dataOutput);
+		dataOutput.flush();
+	}
+
+	/**
+	 * Counts the entries of a tier.
+	 *
+	 * @param tier
+	 *            The {@link NamedTier} to count the entries of.
+	 * @return The number of entries.
+	 */
+	private int countEntries(final NamedTier<?> tier) {
+		int result = 0;
+		final EntryCursor<?> cursor = tier.createCursor();
+		while (cursor.next()) {
+			result++;
+		}
+		return result;
+	}
+
+	/**
+	 * Encodes the entries of a tier, adding their labels to the label table.
+	 *
+	 * @param tier
+	 *            The {@link NamedTier} to encode.
+	 * @param isOnTickGrid
+	 *            If <code>true</code>, times are encoded as tick count
+	 *            differences; Otherwise, they are encoded as raw doubles.
+	 * @param labelIndices
+	 *            The index of each label already in the label table.
+	 * @param labels
+	 *            The label table.
+	 * @return The encoded tier body.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private byte[] createTierBody(final NamedTier<? extends D> tier,
+			final boolean isOnTickGrid,
+			final Map<String, Integer> labelIndices, final List<String> labels)
+			throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(result);
+		final boolean hasEndTimes = tier.getTierClass() == TierClass.INTERVAL;
+
+		long previousTicks = 0;
+		EntryCursor<? extends D> cursor = tier.createCursor();
+		while (cursor.next()) {
+			if (isOnTickGrid) {
+				final long startTicks = scale.toTicks(cursor
+						.getStartTimeValue());
+				SnapshotTextGridFormat.writeZigZagLong(output, startTicks
+						- previousTicks);
+				previousTicks = startTicks;
+				if (hasEndTimes) {
+					final long endTicks = scale.toTicks(cursor
+							.getEndTimeValue());
+					SnapshotTextGridFormat.writeZigZagLong(output, endTicks
+							- previousTicks);
+					previousTicks = endTicks;
+				}
+			} else {
+				output.writeDouble(cursor.getStartTimeValue());
+				if (hasEndTimes) {
+					output.writeDouble(cursor.getEndTimeValue());
+				}
+			}
+		}
+
+		cursor = tier.createCursor();
+		while (cursor.next()) {
+			final String label = dataFormatter.apply(cursor.getData());
+			Integer labelIndex = labelIndices.get(label);
+			if (labelIndex == null) {
+				labelIndex = labels.size();
+				labels.add(label);
+				labelIndices.put(label, labelIndex);
+			}
+			SnapshotTextGridFormat.writeVarLong(output, labelIndex);
+		}
+
+		output.flush();
+		return result.toByteArray();
+	}
+
+	/**
+	 * Checks if all entry times of a tier can be encoded exactly as tick
+	 * counts.
+	 *
+	 * @param tier
+	 *            The {@link NamedTier} to check.
+	 * @return <code>true</code> iff converting each time to ticks and back
+	 *         results in the same time.
+	 */
+	private boolean isOnTickGrid(final NamedTier<?> tier) {
+		boolean result = true;
+		final EntryCursor<?> cursor = tier.createCursor();
+		while (result && cursor.next()) {
+			result = isOnTickGrid(cursor.getStartTimeValue())
+					&& isOnTickGrid(cursor.getEndTimeValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if a time can be encoded exactly as a tick count.
+	 *
+	 * @param time
+	 *            The time to check.
+	 * @return <code>true</code> iff converting the time to ticks and back
+	 *         results in the same time.
+	 */
+	private boolean isOnTickGrid(final double time) {
+		return Double.doubleToLongBits(scale.toSeconds(scale.toTicks(time))) == Double
+				.doubleToLongBits(time);
+	}
+
+	/**
+	 * Writes the start and end time of a {@link DoubleDuration}.
+	 *
+	 * @param duration
+	 *            The <code>DoubleDuration</code> to write.
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeDuration(final DoubleDuration duration,
+			final DataOutput output) throws IOException {
+		output.writeDouble(duration.getStartTimeValue());
+		output.writeDouble(duration.getEndTimeValue());
+	}
+
+}
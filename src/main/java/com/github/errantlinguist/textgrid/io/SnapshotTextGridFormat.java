@@ -0,0 +1,409 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import com.github.errantlinguist.io.FileFingerprint;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A utility class for reading and writing the values of jtextgrid snapshot
+ * files, which store an entire TextGrid file in a compact binary form that
+ * can be loaded much faster than any Praat format.
+ * <p>
+ * A snapshot consists of:
+ * </p>
+ * <ol>
+ * <li>The bytes <code>JTGS</code> and a format version byte.</li>
+ * <li>The length and CRC-32 checksum of the rest of the snapshot, i.e.&nbsp;of
+ * its payload, each as a 32-bit integer.</li>
+ * <li>A flag byte followed, if it is not <code>0</code>, by the
+ * {@link FileFingerprint} of the file the snapshot was created from.</li>
+ * <li>The number of ticks per second used for encoding times.</li>
+ * <li>The file start and end times.</li>
+ * <li>The label table, i.e.&nbsp;every distinct annotation string in the
+ * file, stored only once.</li>
+ * <li>The tier table, containing the class, name, start and end times, entry
+ * count, time encoding and body length of each tier.</li>
+ * <li>The body of each tier, i.e.&nbsp;the times of all its entries followed
+ * by the label table index of each entry.</li>
+ * </ol>
+ * <p>
+ * Counts, lengths and label indices are written as unsigned variable-length
+ * integers of seven bits per byte. Entry times are written either as raw
+ * doubles or, if every time of a tier lies exactly on the tick grid, as
+ * zig-zag-encoded variable-length differences between consecutive tick
+ * counts, which usually take one to three bytes per time. Strings are
+ * UTF-8-encoded and prefixed by their length in bytes; All other numbers are
+ * big-endian.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ */
+final class SnapshotTextGridFormat {
+
+	/**
+	 * The size of the array through which the payload of a snapshot which is
+	 * not backed by an array is checksummed.
+	 */
+	private static final int CHECKSUM_BUFFER_SIZE = 8192;
+
+	/**
+	 * The bytes at the start of every snapshot.
+	 */
+	private static final byte[] MAGIC = { 'J', 'T', 'G', 'S' };
+
+	/**
+	 * The version of the snapshot format.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * The time encoding of tiers whose times are written as raw doubles.
+	 */
+	static final int DOUBLE_TIME_ENCODING = 0;
+
+	/**
+	 * The time encoding of tiers whose times are written as tick count
+	 * differences.
+	 */
+	static final int TICK_DELTA_TIME_ENCODING = 1;
+
+	/**
+	 * Computes the CRC-32 checksum of the given number of bytes of a
+	 * {@link ByteBuffer} from its current position, which is not changed.
+	 *
+	 * @param input
+	 *            The <code>ByteBuffer</code> to checksum.
+	 * @param length
+	 *            The number of bytes to checksum.
+	 * @return The checksum.
+	 */
+	private static int checksum(final ByteBuffer input, final int length) {
+		final CRC32 crc = new CRC32();
+		if (input.hasArray()) {
+			crc.update(input.array(), input.arrayOffset() + input.position(),
+					length);
+		} else {
+			final ByteBuffer view = input.duplicate();
+			final byte[] buffer = new byte[Math.min(length,
+					CHECKSUM_BUFFER_SIZE)];
+			for (int remaining = length; remaining > 0;) {
+				final int chunkLength = Math.min(remaining, buffer.length);
+				view.get(buffer, 0, chunkLength);
+				crc.update(buffer, 0, chunkLength);
+				remaining -= chunkLength;
+			}
+		}
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Reads a {@link FileFingerprint} if the flag before it is set.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @return The <code>FileFingerprint</code> read or <code>null</code> if
+	 *         the snapshot has none.
+	 * @throws ParseException
+	 *             If a length is invalid.
+	 */
+	static FileFingerprint readFingerprint(final ByteBuffer input)
+			throws ParseException {
+		final FileFingerprint result;
+		if (input.get() == 0) {
+			result = null;
+		} else {
+			final String path = readString(input);
+			final long size = input.getLong();
+			final long lastModified = input.getLong();
+			final byte[] contentHash = new byte[readCount(input)];
+			input.get(contentHash);
+			result = new FileFingerprint(path, size, lastModified,
+					contentHash);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the magic bytes, format version and payload length and checksum
+	 * at the start of a snapshot.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @param verifyPayload
+	 *            <code>true</code> iff the payload following the header should
+	 *            be checked against the stored length and checksum.
+	 * @throws ParseException
+	 *             If the input is not a snapshot in the current version of the
+	 *             format or if its payload is truncated or corrupt.
+	 */
+	static void readHeader(final ByteBuffer input, final boolean verifyPayload)
+			throws ParseException {
+		for (final byte expected : MAGIC) {
+			if (input.get() != expected) {
+				throw new ParseException("Not a jtextgrid snapshot file.");
+			}
+		}
+		final int version = input.get() & 0xFF;
+		if (version != VERSION) {
+			throw new ParseException("Unsupported snapshot format version: "
+					+ version);
+		}
+		final int payloadLength = input.getInt();
+		final int payloadChecksum = input.getInt();
+		if (verifyPayload) {
+			if (payloadLength < 0 || payloadLength > input.remaining()) {
+				throw new ParseException("Invalid snapshot payload length: "
+						+ payloadLength);
+			}
+			if (checksum(input, payloadLength) != payloadChecksum) {
+				throw new ParseException("Snapshot payload checksum mismatch.");
+			}
+		}
+	}
+
+	/**
+	 * Reads a count of objects, i.e.&nbsp;a variable-length integer which
+	 * fits in an <code>int</code>.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @return The count.
+	 * @throws ParseException
+	 *             If the count is too large.
+	 */
+	static int readCount(final ByteBuffer input) throws ParseException {
+		final long result = readVarLong(input);
+		if (result > Integer.MAX_VALUE) {
+			throw new ParseException("Invalid object count: " + result);
+		}
+		return (int) result;
+	}
+
+	/**
+	 * Reads a UTF-8-encoded string prefixed by its length in bytes.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @return The string read.
+	 * @throws ParseException
+	 *             If the length is invalid.
+	 */
+	static String readString(final ByteBuffer input) throws ParseException {
+		final int length = readCount(input);
+		final String result;
+		if (input.hasArray()) {
+			final int position = input.position();
+			result = new String(input.array(), input.arrayOffset()
+					+ position, length, StandardCharsets.UTF_8);
+			input.position(position + length);
+		} else {
+			final byte[] bytes = new byte[length];
+			input.get(bytes);
+			result = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a tier class code.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @return The {@link TierClass} read.
+	 * @throws ParseException
+	 *             If the code is unknown.
+	 */
+	static TierClass readTierClass(final ByteBuffer input)
+			throws ParseException {
+		final int code = input.get() & 0xFF;
+		final TierClass[] tierClasses = TierClass.values();
+		if (code >= tierClasses.length) {
+			throw new ParseException("Unknown tier class code: " + code);
+		}
+		return tierClasses[code];
+	}
+
+	/**
+	 * Reads an unsigned variable-length integer.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @return The integer read.
+	 * @throws ParseException
+	 *             If the integer is longer than 64 bits.
+	 */
+	static long readVarLong(final ByteBuffer input) throws ParseException {
+		long result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			if (shift >= Long.SIZE) {
+				throw new ParseException("Malformed variable-length integer.");
+			}
+			b = input.get();
+			result |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return result;
+	}
+
+	/**
+	 * Reads a zig-zag-encoded signed variable-length integer.
+	 *
+	 * @param input
+	 *            The {@link ByteBuffer} to read from.
+	 * @return The integer read.
+	 * @throws ParseException
+	 *             If the integer is longer than 64 bits.
+	 */
+	static long readZigZagLong(final ByteBuffer input) throws ParseException {
+		final long encoded = readVarLong(input);
+		return (encoded >>> 1) ^ -(encoded & 1);
+	}
+
+	/**
+	 * Writes a {@link FileFingerprint} preceded by a flag denoting if there is
+	 * one.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param fingerprint
+	 *            The <code>FileFingerprint</code> to write or
+	 *            <code>null</code> to write none.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void writeFingerprint(final DataOutput output,
+			final FileFingerprint fingerprint) throws IOException {
+		if (fingerprint == null) {
+			output.writeByte(0);
+		} else {
+			output.writeByte(1);
+			writeString(output, fingerprint.getPath());
+			output.writeLong(fingerprint.getSize());
+			output.writeLong(fingerprint.getLastModified());
+			final byte[] contentHash = fingerprint.getContentHash();
+			writeVarLong(output, contentHash.length);
+			output.write(contentHash);
+		}
+	}
+
+	/**
+	 * Writes the magic bytes, format version and payload length and checksum
+	 * at the start of a snapshot.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param payload
+	 *            The rest of the snapshot, which is to be written after the
+	 *            header.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void writeHeader(final DataOutput output, final byte[] payload)
+			throws IOException {
+		output.write(MAGIC);
+		output.writeByte(VERSION);
+		output.writeInt(payload.length);
+		final CRC32 crc = new CRC32();
+		crc.update(payload);
+		output.writeInt((int) crc.getValue());
+	}
+
+	/**
+	 * Writes a UTF-8-encoded string prefixed by its length in bytes.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param str
+	 *            The string to write.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void writeString(final DataOutput output, final String str)
+			throws IOException {
+		final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(output, bytes.length);
+		output.write(bytes);
+	}
+
+	/**
+	 * Writes a tier class code.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param tierClass
+	 *            The {@link TierClass} to write.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void writeTierClass(final DataOutput output,
+			final TierClass tierClass) throws IOException {
+		output.writeByte(tierClass.ordinal());
+	}
+
+	/**
+	 * Writes an unsigned variable-length integer.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param value
+	 *            The integer to write, which is treated as unsigned.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void writeVarLong(final DataOutput output, final long value)
+			throws IOException {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			output.writeByte((int) (remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		output.writeByte((int) remaining);
+	}
+
+	/**
+	 * Writes a zig-zag-encoded signed variable-length integer, so that values
+	 * close to zero take few bytes regardless of their sign.
+	 *
+	 * @param output
+	 *            The {@link DataOutput} to write to.
+	 * @param value
+	 *            The integer to write.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	static void writeZigZagLong(final DataOutput output, final long value)
+			throws IOException {
+		writeVarLong(output, (value << 1) ^ (value >> 63));
+	}
+
+	private SnapshotTextGridFormat() {
+		// Avoid instantiation
+	}
+
+}
@@ -0,0 +1,567 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import com.github.errantlinguist.io.ByteOrderMark;
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A pull parser for <a href="http://www.fon.hum.uva.nl/praat/">Praat</a>
+ * TextGrid files in either text format which returns one event per file, tier
+ * and entry, in the manner of a StAX <code>XMLStreamReader</code>.
+ * <p>
+ * Lines are read from the input only as far as is needed for returning the
+ * next event, so a consumer can stop at any point, e.g.&nbsp;after the first
+ * tier, without the rest of the file being read at all:
+ * </p>
+ *
+ * <pre>
+ * while (cursor.next() != TextGridEventType.END) {
+ * 	if (cursor.getEventType() == TextGridEventType.INTERVAL) {
+ * 		process(cursor.getStartTime(), cursor.getEndTime(), cursor.getData());
+ * 	}
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class TextGridEventCursor<D> implements Closeable {
+
+	/**
+	 * A {@link TextGridListener} which assembles the values it is notified of
+	 * into complete {@link Event events}.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 */
+	private final class EventAssembler implements TextGridListener<D> {
+
+		private double entryEndTime = Double.NaN;
+
+		private int entryIndex = -1;
+
+		private double entryStartTime = Double.NaN;
+
+		private double fileEndTime = Double.NaN;
+
+		private double fileStartTime = Double.NaN;
+
+		/**
+		 * A flag denoting if the {@link TextGridEventType#FILE} event has
+		 * already been assembled.
+		 */
+		private boolean isFileAssembled = false;
+
+		private TierClass tierClass = null;
+
+		private double tierEndTime = Double.NaN;
+
+		private int tierIndex = -1;
+
+		private String tierName = null;
+
+		private double tierStartTime = Double.NaN;
+
+		/**
+		 * Assembles the events denoting the end of the file.
+		 */
+		public void finish() {
+			if (!isFileAssembled) {
+				// The file has no tiers
+				assembleFile(0);
+			}
+			events.add(new Event<D>(TextGridEventType.END));
+		}
+
+		@Override
+		public void notifyFileEndTime(final double time) {
+			fileEndTime = time;
+		}
+
+		@Override
+		public void notifyFileSize(final int size) {
+			assembleFile(size);
+		}
+
+		@Override
+		public void notifyFileStartTime(final double time) {
+			fileStartTime = time;
+		}
+
+		@Override
+		public void notifyIntervalData(final D data) {
+			assembleEntry(TextGridEventType.INTERVAL, data);
+		}
+
+		@Override
+		public void notifyIntervalEndTime(final double time) {
+			entryEndTime = time;
+		}
+
+		@Override
+		public void notifyIntervalIndex(final int index) {
+			entryIndex = index;
+		}
+
+		@Override
+		public void notifyIntervalStartTime(final double time) {
+			entryStartTime = time;
+		}
+
+		@Override
+		public void notifyPointData(final D data) {
+			assembleEntry(TextGridEventType.POINT, data);
+		}
+
+		@Override
+		public void notifyPointIndex(final int index) {
+			entryIndex = index;
+		}
+
+		@Override
+		public void notifyPointTime(final double time) {
+			entryStartTime = time;
+			entryEndTime = time;
+		}
+
+		@Override
+		public void notifyTierClass(final TierClass tierClass) {
+			this.tierClass = tierClass;
+		}
+
+		@Override
+		public void notifyTierEndTime(final double time) {
+			tierEndTime = time;
+		}
+
+		@Override
+		public void notifyTierIndex(final int index) {
+			tierIndex = index;
+		}
+
+		@Override
+		public void notifyTierIntervalCount(final int count) {
+			assembleTier(count);
+		}
+
+		@Override
+		public void notifyTierName(final String name) {
+			tierName = name;
+		}
+
+		@Override
+		public void notifyTierPointCount(final int count) {
+			assembleTier(count);
+		}
+
+		@Override
+		public void notifyTierStartTime(final double time) {
+			tierStartTime = time;
+		}
+
+		private void assembleEntry(final TextGridEventType type, final D data) {
+			final Event<D> event = new Event<D>(type);
+			event.tierIndex = tierIndex;
+			event.index = entryIndex;
+			event.startTime = entryStartTime;
+			event.endTime = entryEndTime;
+			event.data = data;
+			events.add(event);
+		}
+
+		private void assembleFile(final int size) {
+			final Event<D> event = new Event<D>(TextGridEventType.FILE);
+			event.startTime = fileStartTime;
+			event.endTime = fileEndTime;
+			event.size = size;
+			events.add(event);
+			isFileAssembled = true;
+		}
+
+		private void assembleTier(final int size) {
+			final Event<D> event = new Event<D>(TextGridEventType.TIER);
+			event.tierIndex = tierIndex;
+			event.index = tierIndex;
+			event.tierClass = tierClass;
+			event.name = tierName;
+			event.startTime = tierStartTime;
+			event.endTime = tierEndTime;
+			event.size = size;
+			events.add(event);
+		}
+
+	}
+
+	/**
+	 * A single event, which holds all values of the object it denotes.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 * @param <D>
+	 *            The type of the annotation data.
+	 */
+	private static final class Event<D> {
+
+		private D data = null;
+
+		private double endTime = Double.NaN;
+
+		private int index = -1;
+
+		private String name = null;
+
+		private int size = -1;
+
+		private double startTime = Double.NaN;
+
+		private TierClass tierClass = null;
+
+		private int tierIndex = -1;
+
+		private final TextGridEventType type;
+
+		private Event(final TextGridEventType type) {
+			this.type = type;
+		}
+
+	}
+
+	/**
+	 * The types of events which have a start and end time.
+	 */
+	private static final EnumSet<TextGridEventType> DURATIVE_EVENT_TYPES = EnumSet
+			.complementOf(EnumSet.of(TextGridEventType.END));
+
+	/**
+	 * The types of events which denote an entry of a tier.
+	 */
+	private static final EnumSet<TextGridEventType> ENTRY_EVENT_TYPES = EnumSet
+			.of(TextGridEventType.INTERVAL, TextGridEventType.POINT);
+
+	/**
+	 * The types of events which have an index.
+	 */
+	private static final EnumSet<TextGridEventType> INDEXED_EVENT_TYPES = EnumSet
+			.of(TextGridEventType.INTERVAL, TextGridEventType.POINT,
+					TextGridEventType.TIER);
+
+	/**
+	 * The types of events which have a size.
+	 */
+	private static final EnumSet<TextGridEventType> SIZED_EVENT_TYPES = EnumSet
+			.of(TextGridEventType.FILE, TextGridEventType.TIER);
+
+	/**
+	 * The types of events which denote a tier.
+	 */
+	private static final EnumSet<TextGridEventType> TIER_EVENT_TYPES = EnumSet
+			.of(TextGridEventType.TIER);
+
+	/**
+	 * Creates a {@link BufferedReader} for reading an {@link InputStream} in
+	 * the encoding detected from its byte order mark, if any.
+	 *
+	 * @param input
+	 *            The <code>InputStream</code> to read.
+	 * @param defaultCharset
+	 *            The encoding used if none could be detected.
+	 * @return A new <code>BufferedReader</code> for reading the input.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private static BufferedReader createReader(final InputStream input,
+			final Charset defaultCharset) throws IOException {
+		final BufferedInputStream bufferedInput = new BufferedInputStream(
+				input);
+		final Charset charset = ByteOrderMark.detectCharset(bufferedInput,
+				defaultCharset);
+		return new BufferedReader(new InputStreamReader(bufferedInput, charset));
+	}
+
+	/**
+	 * The listener which assembles the values read by {@link #scanner}.
+	 */
+	private final EventAssembler assembler;
+
+	/**
+	 * The current event, or <code>null</code> if {@link #next()} has not yet
+	 * been called.
+	 */
+	private Event<D> currentEvent = null;
+
+	/**
+	 * The events which have been assembled but not yet returned.
+	 */
+	private final Queue<Event<D>> events = new ArrayDeque<Event<D>>();
+
+	/**
+	 * The input the lines of the file are read from.
+	 */
+	private final BufferedReader input;
+
+	/**
+	 * The scanner used for scanning each line.
+	 */
+	private final AbstractTextGridFileScanner<D> scanner;
+
+	/**
+	 *
+	 * @param input
+	 *            The input to read the lines of the file from.
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 */
+	public TextGridEventCursor(final BufferedReader input,
+			final Parser<? super String, ? extends D> parser) {
+		this.input = input;
+		assembler = new EventAssembler();
+		scanner = new AutoDetectingTextGridFileScanner<D>(parser, assembler);
+		scanner.reset();
+	}
+
+	/**
+	 *
+	 * @param input
+	 *            The input to read the file from, the encoding of which is
+	 *            detected from its byte order mark, if any.
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param defaultCharset
+	 *            The encoding used if none could be detected.
+	 * @throws IOException
+	 *             If an I/O error occurs while detecting the encoding.
+	 */
+	public TextGridEventCursor(final InputStream input,
+			final Parser<? super String, ? extends D> parser,
+			final Charset defaultCharset) throws IOException {
+		this(createReader(input, defaultCharset), parser);
+	}
+
+	/**
+	 * Closes the underlying input.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+	/**
+	 * @return The annotation data of the current
+	 *         {@link TextGridEventType#INTERVAL} or
+	 *         {@link TextGridEventType#POINT} event.
+	 * @throws IllegalStateException
+	 *             If the current event is not an entry event.
+	 */
+	public D getData() {
+		return getCurrentEvent(ENTRY_EVENT_TYPES).data;
+	}
+
+	/**
+	 * @return The end time of the current event, which is equal to its start
+	 *         time for {@link TextGridEventType#POINT} events.
+	 * @throws IllegalStateException
+	 *             If the current event is {@link TextGridEventType#END}.
+	 */
+	public double getEndTime() {
+		return getCurrentEvent(DURATIVE_EVENT_TYPES).endTime;
+	}
+
+	/**
+	 * @return The type of the current event, or <code>null</code> if
+	 *         {@link #next()} has not yet been called.
+	 */
+	public TextGridEventType getEventType() {
+		return currentEvent == null ? null : currentEvent.type;
+	}
+
+	/**
+	 * @return The 1-based index of the current tier or entry within its tier.
+	 * @throws IllegalStateException
+	 *             If the current event is not a tier or entry event.
+	 */
+	public int getIndex() {
+		return getCurrentEvent(INDEXED_EVENT_TYPES).index;
+	}
+
+	/**
+	 * @return The name of the current {@link TextGridEventType#TIER}.
+	 * @throws IllegalStateException
+	 *             If the current event is not a tier event.
+	 */
+	public String getName() {
+		return getCurrentEvent(TIER_EVENT_TYPES).name;
+	}
+
+	/**
+	 * @return The number of tiers of the current
+	 *         {@link TextGridEventType#FILE} event or the number of entries of
+	 *         the current {@link TextGridEventType#TIER} event.
+	 * @throws IllegalStateException
+	 *             If the current event is neither a file nor a tier event.
+	 */
+	public int getSize() {
+		return getCurrentEvent(SIZED_EVENT_TYPES).size;
+	}
+
+	/**
+	 * @return The start time of the current event.
+	 * @throws IllegalStateException
+	 *             If the current event is {@link TextGridEventType#END}.
+	 */
+	public double getStartTime() {
+		return getCurrentEvent(DURATIVE_EVENT_TYPES).startTime;
+	}
+
+	/**
+	 * @return The {@link TierClass} of the current
+	 *         {@link TextGridEventType#TIER}.
+	 * @throws IllegalStateException
+	 *             If the current event is not a tier event.
+	 */
+	public TierClass getTierClass() {
+		return getCurrentEvent(TIER_EVENT_TYPES).tierClass;
+	}
+
+	/**
+	 * @return The 1-based index of the tier the current tier or entry event
+	 *         belongs to.
+	 * @throws IllegalStateException
+	 *             If the current event is not a tier or entry event.
+	 */
+	public int getTierIndex() {
+		return getCurrentEvent(INDEXED_EVENT_TYPES).tierIndex;
+	}
+
+	/**
+	 * @return <code>true</code> iff {@link TextGridEventType#END} has not yet
+	 *         been returned.
+	 */
+	public boolean hasNext() {
+		return currentEvent == null
+				|| currentEvent.type != TextGridEventType.END;
+	}
+
+	/**
+	 * Advances to the next event, reading only as many lines as are needed to
+	 * assemble it.
+	 *
+	 * @return The type of the new current event.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If a line could not be parsed or if the file ended
+	 *             prematurely.
+	 * @throws NoSuchElementException
+	 *             If {@link TextGridEventType#END} has already been returned.
+	 */
+	public TextGridEventType next() throws IOException, ParseException {
+		if (!hasNext()) {
+			throw new NoSuchElementException("The end of the file was reached.");
+		}
+		while (events.isEmpty()) {
+			final String line = input.readLine();
+			if (line == null) {
+				scanner.finish();
+				assembler.finish();
+			} else {
+				scanner.scanLine(line);
+			}
+		}
+		currentEvent = events.remove();
+		return currentEvent.type;
+	}
+
+	/**
+	 * Advances to the next {@link TextGridEventType#TIER} event, skipping any
+	 * remaining entries of the current tier. The lines of the skipped entries
+	 * are still read but are only counted rather than parsed, in the same way
+	 * as those of tiers rejected by a {@link TierFilter}.
+	 *
+	 * @return The type of the new current event, which is
+	 *         {@link TextGridEventType#END} if there are no further tiers.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @throws ParseException
+	 *             If a line could not be parsed or if the file ended
+	 *             prematurely.
+	 * @throws NoSuchElementException
+	 *             If {@link TextGridEventType#END} has already been returned.
+	 */
+	public TextGridEventType nextTier() throws IOException, ParseException {
+		while (!events.isEmpty()
+				&& ENTRY_EVENT_TYPES.contains(events.peek().type)) {
+			events.remove();
+		}
+		if (events.isEmpty()) {
+			scanner.skipTier();
+		}
+		TextGridEventType result;
+		do {
+			result = next();
+		} while (result != TextGridEventType.TIER
+				&& result != TextGridEventType.END);
+		return result;
+	}
+
+	/**
+	 * Gets the current event, checking that it is of one of the given types.
+	 *
+	 * @param types
+	 *            The types of events for which the caller is valid.
+	 * @return The current event.
+	 * @throws IllegalStateException
+	 *             If the current event is not of one of the given types.
+	 */
+	private Event<D> getCurrentEvent(final EnumSet<TextGridEventType> types) {
+		if (currentEvent == null || !types.contains(currentEvent.type)) {
+			throw new IllegalStateException(String.format(
+					"Current event type is %s; Expected one of %s.",
+					getEventType(), types));
+		}
+		return currentEvent;
+	}
+
+}
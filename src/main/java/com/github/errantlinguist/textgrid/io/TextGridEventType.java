@@ -0,0 +1,51 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+/**
+ * The types of events returned by a {@link TextGridEventCursor}, each of which
+ * denotes one complete object of a TextGrid file.
+ *
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public enum TextGridEventType {
+	/**
+	 * The end of the file, after which there are no further events.
+	 */
+	END,
+	/**
+	 * The file itself, with its start time, end time and number of tiers.
+	 */
+	FILE,
+	/**
+	 * An interval of an interval tier, with its index, start time, end time
+	 * and annotation data.
+	 */
+	INTERVAL,
+	/**
+	 * A point of a text tier, with its index, time (as both start and end
+	 * time) and annotation data.
+	 */
+	POINT,
+	/**
+	 * A tier, with its index, tier class, name, start time, end time and
+	 * number of entries.
+	 */
+	TIER;
+}
@@ -17,6 +17,7 @@ package com.github.errantlinguist.textgrid.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 
 import com.github.errantlinguist.io.InputStreamReader;
 import com.github.errantlinguist.io.ParseException;
@@ -47,7 +48,7 @@ public class TextGridFileFactoryReader<D> implements
 	/**
 	 * The reader used for reading TextGrid file contents.
 	 */
-	private final TextGridFileReader<D> reader;
+	private final InputStreamReader<Boolean, ParseException> reader;
 
 	/**
 	 * 
@@ -65,12 +66,48 @@ public class TextGridFileFactoryReader<D> implements
 	 *            The {@link Parser} used for reading TextGrid file entry data.
 	 * @param factory
 	 *            The factory used for creating {@link TextGridFile} objects.
+	 * @see AutoDetectingTextGridFileScanner
 	 */
 	public TextGridFileFactoryReader(
 			final Parser<? super String, ? extends D> parser,
 			final TextGridFileListenerFactory<D> factory) {
+		this(factory,
+				new AutoDetectingTextGridFileScanner<D>(parser, factory));
+	}
+
+	/**
+	 * 
+	 * @param parser
+	 *            The {@link Parser} used for reading TextGrid file entry data.
+	 * @param factory
+	 *            The factory used for creating {@link TextGridFile} objects.
+	 * @param defaultCharset
+	 *            The encoding used for files for which none could be detected
+	 *            from a byte order mark.
+	 * @see AutoDetectingTextGridFileScanner
+	 */
+	public TextGridFileFactoryReader(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridFileListenerFactory<D> factory,
+			final Charset defaultCharset) {
+		this(factory, new AutoDetectingTextGridFileScanner<D>(parser,
+				factory, defaultCharset));
+	}
+
+	/**
+	 * 
+	 * @param factory
+	 *            The factory used for creating {@link TextGridFile} objects.
+	 * @param reader
+	 *            The reader used for reading TextGrid file contents, which
+	 *            notifies <code>factory</code> of the values it parses, e.g.
+	 *            a {@link TextGridFileScanner}.
+	 */
+	public TextGridFileFactoryReader(
+			final TextGridFileListenerFactory<D> factory,
+			final InputStreamReader<Boolean, ParseException> reader) {
 		this.factory = factory;
-		this.reader = new TextGridFileReader<D>(parser, factory);
+		this.reader = reader;
 	}
 
 	@Override
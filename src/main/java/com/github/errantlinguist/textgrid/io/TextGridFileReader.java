@@ -18,11 +18,13 @@ package com.github.errantlinguist.textgrid.io;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.github.errantlinguist.io.AbstractBufferedInputStreamReader;
+import com.github.errantlinguist.io.CharSequenceNumbers;
 import com.github.errantlinguist.io.ParseException;
 import com.github.errantlinguist.io.Parser;
 import com.github.errantlinguist.textgrid.TextGridFile;
@@ -60,9 +62,10 @@ public class TextGridFileReader<D> extends
 		FILE_END_TIME(END_TIME_PATTERN) {
 
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyFileEndTime(Double.parseDouble(matcher.group(1)));
+				reader.notifyFileEndTime(parseTime(line, matcher));
 				reader.setCurrentSection(FILE_TIER_COUNT);
 			}
 
@@ -70,16 +73,18 @@ public class TextGridFileReader<D> extends
 		FILE_START_TIME(START_TIME_PATTERN) {
 
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyFileStartTime(Double.parseDouble(matcher.group(1)));
+				reader.notifyFileStartTime(parseTime(line, matcher));
 				reader.setCurrentSection(FILE_END_TIME);
 			}
 
 		},
 		FILE_TIER_COUNT(Pattern.compile("size = (\\d+)\\s*")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				reader.notifyFileSize(Integer.parseInt(matcher.group(1)));
 				reader.setCurrentSection(TIER_START);
@@ -88,26 +93,28 @@ public class TextGridFileReader<D> extends
 		},
 		INTERVAL_DATA(Pattern.compile("^\\s*text = \"(.*)\"\\s*$")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) throws ParseException {
-				reader.notifyIntervalData(matcher.group(1));
+				reader.notifyIntervalData(unescapeQuotes(matcher.group(1)));
 				reader.setCurrentSection(INTERVAL_START);
 			}
 
 		},
 		INTERVAL_END_TIME(END_TIME_PATTERN) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyIntervalEndTime(Double.parseDouble(matcher
-						.group(1)));
+				reader.notifyIntervalEndTime(parseTime(line, matcher));
 				reader.setCurrentSection(INTERVAL_DATA);
 
 			}
 		},
 		INTERVAL_START(Pattern.compile("^\\s*intervals \\[(\\d+)\\]:\\s*")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				reader.notifyIntervalIndex(Integer.parseInt(matcher.group(1)));
 				reader.setCurrentSection(INTERVAL_START_TIME);
@@ -125,26 +132,28 @@ public class TextGridFileReader<D> extends
 		},
 		INTERVAL_START_TIME(START_TIME_PATTERN) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyIntervalStartTime(Double.parseDouble(matcher
-						.group(1)));
+				reader.notifyIntervalStartTime(parseTime(line, matcher));
 				reader.setCurrentSection(INTERVAL_END_TIME);
 			}
 
 		},
 		POINT_DATA(Pattern.compile("^\\s*mark = \"(.*)\"\\s*$")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) throws ParseException {
-				reader.notifyPointData(matcher.group(1));
+				reader.notifyPointData(unescapeQuotes(matcher.group(1)));
 				reader.setCurrentSection(POINT_START);
 			}
 
 		},
 		POINT_START(Pattern.compile("^\\s*points \\[(\\d+)\\]:\\s*")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				reader.notifyPointIndex(Integer.parseInt(matcher.group(1)));
 				reader.setCurrentSection(POINT_TIME);
@@ -161,16 +170,18 @@ public class TextGridFileReader<D> extends
 		},
 		POINT_TIME(Pattern.compile("^\\s*time = (\\d*\\.?\\d+)\\s*")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyPointTime(Double.parseDouble(matcher.group(1)));
+				reader.notifyPointTime(parseTime(line, matcher));
 				reader.setCurrentSection(POINT_DATA);
 			}
 
 		},
 		TIER_CLASS(Pattern.compile("^\\s*class = \"(.*)\"\\s*$")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				final TierClass tierClass = TierClass.getInstance(matcher
 						.group(1));
@@ -194,9 +205,10 @@ public class TextGridFileReader<D> extends
 			}
 
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyTierEndTime(Double.parseDouble(matcher.group(1)));
+				reader.notifyTierEndTime(parseTime(line, matcher));
 
 				final Section nextSection = getNextSection(reader
 						.getCurrentTierClass());
@@ -206,7 +218,8 @@ public class TextGridFileReader<D> extends
 		},
 		TIER_INTERVAL_COUNT(Pattern.compile("\\s*intervals: size = (\\d+)\\s*")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				reader.notifyTierIntervalCount(Integer.parseInt(matcher
 						.group(1)));
@@ -216,16 +229,18 @@ public class TextGridFileReader<D> extends
 		},
 		TIER_NAME(Pattern.compile("^\\s*name = \"(.*)\"\\s*$")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyTierName(matcher.group(1));
+				reader.notifyTierName(unescapeQuotes(matcher.group(1)));
 				reader.setCurrentSection(TIER_START_TIME);
 			}
 
 		},
 		TIER_POINT_COUNT(Pattern.compile("\\s*points: size = (\\d+)\\s*")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				reader.notifyTierPointCount(Integer.parseInt(matcher.group(1)));
 				reader.setCurrentSection(POINT_START);
@@ -234,7 +249,8 @@ public class TextGridFileReader<D> extends
 		},
 		TIER_START(Pattern.compile("^\\s*item \\[(\\d+)\\]:\\s*$")) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
 				reader.notifyTierIndex(Integer.parseInt(matcher.group(1)));
 				reader.setCurrentSection(TIER_CLASS);
@@ -243,13 +259,30 @@ public class TextGridFileReader<D> extends
 		},
 		TIER_START_TIME(START_TIME_PATTERN) {
 			@Override
-			protected <D> void handleMatch(final Matcher matcher,
+			protected <D> void handleMatch(final CharSequence line,
+					final Matcher matcher,
 					final TextGridFileReader<D> reader) {
-				reader.notifyTierStartTime(Double.parseDouble(matcher.group(1)));
+				reader.notifyTierStartTime(parseTime(line, matcher));
 				reader.setCurrentSection(TIER_END_TIME);
 			}
 		};
 
+		/**
+		 * Parses the time captured by the first group of a given match without
+		 * creating a {@link String} of the group.
+		 * 
+		 * @param line
+		 *            The {@link CharSequence} which was matched.
+		 * @param matcher
+		 *            The {@link Matcher} object representing the match.
+		 * @return The parsed time.
+		 */
+		private static double parseTime(final CharSequence line,
+				final Matcher matcher) {
+			return CharSequenceNumbers.parseDouble(line, matcher.start(1),
+					matcher.end(1));
+		}
+
 		private final Pattern pattern;
 
 		/**
@@ -267,6 +300,8 @@ public class TextGridFileReader<D> extends
 		 * @param <D>
 		 *            The type of object to be (later) returned denoting (a part
 		 *            of) the file information.
+		 * @param line
+		 *            The {@link CharSequence} which was matched.
 		 * @param matcher
 		 *            The {@link Matcher} object representing a section match.
 		 * @param reader
@@ -275,7 +310,8 @@ public class TextGridFileReader<D> extends
 		 *             If there is a parsing error.
 		 * 
 		 */
-		protected abstract <D> void handleMatch(final Matcher matcher,
+		protected abstract <D> void handleMatch(final CharSequence line,
+				final Matcher matcher,
 				final TextGridFileReader<D> reader) throws ParseException;
 
 		/**
@@ -332,7 +368,7 @@ public class TextGridFileReader<D> extends
 				final TextGridFileReader<D> reader) throws ParseException {
 			final Matcher matcher = match(line);
 			if (matcher.matches()) {
-				handleMatch(matcher, reader);
+				handleMatch(line, matcher, reader);
 			} else {
 				handleMismatch(line, reader);
 			}
@@ -347,6 +383,19 @@ public class TextGridFileReader<D> extends
 	private static final Pattern START_TIME_PATTERN = Pattern
 			.compile("^\\s*xmin = (\\d*\\.?\\d+)\\s*$");
 
+	/**
+	 * Turns each pair of quotation marks in quoted text, which is how Praat
+	 * escapes them, back into a single one.
+	 *
+	 * @param quoted
+	 *            The text between the enclosing quotation marks.
+	 * @return The unescaped text.
+	 */
+	private static String unescapeQuotes(final String quoted) {
+		return quoted.indexOf('"') < 0 ? quoted : quoted.replace("\"\"",
+				"\"");
+	}
+
 	private Section currentSection;
 
 	/**
@@ -381,6 +430,24 @@ public class TextGridFileReader<D> extends
 
 	}
 
+	/**
+	 * 
+	 * @param parser
+	 *            The {@link Parser} object using for parsing file sections.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 * @param defaultCharset
+	 *            The encoding used for input for which none could be
+	 *            detected.
+	 */
+	public TextGridFileReader(final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener, final Charset defaultCharset) {
+		super(defaultCharset);
+		this.parser = parser;
+		this.listener = listener;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,315 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.nio.charset.Charset;
+
+import com.github.errantlinguist.io.ParseException;
+import com.github.errantlinguist.io.Parser;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A reader for <a href="http://www.fon.hum.uva.nl/praat/">Praat</a> TextGrid
+ * files which tokenizes each line with a hand-written character scanner rather
+ * than with regular expressions, calling the same {@link TextGridListener}
+ * methods in the same order as {@link TextGridFileReader} does for well-formed
+ * input.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class TextGridFileScanner<D> extends AbstractTextGridFileScanner<D> {
+
+	/**
+	 * An enumeration of the nested objects of a TextGrid file, used for
+	 * determining which object a given key such as <code>xmin</code> refers to.
+	 *
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @version 2014-02-15
+	 * @since 2014-02-15
+	 *
+	 */
+	private static enum Context {
+		FILE, INTERVAL, POINT, TIER;
+	}
+
+	private static final String CLASS_KEY = "class = ";
+
+	private static final String END_TIME_KEY = "xmax = ";
+
+	private static final String INTERVAL_COUNT_KEY = "intervals: size = ";
+
+	private static final String INTERVAL_INDEX_KEY = "intervals [";
+
+	/**
+	 * The number of lines of each interval, i.e.&nbsp;its index, start time,
+	 * end time and text.
+	 */
+	private static final int INTERVAL_LINE_COUNT = 4;
+
+	private static final String INTERVAL_TEXT_KEY = "text = ";
+
+	private static final String NAME_KEY = "name = ";
+
+	private static final String POINT_COUNT_KEY = "points: size = ";
+
+	private static final String POINT_INDEX_KEY = "points [";
+
+	/**
+	 * The number of lines of each point, i.e.&nbsp;its index, time and mark.
+	 */
+	private static final int POINT_LINE_COUNT = 3;
+
+	private static final String POINT_MARK_KEY = "mark = ";
+
+	private static final String POINT_NUMBER_KEY = "number = ";
+
+	private static final String POINT_TIME_KEY = "time = ";
+
+	private static final String SIZE_KEY = "size = ";
+
+	private static final String START_TIME_KEY = "xmin = ";
+
+	private static final String TIER_INDEX_KEY = "item [";
+
+	/**
+	 * The nested object which the line currently being scanned belongs to.
+	 */
+	private Context context = Context.FILE;
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 */
+	public TextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener) {
+		super(parser, listener);
+	}
+
+	/**
+	 *
+	 * @param parser
+	 *            The {@link Parser} object using for parsing entry annotation
+	 *            data.
+	 * @param listener
+	 *            The {@link TextGridListener} instance registered to respond to
+	 *            callback notifications from this reader.
+	 * @param defaultCharset
+	 *            The encoding used for input for which none could be
+	 *            detected.
+	 */
+	public TextGridFileScanner(
+			final Parser<? super String, ? extends D> parser,
+			final TextGridListener<D> listener, final Charset defaultCharset) {
+		super(parser, listener, defaultCharset);
+	}
+
+	/**
+	 * Resets the scanner state so that it can be used for scanning a new file.
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		context = Context.FILE;
+	}
+
+	/**
+	 * Scans a single non-blank line, dispatching on its first character to
+	 * the key it could start with.
+	 */
+	@Override
+	protected void scanToken(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		final TextGridListener<D> listener = getListener();
+		switch (line.charAt(start)) {
+		case 'c':
+			if (matchesKeyword(line, start, end, CLASS_KEY)) {
+				final String value = parseQuoted(line, start
+						+ CLASS_KEY.length(), end);
+				final TierClass tierClass = TierClass.getInstance(value);
+				if (tierClass == null) {
+					throw createParseException("Unknown tier class \""
+							+ value + "\"");
+				}
+				notifyTierClass(tierClass);
+			}
+			break;
+		case 'i':
+			if (matchesKeyword(line, start, end, INTERVAL_INDEX_KEY)) {
+				listener.notifyIntervalIndex(parseIndex(line, start
+						+ INTERVAL_INDEX_KEY.length(), end));
+				context = Context.INTERVAL;
+			} else if (matchesKeyword(line, start, end, INTERVAL_COUNT_KEY)) {
+				notifyTierIntervalCount(parseInt(line, start
+						+ INTERVAL_COUNT_KEY.length(), end), INTERVAL_LINE_COUNT);
+			} else if (matchesKeyword(line, start, end, TIER_INDEX_KEY)) {
+				final int indexStart = start + TIER_INDEX_KEY.length();
+				// "item []:" denotes the tier list itself
+				if (indexStart < end && line.charAt(indexStart) != ']') {
+					notifyTierIndex(parseIndex(line, indexStart, end));
+					context = Context.TIER;
+				}
+			}
+			break;
+		case 'm':
+			if (matchesKeyword(line, start, end, POINT_MARK_KEY)) {
+				listener.notifyPointData(parseData(line, start
+						+ POINT_MARK_KEY.length(), end));
+			}
+			break;
+		case 'n':
+			if (matchesKeyword(line, start, end, NAME_KEY)) {
+				notifyTierName(parseQuoted(line, start + NAME_KEY.length(),
+						end));
+			} else if (matchesKeyword(line, start, end, POINT_NUMBER_KEY)) {
+				listener.notifyPointTime(parseDouble(line, start
+						+ POINT_NUMBER_KEY.length(), end));
+			}
+			break;
+		case 'p':
+			if (matchesKeyword(line, start, end, POINT_INDEX_KEY)) {
+				listener.notifyPointIndex(parseIndex(line, start
+						+ POINT_INDEX_KEY.length(), end));
+				context = Context.POINT;
+			} else if (matchesKeyword(line, start, end, POINT_COUNT_KEY)) {
+				notifyTierPointCount(parseInt(line, start
+						+ POINT_COUNT_KEY.length(), end), POINT_LINE_COUNT);
+			}
+			break;
+		case 's':
+			if (matchesKeyword(line, start, end, SIZE_KEY)) {
+				listener.notifyFileSize(parseInt(line,
+						start + SIZE_KEY.length(), end));
+			}
+			break;
+		case 't':
+			if (matchesKeyword(line, start, end, INTERVAL_TEXT_KEY)) {
+				listener.notifyIntervalData(parseData(line, start
+						+ INTERVAL_TEXT_KEY.length(), end));
+			} else if (matchesKeyword(line, start, end, POINT_TIME_KEY)) {
+				listener.notifyPointTime(parseDouble(line, start
+						+ POINT_TIME_KEY.length(), end));
+			}
+			break;
+		case 'x':
+			if (matchesKeyword(line, start, end, START_TIME_KEY)) {
+				notifyStartTime(parseDouble(line,
+						start + START_TIME_KEY.length(), end));
+			} else if (matchesKeyword(line, start, end, END_TIME_KEY)) {
+				notifyEndTime(parseDouble(line,
+						start + END_TIME_KEY.length(), end));
+			}
+			break;
+		case 'F':
+		case 'O':
+			scanHeader(line, start, end);
+			break;
+		default:
+			// Lines such as "tiers? <exists>" carry no information
+			break;
+		}
+	}
+
+	/**
+	 * Notifies the registered {@link TextGridListener} of the end time of the
+	 * object currently being scanned.
+	 *
+	 * @param time
+	 *            The end time.
+	 */
+	private void notifyEndTime(final double time) {
+		final TextGridListener<D> listener = getListener();
+		switch (context) {
+		case FILE:
+			listener.notifyFileEndTime(time);
+			break;
+		case INTERVAL:
+			listener.notifyIntervalEndTime(time);
+			break;
+		case TIER:
+			notifyTierEndTime(time);
+			break;
+		default:
+			// Points have no end time
+			break;
+		}
+	}
+
+	/**
+	 * Notifies the registered {@link TextGridListener} of the start time of
+	 * the object currently being scanned.
+	 *
+	 * @param time
+	 *            The start time.
+	 */
+	private void notifyStartTime(final double time) {
+		final TextGridListener<D> listener = getListener();
+		switch (context) {
+		case FILE:
+			listener.notifyFileStartTime(time);
+			break;
+		case INTERVAL:
+			listener.notifyIntervalStartTime(time);
+			break;
+		case TIER:
+			notifyTierStartTime(time);
+			break;
+		default:
+			// Points have no start time
+			break;
+		}
+	}
+
+	/**
+	 * Parses a bracketed index such as the <code>1</code> in
+	 * <code>item [1]:</code>.
+	 *
+	 * @param line
+	 *            The line containing the index.
+	 * @param start
+	 *            The index of the first digit.
+	 * @param end
+	 *            The end of the line.
+	 * @return The parsed index.
+	 * @throws ParseException
+	 *             If the index is not a valid non-negative integer followed
+	 *             by <code>]</code>.
+	 */
+	private int parseIndex(final CharSequence line, final int start,
+			final int end) throws ParseException {
+		int indexEnd = start;
+		while (indexEnd < end && line.charAt(indexEnd) != ']') {
+			indexEnd++;
+		}
+		if (indexEnd >= end) {
+			throw createParseException("Unterminated index");
+		}
+		return parseInt(line, start, indexEnd);
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+
+import com.github.errantlinguist.textgrid.EntryCursor;
+import com.github.errantlinguist.textgrid.NamedTier;
+import com.github.errantlinguist.textgrid.TextGridFile;
+import com.github.errantlinguist.textgrid.TextGridListener;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.github.errantlinguist.time.DoubleDuration;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A writer for saving {@link TextGridFile} objects in any {@link TextGridFormat
+ * format} <a href="http://www.fon.hum.uva.nl/praat/">Praat</a> saves, which
+ * can be read by Praat itself as well as by the corresponding reader,
+ * e.g.&nbsp;an {@link AutoDetectingTextGridFileScanner} for both text formats.
+ * <p>
+ * The file is written by {@link #notifyListener(TextGridFile, TextGridListener)
+ * notifying} the {@link AbstractTextGridStreamWriter stream writer} of the
+ * format of the same events a reader would notify it of for the file, so the
+ * times of the entries are read through an {@link EntryCursor} without
+ * creating any duration objects.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ */
+public class TextGridFileWriter<D> {
+
+	/**
+	 * Counts the non-<code>null</code> elements of a {@link Collection}.
+	 *
+	 * @param elements
+	 *            The <code>Collection</code> to count the elements of.
+	 * @return The number of non-<code>null</code> elements.
+	 */
+	private static int countElements(final Collection<?> elements) {
+		int result = 0;
+		for (final Object element : elements) {
+			if (element != null) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Notifies a {@link TextGridListener} of the events describing a
+	 * {@link TextGridFile} in the same order as
+	 * {@link TextGridFileReader#read(java.io.InputStream)} does for the
+	 * corresponding file. Tiers and entries are numbered from 1 on regardless
+	 * of any <code>null</code> elements in their lists.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to describe.
+	 * @param listener
+	 *            The <code>TextGridListener</code> to notify.
+	 */
+	public static <D> void notifyListener(
+			final TextGridFile<? extends D> textGridFile,
+			final TextGridListener<? super D> listener) {
+		final DoubleDuration fileDuration = textGridFile.getDuration();
+		listener.notifyFileStartTime(fileDuration.getStartTimeValue());
+		listener.notifyFileEndTime(fileDuration.getEndTimeValue());
+		listener.notifyFileSize(countElements(textGridFile.getChildren()));
+		int tierIndex = 0;
+		for (final NamedTier<? extends D> tier : textGridFile.getChildren()) {
+			// The list of tiers is indexed from 1 like in the file itself
+			if (tier != null) {
+				listener.notifyTierIndex(++tierIndex);
+				notifyListener(tier, listener);
+			}
+		}
+	}
+
+	/**
+	 * Notifies a {@link TextGridListener} of the events describing a single
+	 * tier, starting with its class.
+	 *
+	 * @param tier
+	 *            The {@link NamedTier} to describe.
+	 * @param listener
+	 *            The <code>TextGridListener</code> to notify.
+	 */
+	private static <D> void notifyListener(final NamedTier<? extends D> tier,
+			final TextGridListener<? super D> listener) {
+		final TierClass tierClass = tier.getTierClass();
+		listener.notifyTierClass(tierClass);
+		listener.notifyTierName(tier.getName());
+		final DoubleDuration tierDuration = tier.getDuration();
+		listener.notifyTierStartTime(tierDuration.getStartTimeValue());
+		listener.notifyTierEndTime(tierDuration.getEndTimeValue());
+		final int entryCount = countElements(tier.getChildren());
+		final EntryCursor<? extends D> cursor = tier.createCursor();
+		int entryIndex = 0;
+		switch (tierClass) {
+		case INTERVAL:
+			listener.notifyTierIntervalCount(entryCount);
+			while (cursor.next()) {
+				listener.notifyIntervalIndex(++entryIndex);
+				listener.notifyIntervalStartTime(cursor.getStartTimeValue());
+				listener.notifyIntervalEndTime(cursor.getEndTimeValue());
+				listener.notifyIntervalData(cursor.getData());
+			}
+			break;
+		case TEXT:
+			listener.notifyTierPointCount(entryCount);
+			while (cursor.next()) {
+				listener.notifyPointIndex(++entryIndex);
+				listener.notifyPointTime(cursor.getStartTimeValue());
+				listener.notifyPointData(cursor.getData());
+			}
+			break;
+		default:
+			throw new AssertionError("No logic for handling tier class: "
+					+ tierClass);
+		}
+	}
+
+	/**
+	 * The {@link Function} used for converting entry annotation data to the
+	 * strings written to the file.
+	 */
+	private final Function<? super D, String> dataFormatter;
+
+	/**
+	 * The {@link TextGridFormat} files are written in.
+	 */
+	private final TextGridFormat format;
+
+	/**
+	 * Creates a writer which writes the {@link Object#toString() string
+	 * representation} of each entry annotation datum in the
+	 * {@link TextGridFormat#LONG_TEXT long text format}.
+	 */
+	public TextGridFileWriter() {
+		this(Functions.toStringFunction());
+	}
+
+	/**
+	 * Creates a writer which writes files in the
+	 * {@link TextGridFormat#LONG_TEXT long text format}.
+	 *
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public TextGridFileWriter(final Function<? super D, String> dataFormatter) {
+		this(TextGridFormat.LONG_TEXT, dataFormatter);
+	}
+
+	/**
+	 *
+	 * @param format
+	 *            The {@link TextGridFormat} files are written in.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public TextGridFileWriter(final TextGridFormat format,
+			final Function<? super D, String> dataFormatter) {
+		this.format = format;
+		this.dataFormatter = dataFormatter;
+	}
+
+	/**
+	 * Creates a {@link AbstractTextGridStreamWriter stream writer} which
+	 * writes events to an {@link OutputStream} in the format and using the
+	 * data formatter of this writer, e.g.&nbsp;for registering it with a
+	 * reader in order to transcode a file without reading it into memory.
+	 *
+	 * @param output
+	 *            The <code>OutputStream</code> to write to.
+	 * @return A new <code>AbstractTextGridStreamWriter</code>.
+	 */
+	public AbstractTextGridStreamWriter<D> createStreamWriter(
+			final OutputStream output) {
+		final AbstractTextGridStreamWriter<D> result;
+		switch (format) {
+		case BINARY:
+			result = new BinaryTextGridStreamWriter<D>(output, dataFormatter);
+			break;
+		case LONG_TEXT:
+			result = new TextGridStreamWriter<D>(output, dataFormatter);
+			break;
+		case SHORT_TEXT:
+			result = new ShortTextGridStreamWriter<D>(output, dataFormatter);
+			break;
+		default:
+			throw new AssertionError("No logic for handling format: "
+					+ format);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The {@link TextGridFormat} files are written in.
+	 */
+	public TextGridFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the format of this writer to a file.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param outfile
+	 *            The file to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final File outfile) throws IOException {
+		final OutputStream output = new FileOutputStream(outfile);
+		try {
+			write(textGridFile, output);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the format of this writer to an
+	 * {@link OutputStream}, which is flushed but not closed.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param output
+	 *            The <code>OutputStream</code> to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final OutputStream output) throws IOException {
+		final AbstractTextGridStreamWriter<D> writer = createStreamWriter(output);
+		notifyListener(textGridFile, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Writes a {@link TextGridFile} in the format of this writer to a
+	 * {@link WritableByteChannel}, which is not closed.
+	 *
+	 * @param textGridFile
+	 *            The <code>TextGridFile</code> to write.
+	 * @param channel
+	 *            The <code>WritableByteChannel</code> to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final TextGridFile<? extends D> textGridFile,
+			final WritableByteChannel channel) throws IOException {
+		// The stream wraps each buffer written to it without copying it
+		write(textGridFile, Channels.newOutputStream(channel));
+	}
+
+}
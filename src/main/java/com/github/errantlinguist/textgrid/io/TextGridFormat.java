@@ -0,0 +1,112 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The formats in which <a href="http://www.fon.hum.uva.nl/praat/">Praat</a>
+ * saves TextGrid files.
+ *
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public enum TextGridFormat {
+	/**
+	 * The binary format, in which the values are stored in the same order as
+	 * in {@link #SHORT_TEXT} but as big-endian numbers and length-prefixed
+	 * strings.
+	 * <p>
+	 * <strong>NOTE:</strong> Binary files have no <code>File type</code>
+	 * header line but rather start directly with the bytes of the file type.
+	 * </p>
+	 */
+	BINARY("ooBinaryFile"),
+	/**
+	 * The "text file" format, in which each value is preceded by a key such as
+	 * <code>xmin =</code> and indented according to its nesting.
+	 */
+	LONG_TEXT("ooTextFile"),
+	/**
+	 * The "short text file" format, in which each value is on a line of its
+	 * own without any key or indentation.
+	 * <p>
+	 * <strong>NOTE:</strong> Newer versions of Praat write the same
+	 * <code>File type</code> header as for {@link #LONG_TEXT} for this format
+	 * as well, so it can only be distinguished from it by the first value
+	 * following the header.
+	 * </p>
+	 */
+	SHORT_TEXT("ooTextFile short");
+
+	private static final Map<String, TextGridFormat> FILE_TYPE_INSTANCES = createFileTypeMap();
+
+	/**
+	 * Gets the {@link TextGridFormat} denoted by the given value of the
+	 * <code>File type</code> header of a file.
+	 *
+	 * @param fileType
+	 *            The <code>File type</code> header value.
+	 * @return The <code>TextGridFormat</code> associated with the value, or
+	 *         <code>null</code> if there is none.
+	 */
+	public static TextGridFormat getInstance(final String fileType) {
+		return FILE_TYPE_INSTANCES.get(fileType);
+	}
+
+	/**
+	 *
+	 * @return A new {@link Map} of {@link TextGridFormat#getFileType() file
+	 *         types} mapped to their corresponding {@code TextGridFormat}
+	 *         instances.
+	 */
+	private static final Map<String, TextGridFormat> createFileTypeMap() {
+		final Map<String, TextGridFormat> result = new HashMap<String, TextGridFormat>(
+				TextGridFormat.values().length);
+		for (final TextGridFormat format : TextGridFormat.values()) {
+			result.put(format.getFileType(), format);
+		}
+		return result;
+	}
+
+	/**
+	 * The value of the <code>File type</code> header denoting the format.
+	 */
+	private final String fileType;
+
+	/**
+	 *
+	 * @param fileType
+	 *            The value of the <code>File type</code> header denoting the
+	 *            format.
+	 */
+	private TextGridFormat(final String fileType) {
+		this.fileType = fileType;
+	}
+
+	/**
+	 *
+	 * @return The value of the <code>File type</code> header denoting the
+	 *         format.
+	 */
+	public String getFileType() {
+		return fileType;
+	}
+
+}
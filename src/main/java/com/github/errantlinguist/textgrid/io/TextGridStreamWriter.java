@@ -0,0 +1,296 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.errantlinguist.io.TextOutputBuffer;
+import com.github.errantlinguist.textgrid.TierClass;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+/**
+ * A {@link AbstractTextGridStreamWriter stream writer} which writes TextGrid
+ * events in the long <a href="http://www.fon.hum.uva.nl/praat/">Praat</a>
+ * text format, which can be read by a {@link TextGridFileScanner}:
+ * <pre>
+ * final TextGridStreamWriter&lt;String&gt; writer = new TextGridStreamWriter&lt;String&gt;(output);
+ * new TextGridFileScanner&lt;String&gt;(parser, writer).read(input);
+ * writer.flush();
+ * </pre>
+ * <p>
+ * The file is encoded in UTF-8 through a {@link TextOutputBuffer}; Quotation
+ * marks in strings are doubled as Praat does. Point times are written with the
+ * key <code>time</code>, which {@link TextGridFileReader} expects, rather than
+ * <code>number</code>; Praat itself ignores the keys when reading.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-16
+ * @since 2014-02-16
+ *
+ * @param <D>
+ *            The type of the annotation data.
+ *
+ * @see TextGridFileWriter
+ */
+public class TextGridStreamWriter<D> extends AbstractTextGridStreamWriter<D> {
+
+	private static final String CLASS_KEY = "        class = ";
+
+	private static final String ENTRY_END_TIME_KEY = "            xmax = ";
+
+	private static final String ENTRY_START_TIME_KEY = "            xmin = ";
+
+	private static final String FILE_END_TIME_KEY = "xmax = ";
+
+	private static final String FILE_START_TIME_KEY = "xmin = ";
+
+	private static final String INTERVAL_COUNT_KEY = "        intervals: size = ";
+
+	private static final String INTERVAL_INDEX_KEY = "        intervals [";
+
+	private static final String INTERVAL_TEXT_KEY = "            text = ";
+
+	private static final String NAME_KEY = "        name = ";
+
+	private static final String POINT_COUNT_KEY = "        points: size = ";
+
+	private static final String POINT_INDEX_KEY = "        points [";
+
+	private static final String POINT_MARK_KEY = "            mark = ";
+
+	private static final String POINT_TIME_KEY = "            time = ";
+
+	private static final String SIZE_KEY = "size = ";
+
+	private static final String TIER_END_TIME_KEY = "        xmax = ";
+
+	private static final String TIER_INDEX_KEY = "    item [";
+
+	private static final String TIER_LIST_LINE = "item []: ";
+
+	private static final String TIER_START_TIME_KEY = "        xmin = ";
+
+	private static final String TIERS_EXIST_LINE = "tiers? <exists> ";
+
+	/**
+	 * The {@link TextOutputBuffer} the file is written to.
+	 */
+	private final TextOutputBuffer buffer;
+
+	/**
+	 * Creates a writer which writes the {@link Object#toString() string
+	 * representation} of each entry annotation datum.
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 */
+	public TextGridStreamWriter(final OutputStream output) {
+		this(output, Functions.toStringFunction());
+	}
+
+	/**
+	 *
+	 * @param output
+	 *            The {@link OutputStream} to write to.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public TextGridStreamWriter(final OutputStream output,
+			final Function<? super D, String> dataFormatter) {
+		this(new TextOutputBuffer(output), dataFormatter);
+	}
+
+	/**
+	 *
+	 * @param buffer
+	 *            The {@link TextOutputBuffer} to write to.
+	 * @param dataFormatter
+	 *            The {@link Function} used for converting entry annotation
+	 *            data to the strings written to the file.
+	 */
+	public TextGridStreamWriter(final TextOutputBuffer buffer,
+			final Function<? super D, String> dataFormatter) {
+		super(dataFormatter);
+		this.buffer = buffer;
+	}
+
+	@Override
+	protected void closeOutput() throws IOException {
+		buffer.close();
+	}
+
+	@Override
+	protected void flushOutput() throws IOException {
+		buffer.flush();
+	}
+
+	@Override
+	protected void writeFileEndTime(final double time) throws IOException {
+		writeDouble(FILE_END_TIME_KEY, time);
+	}
+
+	@Override
+	protected void writeFileSize(final int size) throws IOException {
+		buffer.append(TIERS_EXIST_LINE).append('\n');
+		writeInt(SIZE_KEY, size);
+		buffer.append(TIER_LIST_LINE).append('\n');
+	}
+
+	@Override
+	protected void writeFileStartTime(final double time) throws IOException {
+		appendHeader(buffer);
+		writeDouble(FILE_START_TIME_KEY, time);
+	}
+
+	@Override
+	protected void writeIntervalData(final String text) throws IOException {
+		writeQuoted(INTERVAL_TEXT_KEY, text);
+	}
+
+	@Override
+	protected void writeIntervalEndTime(final double time) throws IOException {
+		writeDouble(ENTRY_END_TIME_KEY, time);
+	}
+
+	@Override
+	protected void writeIntervalIndex(final int index) throws IOException {
+		writeIndex(INTERVAL_INDEX_KEY, index);
+	}
+
+	@Override
+	protected void writeIntervalStartTime(final double time)
+			throws IOException {
+		writeDouble(ENTRY_START_TIME_KEY, time);
+	}
+
+	@Override
+	protected void writePointData(final String text) throws IOException {
+		writeQuoted(POINT_MARK_KEY, text);
+	}
+
+	@Override
+	protected void writePointIndex(final int index) throws IOException {
+		writeIndex(POINT_INDEX_KEY, index);
+	}
+
+	@Override
+	protected void writePointTime(final double time) throws IOException {
+		writeDouble(POINT_TIME_KEY, time);
+	}
+
+	@Override
+	protected void writeTierClass(final TierClass tierClass)
+			throws IOException {
+		writeQuoted(CLASS_KEY, tierClass.getValue());
+	}
+
+	@Override
+	protected void writeTierEndTime(final double time) throws IOException {
+		writeDouble(TIER_END_TIME_KEY, time);
+	}
+
+	@Override
+	protected void writeTierIndex(final int index) throws IOException {
+		writeIndex(TIER_INDEX_KEY, index);
+	}
+
+	@Override
+	protected void writeTierIntervalCount(final int count) throws IOException {
+		writeInt(INTERVAL_COUNT_KEY, count);
+	}
+
+	@Override
+	protected void writeTierName(final String name) throws IOException {
+		writeQuoted(NAME_KEY, name);
+	}
+
+	@Override
+	protected void writeTierPointCount(final int count) throws IOException {
+		writeInt(POINT_COUNT_KEY, count);
+	}
+
+	@Override
+	protected void writeTierStartTime(final double time) throws IOException {
+		writeDouble(TIER_START_TIME_KEY, time);
+	}
+
+	/**
+	 * Writes a line consisting of a key and a <code>double</code> value.
+	 *
+	 * @param key
+	 *            The key, including its indentation.
+	 * @param value
+	 *            The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeDouble(final String key, final double value)
+			throws IOException {
+		buffer.append(key).appendDouble(value).append(" \n");
+	}
+
+	/**
+	 * Writes the header line of an indexed object such as
+	 * <code>item [1]:</code>.
+	 *
+	 * @param key
+	 *            The key before the index, including its indentation.
+	 * @param index
+	 *            The index.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeIndex(final String key, final int index)
+			throws IOException {
+		buffer.append(key).appendInt(index).append("]:\n");
+	}
+
+	/**
+	 * Writes a line consisting of a key and an <code>int</code> value.
+	 *
+	 * @param key
+	 *            The key, including its indentation.
+	 * @param value
+	 *            The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeInt(final String key, final int value)
+			throws IOException {
+		buffer.append(key).appendInt(value).append(" \n");
+	}
+
+	/**
+	 * Writes a line consisting of a key and a quoted string value.
+	 *
+	 * @param key
+	 *            The key, including its indentation.
+	 * @param value
+	 *            The value.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeQuoted(final String key, final String value)
+			throws IOException {
+		appendQuoted(buffer.append(key), value);
+		buffer.append(" \n");
+	}
+
+}
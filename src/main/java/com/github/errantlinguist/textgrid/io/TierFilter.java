@@ -0,0 +1,56 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * A filter for selecting which tiers of a TextGrid file are read; The entries
+ * of rejected tiers are skipped without being parsed. Accepted tiers keep the
+ * index they have in the file, so e.g.&nbsp;reading only the second tier of a
+ * file results in a {@link com.github.errantlinguist.textgrid.TextGridFile}
+ * without a first tier.
+ * <p>
+ * Apart from the {@link SnapshotTextGridFileReader}, readers notify their
+ * listener of the number of all tiers in the file, which they read before
+ * any tier is accepted or rejected; An
+ * {@link AbstractTextGridStreamWriter} writing a filtered file must therefore
+ * be {@link AbstractTextGridStreamWriter#setBuffered(boolean) buffered} so
+ * that it writes the number of tiers it was actually notified of.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ * @see TierFilters
+ */
+public interface TierFilter {
+
+	/**
+	 * Decides if a given tier should be read.
+	 *
+	 * @param index
+	 *            The 1-based index of the tier in its file.
+	 * @param tierClass
+	 *            The {@link TierClass} of the tier.
+	 * @param name
+	 *            The name of the tier.
+	 * @return <code>true</code> iff the tier should be read.
+	 */
+	boolean accept(int index, TierClass tierClass, String name);
+
+}
@@ -0,0 +1,164 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.textgrid.io;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.github.errantlinguist.textgrid.TierClass;
+
+/**
+ * Static factory methods for common {@link TierFilter} instances.
+ *
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * @version 2014-02-15
+ * @since 2014-02-15
+ *
+ */
+public final class TierFilters {
+
+	/**
+	 * A {@link TierFilter} which accepts every tier.
+	 */
+	private static final TierFilter ALL = new TierFilter() {
+
+		@Override
+		public boolean accept(final int index, final TierClass tierClass,
+				final String name) {
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "TierFilters.all()";
+		}
+
+	};
+
+	/**
+	 * @return A {@link TierFilter} which accepts every tier.
+	 */
+	public static TierFilter all() {
+		return ALL;
+	}
+
+	/**
+	 * Creates a {@link TierFilter} which accepts tiers at any of the given
+	 * indices.
+	 *
+	 * @param indices
+	 *            The 1-based indices of the tiers to accept.
+	 * @return A new <code>TierFilter</code>.
+	 */
+	public static TierFilter byIndex(final int... indices) {
+		final BitSet acceptedIndices = new BitSet();
+		for (final int index : indices) {
+			acceptedIndices.set(index);
+		}
+		return new TierFilter() {
+
+			@Override
+			public boolean accept(final int index, final TierClass tierClass,
+					final String name) {
+				return index >= 0 && acceptedIndices.get(index);
+			}
+
+			@Override
+			public String toString() {
+				return "TierFilters.byIndex(" + acceptedIndices + ")";
+			}
+
+		};
+	}
+
+	/**
+	 * Creates a {@link TierFilter} which accepts tiers with any of the given
+	 * names.
+	 *
+	 * @param names
+	 *            The names of the tiers to accept.
+	 * @return A new <code>TierFilter</code>.
+	 */
+	public static TierFilter byName(final Collection<String> names) {
+		final Set<String> acceptedNames = new HashSet<String>(names);
+		return new TierFilter() {
+
+			@Override
+			public boolean accept(final int index, final TierClass tierClass,
+					final String name) {
+				return acceptedNames.contains(name);
+			}
+
+			@Override
+			public String toString() {
+				return "TierFilters.byName(" + acceptedNames + ")";
+			}
+
+		};
+	}
+
+	/**
+	 * Creates a {@link TierFilter} which accepts tiers with any of the given
+	 * names.
+	 *
+	 * @param names
+	 *            The names of the tiers to accept.
+	 * @return A new <code>TierFilter</code>.
+	 */
+	public static TierFilter byName(final String... names) {
+		return byName(Arrays.asList(names));
+	}
+
+	/**
+	 * Creates a {@link TierFilter} which accepts tiers of any of the given
+	 * classes.
+	 *
+	 * @param tierClass
+	 *            A {@link TierClass} of the tiers to accept.
+	 * @param tierClasses
+	 *            Any further <code>TierClass</code> instances of the tiers to
+	 *            accept.
+	 * @return A new <code>TierFilter</code>.
+	 */
+	public static TierFilter byTierClass(final TierClass tierClass,
+			final TierClass... tierClasses) {
+		final Set<TierClass> acceptedTierClasses = EnumSet.of(tierClass,
+				tierClasses);
+		return new TierFilter() {
+
+			@Override
+			public boolean accept(final int index, final TierClass tierClass,
+					final String name) {
+				return acceptedTierClasses.contains(tierClass);
+			}
+
+			@Override
+			public String toString() {
+				return "TierFilters.byTierClass(" + acceptedTierClasses + ")";
+			}
+
+		};
+	}
+
+	private TierFilters() {
+		// Avoid instantiation
+	}
+
+}
@@ -29,15 +29,12 @@ public abstract class AbstractDoubleDuration implements DoubleDuration {
 
 	@Override
 	public int compareTo(final DoubleDuration o) {
-		int result;
+		final int result;
 
 		if (this == o) {
 			result = 0;
 		} else {
-			result = Double.compare(getStartTimeValue(), o.getStartTimeValue());
-			if (result == 0) {
-				result = Double.compare(getEndTimeValue(), o.getEndTimeValue());
-			}
+			result = DoubleDurations.compare(this, o);
 		}
 
 		return result;
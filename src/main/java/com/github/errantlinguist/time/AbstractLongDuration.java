@@ -0,0 +1,90 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.time;
+
+/**
+ * An abstract class providing default behaviour for the {@link LongDuration}
+ * interface.
+ *
+ * @since 2014-02-16
+ * @version 2014-02-16
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ *
+ */
+public abstract class AbstractLongDuration implements LongDuration {
+
+	@Override
+	public int compareTo(final LongDuration o) {
+		int result;
+
+		if (this == o) {
+			result = 0;
+		} else {
+			result = Long.compare(getStartTimeValue(), o.getStartTimeValue());
+			if (result == 0) {
+				result = Long.compare(getEndTimeValue(), o.getEndTimeValue());
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof AbstractLongDuration) {
+			final AbstractLongDuration other = (AbstractLongDuration) obj;
+			result = getStartTimeValue() == other.getStartTimeValue()
+					&& getEndTimeValue() == other.getEndTimeValue();
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return The same value as returned by {@link #getEndTimeValue()}.
+	 */
+	@Override
+	public Long getEndTime() {
+		return getEndTimeValue();
+	}
+
+	/**
+	 * @return The same value as returned by {@link #getStartTimeValue()}.
+	 */
+	@Override
+	public Long getStartTime() {
+		return getStartTimeValue();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		final long endTime = getEndTimeValue();
+		result = (prime * result) + (int) (endTime ^ (endTime >>> 32));
+		final long startTime = getStartTimeValue();
+		result = (prime * result) + (int) (startTime ^ (startTime >>> 32));
+		return result;
+	}
+
+}
@@ -0,0 +1,235 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.time;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Static utility methods for {@link DoubleDuration} and
+ * {@link DoubleDurative} objects which only ever use their primitive
+ * {@code double} times, so that neither comparing nor measuring them boxes
+ * any values, unlike going through the {@link Duration}<code>&lt;Double&gt;</code>
+ * methods.
+ * 
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * 
+ */
+public final class DoubleDurations {
+
+	/**
+	 * A {@link Comparator} of {@link DoubleDurative} objects by the
+	 * {@link DoubleDuration#compareTo(DoubleDuration) natural ordering} of
+	 * their durations.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @since 2014-02-15
+	 * 
+	 */
+	private static final class DurativeComparator implements
+			Comparator<DoubleDurative>, Serializable {
+
+		/**
+		 * The serial version UID for use in {@link Serializable
+		 * serialization}.
+		 */
+		private static final long serialVersionUID = 4046813398716052302L;
+
+		@Override
+		public int compare(final DoubleDurative o1, final DoubleDurative o2) {
+			return DoubleDurations.compare(o1.getDuration(), o2.getDuration());
+		}
+
+	}
+
+	/**
+	 * A {@link Comparator} of {@link DoubleDuration} objects by end time and
+	 * then by start time.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @since 2014-02-15
+	 * 
+	 */
+	private static final class EndTimeComparator implements
+			Comparator<DoubleDuration>, Serializable {
+
+		/**
+		 * The serial version UID for use in {@link Serializable
+		 * serialization}.
+		 */
+		private static final long serialVersionUID = -7340978734870331781L;
+
+		@Override
+		public int compare(final DoubleDuration o1, final DoubleDuration o2) {
+			int result = Double.compare(o1.getEndTimeValue(),
+					o2.getEndTimeValue());
+			if (result == 0) {
+				result = Double.compare(o1.getStartTimeValue(),
+						o2.getStartTimeValue());
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * A {@link Comparator} of {@link DoubleDuration} objects by
+	 * {@link DoubleDurations#getLength(DoubleDuration) length} and then by
+	 * their natural ordering.
+	 * 
+	 * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+	 * @since 2014-02-15
+	 * 
+	 */
+	private static final class LengthComparator implements
+			Comparator<DoubleDuration>, Serializable {
+
+		/**
+		 * The serial version UID for use in {@link Serializable
+		 * serialization}.
+		 */
+		private static final long serialVersionUID = 2163906870133391370L;
+
+		@Override
+		public int compare(final DoubleDuration o1, final DoubleDuration o2) {
+			int result = Double.compare(getLength(o1), getLength(o2));
+			if (result == 0) {
+				result = DoubleDurations.compare(o1, o2);
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * The singleton instance of {@link DurativeComparator}.
+	 */
+	private static final Comparator<DoubleDurative> DURATIVE_COMPARATOR = new DurativeComparator();
+
+	/**
+	 * The singleton instance of {@link EndTimeComparator}.
+	 */
+	private static final Comparator<DoubleDuration> END_TIME_COMPARATOR = new EndTimeComparator();
+
+	/**
+	 * The singleton instance of {@link LengthComparator}.
+	 */
+	private static final Comparator<DoubleDuration> LENGTH_COMPARATOR = new LengthComparator();
+
+	/**
+	 * Compares two durations by start time and then by end time, which is the
+	 * {@link DoubleDuration#compareTo(DoubleDuration) natural ordering} of
+	 * {@link DoubleDuration} objects.
+	 * 
+	 * @param startTime1
+	 *            The start time of the first duration.
+	 * @param endTime1
+	 *            The end time of the first duration.
+	 * @param startTime2
+	 *            The start time of the second duration.
+	 * @param endTime2
+	 *            The end time of the second duration.
+	 * @return A negative integer, zero, or a positive integer as the first
+	 *         duration is less than, equal to, or greater than the second.
+	 */
+	public static int compare(final double startTime1, final double endTime1,
+			final double startTime2, final double endTime2) {
+		int result = Double.compare(startTime1, startTime2);
+		if (result == 0) {
+			result = Double.compare(endTime1, endTime2);
+		}
+		return result;
+	}
+
+	/**
+	 * Compares two {@link DoubleDuration} objects by their natural ordering.
+	 * 
+	 * @param o1
+	 *            The first duration.
+	 * @param o2
+	 *            The second duration.
+	 * @return A negative integer, zero, or a positive integer as the first
+	 *         duration is less than, equal to, or greater than the second.
+	 * @see #compare(double, double, double, double)
+	 */
+	public static int compare(final DoubleDuration o1, final DoubleDuration o2) {
+		return compare(o1.getStartTimeValue(), o1.getEndTimeValue(),
+				o2.getStartTimeValue(), o2.getEndTimeValue());
+	}
+
+	/**
+	 * Checks if a {@link DoubleDuration} contains a given time, including its
+	 * start and end times.
+	 * 
+	 * @param duration
+	 *            The duration to check.
+	 * @param time
+	 *            The time to check.
+	 * @return <code>true</code> iff the time is neither before the start time
+	 *         nor after the end time of the duration.
+	 */
+	public static boolean contains(final DoubleDuration duration,
+			final double time) {
+		return duration.getStartTimeValue() <= time
+				&& time <= duration.getEndTimeValue();
+	}
+
+	/**
+	 * 
+	 * @return A {@link Comparator} of {@link DoubleDurative} objects,
+	 *         e.g.&nbsp;entries, by the natural ordering of their durations.
+	 */
+	public static Comparator<DoubleDurative> durativeComparator() {
+		return DURATIVE_COMPARATOR;
+	}
+
+	/**
+	 * 
+	 * @return A {@link Comparator} of {@link DoubleDuration} objects by end
+	 *         time and then by start time.
+	 */
+	public static Comparator<DoubleDuration> endTimeComparator() {
+		return END_TIME_COMPARATOR;
+	}
+
+	/**
+	 * 
+	 * @param duration
+	 *            A {@link DoubleDuration}.
+	 * @return The difference between the end time and the start time of the
+	 *         duration.
+	 */
+	public static double getLength(final DoubleDuration duration) {
+		return duration.getEndTimeValue() - duration.getStartTimeValue();
+	}
+
+	/**
+	 * 
+	 * @return A {@link Comparator} of {@link DoubleDuration} objects by
+	 *         {@link #getLength(DoubleDuration) length} and then by their
+	 *         natural ordering.
+	 */
+	public static Comparator<DoubleDuration> lengthComparator() {
+		return LENGTH_COMPARATOR;
+	}
+
+	private DoubleDurations() {
+		// Avoid instantiation
+	}
+
+}
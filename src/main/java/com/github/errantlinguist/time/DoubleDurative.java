@@ -0,0 +1,36 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.time;
+
+/**
+ * An object with a {@link DoubleDuration}, the times of which can be read as
+ * primitive {@code double} values without boxing them.
+ * 
+ * @since 2014-02-15
+ * @version 2014-02-15
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ * 
+ */
+public interface DoubleDurative extends Durative<Double> {
+
+	/**
+	 * 
+	 * @return The duration.
+	 */
+	@Override
+	DoubleDuration getDuration();
+
+}
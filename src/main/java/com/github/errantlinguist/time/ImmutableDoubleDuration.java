@@ -16,10 +16,12 @@
 package com.github.errantlinguist.time;
 
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * An immutable implementation of {@link DoubleDuration}.
+ * <p>
+ * The hash code is cached on creation and recalculated when deserializing.
+ * </p>
  * 
  * @since 2014-02-06
  * @version 2014-02-06
@@ -99,9 +101,9 @@ public final class ImmutableDoubleDuration extends AbstractDoubleDuration
 	@Override
 	public String toString() {
 		final String startTimePrefix = "ImmutableDoubleDuration [getStartTime()=";
-		final String startTimeStr = Objects.toString(getStartTime());
+		final String startTimeStr = Double.toString(getStartTimeValue());
 		final String endTimePrefix = ", getEndTime()=";
-		final String endTimeStr = Objects.toString(getEndTime());
+		final String endTimeStr = Double.toString(getEndTimeValue());
 		final char suffix = ']';
 
 		final StringBuilder builder = new StringBuilder(
@@ -117,4 +119,15 @@ public final class ImmutableDoubleDuration extends AbstractDoubleDuration
 		return builder.toString();
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Replaces a deserialized instance, the cached hash code of which has not
+	 * been calculated, with a new one.
+	 * 
+	 * @return A new <code>ImmutableDoubleDuration</code> with the same times.
+	 */
+	private Object readResolve() {
+		return new ImmutableDoubleDuration(startTime, endTime);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.time;
+
+import java.io.Serializable;
+
+/**
+ * An immutable implementation of {@link LongDuration}.
+ *
+ * @since 2014-02-16
+ * @version 2014-02-16
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ *
+ */
+public final class ImmutableLongDuration extends AbstractLongDuration
+		implements Serializable {
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = 5210667302446016436L;
+
+	/**
+	 * The end time in ticks.
+	 */
+	private final long endTime;
+
+	/**
+	 * The start time in ticks.
+	 */
+	private final long startTime;
+
+	/**
+	 * @param startTime
+	 *            The start time in ticks.
+	 * @param endTime
+	 *            The end time in ticks.
+	 */
+	public ImmutableLongDuration(final long startTime, final long endTime) {
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	@Override
+	public long getEndTimeValue() {
+		return endTime;
+	}
+
+	@Override
+	public long getStartTimeValue() {
+		return startTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(80);
+		builder.append("ImmutableLongDuration [getStartTime()=");
+		builder.append(startTime);
+		builder.append(", getEndTime()=");
+		builder.append(endTime);
+		builder.append(']');
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.time;
+
+/**
+ * A {@link Duration} which stores times as {@code long} counts of ticks of a
+ * {@link TickScale}, which can be compared and hashed exactly.
+ *
+ * @since 2014-02-16
+ * @version 2014-02-16
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ *
+ */
+public interface LongDuration extends Duration<Long>, Comparable<LongDuration> {
+
+	/**
+	 * @return The end time in ticks.
+	 */
+	long getEndTimeValue();
+
+	/**
+	 * @return The start time in ticks.
+	 */
+	long getStartTimeValue();
+
+}
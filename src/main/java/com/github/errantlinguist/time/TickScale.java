@@ -0,0 +1,151 @@
+/*
+ * 	Copyright 2014 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.time;
+
+import java.io.Serializable;
+
+/**
+ * A fixed rate of ticks per second, e.g.&nbsp;one tick per microsecond or one
+ * tick per audio sample, which converts times in seconds as used in TextGrid
+ * files to and from {@code long} tick counts as used by {@link LongDuration}.
+ * <p>
+ * Converting seconds to ticks rounds to the nearest tick, so a time in seconds
+ * survives a round trip through ticks only if it lies on the tick grid.
+ * </p>
+ *
+ * @since 2014-02-16
+ * @version 2014-02-16
+ * @author <a href="mailto:errantlinguist+github@gmail.com">Todd Shore</a>
+ *
+ */
+public final class TickScale implements Serializable {
+
+	/**
+	 * A scale of one tick per microsecond.
+	 */
+	public static final TickScale MICROSECONDS = new TickScale(1000000L);
+
+	/**
+	 * A scale of one tick per millisecond.
+	 */
+	public static final TickScale MILLISECONDS = new TickScale(1000L);
+
+	/**
+	 * The serial version UID for use in {@link Serializable serialization}.
+	 */
+	private static final long serialVersionUID = -1569873357218950475L;
+
+	/**
+	 * The number of ticks per second.
+	 */
+	private final long ticksPerSecond;
+
+	/**
+	 *
+	 * @param ticksPerSecond
+	 *            The number of ticks per second, e.g.&nbsp;the sample rate of
+	 *            the audio the TextGrid files annotate.
+	 * @throws IllegalArgumentException
+	 *             If the number of ticks per second is not positive.
+	 */
+	public TickScale(final long ticksPerSecond) {
+		if (ticksPerSecond < 1) {
+			throw new IllegalArgumentException(
+					"Number of ticks per second must be positive but was "
+							+ ticksPerSecond + ".");
+		}
+		this.ticksPerSecond = ticksPerSecond;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof TickScale) {
+			result = ticksPerSecond == ((TickScale) obj).ticksPerSecond;
+		} else {
+			result = false;
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of ticks per second.
+	 */
+	public long getTicksPerSecond() {
+		return ticksPerSecond;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (ticksPerSecond ^ (ticksPerSecond >>> 32));
+	}
+
+	/**
+	 * Converts a {@link LongDuration} in ticks to a {@link DoubleDuration} in
+	 * seconds.
+	 *
+	 * @param duration
+	 *            The duration to convert.
+	 * @return A new {@link ImmutableDoubleDuration} with the converted times.
+	 */
+	public ImmutableDoubleDuration toDoubleDuration(final LongDuration duration) {
+		return new ImmutableDoubleDuration(
+				toSeconds(duration.getStartTimeValue()),
+				toSeconds(duration.getEndTimeValue()));
+	}
+
+	/**
+	 * Converts a {@link DoubleDuration} in seconds to a {@link LongDuration}
+	 * in ticks.
+	 *
+	 * @param duration
+	 *            The duration to convert.
+	 * @return A new {@link ImmutableLongDuration} with the converted times.
+	 */
+	public ImmutableLongDuration toLongDuration(final DoubleDuration duration) {
+		return new ImmutableLongDuration(
+				toTicks(duration.getStartTimeValue()),
+				toTicks(duration.getEndTimeValue()));
+	}
+
+	/**
+	 *
+	 * @param ticks
+	 *            A time in ticks.
+	 * @return The time in seconds.
+	 */
+	public double toSeconds(final long ticks) {
+		return ticks / (double) ticksPerSecond;
+	}
+
+	@Override
+	public String toString() {
+		return "TickScale [getTicksPerSecond()=" + ticksPerSecond + "]";
+	}
+
+	/**
+	 *
+	 * @param seconds
+	 *            A time in seconds.
+	 * @return The time in ticks, rounded to the nearest tick.
+	 */
+	public long toTicks(final double seconds) {
+		return Math.round(seconds * ticksPerSecond);
+	}
+
+}
@@ -113,7 +113,7 @@ public class ChildList<P, C extends MutableChild<? super P>> extends
 	private static final long serialVersionUID = -4657111513438335958L;
 
 	private static final <P, C extends MutableChild<? super P>> void setChildrenParent(
-			final Iterable<C> children, final P parent) {
+			final Iterable<? extends C> children, final P parent) {
 		for (final C child : children) {
 			if (child != null) {
 				child.setParent(parent);
@@ -162,15 +162,19 @@ public class ChildList<P, C extends MutableChild<? super P>> extends
 		element.setParent(parent);
 	}
 
+	/**
+	 * Appends all elements of a {@link Collection} and sets the parent of
+	 * each to the parent of this list in time linear to the size of the
+	 * <code>Collection</code>, regardless of the size of this list; This is
+	 * what e.g.&nbsp;{@link #ensureIndex(int)} uses for padding the list
+	 * with <code>null</code> references.
+	 */
 	@Override
 	public boolean addAll(final Collection<? extends C> c) {
-		final Set<? extends C> uniqueElementsToAdd = SetElements.difference(c,
-				this);
 		final boolean result = super.addAll(c);
 		if (result) {
-			final Set<C> uniqueAddedElements = SetElements.intersection(this,
-					uniqueElementsToAdd);
-			updateChildrenParent(uniqueAddedElements);
+			// Any element already in the list already has the same parent
+			setChildrenParent(c, parent);
 		}
 
 		return result;
@@ -178,13 +182,9 @@ public class ChildList<P, C extends MutableChild<? super P>> extends
 
 	@Override
 	public boolean addAll(final int index, final Collection<? extends C> c) {
-		final Set<? extends C> uniqueElementsToAdd = SetElements.difference(c,
-				this);
 		final boolean result = super.addAll(index, c);
 		if (result) {
-			final Set<C> uniqueAddedElements = SetElements.intersection(this,
-					uniqueElementsToAdd);
-			updateChildrenParent(uniqueAddedElements);
+			setChildrenParent(c, parent);
 		}
 
 		return result;
@@ -262,10 +262,13 @@ public class ChildList<P, C extends MutableChild<? super P>> extends
 
 	@Override
 	public C set(final int index, final C element) {
-		final C result = set(index, element);
-		if (result != null) {
+		final C result = super.set(index, element);
+		if (result != null && result != element) {
 			result.setParent(null);
 		}
+		if (element != null) {
+			element.setParent(parent);
+		}
 		return result;
 	}
 